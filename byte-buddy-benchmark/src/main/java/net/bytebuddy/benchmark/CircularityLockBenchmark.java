@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 - Present Rafael Winterhalter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.bytebuddy.benchmark;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * This benchmark measures the overhead of acquiring and releasing an {@link AgentBuilder.CircularityLock} as it is done
+ * by an agent's class file transformer for every loaded class. Each lock is shared by all benchmark threads such that
+ * running this benchmark with multiple threads, for example by setting JMH's {@code -t} option, measures the lock's
+ * scalability.
+ * </p>
+ * <p>
+ * Note that this class defines all values that are accessed by benchmark methods as instance fields. This way, the JIT
+ * compiler's capability of constant folding is limited in order to produce more comparable test results.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CircularityLockBenchmark {
+
+    /**
+     * A thread-local circularity lock.
+     */
+    private AgentBuilder.CircularityLock defaultLock = new AgentBuilder.CircularityLock.Default();
+
+    /**
+     * A global circularity lock.
+     */
+    private AgentBuilder.CircularityLock globalLock = new AgentBuilder.CircularityLock.Global();
+
+    /**
+     * A striped circularity lock.
+     */
+    private AgentBuilder.CircularityLock stripedLock = new AgentBuilder.CircularityLock.Striped();
+
+    /**
+     * Acquires and releases a circularity lock.
+     *
+     * @param circularityLock The circularity lock to use.
+     * @return {@code true} if the lock was acquired.
+     */
+    private static boolean cycle(AgentBuilder.CircularityLock circularityLock) {
+        if (circularityLock.acquire()) {
+            try {
+                return true;
+            } finally {
+                circularityLock.release();
+            }
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Performs a benchmark for a thread-local circularity lock.
+     *
+     * @return {@code true} if the lock was acquired, in order to avoid JIT removal.
+     */
+    @Benchmark
+    public boolean benchmarkDefault() {
+        return cycle(defaultLock);
+    }
+
+    /**
+     * Performs a benchmark for a global circularity lock.
+     *
+     * @return {@code true} if the lock was acquired, in order to avoid JIT removal.
+     */
+    @Benchmark
+    public boolean benchmarkGlobal() {
+        return cycle(globalLock);
+    }
+
+    /**
+     * Performs a benchmark for a striped circularity lock.
+     *
+     * @return {@code true} if the lock was acquired, in order to avoid JIT removal.
+     */
+    @Benchmark
+    public boolean benchmarkStriped() {
+        return cycle(stripedLock);
+    }
+}
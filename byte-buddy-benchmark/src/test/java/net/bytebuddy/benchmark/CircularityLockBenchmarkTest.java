@@ -0,0 +1,35 @@
+package net.bytebuddy.benchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CircularityLockBenchmarkTest {
+
+    private CircularityLockBenchmark circularityLockBenchmark;
+
+    @Before
+    public void setUp() throws Exception {
+        circularityLockBenchmark = new CircularityLockBenchmark();
+    }
+
+    @Test
+    public void testDefault() throws Exception {
+        assertThat(circularityLockBenchmark.benchmarkDefault(), is(true));
+        assertThat(circularityLockBenchmark.benchmarkDefault(), is(true));
+    }
+
+    @Test
+    public void testGlobal() throws Exception {
+        assertThat(circularityLockBenchmark.benchmarkGlobal(), is(true));
+        assertThat(circularityLockBenchmark.benchmarkGlobal(), is(true));
+    }
+
+    @Test
+    public void testStriped() throws Exception {
+        assertThat(circularityLockBenchmark.benchmarkStriped(), is(true));
+        assertThat(circularityLockBenchmark.benchmarkStriped(), is(true));
+    }
+}
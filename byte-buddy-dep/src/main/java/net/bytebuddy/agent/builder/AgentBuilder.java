@@ -22,6 +22,7 @@ import net.bytebuddy.NamingStrategy;
 import net.bytebuddy.asm.Advice;
 import net.bytebuddy.asm.AsmVisitorWrapper;
 import net.bytebuddy.build.AccessControllerPlugin;
+import net.bytebuddy.build.CachedReturnPlugin;
 import net.bytebuddy.build.EntryPoint;
 import net.bytebuddy.build.HashCodeAndEqualsPlugin;
 import net.bytebuddy.build.Plugin;
@@ -29,6 +30,7 @@ import net.bytebuddy.description.field.FieldDescription;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.method.ParameterDescription;
 import net.bytebuddy.description.modifier.*;
+import net.bytebuddy.description.type.PackageDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.*;
 import net.bytebuddy.dynamic.loading.ClassInjector;
@@ -57,14 +59,18 @@ import net.bytebuddy.implementation.bytecode.member.FieldAccess;
 import net.bytebuddy.implementation.bytecode.member.MethodInvocation;
 import net.bytebuddy.implementation.bytecode.member.MethodReturn;
 import net.bytebuddy.implementation.bytecode.member.MethodVariableAccess;
+import net.bytebuddy.matcher.AnnotationConstraint;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
 import net.bytebuddy.matcher.LatentMatcher;
+import net.bytebuddy.matcher.NameConstraint;
 import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.utility.ClassFileHeader;
 import net.bytebuddy.utility.CompoundList;
 import net.bytebuddy.utility.JavaConstant;
 import net.bytebuddy.utility.JavaModule;
 import net.bytebuddy.utility.JavaType;
+import net.bytebuddy.utility.StreamDrainer;
 import net.bytebuddy.utility.dispatcher.JavaDispatcher;
 import org.objectweb.asm.*;
 
@@ -73,17 +79,24 @@ import javax.annotation.Nullable;
 import javax.annotation.meta.When;
 import java.io.*;
 import java.lang.instrument.*;
+import java.lang.management.ManagementFactory;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivilegedAction;
 import java.security.ProtectionDomain;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 import static net.bytebuddy.matcher.ElementMatchers.*;
 
@@ -241,6 +254,32 @@ public interface AgentBuilder {
      */
     AgentBuilder with(ClassFileBufferStrategy classFileBufferStrategy);
 
+    /**
+     * Specifies a speculation strategy that allows the created class file transformer to transform types ahead of their loading.
+     *
+     * @param speculationStrategy The speculation strategy to use.
+     * @return A new agent builder that applies the supplied speculation strategy.
+     */
+    AgentBuilder with(SpeculationStrategy speculationStrategy);
+
+    /**
+     * Specifies a transformation cache that retains the class files that are created by the created class file transformer
+     * such that the transformation of an identical class file can be skipped.
+     *
+     * @param transformationCache The transformation cache to use.
+     * @return A new agent builder that applies the supplied transformation cache.
+     */
+    AgentBuilder with(TransformationCache transformationCache);
+
+    /**
+     * Specifies a transformation monitor that is notified about the time and the allocations that the created class file transformer
+     * spends in the different phases of transforming a type and in each transformation.
+     *
+     * @param transformationMonitor The transformation monitor to use.
+     * @return A new agent builder that applies the supplied transformation monitor.
+     */
+    AgentBuilder with(TransformationMonitor transformationMonitor);
+
     /**
      * Adds an installation listener that is notified during installation events. Installation listeners are only invoked if
      * a class file transformer is installed using this agent builder's installation methods and uninstalled via the created
@@ -829,6 +868,17 @@ public interface AgentBuilder {
      */
     interface RedefinitionListenable extends AgentBuilder {
 
+        /**
+         * Specifies a matching strategy that determines how loaded types are described and matched when they are considered for
+         * redefinition. By default, types are described and matched on the thread that applies the redefinition. Using a
+         * {@link RedefinitionStrategy.MatchingStrategy.Parallel} matching strategy, this work can be distributed over several
+         * threads while the redefinition itself is still applied serially.
+         *
+         * @param redefinitionMatchingStrategy The matching strategy to use.
+         * @return A new instance of this agent builder which makes use of the specified matching strategy.
+         */
+        RedefinitionListenable with(RedefinitionStrategy.MatchingStrategy redefinitionMatchingStrategy);
+
         /**
          * <p>
          * A redefinition listener is invoked before each batch of type redefinitions and on every error as well as
@@ -853,6 +903,26 @@ public interface AgentBuilder {
          */
         WithoutResubmissionSpecification withResubmission(RedefinitionStrategy.ResubmissionScheduler resubmissionScheduler);
 
+        /**
+         * <p>
+         * Specifies resubmission for given unloaded types or types that fail upon an exception during instrumentation. Types
+         * that are scheduled for resubmission are coalesced per class loader and are retransformed in batches as determined by
+         * the agent builder's {@link RedefinitionStrategy.BatchAllocator}.
+         * </p>
+         * <p>
+         * At most {@code maximumSize} types are queued for resubmission where any type beyond this limit is discarded. A type
+         * that should be resubmitted immediately is rather transformed upon its first load if the queue is full. If a resubmission
+         * yields an error, the following {@code 2^n - 1} scheduled resubmissions are skipped where {@code n} is the number of
+         * consecutively failed resubmissions, but never more than {@code maximumBackoff} resubmissions.
+         * </p>
+         *
+         * @param resubmissionScheduler The resubmission scheduler to use.
+         * @param maximumSize           The maximum number of types that are queued for resubmission.
+         * @param maximumBackoff        The maximum number of scheduled resubmissions that are skipped after a failed resubmission.
+         * @return A new builder to determine what types should be resubmitted given the supplied resubmission scheduler.
+         */
+        WithoutResubmissionSpecification withResubmission(RedefinitionStrategy.ResubmissionScheduler resubmissionScheduler, int maximumSize, int maximumBackoff);
+
         /**
          * A matcher that determines if types should be resubmitted if it is not yet loaded and if an exception is raised.
          */
@@ -2516,6 +2586,117 @@ public interface AgentBuilder {
                 lock.unlock();
             }
         }
+
+        /**
+         * <p>
+         * A circularity lock that does not rely on a {@link ThreadLocal} but records the identifiers of the threads that currently hold
+         * the lock in a striped array of atomic values that is indexed by a thread's identifier. If two threads that hold the lock at
+         * the same time map to the same slot, the latter thread records its identifier in a concurrent overflow map. As any slot is only
+         * ever claimed by its holder, a thread can always determine if it already holds the lock without synchronizing with other threads.
+         * </p>
+         * <p>
+         * This lock does not register a value with every thread that loads a class which avoids growing the thread-local maps of short-lived
+         * threads, such as virtual threads. Slots are padded to avoid false sharing between threads that hold the lock concurrently.
+         * </p>
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        class Striped implements CircularityLock {
+
+            /**
+             * The default number of slots.
+             */
+            public static final int DEFAULT_SIZE = 256;
+
+            /**
+             * The distance between two slots within the array to avoid false sharing of cache lines.
+             */
+            private static final int PADDING = 8;
+
+            /**
+             * Indicates that a slot is not currently claimed.
+             */
+            private static final long UNCLAIMED = 0L;
+
+            /**
+             * The slots that contain the identifiers of the threads that currently hold the lock.
+             */
+            private final AtomicLongArray slots;
+
+            /**
+             * A mask to compute a thread's slot.
+             */
+            private final int mask;
+
+            /**
+             * The identifiers of threads that hold the lock but whose slot was claimed by another thread.
+             */
+            private final ConcurrentMap<Long, Boolean> overflow;
+
+            /**
+             * Creates a new striped circularity lock with the default number of slots.
+             */
+            public Striped() {
+                this(DEFAULT_SIZE);
+            }
+
+            /**
+             * Creates a new striped circularity lock.
+             *
+             * @param size The minimal number of slots where the actual number is rounded up to the next power of two.
+             */
+            public Striped(int size) {
+                if (size < 1) {
+                    throw new IllegalArgumentException("Size must be positive: " + size);
+                }
+                int slots = 1;
+                while (slots < size) {
+                    slots <<= 1;
+                }
+                this.slots = new AtomicLongArray(slots * PADDING);
+                mask = slots - 1;
+                overflow = new ConcurrentHashMap<Long, Boolean>();
+            }
+
+            /**
+             * Returns the index of a thread's slot within the array of slots.
+             *
+             * @param identifier The thread's identifier.
+             * @return The index of the thread's slot.
+             */
+            private int toIndex(long identifier) {
+                int hash = (int) (identifier ^ (identifier >>> 32)) * 0x9E3779B9;
+                return ((hash ^ (hash >>> 16)) & mask) * PADDING;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public boolean acquire() {
+                long identifier = Thread.currentThread().getId();
+                int index = toIndex(identifier);
+                long owner = slots.get(index);
+                if (owner == identifier || (!overflow.isEmpty() && overflow.containsKey(identifier))) {
+                    return false;
+                } else if (owner == UNCLAIMED && slots.compareAndSet(index, UNCLAIMED, identifier)) {
+                    return true;
+                } else {
+                    return overflow.putIfAbsent(identifier, Boolean.TRUE) == null;
+                }
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public void release() {
+                long identifier = Thread.currentThread().getId();
+                int index = toIndex(identifier);
+                if (slots.get(index) == identifier) {
+                    slots.set(index, UNCLAIMED);
+                } else {
+                    overflow.remove(identifier);
+                }
+            }
+        }
     }
 
     /**
@@ -3238,6 +3419,65 @@ public interface AgentBuilder {
             }
         }
 
+        /**
+         * <p>
+         * A type locator that replays recordings of a {@link TypePool.Default.PersistentCache} rather than parsing class files, for example
+         * of a {@link TypePool.Default.PersistentCache.ForSnapshot} that was created at build time. Class files are still located to validate
+         * that a recording is up to date and are parsed if no valid recording is available.
+         * </p>
+         * <p>
+         * The returned type pool uses a {@link net.bytebuddy.pool.TypePool.CacheProvider.Simple} and the
+         * {@link ClassFileLocator} that is provided by the builder's {@link LocationStrategy}.
+         * </p>
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        class WithPersistentCache implements PoolStrategy {
+
+            /**
+             * The reader mode to use for parsing a class file.
+             */
+            private final TypePool.Default.ReaderMode readerMode;
+
+            /**
+             * The persistent cache to consult before parsing a class file.
+             */
+            private final TypePool.Default.PersistentCache persistentCache;
+
+            /**
+             * Creates a new pool strategy with a persistent cache that uses a fast {@link TypePool.Default.ReaderMode}.
+             *
+             * @param persistentCache The persistent cache to consult before parsing a class file.
+             */
+            public WithPersistentCache(TypePool.Default.PersistentCache persistentCache) {
+                this(TypePool.Default.ReaderMode.FAST, persistentCache);
+            }
+
+            /**
+             * Creates a new pool strategy with a persistent cache.
+             *
+             * @param readerMode      The reader mode to use for parsing a class file.
+             * @param persistentCache The persistent cache to consult before parsing a class file.
+             */
+            public WithPersistentCache(TypePool.Default.ReaderMode readerMode, TypePool.Default.PersistentCache persistentCache) {
+                this.readerMode = readerMode;
+                this.persistentCache = persistentCache;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public TypePool typePool(ClassFileLocator classFileLocator, @Nullable ClassLoader classLoader) {
+                return new TypePool.Default.WithPersistentCache(TypePool.CacheProvider.Simple.withObjectType(), classFileLocator, readerMode, persistentCache);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public TypePool typePool(ClassFileLocator classFileLocator, @Nullable ClassLoader classLoader, String name) {
+                return typePool(classFileLocator, classLoader);
+            }
+        }
+
         /**
          * <p>
          * A type locator that attempts loading a type if it cannot be located by the underlying lazy type pool.
@@ -3386,7 +3626,7 @@ public interface AgentBuilder {
                     classLoader = classLoader == null ? getBootstrapMarkerLoader() : classLoader;
                     TypePool.CacheProvider cacheProvider = cacheProviders.get(classLoader);
                     while (cacheProvider == null) {
-                        cacheProvider = TypePool.CacheProvider.Simple.withObjectType();
+                        cacheProvider = makeCacheProvider();
                         TypePool.CacheProvider previous = cacheProviders.putIfAbsent(classLoader, cacheProvider);
                         if (previous != null) {
                             cacheProvider = previous;
@@ -3412,114 +3652,520 @@ public interface AgentBuilder {
                 protected ClassLoader getBootstrapMarkerLoader() {
                     return ClassLoader.getSystemClassLoader();
                 }
+
+                /**
+                 * Creates a new cache provider for a class loader for which no cache provider is yet registered.
+                 *
+                 * @return A new cache provider.
+                 */
+                protected TypePool.CacheProvider makeCacheProvider() {
+                    return TypePool.CacheProvider.Simple.withObjectType();
+                }
             }
-        }
-    }
 
-    /**
-     * An initialization strategy which determines the handling of {@link net.bytebuddy.implementation.LoadedTypeInitializer}s
-     * and the loading of auxiliary types. The agent builder does not reuse the {@link TypeResolutionStrategy} as Javaagents cannot access
-     * a loaded class after a transformation such that different initialization strategies become meaningful.
-     */
-    interface InitializationStrategy {
+            /**
+             * A {@link Simple} type locator that bounds the cache of each class loader to a maximum number of resolutions by using a
+             * {@link TypePool.CacheProvider.Bounded}. The hit, miss and eviction counts of each cache can be read from the cache providers
+             * of the supplied map to size the caches.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            public static class Bounded extends Simple {
 
-        /**
-         * Creates a new dispatcher for injecting this initialization strategy during a transformation process.
-         *
-         * @return The dispatcher to be used.
-         */
-        Dispatcher dispatcher();
+                /**
+                 * The maximum number of resolutions to retain per class loader.
+                 */
+                private final long maximumSize;
+
+                /**
+                 * Creates a new type locator that caches a bounded cache provider per class loader in a concurrent map. The type
+                 * locator uses a fast {@link net.bytebuddy.pool.TypePool.Default.ReaderMode}.
+                 *
+                 * @param cacheProviders The concurrent map that is used for storing a cache provider per class loader.
+                 * @param maximumSize    The maximum number of resolutions to retain per class loader.
+                 */
+                public Bounded(ConcurrentMap<? super ClassLoader, TypePool.CacheProvider> cacheProviders, long maximumSize) {
+                    this(TypePool.Default.ReaderMode.FAST, cacheProviders, maximumSize);
+                }
+
+                /**
+                 * Creates a new type locator that caches a bounded cache provider per class loader in a concurrent map.
+                 *
+                 * @param readerMode     The reader mode to use for parsing a class file.
+                 * @param cacheProviders The concurrent map that is used for storing a cache provider per class loader.
+                 * @param maximumSize    The maximum number of resolutions to retain per class loader.
+                 */
+                public Bounded(TypePool.Default.ReaderMode readerMode, ConcurrentMap<? super ClassLoader, TypePool.CacheProvider> cacheProviders, long maximumSize) {
+                    super(readerMode, cacheProviders);
+                    this.maximumSize = maximumSize;
+                }
+
+                @Override
+                protected TypePool.CacheProvider makeCacheProvider() {
+                    return TypePool.CacheProvider.Bounded.withObjectType(maximumSize);
+                }
+            }
+        }
 
         /**
-         * A dispatcher for changing a class file to adapt a self-initialization strategy.
+         * <p>
+         * A pool strategy that resolves every type by the type pool of the class loader that defines it and shares this resolution with
+         * the type pools of all child class loaders. For this purpose, each type pool that is created by this strategy is a
+         * {@link TypePool.AbstractBase.Hierarchical} type pool that queries the type pools of the class loader's parents before it resolves
+         * a type itself. As the parent's type pools use a cache per class loader, any type that is defined by a shared parent class loader is
+         * only parsed once, independently of the number of child class loaders.
+         * </p>
+         * <p>
+         * Types that cannot be resolved by a class loader are only retained in a bounded cache per class loader such that the cache of a
+         * parent class loader does not grow with the number of types that are only visible to its child class loaders.
+         * </p>
+         * <p>
+         * The instrumented type itself is always described from the supplied class file locator, even if a parent class loader defines a
+         * type of the same name. The shared type pools of a class loader and its parents are created once and retained together with the
+         * class loader's cache provider.
+         * </p>
+         * <p>
+         * <b>Important</b>: This strategy assumes that class loaders apply parent-first delegation for any type other than the instrumented
+         * type. If a class loader defines such a type that is also visible to one of its parents, for example a web application class loader
+         * that applies child-first delegation, the parent's type is described instead. It is the responsibility of this strategy's user to
+         * avoid the supplied map from leaking class loaders.
+         * </p>
          */
-        interface Dispatcher {
+        @HashCodeAndEqualsPlugin.Enhance
+        class WithClassLoaderHierarchy implements PoolStrategy {
 
             /**
-             * Transforms the instrumented type to implement an appropriate initialization strategy.
-             *
-             * @param builder The builder which should implement the initialization strategy.
-             * @return The given {@code builder} with the initialization strategy applied.
+             * The default maximum number of unresolved types that are retained per class loader.
              */
-            DynamicType.Builder<?> apply(DynamicType.Builder<?> builder);
+            public static final long DEFAULT_MAXIMUM_UNRESOLVED = 1024;
 
             /**
-             * Registers a dynamic type for initialization and/or begins the initialization process.
-             *
-             * @param dynamicType       The dynamic type that is created.
-             * @param classLoader       The class loader of the dynamic type which can be {@code null} to represent the bootstrap class loader.
-             * @param protectionDomain  The instrumented type's protection domain or {@code null} if no protection domain is available.
-             * @param injectionStrategy The injection strategy to use.
+             * The reader mode to use for parsing a class file.
              */
-            void register(DynamicType dynamicType, @Nullable ClassLoader classLoader, @Nullable ProtectionDomain protectionDomain, InjectionStrategy injectionStrategy);
-        }
+            private final TypePool.Default.ReaderMode readerMode;
 
-        /**
-         * A non-initializing initialization strategy.
-         */
-        enum NoOp implements InitializationStrategy, Dispatcher {
+            /**
+             * The concurrent map that is used for storing a cache provider per class loader.
+             */
+            private final ConcurrentMap<? super ClassLoader, TypePool.CacheProvider> cacheProviders;
 
             /**
-             * The singleton instance.
+             * The cache provider to use for the bootstrap class loader.
              */
-            INSTANCE;
+            private final TypePool.CacheProvider bootstrapCacheProvider;
 
             /**
-             * {@inheritDoc}
+             * The maximum number of unresolved types that are retained per class loader.
              */
-            public Dispatcher dispatcher() {
-                return this;
+            private final long maximumUnresolved;
+
+            /**
+             * Creates a new pool strategy that shares type descriptions along the class loader hierarchy. The pool strategy
+             * uses a fast {@link net.bytebuddy.pool.TypePool.Default.ReaderMode}.
+             *
+             * @param cacheProviders The concurrent map that is used for storing a cache provider per class loader.
+             */
+            public WithClassLoaderHierarchy(ConcurrentMap<? super ClassLoader, TypePool.CacheProvider> cacheProviders) {
+                this(TypePool.Default.ReaderMode.FAST, cacheProviders);
             }
 
             /**
-             * {@inheritDoc}
+             * Creates a new pool strategy that shares type descriptions along the class loader hierarchy.
+             *
+             * @param readerMode     The reader mode to use for parsing a class file.
+             * @param cacheProviders The concurrent map that is used for storing a cache provider per class loader.
              */
-            public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder) {
-                return builder;
+            public WithClassLoaderHierarchy(TypePool.Default.ReaderMode readerMode, ConcurrentMap<? super ClassLoader, TypePool.CacheProvider> cacheProviders) {
+                this(readerMode, cacheProviders, TypePool.CacheProvider.Simple.withObjectType());
             }
 
             /**
-             * {@inheritDoc}
+             * Creates a new pool strategy that shares type descriptions along the class loader hierarchy.
+             *
+             * @param readerMode             The reader mode to use for parsing a class file.
+             * @param cacheProviders         The concurrent map that is used for storing a cache provider per class loader.
+             * @param bootstrapCacheProvider The cache provider to use for the bootstrap class loader.
              */
-            public void register(DynamicType dynamicType, @Nullable ClassLoader classLoader, @Nullable ProtectionDomain protectionDomain, InjectionStrategy injectionStrategy) {
-                /* do nothing */
+            public WithClassLoaderHierarchy(TypePool.Default.ReaderMode readerMode,
+                                            ConcurrentMap<? super ClassLoader, TypePool.CacheProvider> cacheProviders,
+                                            TypePool.CacheProvider bootstrapCacheProvider) {
+                this(readerMode, cacheProviders, bootstrapCacheProvider, DEFAULT_MAXIMUM_UNRESOLVED);
             }
-        }
 
-        /**
-         * An initialization strategy that loads auxiliary types before loading the instrumented type. This strategy skips all types
-         * that are a subtype of the instrumented type which would cause a premature loading of the instrumented type and abort
-         * the instrumentation process.
-         */
-        enum Minimal implements InitializationStrategy, Dispatcher {
+            /**
+             * Creates a new pool strategy that shares type descriptions along the class loader hierarchy.
+             *
+             * @param readerMode             The reader mode to use for parsing a class file.
+             * @param cacheProviders         The concurrent map that is used for storing a cache provider per class loader.
+             * @param bootstrapCacheProvider The cache provider to use for the bootstrap class loader.
+             * @param maximumUnresolved      The maximum number of unresolved types that are retained per class loader.
+             */
+            public WithClassLoaderHierarchy(TypePool.Default.ReaderMode readerMode,
+                                            ConcurrentMap<? super ClassLoader, TypePool.CacheProvider> cacheProviders,
+                                            TypePool.CacheProvider bootstrapCacheProvider,
+                                            long maximumUnresolved) {
+                this.readerMode = readerMode;
+                this.cacheProviders = cacheProviders;
+                this.bootstrapCacheProvider = new WithBoundedUnresolved(bootstrapCacheProvider, maximumUnresolved);
+                this.maximumUnresolved = maximumUnresolved;
+            }
 
             /**
-             * The singleton instance.
+             * A proxy for {@code java.security.AccessController#doPrivileged} that is activated if available.
+             *
+             * @param action The action to execute from a privileged context.
+             * @param <T>    The type of the action's resolved value.
+             * @return The action's resolved value.
              */
-            INSTANCE;
+            @AccessControllerPlugin.Enhance
+            private static <T> T doPrivileged(PrivilegedAction<T> action) {
+                return action.run();
+            }
 
             /**
              * {@inheritDoc}
              */
-            public Dispatcher dispatcher() {
-                return this;
+            public TypePool typePool(ClassFileLocator classFileLocator, @Nullable ClassLoader classLoader) {
+                return new TypePool.Default.WithLazyResolution(locate(classLoader), classFileLocator, readerMode, parent(classLoader));
             }
 
             /**
              * {@inheritDoc}
              */
-            public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder) {
-                return builder;
+            public TypePool typePool(ClassFileLocator classFileLocator, @Nullable ClassLoader classLoader, String name) {
+                return new TypePool.Default.WithLazyResolution(new TypePool.CacheProvider.Discriminating(ElementMatchers.<String>is(name),
+                        new TypePool.CacheProvider.Simple(),
+                        locate(classLoader)), classFileLocator, readerMode, new Excluding(name, parent(classLoader)));
             }
 
             /**
-             * {@inheritDoc}
+             * Returns the shared type pool of a class loader's parent.
+             *
+             * @param classLoader The class loader for which to resolve the parent's type pool or {@code null} for the bootstrap loader.
+             * @return The shared type pool of the class loader's parent.
              */
-            public void register(DynamicType dynamicType, @Nullable ClassLoader classLoader, @Nullable ProtectionDomain protectionDomain, InjectionStrategy injectionStrategy) {
-                Map<TypeDescription, byte[]> auxiliaryTypes = dynamicType.getAuxiliaryTypes();
-                Map<TypeDescription, byte[]> independentTypes = new LinkedHashMap<TypeDescription, byte[]>(auxiliaryTypes);
-                for (TypeDescription auxiliaryType : auxiliaryTypes.keySet()) {
-                    if (!auxiliaryType.getDeclaredAnnotations().isAnnotationPresent(AuxiliaryType.SignatureRelevant.class)) {
+            protected TypePool parent(@Nullable ClassLoader classLoader) {
+                if (classLoader == null) {
+                    return TypePool.Empty.INSTANCE;
+                }
+                TypePool.CacheProvider cacheProvider = locate(classLoader);
+                if (!(cacheProvider instanceof WithBoundedUnresolved)) {
+                    return shared(doPrivileged(new ParentLookupAction(classLoader)));
+                }
+                TypePool parent = ((WithBoundedUnresolved) cacheProvider).parent;
+                if (parent == null) {
+                    parent = shared(doPrivileged(new ParentLookupAction(classLoader)));
+                    ((WithBoundedUnresolved) cacheProvider).parent = parent;
+                }
+                return parent;
+            }
+
+            /**
+             * Returns the shared type pool for a class loader which resolves types that are visible to the class loader but
+             * that are not defined by any of its parents.
+             *
+             * @param classLoader The class loader for which to resolve the type pool or {@code null} for the bootstrap loader.
+             * @return The shared type pool of the supplied class loader.
+             */
+            protected TypePool shared(@Nullable ClassLoader classLoader) {
+                TypePool.CacheProvider cacheProvider = locate(classLoader);
+                if (!(cacheProvider instanceof WithBoundedUnresolved)) {
+                    return new TypePool.Default(cacheProvider, ClassFileLocator.ForClassLoader.of(classLoader), readerMode, parent(classLoader));
+                }
+                TypePool shared = ((WithBoundedUnresolved) cacheProvider).shared;
+                if (shared == null) {
+                    shared = new TypePool.Default(cacheProvider, ClassFileLocator.ForClassLoader.WeaklyReferenced.of(classLoader), readerMode, parent(classLoader));
+                    ((WithBoundedUnresolved) cacheProvider).shared = shared;
+                }
+                return shared;
+            }
+
+            /**
+             * Locates the cache provider for a given class loader.
+             *
+             * @param classLoader The class loader for which to locate a cache or {@code null} for the bootstrap loader.
+             * @return The cache provider to use.
+             */
+            protected TypePool.CacheProvider locate(@Nullable ClassLoader classLoader) {
+                if (classLoader == null) {
+                    return bootstrapCacheProvider;
+                }
+                TypePool.CacheProvider cacheProvider = cacheProviders.get(classLoader);
+                while (cacheProvider == null) {
+                    cacheProvider = new WithBoundedUnresolved(makeCacheProvider(), maximumUnresolved);
+                    TypePool.CacheProvider previous = cacheProviders.putIfAbsent(classLoader, cacheProvider);
+                    if (previous != null) {
+                        cacheProvider = previous;
+                    }
+                }
+                return cacheProvider;
+            }
+
+            /**
+             * Creates a new cache provider for a class loader for which no cache provider is yet registered.
+             *
+             * @return A new cache provider.
+             */
+            protected TypePool.CacheProvider makeCacheProvider() {
+                return new TypePool.CacheProvider.Simple();
+            }
+
+            /**
+             * A privileged action for reading the parent of a class loader.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            protected static class ParentLookupAction implements PrivilegedAction<ClassLoader> {
+
+                /**
+                 * The class loader for which to read the parent.
+                 */
+                private final ClassLoader classLoader;
+
+                /**
+                 * Creates a new privileged action for reading the parent of a class loader.
+                 *
+                 * @param classLoader The class loader for which to read the parent.
+                 */
+                protected ParentLookupAction(ClassLoader classLoader) {
+                    this.classLoader = classLoader;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Nullable
+                public ClassLoader run() {
+                    return classLoader.getParent();
+                }
+            }
+
+            /**
+             * A type pool that does not resolve the instrumented type, neither as a component type of an array, such that the instrumented
+             * type is described from the class file locator of the type pool that uses this type pool as its parent.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            protected static class Excluding implements TypePool {
+
+                /**
+                 * The name of the instrumented type.
+                 */
+                private final String name;
+
+                /**
+                 * The type pool to which all other types are delegated.
+                 */
+                private final TypePool typePool;
+
+                /**
+                 * Creates a new type pool that does not resolve the instrumented type.
+                 *
+                 * @param name     The name of the instrumented type.
+                 * @param typePool The type pool to which all other types are delegated.
+                 */
+                protected Excluding(String name, TypePool typePool) {
+                    this.name = name;
+                    this.typePool = typePool;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public Resolution describe(String name) {
+                    int arity = 0;
+                    while (name.startsWith("[", arity)) {
+                        arity++;
+                    }
+                    return (arity == 0 ? this.name.equals(name) : name.equals(name.substring(0, arity) + "L" + this.name + ";"))
+                            ? new Resolution.Illegal(name)
+                            : typePool.describe(name);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void clear() {
+                    typePool.clear();
+                }
+            }
+
+            /**
+             * A cache provider that retains resolved types in a class loader's cache provider but that only retains a bounded number
+             * of unresolved types. Without a bound, the cache of a parent class loader would retain every type name that is resolved
+             * by any of its child class loaders. Additionally, this cache provider retains the shared type pools of its class loader
+             * and of the class loader's parent once they are created.
+             */
+            protected static class WithBoundedUnresolved implements TypePool.CacheProvider {
+
+                /**
+                 * The cache provider to use for resolved types.
+                 */
+                private final TypePool.CacheProvider cacheProvider;
+
+                /**
+                 * The bounded cache provider to use for unresolved types.
+                 */
+                private final TypePool.CacheProvider unresolved;
+
+                /**
+                 * The shared type pool of this cache provider's class loader or {@code null} if it was not yet created.
+                 */
+                @Nullable
+                protected volatile TypePool shared;
+
+                /**
+                 * The shared type pool of the parent of this cache provider's class loader or {@code null} if it was not yet created.
+                 */
+                @Nullable
+                protected volatile TypePool parent;
+
+                /**
+                 * Creates a new cache provider with a bounded cache for unresolved types.
+                 *
+                 * @param cacheProvider     The cache provider to use for resolved types.
+                 * @param maximumUnresolved The maximum number of unresolved types to retain.
+                 */
+                protected WithBoundedUnresolved(TypePool.CacheProvider cacheProvider, long maximumUnresolved) {
+                    this.cacheProvider = cacheProvider;
+                    unresolved = new TypePool.CacheProvider.Bounded(maximumUnresolved);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Nullable
+                public TypePool.Resolution find(String name) {
+                    TypePool.Resolution resolution = cacheProvider.find(name);
+                    return resolution == null
+                            ? unresolved.find(name)
+                            : resolution;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public TypePool.Resolution register(String name, TypePool.Resolution resolution) {
+                    return resolution.isResolved()
+                            ? cacheProvider.register(name, resolution)
+                            : unresolved.register(name, resolution);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void clear() {
+                    try {
+                        unresolved.clear();
+                    } finally {
+                        cacheProvider.clear();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * An initialization strategy which determines the handling of {@link net.bytebuddy.implementation.LoadedTypeInitializer}s
+     * and the loading of auxiliary types. The agent builder does not reuse the {@link TypeResolutionStrategy} as Javaagents cannot access
+     * a loaded class after a transformation such that different initialization strategies become meaningful.
+     */
+    interface InitializationStrategy {
+
+        /**
+         * Creates a new dispatcher for injecting this initialization strategy during a transformation process.
+         *
+         * @return The dispatcher to be used.
+         */
+        Dispatcher dispatcher();
+
+        /**
+         * A dispatcher for changing a class file to adapt a self-initialization strategy.
+         */
+        interface Dispatcher {
+
+            /**
+             * Transforms the instrumented type to implement an appropriate initialization strategy.
+             *
+             * @param builder The builder which should implement the initialization strategy.
+             * @return The given {@code builder} with the initialization strategy applied.
+             */
+            DynamicType.Builder<?> apply(DynamicType.Builder<?> builder);
+
+            /**
+             * Registers a dynamic type for initialization and/or begins the initialization process.
+             *
+             * @param dynamicType       The dynamic type that is created.
+             * @param classLoader       The class loader of the dynamic type which can be {@code null} to represent the bootstrap class loader.
+             * @param protectionDomain  The instrumented type's protection domain or {@code null} if no protection domain is available.
+             * @param injectionStrategy The injection strategy to use.
+             */
+            void register(DynamicType dynamicType, @Nullable ClassLoader classLoader, @Nullable ProtectionDomain protectionDomain, InjectionStrategy injectionStrategy);
+        }
+
+        /**
+         * A non-initializing initialization strategy.
+         */
+        enum NoOp implements InitializationStrategy, Dispatcher {
+
+            /**
+             * The singleton instance.
+             */
+            INSTANCE;
+
+            /**
+             * {@inheritDoc}
+             */
+            public Dispatcher dispatcher() {
+                return this;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder) {
+                return builder;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public void register(DynamicType dynamicType, @Nullable ClassLoader classLoader, @Nullable ProtectionDomain protectionDomain, InjectionStrategy injectionStrategy) {
+                /* do nothing */
+            }
+        }
+
+        /**
+         * An initialization strategy that loads auxiliary types before loading the instrumented type. This strategy skips all types
+         * that are a subtype of the instrumented type which would cause a premature loading of the instrumented type and abort
+         * the instrumentation process.
+         */
+        enum Minimal implements InitializationStrategy, Dispatcher {
+
+            /**
+             * The singleton instance.
+             */
+            INSTANCE;
+
+            /**
+             * {@inheritDoc}
+             */
+            public Dispatcher dispatcher() {
+                return this;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder) {
+                return builder;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public void register(DynamicType dynamicType, @Nullable ClassLoader classLoader, @Nullable ProtectionDomain protectionDomain, InjectionStrategy injectionStrategy) {
+                Map<TypeDescription, byte[]> auxiliaryTypes = dynamicType.getAuxiliaryTypes();
+                Map<TypeDescription, byte[]> independentTypes = new LinkedHashMap<TypeDescription, byte[]>(auxiliaryTypes);
+                for (TypeDescription auxiliaryType : auxiliaryTypes.keySet()) {
+                    if (!auxiliaryType.getDeclaredAnnotations().isAnnotationPresent(AuxiliaryType.SignatureRelevant.class)) {
                         independentTypes.remove(auxiliaryType);
                     }
                 }
@@ -4181,6 +4827,17 @@ public interface AgentBuilder {
             public DescriptionStrategy withSuperTypeLoading(ExecutorService executorService) {
                 return new SuperTypeLoading.Asynchronous(this, executorService);
             }
+
+            /**
+             * Creates a description strategy that uses this strategy but loads any super type asynchronously. Super types are loaded by
+             * virtual threads if the current VM supports them or by daemon threads of an unbounded pool otherwise.
+             *
+             * @return This description strategy where all super types are loaded asynchronously during the instrumentation.
+             * @see SuperTypeLoading.Asynchronous
+             */
+            public DescriptionStrategy withAsynchronousSuperTypeLoading() {
+                return new SuperTypeLoading.Asynchronous(this);
+            }
         }
 
         /**
@@ -4278,6 +4935,11 @@ public interface AgentBuilder {
              * for the maximum number of created threads.
              * </p>
              * <p>
+             * If no executor service is specified, super types are loaded by virtual threads where available such that no platform thread is
+             * occupied while waiting for a super type to be loaded. The direct super types of an instrumented type are loaded by a single task
+             * and their own super types are resolved from the loaded types without switching threads again.
+             * </p>
+             * <p>
              * <b>Important</b>: This strategy can dead-lock under two circumstances:
              * </p>
              * <ul>
@@ -4298,6 +4960,11 @@ public interface AgentBuilder {
             @HashCodeAndEqualsPlugin.Enhance
             public static class Asynchronous implements DescriptionStrategy {
 
+                /**
+                 * A dispatcher for creating executor services that are backed by virtual threads if available.
+                 */
+                private static final Dispatcher DISPATCHER = AgentBuilder.Default.doPrivileged(JavaDispatcher.of(Dispatcher.class));
+
                 /**
                  * The delegate description strategy.
                  */
@@ -4308,6 +4975,17 @@ public interface AgentBuilder {
                  */
                 private final ExecutorService executorService;
 
+                /**
+                 * Creates a new description strategy that enforces super type loading from another thread. Super types are loaded by
+                 * virtual threads if the current VM supports them. Otherwise, super types are loaded by daemon threads of an unbounded pool.
+                 * The executor service is created lazily and is shared by all description strategies that are created by this constructor.
+                 *
+                 * @param delegate The delegate description strategy.
+                 */
+                public Asynchronous(DescriptionStrategy delegate) {
+                    this(delegate, SharedExecutorService.INSTANCE);
+                }
+
                 /**
                  * Creates a new description strategy that enforces super type loading from another thread.
                  *
@@ -4319,6 +4997,23 @@ public interface AgentBuilder {
                     this.executorService = executorService;
                 }
 
+                /**
+                 * Creates an executor service that is backed by virtual threads if available or that creates daemon threads without bound otherwise.
+                 *
+                 * @return An executor service for loading super types.
+                 */
+                protected static ExecutorService executorService() {
+                    ExecutorService executorService;
+                    try {
+                        executorService = DISPATCHER.newVirtualThreadPerTaskExecutor();
+                    } catch (UnsupportedOperationException ignored) {
+                        executorService = null; // Virtual threads are a preview feature that is not enabled.
+                    }
+                    return executorService == null
+                            ? Executors.newCachedThreadPool(DaemonThreadFactory.INSTANCE)
+                            : executorService;
+                }
+
                 /**
                  * {@inheritDoc}
                  */
@@ -4338,63 +5033,223 @@ public interface AgentBuilder {
                     TypeDescription typeDescription = delegate.apply(name, type, typePool, circularityLock, classLoader, module);
                     return typeDescription instanceof TypeDescription.ForLoadedType
                             ? typeDescription
-                            : new TypeDescription.SuperTypeLoading(typeDescription, classLoader, new ThreadSwitchingClassLoadingDelegate(executorService));
+                            : new TypeDescription.SuperTypeLoading(typeDescription, classLoader, new ThreadSwitchingClassLoadingDelegate(executorService, typeDescription, classLoader));
                 }
 
                 /**
-                 * A class loading delegate that delegates loading of the super type to another thread.
+                 * A holder for the executor service that is shared by all description strategies that do not specify an executor service.
+                 * The executor service is only created when this class is initialized.
                  */
-                @HashCodeAndEqualsPlugin.Enhance
-                protected static class ThreadSwitchingClassLoadingDelegate implements TypeDescription.SuperTypeLoading.ClassLoadingDelegate {
+                protected static class SharedExecutorService {
 
                     /**
-                     * The executor service to delegate class loading to.
+                     * The shared executor service.
                      */
-                    private final ExecutorService executorService;
+                    protected static final ExecutorService INSTANCE = executorService();
 
                     /**
-                     * Creates a new thread-switching class loading delegate.
-                     *
-                     * @param executorService The executor service to delegate class loading to.
+                     * A shared executor service holder cannot be created.
                      */
-                    protected ThreadSwitchingClassLoadingDelegate(ExecutorService executorService) {
-                        this.executorService = executorService;
+                    private SharedExecutorService() {
+                        throw new UnsupportedOperationException("This class is a holder class and not supposed to be instantiated");
+                    }
+                }
+
+                /**
+                 * A dispatcher for creating executor services that are backed by virtual threads.
+                 */
+                @JavaDispatcher.Proxied("java.util.concurrent.Executors")
+                protected interface Dispatcher {
+
+                    /**
+                     * Creates an executor service that starts a new virtual thread for each task.
+                     *
+                     * @return An executor service that starts a new virtual thread for each task or {@code null} if virtual threads are not supported.
+                     */
+                    @Nullable
+                    @JavaDispatcher.IsStatic
+                    @JavaDispatcher.Defaults
+                    ExecutorService newVirtualThreadPerTaskExecutor();
+                }
+
+                /**
+                 * A thread factory that creates daemon threads for loading super types.
+                 */
+                protected enum DaemonThreadFactory implements ThreadFactory {
+
+                    /**
+                     * The singleton instance.
+                     */
+                    INSTANCE;
+
+                    /**
+                     * The name of the created threads.
+                     */
+                    private static final String NAME = "bytebuddy-super-type-loading";
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, NAME);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }
+
+                /**
+                 * <p>
+                 * A class loading delegate that delegates loading of the super type to another thread.
+                 * </p>
+                 * <p>
+                 * When the first super type of the instrumented type is requested, all direct super types of the instrumented type are loaded by a
+                 * single task. Any super type of a loaded type is then resolved from the loaded type itself such that the type hierarchy is traversed
+                 * with a single thread switch as long as the type's direct super types are defined by the instrumented type's class loader.
+                 * </p>
+                 */
+                @HashCodeAndEqualsPlugin.Enhance
+                protected static class ThreadSwitchingClassLoadingDelegate implements TypeDescription.SuperTypeLoading.ClassLoadingDelegate {
+
+                    /**
+                     * The executor service to delegate class loading to.
+                     */
+                    private final ExecutorService executorService;
+
+                    /**
+                     * The instrumented type.
+                     */
+                    private final TypeDescription typeDescription;
+
+                    /**
+                     * The instrumented type's class loader or {@code null} if the type is loaded by the bootstrap loader.
+                     */
+                    @Nullable
+                    @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.REVERSE_NULLABILITY)
+                    private final ClassLoader classLoader;
+
+                    /**
+                     * The types that were already loaded by their initiating class loaders.
+                     */
+                    @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.IGNORE)
+                    private final Map<ClassLoader, Map<String, Class<?>>> types;
+
+                    /**
+                     * Creates a new thread-switching class loading delegate.
+                     *
+                     * @param executorService The executor service to delegate class loading to.
+                     * @param typeDescription The instrumented type.
+                     * @param classLoader     The instrumented type's class loader or {@code null} if the type is loaded by the bootstrap loader.
+                     */
+                    protected ThreadSwitchingClassLoadingDelegate(ExecutorService executorService, TypeDescription typeDescription, @Nullable ClassLoader classLoader) {
+                        this.executorService = executorService;
+                        this.typeDescription = typeDescription;
+                        this.classLoader = classLoader;
+                        types = new HashMap<ClassLoader, Map<String, Class<?>>>();
                     }
 
                     /**
                      * {@inheritDoc}
                      */
                     public Class<?> load(String name, @Nullable ClassLoader classLoader) {
+                        List<String> names;
+                        synchronized (types) {
+                            Map<String, Class<?>> types = this.types.get(classLoader);
+                            Class<?> type = types == null
+                                    ? null
+                                    : types.get(name);
+                            if (type != null) {
+                                return type;
+                            } else if (classLoader == this.classLoader) {
+                                names = new ArrayList<String>();
+                                names.add(name);
+                                for (String candidate : superTypeNames()) {
+                                    if (!candidate.equals(name) && (types == null || !types.containsKey(candidate))) {
+                                        names.add(candidate);
+                                    }
+                                }
+                            } else {
+                                names = Collections.singletonList(name);
+                            }
+                        }
                         boolean holdsLock = classLoader != null && Thread.holdsLock(classLoader);
                         AtomicBoolean signal = new AtomicBoolean(holdsLock);
-                        Future<Class<?>> future = executorService.submit(holdsLock
-                                ? new NotifyingClassLoadingAction(name, classLoader, signal)
-                                : new SimpleClassLoadingAction(name, classLoader));
+                        Future<Map<String, Class<?>>> future = executorService.submit(holdsLock
+                                ? new NotifyingClassLoadingAction(names, classLoader, signal)
+                                : new SimpleClassLoadingAction(names, classLoader));
+                        Map<String, Class<?>> types;
                         try {
                             while (holdsLock && signal.get()) {
                                 classLoader.wait();
                             }
-                            return future.get();
+                            types = future.get();
                         } catch (ExecutionException exception) {
                             throw new IllegalStateException("Could not load " + name + " asynchronously", exception.getCause());
                         } catch (Exception exception) {
                             throw new IllegalStateException("Could not load " + name + " asynchronously", exception);
                         }
+                        synchronized (this.types) {
+                            for (Class<?> type : types.values()) {
+                                register(classLoader, type);
+                            }
+                        }
+                        return types.get(name);
+                    }
+
+                    /**
+                     * Returns the names of the instrumented type's direct super types.
+                     *
+                     * @return The names of the instrumented type's direct super types.
+                     */
+                    private List<String> superTypeNames() {
+                        List<String> names = new ArrayList<String>();
+                        TypeDescription.Generic superClass = typeDescription.getSuperClass();
+                        if (superClass != null) {
+                            names.add(superClass.asErasure().getName());
+                        }
+                        for (TypeDescription interfaceType : typeDescription.getInterfaces().asErasures()) {
+                            names.add(interfaceType.getName());
+                        }
+                        return names;
+                    }
+
+                    /**
+                     * Registers a loaded type for its initiating class loader and registers all of its super types for the type's defining
+                     * class loader, as the defining class loader resolves the names of its super types to exactly those types.
+                     *
+                     * @param classLoader The initiating class loader or {@code null} if the type is loaded by the bootstrap loader.
+                     * @param type        The loaded type.
+                     */
+                    private void register(@Nullable ClassLoader classLoader, Class<?> type) {
+                        Map<String, Class<?>> types = this.types.get(classLoader);
+                        if (types == null) {
+                            types = new HashMap<String, Class<?>>();
+                            this.types.put(classLoader, types);
+                        } else if (types.containsKey(type.getName())) {
+                            return;
+                        }
+                        types.put(type.getName(), type);
+                        Class<?> superClass = type.getSuperclass();
+                        if (superClass != null) {
+                            register(type.getClassLoader(), superClass);
+                        }
+                        for (Class<?> interfaceType : type.getInterfaces()) {
+                            register(type.getClassLoader(), interfaceType);
+                        }
                     }
 
                     /**
-                     * A class loading action that simply loads a type.
+                     * A class loading action that simply loads a list of types.
                      */
                     @HashCodeAndEqualsPlugin.Enhance
-                    protected static class SimpleClassLoadingAction implements Callable<Class<?>> {
+                    protected static class SimpleClassLoadingAction implements Callable<Map<String, Class<?>>> {
 
                         /**
-                         * The loaded type's name.
+                         * The names of the loaded types where only the first type is required to be loaded.
                          */
-                        private final String name;
+                        private final List<String> names;
 
                         /**
-                         * The type's class loader or {@code null} if the type is loaded by the bootstrap loader.
+                         * The types' class loader or {@code null} if the types are loaded by the bootstrap loader.
                          */
                         @Nullable
                         @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.REVERSE_NULLABILITY)
@@ -4403,35 +5258,35 @@ public interface AgentBuilder {
                         /**
                          * Creates a simple class loading action.
                          *
-                         * @param name        The loaded type's name.
-                         * @param classLoader The type's class loader or {@code null} if the type is loaded by the bootstrap loader.
+                         * @param names       The names of the loaded types where only the first type is required to be loaded.
+                         * @param classLoader The types' class loader or {@code null} if the types are loaded by the bootstrap loader.
                          */
-                        protected SimpleClassLoadingAction(String name, @Nullable ClassLoader classLoader) {
-                            this.name = name;
+                        protected SimpleClassLoadingAction(List<String> names, @Nullable ClassLoader classLoader) {
+                            this.names = names;
                             this.classLoader = classLoader;
                         }
 
                         /**
                          * {@inheritDoc}
                          */
-                        public Class<?> call() throws ClassNotFoundException {
-                            return Class.forName(name, false, classLoader);
+                        public Map<String, Class<?>> call() throws ClassNotFoundException {
+                            return load(names, classLoader);
                         }
                     }
 
                     /**
-                     * A class loading action that notifies the class loader's lock after the type was loaded.
+                     * A class loading action that notifies the class loader's lock after the types were loaded.
                      */
                     @HashCodeAndEqualsPlugin.Enhance
-                    protected static class NotifyingClassLoadingAction implements Callable<Class<?>> {
+                    protected static class NotifyingClassLoadingAction implements Callable<Map<String, Class<?>>> {
 
                         /**
-                         * The loaded type's name.
+                         * The names of the loaded types where only the first type is required to be loaded.
                          */
-                        private final String name;
+                        private final List<String> names;
 
                         /**
-                         * The type's class loader which must not be the boot loader, i.e {@code null}.
+                         * The types' class loader which must not be the boot loader, i.e {@code null}.
                          */
                         private final ClassLoader classLoader;
 
@@ -4443,12 +5298,12 @@ public interface AgentBuilder {
                         /**
                          * Creates a notifying class loading action.
                          *
-                         * @param name        The loaded type's name.
-                         * @param classLoader The type's class loader which must not be the boot loader, i.e {@code null}.
+                         * @param names       The names of the loaded types where only the first type is required to be loaded.
+                         * @param classLoader The types' class loader which must not be the boot loader, i.e {@code null}.
                          * @param signal      The signal that indicates the completion of the class loading with {@code false}.
                          */
-                        protected NotifyingClassLoadingAction(String name, ClassLoader classLoader, AtomicBoolean signal) {
-                            this.name = name;
+                        protected NotifyingClassLoadingAction(List<String> names, ClassLoader classLoader, AtomicBoolean signal) {
+                            this.names = names;
                             this.classLoader = classLoader;
                             this.signal = signal;
                         }
@@ -4456,10 +5311,10 @@ public interface AgentBuilder {
                         /**
                          * {@inheritDoc}
                          */
-                        public Class<?> call() throws ClassNotFoundException {
+                        public Map<String, Class<?>> call() throws ClassNotFoundException {
                             synchronized (classLoader) {
                                 try {
-                                    return Class.forName(name, false, classLoader);
+                                    return load(names, classLoader);
                                 } finally {
                                     signal.set(false);
                                     classLoader.notifyAll();
@@ -4467,6 +5322,32 @@ public interface AgentBuilder {
                             }
                         }
                     }
+
+                    /**
+                     * Loads a list of types where only the first type is required to be loaded. Any other type is loaded speculatively.
+                     *
+                     * @param names       The names of the types to load.
+                     * @param classLoader The types' class loader or {@code null} if the types are loaded by the bootstrap loader.
+                     * @return A map of all types that could be loaded by their names.
+                     * @throws ClassNotFoundException If the first type cannot be found.
+                     */
+                    protected static Map<String, Class<?>> load(List<String> names, @Nullable ClassLoader classLoader) throws ClassNotFoundException {
+                        Map<String, Class<?>> types = new LinkedHashMap<String, Class<?>>();
+                        for (String name : names) {
+                            try {
+                                types.put(name, Class.forName(name, false, classLoader));
+                            } catch (ClassNotFoundException exception) {
+                                if (types.isEmpty()) {
+                                    throw exception;
+                                }
+                            } catch (LinkageError error) {
+                                if (types.isEmpty()) {
+                                    throw error;
+                                }
+                            }
+                        }
+                        return types;
+                    }
                 }
             }
         }
@@ -4655,6 +5536,110 @@ public interface AgentBuilder {
                 return new ClassFileLocator.Compound(classFileLocators);
             }
         }
+
+        /**
+         * <p>
+         * A location strategy that remembers the names of types that could not be located by another location strategy per class loader,
+         * such that repeated lookups of absent types do not cause repeated I/O. To discard a negative result once a type of the same name
+         * is defined, this location strategy should also be registered as a {@link Listener} of the agent builder. Any cache is then
+         * invalidated for a type's name when this type is discovered.
+         * </p>
+         * <p>
+         * <b>Note</b>: It is the responsibility of this strategy's user to avoid the supplied map from leaking class loaders.
+         * </p>
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        class WithNegativeCache extends Listener.Adapter implements LocationStrategy {
+
+            /**
+             * The location strategy to delegate to.
+             */
+            private final LocationStrategy locationStrategy;
+
+            /**
+             * The concurrent map that is used for storing a negative cache per class loader.
+             */
+            private final ConcurrentMap<? super ClassLoader, ClassFileLocator.WithNegativeCache.Cache> caches;
+
+            /**
+             * The negative cache to use for the bootstrap class loader.
+             */
+            private final ClassFileLocator.WithNegativeCache.Cache bootstrapCache;
+
+            /**
+             * Creates a new location strategy with a negative cache.
+             *
+             * @param locationStrategy The location strategy to delegate to.
+             * @param caches           The concurrent map that is used for storing a negative cache per class loader.
+             */
+            public WithNegativeCache(LocationStrategy locationStrategy, ConcurrentMap<? super ClassLoader, ClassFileLocator.WithNegativeCache.Cache> caches) {
+                this(locationStrategy, caches, new ClassFileLocator.WithNegativeCache.Cache.WithExpiration());
+            }
+
+            /**
+             * Creates a new location strategy with a negative cache.
+             *
+             * @param locationStrategy The location strategy to delegate to.
+             * @param caches           The concurrent map that is used for storing a negative cache per class loader.
+             * @param bootstrapCache   The negative cache to use for the bootstrap class loader.
+             */
+            public WithNegativeCache(LocationStrategy locationStrategy,
+                                     ConcurrentMap<? super ClassLoader, ClassFileLocator.WithNegativeCache.Cache> caches,
+                                     ClassFileLocator.WithNegativeCache.Cache bootstrapCache) {
+                this.locationStrategy = locationStrategy;
+                this.caches = caches;
+                this.bootstrapCache = bootstrapCache;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public ClassFileLocator classFileLocator(@Nullable ClassLoader classLoader, @Nullable JavaModule module) {
+                return new ClassFileLocator.WithNegativeCache(locationStrategy.classFileLocator(classLoader, module), locate(classLoader));
+            }
+
+            /**
+             * Locates the negative cache for a given class loader.
+             *
+             * @param classLoader The class loader for which to locate a cache or {@code null} for the bootstrap loader.
+             * @return The negative cache to use.
+             */
+            protected ClassFileLocator.WithNegativeCache.Cache locate(@Nullable ClassLoader classLoader) {
+                if (classLoader == null) {
+                    return bootstrapCache;
+                }
+                ClassFileLocator.WithNegativeCache.Cache cache = caches.get(classLoader);
+                while (cache == null) {
+                    cache = makeCache();
+                    ClassFileLocator.WithNegativeCache.Cache previous = caches.putIfAbsent(classLoader, cache);
+                    if (previous != null) {
+                        cache = previous;
+                    }
+                }
+                return cache;
+            }
+
+            /**
+             * Creates a new negative cache for a class loader for which no cache is yet registered.
+             *
+             * @return A new negative cache.
+             */
+            protected ClassFileLocator.WithNegativeCache.Cache makeCache() {
+                return new ClassFileLocator.WithNegativeCache.Cache.WithExpiration();
+            }
+
+            /**
+             * Invalidates the discovered type's name in any negative cache since a type can be visible to class loaders other than the
+             * class loader that defines it.
+             */
+            @Override
+            public void onDiscovery(String typeName, @Nullable ClassLoader classLoader, @Nullable JavaModule module, boolean loaded) {
+                bootstrapCache.invalidate(typeName);
+                for (ClassFileLocator.WithNegativeCache.Cache cache : caches.values()) {
+                    cache.invalidate(typeName);
+                }
+            }
+        }
     }
 
     /**
@@ -5307,22 +6292,67 @@ public interface AgentBuilder {
     }
 
     /**
-     * A decorator that allows to change the class file transformer that is registered.
+     * <p>
+     * A speculation strategy allows a class file transformer to transform types ahead of their loading, typically on a background
+     * thread. If a type is loaded whose class file is equal to the class file that was transformed speculatively, the class file
+     * transformer returns the precompiled class file without matching and transforming the type on the class loading thread.
+     * </p>
+     * <p>
+     * <b>Important</b>: A type is transformed speculatively for the unnamed module of its class loader and without knowledge of its
+     * protection domain. When the type is loaded, it is matched anew using its actual module and protection domain and the speculative
+     * transformation is discarded if the matched transformations differ. A speculative transformation is never applied to a type that
+     * is defined in a named module, and types are only transformed speculatively if the agent builder uses a built-in
+     * {@link TypeStrategy} and {@link ClassFileBufferStrategy} which do not consider the protection domain. A speculative
+     * transformation only weakly references its class loader and expires if its type is not loaded in time. Errors
+     * that occur during a speculative transformation are only reported to the speculation strategy and never to the agent builder's
+     * {@link Listener} as the type was not yet loaded. Speculation is only applied to types that are
+     * loaded for the first time and not to types that are retransformed or redefined. Only the class files of speculatively
+     * transformed types are retained and types that require auxiliary types or live initializers are not transformed speculatively.
+     * The number of retained speculations is bounded such that a type is not transformed speculatively if too many speculations
+     * are not yet consumed. A speculation does not hold the agent builder's {@link CircularityLock} such that types that are
+     * loaded concurrently are transformed as usual.
+     * </p>
      */
-    interface TransformerDecorator {
+    interface SpeculationStrategy {
 
         /**
-         * Decorates the applied class file transformer.
+         * Applies this speculation strategy. This method is invoked once when a class file transformer is installed.
          *
-         * @param classFileTransformer The original transformer created by the agent builder.
-         * @return The class file transformer that is actually being registered.
+         * @param speculator The speculator to use for transforming types speculatively.
          */
-        ResettableClassFileTransformer decorate(ResettableClassFileTransformer classFileTransformer);
+        void apply(Speculator speculator);
 
         /**
-         * A transformer decorator that retains the original transformer.
+         * Invoked if a type could not be transformed speculatively. The type is transformed as usual once it is loaded.
+         *
+         * @param name        The binary name of the type.
+         * @param classLoader The class loader that is expected to define the type or {@code null} if the type is expected
+         *                    to be loaded by the bootstrap class loader.
+         * @param throwable   The throwable that was thrown during the speculative transformation.
          */
-        enum NoOp implements TransformerDecorator {
+        void onError(String name, @Nullable ClassLoader classLoader, Throwable throwable);
+
+        /**
+         * A speculator that transforms types speculatively for a class file transformer.
+         */
+        interface Speculator {
+
+            /**
+             * Transforms a type speculatively. If the type is not matched by any transformation, no transformation is registered.
+             *
+             * @param name                 The binary name of the type.
+             * @param classLoader          The class loader that is expected to define the type or {@code null} if the type is expected
+             *                             to be loaded by the bootstrap class loader.
+             * @param binaryRepresentation The class file of the type. The array must not be modified.
+             * @return {@code true} if the type was transformed speculatively.
+             */
+            boolean speculate(String name, @Nullable ClassLoader classLoader, byte[] binaryRepresentation);
+        }
+
+        /**
+         * A speculation strategy that does not transform any types speculatively.
+         */
+        enum Disabled implements SpeculationStrategy {
 
             /**
              * The singleton instance.
@@ -5332,90 +6362,1536 @@ public interface AgentBuilder {
             /**
              * {@inheritDoc}
              */
-            public ResettableClassFileTransformer decorate(ResettableClassFileTransformer classFileTransformer) {
-                return classFileTransformer;
+            public void apply(Speculator speculator) {
+                /* do nothing */
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public void onError(String name, @Nullable ClassLoader classLoader, Throwable throwable) {
+                /* do nothing */
             }
         }
 
         /**
-         * A compound transformer decorator.
+         * A speculation strategy that speculatively transforms all classes of a list of jar files that are expected to be loaded
+         * by a given class loader. Each jar file is processed by a task that is submitted to an executor service.
          */
         @HashCodeAndEqualsPlugin.Enhance
-        class Compound implements TransformerDecorator {
+        class ForJarFiles implements SpeculationStrategy {
 
             /**
-             * The listeners to invoke.
+             * The file extension of a class file.
              */
-            private final List<TransformerDecorator> transformerDecorators;
+            private static final String CLASS_FILE_EXTENSION = ".class";
 
             /**
-             * Creates a new compound transformer decorator.
+             * The name of a module's class file without its extension.
+             */
+            private static final String MODULE_INFO = "module-info";
+
+            /**
+             * The executor service to use for transforming types speculatively.
+             */
+            private final ExecutorService executorService;
+
+            /**
+             * The class loader that is expected to load the jar files' classes or {@code null} for the bootstrap class loader.
+             */
+            @Nullable
+            @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.REVERSE_NULLABILITY)
+            private final ClassLoader classLoader;
+
+            /**
+             * The jar files to process.
+             */
+            private final List<File> files;
+
+            /**
+             * Creates a new speculation strategy for jar files.
              *
-             * @param transformerDecorator The transformer decorators to add.
+             * @param executorService The executor service to use for transforming types speculatively.
+             * @param classLoader     The class loader that is expected to load the jar files' classes or {@code null} for the bootstrap class loader.
+             * @param file            The jar files to process.
              */
-            public Compound(TransformerDecorator... transformerDecorator) {
-                this(Arrays.asList(transformerDecorator));
+            public ForJarFiles(ExecutorService executorService, @Nullable ClassLoader classLoader, File... file) {
+                this(executorService, classLoader, Arrays.asList(file));
             }
 
             /**
-             * Creates a new compound listener.
+             * Creates a new speculation strategy for jar files.
              *
-             * @param transformerDecorators The transformerDecorators to invoke.
+             * @param executorService The executor service to use for transforming types speculatively.
+             * @param classLoader     The class loader that is expected to load the jar files' classes or {@code null} for the bootstrap class loader.
+             * @param files           The jar files to process.
              */
-            public Compound(List<? extends TransformerDecorator> transformerDecorators) {
-                this.transformerDecorators = new ArrayList<TransformerDecorator>();
-                for (TransformerDecorator transformerDecorator : transformerDecorators) {
-                    if (transformerDecorator instanceof Compound) {
-                        this.transformerDecorators.addAll(((Compound) transformerDecorator).transformerDecorators);
-                    } else if (!(transformerDecorator instanceof NoOp)) {
-                        this.transformerDecorators.add(transformerDecorator);
-                    }
-                }
+            public ForJarFiles(ExecutorService executorService, @Nullable ClassLoader classLoader, List<? extends File> files) {
+                this.executorService = executorService;
+                this.classLoader = classLoader;
+                this.files = new ArrayList<File>(files);
             }
 
             /**
              * {@inheritDoc}
              */
-            public ResettableClassFileTransformer decorate(ResettableClassFileTransformer classFileTransformer) {
-                for (TransformerDecorator transformerDecorator : transformerDecorators) {
-                    classFileTransformer = transformerDecorator.decorate(classFileTransformer);
+            public void apply(Speculator speculator) {
+                for (File file : files) {
+                    executorService.submit(new Speculation(speculator, classLoader, file));
                 }
-                return classFileTransformer;
             }
-        }
-    }
 
-    /**
-     * <p>
-     * A redefinition strategy regulates how already loaded classes are modified by a built agent.
-     * </p>
-     * <p>
-     * <b>Important</b>: Most JVMs do not support changes of a class's structure after a class was already
-     * loaded. Therefore, it is typically required that this class file transformer was built while enabling
-     * {@link AgentBuilder#disableClassFormatChanges()}.
-     * </p>
-     */
-    enum RedefinitionStrategy {
-
-        /**
-         * Disables redefinition such that already loaded classes are not affected by the agent.
-         */
-        DISABLED(false, false) {
-            @Override
-            public void apply(Instrumentation instrumentation,
-                              PoolStrategy poolStrategy, LocationStrategy locationStrategy, DescriptionStrategy descriptionStrategy, FallbackStrategy fallbackStrategy, DiscoveryStrategy discoveryStrategy, LambdaInstrumentationStrategy lambdaInstrumentationStrategy, AgentBuilder.Listener listener,
-                              Listener redefinitionListener, RawMatcher matcher, BatchAllocator redefinitionBatchAllocator, CircularityLock circularityLock) {
+            /**
+             * {@inheritDoc}
+             */
+            public void onError(String name, @Nullable ClassLoader classLoader, Throwable throwable) {
                 /* do nothing */
             }
 
-            @Override
-            protected void check(Instrumentation instrumentation) {
-                throw new IllegalStateException("Cannot apply redefinition on disabled strategy");
-            }
+            /**
+             * A task that speculatively transforms all classes of a jar file.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            protected static class Speculation implements Runnable {
 
-            @Override
-            protected Collector make(PoolStrategy poolStrategy,
-                                     LocationStrategy locationStrategy,
+                /**
+                 * The speculator to use.
+                 */
+                private final Speculator speculator;
+
+                /**
+                 * The class loader that is expected to load the jar file's classes or {@code null} for the bootstrap class loader.
+                 */
+                @Nullable
+                @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.REVERSE_NULLABILITY)
+                private final ClassLoader classLoader;
+
+                /**
+                 * The jar file to process.
+                 */
+                private final File file;
+
+                /**
+                 * Creates a new speculation task.
+                 *
+                 * @param speculator  The speculator to use.
+                 * @param classLoader The class loader that is expected to load the jar file's classes or {@code null} for the bootstrap class loader.
+                 * @param file        The jar file to process.
+                 */
+                protected Speculation(Speculator speculator, @Nullable ClassLoader classLoader, File file) {
+                    this.speculator = speculator;
+                    this.classLoader = classLoader;
+                    this.file = file;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void run() {
+                    try {
+                        JarFile jarFile = new JarFile(file);
+                        try {
+                            Enumeration<JarEntry> enumeration = jarFile.entries();
+                            while (enumeration.hasMoreElements()) {
+                                JarEntry jarEntry = enumeration.nextElement();
+                                String name = jarEntry.getName();
+                                if (!jarEntry.isDirectory()
+                                        && name.endsWith(CLASS_FILE_EXTENSION)
+                                        && !name.startsWith("META-INF/")
+                                        && !name.endsWith(PackageDescription.PACKAGE_CLASS_NAME + CLASS_FILE_EXTENSION)
+                                        && !name.equals(MODULE_INFO + CLASS_FILE_EXTENSION)) {
+                                    InputStream inputStream = jarFile.getInputStream(jarEntry);
+                                    try {
+                                        speculator.speculate(name.substring(0, name.length() - CLASS_FILE_EXTENSION.length()).replace('/', '.'),
+                                                classLoader,
+                                                StreamDrainer.DEFAULT.drain(inputStream));
+                                    } finally {
+                                        inputStream.close();
+                                    }
+                                }
+                            }
+                        } finally {
+                            jarFile.close();
+                        }
+                    } catch (IOException ignored) {
+                        /* do nothing */
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * A transformation cache retains the class files that are created by a class file transformer. If a class file is transformed
+     * that is identical to a previously transformed class file and if it is matched by the same transformations, the cached class
+     * file is returned without creating the transformed type anew. This is useful if the same class file is loaded by many class
+     * loaders.
+     * </p>
+     * <p>
+     * <b>Important</b>: A transformation cache must only be used if the applied transformers create a class file that is solely
+     * determined by the original class file and its class loader. If a transformer depends on a type's module or on other types
+     * that are resolved from its environment, a transformation cache should not be used. Also, types are only cached if they do not
+     * require any auxiliary types or live initializers. Transformations are identified by their position within the transformer's
+     * transformations, combined with an identifier of the class file transformer that is unique within the current VM.
+     * </p>
+     */
+    interface TransformationCache {
+
+        /**
+         * Looks up the cache entry of a class file.
+         *
+         * @param transformer          An identifier of the class file transformer that applies the transformations which is unique
+         *                             within the current VM.
+         * @param classLoader          The class loader of the type or {@code null} if the type is loaded by the bootstrap class loader.
+         * @param binaryRepresentation The original class file. The array must not be modified.
+         * @param transformations      An identifier of the transformations that are matching the type.
+         * @return The cache entry of the class file.
+         */
+        Entry lookup(String transformer, @Nullable ClassLoader classLoader, byte[] binaryRepresentation, String transformations);
+
+        /**
+         * An entry of a transformation cache for a given class file which allows to find or to register its transformed class file.
+         */
+        interface Entry {
+
+            /**
+             * Attempts to find a cached class file.
+             *
+             * @return The cached, transformed class file or {@code null} if no such class file is cached.
+             */
+            @Nullable
+            byte[] find();
+
+            /**
+             * Registers a transformed class file.
+             *
+             * @param transformed The transformed class file. The array must not be modified.
+             */
+            void register(byte[] transformed);
+        }
+
+        /**
+         * A non-operational transformation cache that does not retain any class files.
+         */
+        enum NoOp implements TransformationCache, Entry {
+
+            /**
+             * The singleton instance.
+             */
+            INSTANCE;
+
+            /**
+             * {@inheritDoc}
+             */
+            public Entry lookup(String transformer, @Nullable ClassLoader classLoader, byte[] binaryRepresentation, String transformations) {
+                return this;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Nullable
+            public byte[] find() {
+                return null;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public void register(byte[] transformed) {
+                /* do nothing */
+            }
+        }
+
+        /**
+         * <p>
+         * An abstract base implementation of a transformation cache that identifies a class file by a digest of its content, of a
+         * version and of a discriminator of the class file transformer and the class loader, combined with the identifier of the
+         * matching transformations. The digest is computed once per lookup.
+         * </p>
+         * <p>
+         * <b>Important</b>: The key of a cached class file does not consider the type hierarchy of a type or the implementation of
+         * the applied transformers. A cache that outlives the current JVM must therefore be supplied with a version that changes
+         * whenever the transformers or their configuration change.
+         * </p>
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        abstract class AbstractBase implements TransformationCache {
+
+            /**
+             * The default digest algorithm.
+             */
+            public static final String DEFAULT_ALGORITHM = "SHA-256";
+
+            /**
+             * The hexadecimal digits.
+             */
+            private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+            /**
+             * The name of the digest algorithm.
+             */
+            private final String algorithm;
+
+            /**
+             * The version that is included in the key of any cache entry.
+             */
+            private final byte[] version;
+
+            /**
+             * Creates a new abstract transformation cache.
+             *
+             * @param algorithm The name of the digest algorithm.
+             * @param version   The version that is included in the key of any cache entry.
+             */
+            protected AbstractBase(String algorithm, String version) {
+                try {
+                    MessageDigest.getInstance(algorithm);
+                } catch (NoSuchAlgorithmException exception) {
+                    throw new IllegalArgumentException("Unknown digest algorithm: " + algorithm, exception);
+                }
+                this.algorithm = algorithm;
+                try {
+                    this.version = version.getBytes("UTF-8");
+                } catch (UnsupportedEncodingException exception) {
+                    throw new IllegalStateException("Failed to encode version: " + version, exception);
+                }
+            }
+
+            /**
+             * Computes the key of a cache entry.
+             *
+             * @param discriminator        A discriminator of the class file transformer and the class loader.
+             * @param binaryRepresentation The original class file.
+             * @param transformations      An identifier of the transformations that are matching the type.
+             * @return The key of the cache entry.
+             */
+            private String toKey(String discriminator, byte[] binaryRepresentation, String transformations) {
+                byte[] digest;
+                try {
+                    MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
+                    messageDigest.update(version);
+                    messageDigest.update((byte) 0);
+                    messageDigest.update(discriminator.getBytes("UTF-8"));
+                    messageDigest.update((byte) 0);
+                    digest = messageDigest.digest(binaryRepresentation);
+                } catch (NoSuchAlgorithmException exception) {
+                    throw new IllegalStateException("Unknown digest algorithm: " + algorithm, exception);
+                } catch (UnsupportedEncodingException exception) {
+                    throw new IllegalStateException("Failed to encode discriminator: " + discriminator, exception);
+                }
+                StringBuilder stringBuilder = new StringBuilder(digest.length * 2 + transformations.length() + 1);
+                for (byte value : digest) {
+                    stringBuilder.append(HEX_DIGITS[(value >>> 4) & 0xF]).append(HEX_DIGITS[value & 0xF]);
+                }
+                return stringBuilder.append('-').append(transformations).toString();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public Entry lookup(String transformer, @Nullable ClassLoader classLoader, byte[] binaryRepresentation, String transformations) {
+                return doLookup(classLoader, toKey(toDiscriminator(transformer, classLoader), binaryRepresentation, transformations));
+            }
+
+            /**
+             * Returns a discriminator of the class file transformer and the class loader that is included in the digest of a cache entry.
+             *
+             * @param transformer An identifier of the class file transformer which is unique within the current VM.
+             * @param classLoader The class loader of the type or {@code null} if the type is loaded by the bootstrap class loader.
+             * @return A discriminator to include in the digest of a cache entry.
+             */
+            protected abstract String toDiscriminator(String transformer, @Nullable ClassLoader classLoader);
+
+            /**
+             * Resolves the cache entry for a key.
+             *
+             * @param classLoader The class loader of the type or {@code null} if the type is loaded by the bootstrap class loader.
+             * @param key         The key of the cache entry.
+             * @return The cache entry for the supplied key.
+             */
+            protected abstract Entry doLookup(@Nullable ClassLoader classLoader, String key);
+        }
+
+        /**
+         * A transformation cache that retains class files in memory up to a maximum number of bytes. If the maximum size is
+         * exceeded, the least recently used class files are evicted. Cache entries are only shared by types of the same class
+         * loader that are transformed by the same class file transformer. Class loaders are only referenced weakly.
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        class InMemory extends AbstractBase {
+
+            /**
+             * The version of an in-memory cache which does not outlive the current JVM.
+             */
+            private static final String NO_VERSION = "";
+
+            /**
+             * The default maximum size of all cached class files in bytes.
+             */
+            public static final long DEFAULT_MAXIMUM_SIZE = 32L * 1024L * 1024L;
+
+            /**
+             * The maximum size of all cached class files in bytes.
+             */
+            private final long maximumSize;
+
+            /**
+             * The cached class files by their keys in the order of their last access.
+             */
+            @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.IGNORE)
+            private final LinkedHashMap<Key, byte[]> entries;
+
+            /**
+             * The current size of all cached class files in bytes.
+             */
+            @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.IGNORE)
+            private long size;
+
+            /**
+             * Creates a new in-memory transformation cache with a default maximum size.
+             */
+            public InMemory() {
+                this(DEFAULT_MAXIMUM_SIZE);
+            }
+
+            /**
+             * Creates a new in-memory transformation cache.
+             *
+             * @param maximumSize The maximum size of all cached class files in bytes.
+             */
+            public InMemory(long maximumSize) {
+                this(DEFAULT_ALGORITHM, maximumSize);
+            }
+
+            /**
+             * Creates a new in-memory transformation cache.
+             *
+             * @param algorithm   The name of the digest algorithm.
+             * @param maximumSize The maximum size of all cached class files in bytes.
+             */
+            public InMemory(String algorithm, long maximumSize) {
+                super(algorithm, NO_VERSION);
+                if (maximumSize < 1) {
+                    throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+                }
+                this.maximumSize = maximumSize;
+                entries = new LinkedHashMap<Key, byte[]>(16, 0.75f, true);
+            }
+
+            /**
+             * Returns the current size of all cached class files in bytes.
+             *
+             * @return The current size of all cached class files in bytes.
+             */
+            public synchronized long getSize() {
+                return size;
+            }
+
+            @Override
+            protected String toDiscriminator(String transformer, @Nullable ClassLoader classLoader) {
+                return transformer;
+            }
+
+            @Override
+            protected Entry doLookup(@Nullable ClassLoader classLoader, String key) {
+                return new Key(key, classLoader);
+            }
+
+            /**
+             * Attempts to find a cached class file.
+             *
+             * @param key The key of the cache entry.
+             * @return The cached, transformed class file or {@code null} if no such class file is cached.
+             */
+            @Nullable
+            protected synchronized byte[] find(Key key) {
+                return entries.get(key);
+            }
+
+            /**
+             * Registers a transformed class file.
+             *
+             * @param key         The key of the cache entry.
+             * @param transformed The transformed class file.
+             */
+            protected synchronized void register(Key key, byte[] transformed) {
+                if (transformed.length > maximumSize) {
+                    return;
+                }
+                byte[] previous = entries.put(key, transformed);
+                size += transformed.length - (previous == null ? 0 : previous.length);
+                Iterator<byte[]> iterator = entries.values().iterator();
+                while (size > maximumSize && iterator.hasNext()) {
+                    size -= iterator.next().length;
+                    iterator.remove();
+                }
+            }
+
+            /**
+             * A key of an in-memory cache entry which only weakly references the class loader of the type by its identity.
+             */
+            protected class Key extends WeakReference<ClassLoader> implements Entry {
+
+                /**
+                 * The digest-based key of the cache entry.
+                 */
+                private final String value;
+
+                /**
+                 * {@code true} if the type is loaded by the bootstrap class loader.
+                 */
+                private final boolean bootstrap;
+
+                /**
+                 * The hash code of this key which is computed from the key and the class loader's identity.
+                 */
+                private final int hashCode;
+
+                /**
+                 * Creates a new key.
+                 *
+                 * @param value       The digest-based key of the cache entry.
+                 * @param classLoader The class loader of the type or {@code null} if the type is loaded by the bootstrap class loader.
+                 */
+                protected Key(String value, @Nullable ClassLoader classLoader) {
+                    super(classLoader);
+                    this.value = value;
+                    bootstrap = classLoader == null;
+                    hashCode = 31 * value.hashCode() + System.identityHashCode(classLoader);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Nullable
+                public byte[] find() {
+                    return InMemory.this.find(this);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void register(byte[] transformed) {
+                    InMemory.this.register(this, transformed);
+                }
+
+                @Override
+                public int hashCode() {
+                    return hashCode;
+                }
+
+                @Override
+                public boolean equals(Object other) {
+                    if (this == other) {
+                        return true;
+                    } else if (other == null || getClass() != other.getClass()) {
+                        return false;
+                    }
+                    Key key = (Key) other;
+                    return hashCode == key.hashCode
+                            && bootstrap == key.bootstrap
+                            && value.equals(key.value)
+                            && get() == key.get();
+                }
+            }
+        }
+
+        /**
+         * <p>
+         * A transformation cache that persists class files in a folder where each class file is stored in a separate file. A class
+         * file is written to a temporary file first and then moved to its final location such that concurrent readers never observe
+         * a partially written class file. Any I/O error is ignored such that a class file is transformed anew.
+         * </p>
+         * <p>
+         * <b>Important</b>: As the cache outlives the current JVM, a version must be supplied that changes whenever the applied
+         * transformers change, for example the version of the agent. Alternatively, a version can be derived from the class files
+         * of the types that implement the transformation via {@link ForFolder#of(File, Class[])}. As the identity of a class loader
+         * or of a class file transformer does not outlive the current JVM, the key of a cached class file only considers the type of
+         * a class loader but not its identity or a type's hierarchy.
+         * </p>
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        class ForFolder extends AbstractBase {
+
+            /**
+             * The file extension of a cached class file.
+             */
+            private static final String CLASS_FILE_EXTENSION = ".class";
+
+            /**
+             * The file extension of a temporary file.
+             */
+            private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+            /**
+             * The folder in which class files are cached.
+             */
+            private final File folder;
+
+            /**
+             * Creates a new transformation cache for a folder.
+             *
+             * @param folder  The folder in which class files are cached.
+             * @param version The version of the applied transformers which is included in the key of any cache entry.
+             */
+            public ForFolder(File folder, String version) {
+                this(DEFAULT_ALGORITHM, folder, version);
+            }
+
+            /**
+             * Creates a new transformation cache for a folder.
+             *
+             * @param algorithm The name of the digest algorithm.
+             * @param folder    The folder in which class files are cached.
+             * @param version   The version of the applied transformers which is included in the key of any cache entry.
+             */
+            public ForFolder(String algorithm, File folder, String version) {
+                super(algorithm, version);
+                this.folder = folder;
+            }
+
+            /**
+             * Creates a new transformation cache for a folder where the version is derived from the class files of the supplied types.
+             * Typically, these types are the transformers and any advice classes that they apply.
+             *
+             * @param folder The folder in which class files are cached.
+             * @param type   The types that implement the applied transformations.
+             * @return A transformation cache for the supplied folder.
+             * @throws IOException If a class file cannot be read.
+             */
+            public static TransformationCache of(File folder, Class<?>... type) throws IOException {
+                MessageDigest messageDigest;
+                try {
+                    messageDigest = MessageDigest.getInstance(DEFAULT_ALGORITHM);
+                } catch (NoSuchAlgorithmException exception) {
+                    throw new IllegalStateException("Unknown digest algorithm: " + DEFAULT_ALGORITHM, exception);
+                }
+                for (Class<?> aType : type) {
+                    messageDigest.update(ClassFileLocator.ForClassLoader.read(aType));
+                }
+                byte[] digest = messageDigest.digest();
+                StringBuilder stringBuilder = new StringBuilder(digest.length * 2);
+                for (byte value : digest) {
+                    stringBuilder.append(AbstractBase.HEX_DIGITS[(value >>> 4) & 0xF]).append(AbstractBase.HEX_DIGITS[value & 0xF]);
+                }
+                return new ForFolder(folder, stringBuilder.toString());
+            }
+
+            @Override
+            protected String toDiscriminator(String transformer, @Nullable ClassLoader classLoader) {
+                return classLoader == null
+                        ? ""
+                        : classLoader.getClass().getName();
+            }
+
+            @Override
+            protected Entry doLookup(@Nullable ClassLoader classLoader, String key) {
+                return new CacheFile(key);
+            }
+
+            /**
+             * Attempts to find a cached class file.
+             *
+             * @param key The key of the cache entry.
+             * @return The cached, transformed class file or {@code null} if no such class file is cached.
+             */
+            @Nullable
+            protected byte[] find(String key) {
+                File file = new File(folder, key + CLASS_FILE_EXTENSION);
+                if (!file.isFile()) {
+                    return null;
+                }
+                try {
+                    InputStream inputStream = new FileInputStream(file);
+                    try {
+                        return StreamDrainer.DEFAULT.drain(inputStream);
+                    } finally {
+                        inputStream.close();
+                    }
+                } catch (IOException ignored) {
+                    return null;
+                }
+            }
+
+            /**
+             * Registers a transformed class file.
+             *
+             * @param key         The key of the cache entry.
+             * @param transformed The transformed class file.
+             */
+            protected void register(String key, byte[] transformed) {
+                if (!folder.isDirectory() && !folder.mkdirs() && !folder.isDirectory()) {
+                    return;
+                }
+                try {
+                    File temporary = File.createTempFile(key, TEMPORARY_FILE_EXTENSION, folder);
+                    try {
+                        OutputStream outputStream = new FileOutputStream(temporary);
+                        try {
+                            outputStream.write(transformed);
+                        } finally {
+                            outputStream.close();
+                        }
+                        if (!temporary.renameTo(new File(folder, key + CLASS_FILE_EXTENSION))) {
+                            return;
+                        }
+                    } finally {
+                        if (temporary.exists() && !temporary.delete()) {
+                            temporary.deleteOnExit();
+                        }
+                    }
+                } catch (IOException ignored) {
+                    /* do nothing */
+                }
+            }
+
+            /**
+             * A cache entry that is represented by a file within the cache folder.
+             */
+            @HashCodeAndEqualsPlugin.Enhance(includeSyntheticFields = true)
+            protected class CacheFile implements Entry {
+
+                /**
+                 * The key of the cache entry.
+                 */
+                private final String key;
+
+                /**
+                 * Creates a new cache file entry.
+                 *
+                 * @param key The key of the cache entry.
+                 */
+                protected CacheFile(String key) {
+                    this.key = key;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Nullable
+                public byte[] find() {
+                    return ForFolder.this.find(key);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void register(byte[] transformed) {
+                    ForFolder.this.register(key, transformed);
+                }
+            }
+        }
+
+        /**
+         * A compound transformation cache that queries its caches in their order. If a class file is found in a cache, it is registered
+         * in all previous caches. This way, an in-memory cache can be combined with a persistent cache.
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        class Compound implements TransformationCache {
+
+            /**
+             * The represented transformation caches in their application order.
+             */
+            private final List<TransformationCache> transformationCaches;
+
+            /**
+             * Creates a new compound transformation cache.
+             *
+             * @param transformationCache The represented transformation caches in their application order.
+             */
+            public Compound(TransformationCache... transformationCache) {
+                this(Arrays.asList(transformationCache));
+            }
+
+            /**
+             * Creates a new compound transformation cache.
+             *
+             * @param transformationCaches The represented transformation caches in their application order.
+             */
+            public Compound(List<? extends TransformationCache> transformationCaches) {
+                this.transformationCaches = new ArrayList<TransformationCache>();
+                for (TransformationCache transformationCache : transformationCaches) {
+                    if (transformationCache instanceof Compound) {
+                        this.transformationCaches.addAll(((Compound) transformationCache).transformationCaches);
+                    } else if (!(transformationCache instanceof NoOp)) {
+                        this.transformationCaches.add(transformationCache);
+                    }
+                }
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public Entry lookup(String transformer, @Nullable ClassLoader classLoader, byte[] binaryRepresentation, String transformations) {
+                List<Entry> entries = new ArrayList<Entry>(transformationCaches.size());
+                for (TransformationCache transformationCache : transformationCaches) {
+                    entries.add(transformationCache.lookup(transformer, classLoader, binaryRepresentation, transformations));
+                }
+                return new CompoundEntry(entries);
+            }
+
+            /**
+             * A compound entry of the represented transformation caches.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            protected static class CompoundEntry implements Entry {
+
+                /**
+                 * The entries of the represented transformation caches in their application order.
+                 */
+                private final List<Entry> entries;
+
+                /**
+                 * Creates a new compound entry.
+                 *
+                 * @param entries The entries of the represented transformation caches in their application order.
+                 */
+                protected CompoundEntry(List<Entry> entries) {
+                    this.entries = entries;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Nullable
+                public byte[] find() {
+                    for (int index = 0; index < entries.size(); index++) {
+                        byte[] transformed = entries.get(index).find();
+                        if (transformed != null) {
+                            for (Entry entry : entries.subList(0, index)) {
+                                entry.register(transformed);
+                            }
+                            return transformed;
+                        }
+                    }
+                    return null;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void register(byte[] transformed) {
+                    for (Entry entry : entries) {
+                        entry.register(transformed);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * A transformation monitor receives the time and the number of allocated bytes that a class file transformer spends in the different
+     * phases of transforming a type and within each transformation. A monitor is notified from within the class file transformer such that
+     * it should be cheap to notify.
+     * </p>
+     * <p>
+     * Transformations are identified by their position within the class file transformer's transformations, in the order of their registration.
+     * </p>
+     */
+    interface TransformationMonitor {
+
+        /**
+         * Begins the monitoring of the transformation of a type. The returned probe is only used by the thread that is applying the transformation.
+         *
+         * @param typeName The binary name of the instrumented type.
+         * @return A probe for monitoring the transformation of the type.
+         */
+        Probe begin(String typeName);
+
+        /**
+         * A phase of transforming a type.
+         */
+        enum Phase {
+
+            /**
+             * The resolution of the instrumented type's description.
+             */
+            DESCRIPTION,
+
+            /**
+             * The matching of the instrumented type against the ignore matcher and the registered transformations.
+             */
+            MATCHING,
+
+            /**
+             * The creation of the type builder and the application of all transformers.
+             */
+            BUILDER,
+
+            /**
+             * The creation of the dynamic type from the type builder.
+             */
+            MAKE,
+
+            /**
+             * The registration of the dynamic type's initialization and the emission of its class file.
+             */
+            EMISSION
+        }
+
+        /**
+         * A probe that is notified about the transformation of a single type.
+         */
+        interface Probe {
+
+            /**
+             * Indicates that a transformation completed a phase with the instrumented type. The recorded effort is measured since the last
+             * notification about this transformation or since the beginning of the phase.
+             *
+             * @param transformation The position of the transformation.
+             * @param phase          The phase that was completed, either {@link Phase#MATCHING} or {@link Phase#BUILDER}.
+             */
+            void onTransformation(int transformation, Phase phase);
+
+            /**
+             * Indicates that a phase was completed. The recorded effort is measured since the completion of the previous phase.
+             *
+             * @param phase The phase that was completed.
+             */
+            void onPhase(Phase phase);
+        }
+
+        /**
+         * A non-operational transformation monitor.
+         */
+        enum NoOp implements TransformationMonitor, Probe {
+
+            /**
+             * The singleton instance.
+             */
+            INSTANCE;
+
+            /**
+             * {@inheritDoc}
+             */
+            public Probe begin(String typeName) {
+                return this;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public void onTransformation(int transformation, Phase phase) {
+                /* do nothing */
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public void onPhase(Phase phase) {
+                /* do nothing */
+            }
+        }
+
+        /**
+         * The management interface of a {@link Recording} which allows for exporting a recording via JMX.
+         */
+        interface RecordingMBean {
+
+            /**
+             * Returns a human-readable summary of all recorded metrics.
+             *
+             * @return A human-readable summary of all recorded metrics.
+             */
+            String getSummary();
+
+            /**
+             * Returns the number of times a phase was completed.
+             *
+             * @param phase The name of the phase.
+             * @return The number of times the phase was completed.
+             */
+            long getCount(String phase);
+
+            /**
+             * Returns the total time spent in a phase.
+             *
+             * @param phase The name of the phase.
+             * @return The total time spent in the phase in nanoseconds.
+             */
+            long getTotalNanos(String phase);
+
+            /**
+             * Returns the maximum time spent in a phase for a single type.
+             *
+             * @param phase The name of the phase.
+             * @return The maximum time spent in the phase for a single type in nanoseconds.
+             */
+            long getMaximumNanos(String phase);
+
+            /**
+             * Returns the number of bytes that were allocated in a phase.
+             *
+             * @param phase The name of the phase.
+             * @return The number of bytes that were allocated in a phase or {@code 0} if the current VM does not support measuring allocations.
+             */
+            long getAllocatedBytes(String phase);
+
+            /**
+             * Resets all recorded metrics.
+             */
+            void reset();
+        }
+
+        /**
+         * <p>
+         * A transformation monitor that records histograms of the time spent in every phase and in every transformation. If the current VM
+         * supports measuring the bytes allocated by a thread, the allocated bytes are recorded, too. All metrics can be polled from this
+         * instance or be exported via JMX by registering this recording as a standard MBean, for example via
+         * {@code ManagementFactory.getPlatformMBeanServer().registerMBean(recording, new ObjectName("net.bytebuddy:type=AgentBuilder"))}.
+         * </p>
+         * <p>
+         * <b>Note</b>: A recording uses the {@code java.lang.management} API which is not available on all platforms.
+         * </p>
+         */
+        class Recording implements TransformationMonitor, RecordingMBean {
+
+            /**
+             * A dispatcher for measuring the bytes that were allocated by a thread.
+             */
+            private static final ThreadMXBean THREAD_MX_BEAN = AgentBuilder.Default.doPrivileged(JavaDispatcher.of(ThreadMXBean.class));
+
+            /**
+             * The histograms of all phases by the phases' ordinals.
+             */
+            private final Histogram[] phases;
+
+            /**
+             * The histograms of all transformations by their positions and the phases' ordinals.
+             */
+            private final ConcurrentMap<Integer, Histogram[]> transformations;
+
+            /**
+             * The thread management bean to use for measuring allocations or {@code null} if allocations are not measured.
+             */
+            @Nullable
+            private final java.lang.management.ThreadMXBean threadMXBean;
+
+            /**
+             * Creates a new recording that records allocations if supported by the current VM.
+             */
+            public Recording() {
+                this(true);
+            }
+
+            /**
+             * Creates a new recording.
+             *
+             * @param allocations {@code true} if allocations should be recorded if supported by the current VM.
+             */
+            public Recording(boolean allocations) {
+                phases = histograms();
+                transformations = new ConcurrentHashMap<Integer, Histogram[]>();
+                java.lang.management.ThreadMXBean threadMXBean = allocations
+                        ? ManagementFactory.getThreadMXBean()
+                        : null;
+                this.threadMXBean = threadMXBean != null
+                        && THREAD_MX_BEAN.isInstance(threadMXBean)
+                        && THREAD_MX_BEAN.isThreadAllocatedMemorySupported(threadMXBean)
+                        && THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled(threadMXBean) ? threadMXBean : null;
+            }
+
+            /**
+             * Creates an array of histograms, one for each phase.
+             *
+             * @return An array of histograms, one for each phase.
+             */
+            private static Histogram[] histograms() {
+                Histogram[] histogram = new Histogram[Phase.values().length];
+                for (int index = 0; index < histogram.length; index++) {
+                    histogram[index] = new Histogram();
+                }
+                return histogram;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public Probe begin(String typeName) {
+                return new RecordingProbe();
+            }
+
+            /**
+             * Returns the number of bytes that were allocated by the current thread.
+             *
+             * @return The number of bytes that were allocated by the current thread or {@code 0} if allocations are not recorded.
+             */
+            @SuppressWarnings("deprecation")
+            private long allocated() {
+                return threadMXBean == null
+                        ? 0L
+                        : Math.max(0L, THREAD_MX_BEAN.getThreadAllocatedBytes(threadMXBean, Thread.currentThread().getId()));
+            }
+
+            /**
+             * Returns {@code true} if allocations are recorded.
+             *
+             * @return {@code true} if allocations are recorded.
+             */
+            public boolean isRecordingAllocations() {
+                return threadMXBean != null;
+            }
+
+            /**
+             * Returns the histogram of a phase.
+             *
+             * @param phase The phase.
+             * @return The histogram of the phase.
+             */
+            public Histogram getHistogram(Phase phase) {
+                return phases[phase.ordinal()];
+            }
+
+            /**
+             * Returns the histogram of a transformation within a phase.
+             *
+             * @param transformation The position of the transformation.
+             * @param phase          The phase.
+             * @return The histogram of the transformation within the phase or {@code null} if no metrics were recorded for the transformation.
+             */
+            @Nullable
+            public Histogram getHistogram(int transformation, Phase phase) {
+                Histogram[] histograms = transformations.get(transformation);
+                return histograms == null
+                        ? null
+                        : histograms[phase.ordinal()];
+            }
+
+            /**
+             * Returns the positions of all transformations for which metrics were recorded.
+             *
+             * @return The positions of all transformations for which metrics were recorded.
+             */
+            public Set<Integer> getTransformations() {
+                return new TreeSet<Integer>(transformations.keySet());
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public String getSummary() {
+                StringBuilder stringBuilder = new StringBuilder();
+                for (Phase phase : Phase.values()) {
+                    stringBuilder.append(phase).append(": ").append(phases[phase.ordinal()]).append('\n');
+                }
+                for (Integer transformation : getTransformations()) {
+                    Histogram[] histograms = transformations.get(transformation);
+                    for (Phase phase : Phase.values()) {
+                        if (histograms[phase.ordinal()].getCount() > 0) {
+                            stringBuilder.append("Transformation ").append(transformation).append(' ').append(phase).append(": ")
+                                    .append(histograms[phase.ordinal()])
+                                    .append('\n');
+                        }
+                    }
+                }
+                return stringBuilder.toString();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public long getCount(String phase) {
+                return getHistogram(Phase.valueOf(phase)).getCount();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public long getTotalNanos(String phase) {
+                return getHistogram(Phase.valueOf(phase)).getTotalNanos();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public long getMaximumNanos(String phase) {
+                return getHistogram(Phase.valueOf(phase)).getMaximumNanos();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public long getAllocatedBytes(String phase) {
+                return getHistogram(Phase.valueOf(phase)).getAllocatedBytes();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public void reset() {
+                for (Histogram histogram : phases) {
+                    histogram.reset();
+                }
+                transformations.clear();
+            }
+
+            /**
+             * A dispatcher for measuring the bytes that were allocated by a thread.
+             */
+            @JavaDispatcher.Proxied("com.sun.management.ThreadMXBean")
+            protected interface ThreadMXBean {
+
+                /**
+                 * Returns {@code true} if the supplied thread management bean implements {@code com.sun.management.ThreadMXBean}.
+                 *
+                 * @param value The thread management bean to consider.
+                 * @return {@code true} if the supplied thread management bean implements {@code com.sun.management.ThreadMXBean}.
+                 */
+                @JavaDispatcher.Instance
+                boolean isInstance(java.lang.management.ThreadMXBean value);
+
+                /**
+                 * Returns {@code true} if the supplied thread management bean supports measuring allocations.
+                 *
+                 * @param value The thread management bean to consider.
+                 * @return {@code true} if the supplied thread management bean supports measuring allocations.
+                 */
+                @JavaDispatcher.Defaults
+                boolean isThreadAllocatedMemorySupported(java.lang.management.ThreadMXBean value);
+
+                /**
+                 * Returns {@code true} if the supplied thread management bean measures allocations.
+                 *
+                 * @param value The thread management bean to consider.
+                 * @return {@code true} if the supplied thread management bean measures allocations.
+                 */
+                @JavaDispatcher.Defaults
+                boolean isThreadAllocatedMemoryEnabled(java.lang.management.ThreadMXBean value);
+
+                /**
+                 * Returns the number of bytes that were allocated by a thread.
+                 *
+                 * @param value The thread management bean to use.
+                 * @param id    The id of the thread.
+                 * @return The number of bytes that were allocated by the thread or a negative value if the thread is not alive.
+                 */
+                @JavaDispatcher.Defaults
+                long getThreadAllocatedBytes(java.lang.management.ThreadMXBean value, long id);
+            }
+
+            /**
+             * A histogram of the time and the allocated bytes of a phase or a transformation. Times are counted in buckets of powers of two.
+             */
+            public static class Histogram {
+
+                /**
+                 * The number of buckets.
+                 */
+                private static final int BUCKETS = 64;
+
+                /**
+                 * The number of recorded values.
+                 */
+                private final AtomicLong count;
+
+                /**
+                 * The total recorded time in nanoseconds.
+                 */
+                private final AtomicLong totalNanos;
+
+                /**
+                 * The maximum recorded time in nanoseconds.
+                 */
+                private final AtomicLong maximumNanos;
+
+                /**
+                 * The total number of allocated bytes.
+                 */
+                private final AtomicLong allocatedBytes;
+
+                /**
+                 * The number of recorded values within each bucket where the bucket with index {@code n} contains all values below {@code 2^n}.
+                 */
+                private final AtomicLongArray buckets;
+
+                /**
+                 * Creates a new histogram.
+                 */
+                protected Histogram() {
+                    count = new AtomicLong();
+                    totalNanos = new AtomicLong();
+                    maximumNanos = new AtomicLong();
+                    allocatedBytes = new AtomicLong();
+                    buckets = new AtomicLongArray(BUCKETS);
+                }
+
+                /**
+                 * Records a value.
+                 *
+                 * @param nanos          The recorded time in nanoseconds.
+                 * @param allocatedBytes The number of allocated bytes.
+                 */
+                protected void record(long nanos, long allocatedBytes) {
+                    nanos = Math.max(0L, nanos);
+                    count.incrementAndGet();
+                    totalNanos.addAndGet(nanos);
+                    this.allocatedBytes.addAndGet(Math.max(0L, allocatedBytes));
+                    long maximum;
+                    do {
+                        maximum = maximumNanos.get();
+                    } while (nanos > maximum && !maximumNanos.compareAndSet(maximum, nanos));
+                    buckets.incrementAndGet(Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(nanos)));
+                }
+
+                /**
+                 * Resets this histogram.
+                 */
+                protected void reset() {
+                    count.set(0L);
+                    totalNanos.set(0L);
+                    maximumNanos.set(0L);
+                    allocatedBytes.set(0L);
+                    for (int index = 0; index < BUCKETS; index++) {
+                        buckets.set(index, 0L);
+                    }
+                }
+
+                /**
+                 * Returns the number of recorded values.
+                 *
+                 * @return The number of recorded values.
+                 */
+                public long getCount() {
+                    return count.get();
+                }
+
+                /**
+                 * Returns the total recorded time.
+                 *
+                 * @return The total recorded time in nanoseconds.
+                 */
+                public long getTotalNanos() {
+                    return totalNanos.get();
+                }
+
+                /**
+                 * Returns the maximum recorded time.
+                 *
+                 * @return The maximum recorded time in nanoseconds.
+                 */
+                public long getMaximumNanos() {
+                    return maximumNanos.get();
+                }
+
+                /**
+                 * Returns the total number of allocated bytes.
+                 *
+                 * @return The total number of allocated bytes.
+                 */
+                public long getAllocatedBytes() {
+                    return allocatedBytes.get();
+                }
+
+                /**
+                 * Returns an upper bound of the time within which the given percentile of all recorded values were measured.
+                 *
+                 * @param percentile The percentile between {@code 0} and {@code 100}.
+                 * @return An upper bound of the time of the given percentile in nanoseconds.
+                 */
+                public long getPercentileNanos(double percentile) {
+                    if (percentile < 0 || percentile > 100) {
+                        throw new IllegalArgumentException("Percentile must be within 0 and 100: " + percentile);
+                    }
+                    long threshold = (long) Math.ceil(count.get() * percentile / 100), current = 0L;
+                    for (int index = 0; index < BUCKETS; index++) {
+                        current += buckets.get(index);
+                        if (current >= threshold && current > 0) {
+                            return index == BUCKETS - 1
+                                    ? Long.MAX_VALUE
+                                    : 1L << index;
+                        }
+                    }
+                    return 0L;
+                }
+
+                @Override
+                public String toString() {
+                    return "count=" + getCount()
+                            + ", total=" + getTotalNanos() + "ns"
+                            + ", p50<=" + getPercentileNanos(50) + "ns"
+                            + ", p99<=" + getPercentileNanos(99) + "ns"
+                            + ", max=" + getMaximumNanos() + "ns"
+                            + ", allocated=" + getAllocatedBytes() + "B";
+                }
+            }
+
+            /**
+             * A probe that records the transformation of a single type.
+             */
+            protected class RecordingProbe implements Probe {
+
+                /**
+                 * The time at which the current phase began.
+                 */
+                private long phaseNanos;
+
+                /**
+                 * The number of allocated bytes at the beginning of the current phase.
+                 */
+                private long phaseAllocation;
+
+                /**
+                 * The time of the last notification.
+                 */
+                private long markNanos;
+
+                /**
+                 * The number of allocated bytes at the last notification.
+                 */
+                private long markAllocation;
+
+                /**
+                 * Creates a new recording probe.
+                 */
+                protected RecordingProbe() {
+                    phaseNanos = markNanos = System.nanoTime();
+                    phaseAllocation = markAllocation = allocated();
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void onTransformation(int transformation, Phase phase) {
+                    long nanos = System.nanoTime(), allocation = allocated();
+                    Histogram[] histograms = transformations.get(transformation);
+                    if (histograms == null) {
+                        histograms = histograms();
+                        Histogram[] previous = transformations.putIfAbsent(transformation, histograms);
+                        if (previous != null) {
+                            histograms = previous;
+                        }
+                    }
+                    histograms[phase.ordinal()].record(nanos - markNanos, allocation - markAllocation);
+                    markNanos = nanos;
+                    markAllocation = allocation;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void onPhase(Phase phase) {
+                    long nanos = System.nanoTime(), allocation = allocated();
+                    phases[phase.ordinal()].record(nanos - phaseNanos, allocation - phaseAllocation);
+                    phaseNanos = markNanos = nanos;
+                    phaseAllocation = markAllocation = allocation;
+                }
+            }
+        }
+    }
+
+    /**
+     * A decorator that allows to change the class file transformer that is registered.
+     */
+    interface TransformerDecorator {
+
+        /**
+         * Decorates the applied class file transformer.
+         *
+         * @param classFileTransformer The original transformer created by the agent builder.
+         * @return The class file transformer that is actually being registered.
+         */
+        ResettableClassFileTransformer decorate(ResettableClassFileTransformer classFileTransformer);
+
+        /**
+         * A transformer decorator that retains the original transformer.
+         */
+        enum NoOp implements TransformerDecorator {
+
+            /**
+             * The singleton instance.
+             */
+            INSTANCE;
+
+            /**
+             * {@inheritDoc}
+             */
+            public ResettableClassFileTransformer decorate(ResettableClassFileTransformer classFileTransformer) {
+                return classFileTransformer;
+            }
+        }
+
+        /**
+         * A compound transformer decorator.
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        class Compound implements TransformerDecorator {
+
+            /**
+             * The listeners to invoke.
+             */
+            private final List<TransformerDecorator> transformerDecorators;
+
+            /**
+             * Creates a new compound transformer decorator.
+             *
+             * @param transformerDecorator The transformer decorators to add.
+             */
+            public Compound(TransformerDecorator... transformerDecorator) {
+                this(Arrays.asList(transformerDecorator));
+            }
+
+            /**
+             * Creates a new compound listener.
+             *
+             * @param transformerDecorators The transformerDecorators to invoke.
+             */
+            public Compound(List<? extends TransformerDecorator> transformerDecorators) {
+                this.transformerDecorators = new ArrayList<TransformerDecorator>();
+                for (TransformerDecorator transformerDecorator : transformerDecorators) {
+                    if (transformerDecorator instanceof Compound) {
+                        this.transformerDecorators.addAll(((Compound) transformerDecorator).transformerDecorators);
+                    } else if (!(transformerDecorator instanceof NoOp)) {
+                        this.transformerDecorators.add(transformerDecorator);
+                    }
+                }
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public ResettableClassFileTransformer decorate(ResettableClassFileTransformer classFileTransformer) {
+                for (TransformerDecorator transformerDecorator : transformerDecorators) {
+                    classFileTransformer = transformerDecorator.decorate(classFileTransformer);
+                }
+                return classFileTransformer;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * A redefinition strategy regulates how already loaded classes are modified by a built agent.
+     * </p>
+     * <p>
+     * <b>Important</b>: Most JVMs do not support changes of a class's structure after a class was already
+     * loaded. Therefore, it is typically required that this class file transformer was built while enabling
+     * {@link AgentBuilder#disableClassFormatChanges()}.
+     * </p>
+     */
+    enum RedefinitionStrategy {
+
+        /**
+         * Disables redefinition such that already loaded classes are not affected by the agent.
+         */
+        DISABLED(false, false) {
+            @Override
+            public void apply(Instrumentation instrumentation,
+                              PoolStrategy poolStrategy, LocationStrategy locationStrategy, DescriptionStrategy descriptionStrategy, FallbackStrategy fallbackStrategy, DiscoveryStrategy discoveryStrategy, MatchingStrategy matchingStrategy, LambdaInstrumentationStrategy lambdaInstrumentationStrategy, AgentBuilder.Listener listener,
+                              Listener redefinitionListener, RawMatcher matcher, BatchAllocator redefinitionBatchAllocator, CircularityLock circularityLock) {
+                /* do nothing */
+            }
+
+            @Override
+            protected void check(Instrumentation instrumentation) {
+                throw new IllegalStateException("Cannot apply redefinition on disabled strategy");
+            }
+
+            @Override
+            protected Collector make(PoolStrategy poolStrategy,
+                                     LocationStrategy locationStrategy,
                                      DescriptionStrategy descriptionStrategy,
                                      FallbackStrategy fallbackStrategy,
                                      AgentBuilder.Listener listener,
@@ -5591,6 +8067,7 @@ public interface AgentBuilder {
          * @param descriptionStrategy           The description strategy for resolving type descriptions for types.
          * @param fallbackStrategy              The fallback strategy to apply.
          * @param redefinitionDiscoveryStrategy The discovery strategy for loaded types to be redefined.
+         * @param redefinitionMatchingStrategy  The matching strategy for loaded types to be redefined.
          * @param lambdaInstrumentationStrategy A strategy to determine of the {@code LambdaMetafactory} should be instrumented to allow for the
          *                                      instrumentation of classes that represent lambda expressions.
          * @param listener                      The listener to notify on transformations.
@@ -5605,6 +8082,7 @@ public interface AgentBuilder {
                              DescriptionStrategy descriptionStrategy,
                              FallbackStrategy fallbackStrategy,
                              DiscoveryStrategy redefinitionDiscoveryStrategy,
+                             MatchingStrategy redefinitionMatchingStrategy,
                              LambdaInstrumentationStrategy lambdaInstrumentationStrategy,
                              AgentBuilder.Listener listener,
                              Listener redefinitionListener,
@@ -5621,12 +8099,14 @@ public interface AgentBuilder {
                         listener,
                         matcher,
                         circularityLock);
+                List<Class<?>> candidates = new ArrayList<Class<?>>();
                 for (Class<?> type : types) {
                     if (type == null || type.isArray() || type.isPrimitive() || !lambdaInstrumentationStrategy.isInstrumented(type)) {
                         continue;
                     }
-                    collector.consider(type, DISPATCHER.isModifiableClass(instrumentation, type) || ClassFileVersion.ofThisVm(ClassFileVersion.JAVA_V5).isAtMost(ClassFileVersion.JAVA_V5));
+                    candidates.add(type);
                 }
+                collector.consider(instrumentation, candidates, redefinitionMatchingStrategy);
                 batch = collector.apply(instrumentation, redefinitionBatchAllocator, redefinitionListener, batch);
             }
         }
@@ -5652,6 +8132,23 @@ public interface AgentBuilder {
              */
             Iterable<? extends List<Class<?>>> batch(List<Class<?>> types);
 
+            /**
+             * An iterable of batches that is notified of the time it took to apply each of its batches. If an iterable that is
+             * returned by {@link BatchAllocator#batch(List)} implements this interface, the duration of each successful redefinition
+             * or retransformation is reported to it. The reported duration does not include the time that is spent within a
+             * {@link RedefinitionStrategy.Listener}.
+             */
+            interface Feedback {
+
+                /**
+                 * Invoked after a batch was successfully applied.
+                 *
+                 * @param batch The types included in the applied batch.
+                 * @param nanos The time it took to apply the batch in nanoseconds.
+                 */
+                void onApplied(List<Class<?>> batch, long nanos);
+            }
+
             /**
              * A batch allocator that includes all types in a single batch.
              */
@@ -6052,23 +8549,231 @@ public interface AgentBuilder {
                     return new Partitioning(parts);
                 }
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public Iterable<? extends List<Class<?>>> batch(List<Class<?>> types) {
-                    if (types.isEmpty()) {
-                        return Collections.emptyList();
-                    } else {
-                        List<List<Class<?>>> batches = new ArrayList<List<Class<?>>>();
-                        int size = types.size() / parts, reminder = types.size() % parts;
-                        for (int index = reminder; index < types.size(); index += size) {
-                            batches.add(new ArrayList<Class<?>>(types.subList(index, index + size)));
+                /**
+                 * {@inheritDoc}
+                 */
+                public Iterable<? extends List<Class<?>>> batch(List<Class<?>> types) {
+                    if (types.isEmpty()) {
+                        return Collections.emptyList();
+                    } else {
+                        List<List<Class<?>>> batches = new ArrayList<List<Class<?>>>();
+                        int size = types.size() / parts, reminder = types.size() % parts;
+                        for (int index = reminder; index < types.size(); index += size) {
+                            batches.add(new ArrayList<Class<?>>(types.subList(index, index + size)));
+                        }
+                        if (batches.isEmpty()) {
+                            return Collections.singletonList(types);
+                        } else {
+                            batches.get(0).addAll(0, types.subList(0, reminder));
+                            return batches;
+                        }
+                    }
+                }
+            }
+
+            /**
+             * <p>
+             * A batch allocator that sizes batches such that the application of each batch approaches a target pause time. The first
+             * batch contains the minimum amount of types. Thereafter, the time it took to apply each batch is used for estimating the
+             * time that is required for redefining a single type, what determines the size of the next batch. To avoid overshooting
+             * the target pause time, a batch is never more than twice as big as its preceding batch.
+             * </p>
+             * <p>
+             * <b>Note</b>: The measured time only includes the redefinition or retransformation itself, but not the time that is
+             * spent within a {@link RedefinitionStrategy.Listener}. This allows for combining this allocator with a listener such as
+             * {@link RedefinitionStrategy.Listener.Pausing} to allow the application to progress between two batches.
+             * </p>
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            class ForPauseBudget implements BatchAllocator {
+
+                /**
+                 * The targeted pause time in nanoseconds.
+                 */
+                private final long target;
+
+                /**
+                 * The minimum size of each batch.
+                 */
+                private final int minimum;
+
+                /**
+                 * The maximum size of each batch.
+                 */
+                private final int maximum;
+
+                /**
+                 * Creates a new batch allocator that is driven by a pause budget.
+                 *
+                 * @param target  The targeted pause time in nanoseconds.
+                 * @param minimum The minimum size of each batch.
+                 * @param maximum The maximum size of each batch.
+                 */
+                protected ForPauseBudget(long target, int minimum, int maximum) {
+                    this.target = target;
+                    this.minimum = minimum;
+                    this.maximum = maximum;
+                }
+
+                /**
+                 * Creates a batch allocator that sizes batches to approach the specified pause time.
+                 *
+                 * @param value    The targeted pause time per batch.
+                 * @param timeUnit The time unit of {@code value}.
+                 * @return An appropriate batch allocator.
+                 */
+                public static BatchAllocator of(long value, TimeUnit timeUnit) {
+                    return of(value, timeUnit, 1, Integer.MAX_VALUE);
+                }
+
+                /**
+                 * Creates a batch allocator that sizes batches to approach the specified pause time.
+                 *
+                 * @param value    The targeted pause time per batch.
+                 * @param timeUnit The time unit of {@code value}.
+                 * @param minimum  The minimum size of each batch.
+                 * @param maximum  The maximum size of each batch.
+                 * @return An appropriate batch allocator.
+                 */
+                public static BatchAllocator of(long value, TimeUnit timeUnit, int minimum, int maximum) {
+                    if (value <= 0L) {
+                        throw new IllegalArgumentException("Pause time must be a positive number: " + value);
+                    } else if (minimum <= 0) {
+                        throw new IllegalArgumentException("Minimum must be a positive number: " + minimum);
+                    } else if (minimum > maximum) {
+                        throw new IllegalArgumentException("Minimum must not be bigger than maximum: " + minimum + " >" + maximum);
+                    }
+                    return new ForPauseBudget(timeUnit.toNanos(value), minimum, maximum);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public Iterable<? extends List<Class<?>>> batch(List<Class<?>> types) {
+                    return types.isEmpty()
+                            ? Collections.<List<Class<?>>>emptyList()
+                            : new BudgetedIterable(target, minimum, maximum, types);
+                }
+
+                /**
+                 * An iterable that adjusts the size of its batches according to the time it took to apply previous batches.
+                 */
+                protected static class BudgetedIterable implements Iterable<List<Class<?>>>, Feedback {
+
+                    /**
+                     * The targeted pause time in nanoseconds.
+                     */
+                    private final long target;
+
+                    /**
+                     * The minimum size of each batch.
+                     */
+                    private final int minimum;
+
+                    /**
+                     * The maximum size of each batch.
+                     */
+                    private final int maximum;
+
+                    /**
+                     * The types to batch.
+                     */
+                    private final List<Class<?>> types;
+
+                    /**
+                     * The size of the next batch.
+                     */
+                    private int size;
+
+                    /**
+                     * The estimated time in nanoseconds to apply a single type or {@code 0} if no estimate is available.
+                     */
+                    private double estimate;
+
+                    /**
+                     * Creates a new budgeted iterable.
+                     *
+                     * @param target  The targeted pause time in nanoseconds.
+                     * @param minimum The minimum size of each batch.
+                     * @param maximum The maximum size of each batch.
+                     * @param types   The types to batch.
+                     */
+                    protected BudgetedIterable(long target, int minimum, int maximum, List<Class<?>> types) {
+                        this.target = target;
+                        this.minimum = minimum;
+                        this.maximum = maximum;
+                        this.types = types;
+                        size = minimum;
+                    }
+
+                    /**
+                     * Returns the size of the next batch.
+                     *
+                     * @return The size of the next batch.
+                     */
+                    protected int getSize() {
+                        return size;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void onApplied(List<Class<?>> batch, long nanos) {
+                        if (batch.isEmpty()) {
+                            return;
+                        }
+                        double observed = Math.max(0L, nanos) / (double) batch.size();
+                        estimate = estimate == 0d
+                                ? observed
+                                : (estimate + observed) / 2d;
+                        long size = Math.min(maximum, 2L * this.size);
+                        if (estimate > 0d) {
+                            size = Math.min(size, (long) (target / estimate));
+                        }
+                        this.size = (int) Math.max(minimum, size);
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Iterator<List<Class<?>>> iterator() {
+                        return new BudgetedIterator();
+                    }
+
+                    /**
+                     * An iterator that creates batches of the currently estimated size.
+                     */
+                    protected class BudgetedIterator implements Iterator<List<Class<?>>> {
+
+                        /**
+                         * The index of the first type of the next batch.
+                         */
+                        private int index;
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public boolean hasNext() {
+                            return index < types.size();
+                        }
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public List<Class<?>> next() {
+                            int end = index + Math.min(size, types.size() - index);
+                            try {
+                                return new ArrayList<Class<?>>(types.subList(index, end));
+                            } finally {
+                                index = end;
+                            }
                         }
-                        if (batches.isEmpty()) {
-                            return Collections.singletonList(types);
-                        } else {
-                            batches.get(0).addAll(0, types.subList(0, reminder));
-                            return batches;
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public void remove() {
+                            throw new UnsupportedOperationException("remove");
                         }
                     }
                 }
@@ -6569,6 +9274,205 @@ public interface AgentBuilder {
             }
         }
 
+        /**
+         * A matching strategy determines how loaded types are described and matched when they are considered for a redefinition.
+         * Only the description and matching of types is affected by this strategy, the redefinition itself is always applied
+         * from the thread that applies the redefinition, in the order of the considered types and in batches as determined by the
+         * {@link BatchAllocator}.
+         */
+        public interface MatchingStrategy {
+
+            /**
+             * Applies the supplied consideration to all types. This method must not return before all types were considered.
+             *
+             * @param types         The types to consider.
+             * @param consideration The consideration to apply to each type.
+             */
+            void apply(List<Class<?>> types, Consideration consideration);
+
+            /**
+             * A consideration of a single loaded type. A consideration is thread-safe as long as each type is only considered once.
+             */
+            interface Consideration {
+
+                /**
+                 * Considers a type.
+                 *
+                 * @param index The index of the type within the list of considered types.
+                 * @param type  The type to consider.
+                 */
+                void consider(int index, Class<?> type);
+
+                /**
+                 * Returns the circularity lock that must be held by any thread while it considers types.
+                 *
+                 * @return The circularity lock that must be held by any thread while it considers types.
+                 */
+                CircularityLock getCircularityLock();
+            }
+
+            /**
+             * A matching strategy that considers all types on the thread that applies the redefinition.
+             */
+            enum Serial implements MatchingStrategy {
+
+                /**
+                 * The singleton instance.
+                 */
+                INSTANCE;
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void apply(List<Class<?>> types, Consideration consideration) {
+                    for (int index = 0; index < types.size(); index++) {
+                        consideration.consider(index, types.get(index));
+                    }
+                }
+            }
+
+            /**
+             * <p>
+             * A matching strategy that considers types in parallel by submitting groups of types to an executor service. The thread
+             * that applies the redefinition waits for all groups to be considered before applying the redefinition.
+             * </p>
+             * <p>
+             * <b>Important</b>: When using this strategy, any {@link AgentBuilder.Listener}, {@link RawMatcher} and
+             * {@link DescriptionStrategy} must be thread-safe. Each job acquires the agent's {@link CircularityLock} such that
+             * types that are loaded while matching are not transformed on the executor's threads. Also, the executor service must not rely on the thread that
+             * applies the redefinition to make progress, for example, by using a caller-runs policy while this thread holds a lock.
+             * </p>
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            class Parallel implements MatchingStrategy {
+
+                /**
+                 * The default number of types that are considered within a single job.
+                 */
+                public static final int DEFAULT_GROUP_SIZE = 512;
+
+                /**
+                 * The executor service to submit jobs to.
+                 */
+                private final ExecutorService executorService;
+
+                /**
+                 * The number of types that are considered within a single job.
+                 */
+                private final int groupSize;
+
+                /**
+                 * Creates a new parallel matching strategy with a default group size.
+                 *
+                 * @param executorService The executor service to submit jobs to.
+                 */
+                public Parallel(ExecutorService executorService) {
+                    this(executorService, DEFAULT_GROUP_SIZE);
+                }
+
+                /**
+                 * Creates a new parallel matching strategy.
+                 *
+                 * @param executorService The executor service to submit jobs to.
+                 * @param groupSize       The number of types that are considered within a single job.
+                 */
+                public Parallel(ExecutorService executorService, int groupSize) {
+                    if (groupSize < 1) {
+                        throw new IllegalArgumentException("Group size must be positive: " + groupSize);
+                    }
+                    this.executorService = executorService;
+                    this.groupSize = groupSize;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void apply(List<Class<?>> types, Consideration consideration) {
+                    if (types.size() <= groupSize) {
+                        Serial.INSTANCE.apply(types, consideration);
+                        return;
+                    }
+                    List<Future<?>> futures = new ArrayList<Future<?>>((types.size() + groupSize - 1) / groupSize);
+                    try {
+                        for (int index = 0; index < types.size(); index += groupSize) {
+                            futures.add(executorService.submit(new Job(types, index, Math.min(index + groupSize, types.size()), consideration)));
+                        }
+                        for (Future<?> future : futures) {
+                            future.get();
+                        }
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while considering types for redefinition", exception);
+                    } catch (ExecutionException exception) {
+                        throw new IllegalStateException("Failed to consider types for redefinition", exception.getCause());
+                    } finally {
+                        for (Future<?> future : futures) {
+                            future.cancel(true);
+                        }
+                    }
+                }
+
+                /**
+                 * A job that considers a group of types.
+                 */
+                @HashCodeAndEqualsPlugin.Enhance
+                protected static class Job implements Runnable {
+
+                    /**
+                     * The types to consider.
+                     */
+                    private final List<Class<?>> types;
+
+                    /**
+                     * The index of the first type to consider.
+                     */
+                    private final int from;
+
+                    /**
+                     * The index after the last type to consider.
+                     */
+                    private final int to;
+
+                    /**
+                     * The consideration to apply.
+                     */
+                    private final Consideration consideration;
+
+                    /**
+                     * Creates a new job.
+                     *
+                     * @param types         The types to consider.
+                     * @param from          The index of the first type to consider.
+                     * @param to            The index after the last type to consider.
+                     * @param consideration The consideration to apply.
+                     */
+                    protected Job(List<Class<?>> types, int from, int to, Consideration consideration) {
+                        this.types = types;
+                        this.from = from;
+                        this.to = to;
+                        this.consideration = consideration;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void run() {
+                        CircularityLock circularityLock = consideration.getCircularityLock();
+                        boolean release = circularityLock.acquire();
+                        try {
+                            for (int index = from; index < to; index++) {
+                                consideration.consider(index, types.get(index));
+                            }
+                        } finally {
+                            if (release) {
+                                circularityLock.release();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
         /**
          * A strategy for discovering types to redefine.
          */
@@ -7043,7 +9947,17 @@ public interface AgentBuilder {
                 private final RedefinitionListenable.ResubmissionImmediateMatcher resubmissionImmediateMatcher;
 
                 /**
-                 * Creates a new enabled resubmission strategy.
+                 * The maximum number of types that are queued for resubmission.
+                 */
+                private final int maximumSize;
+
+                /**
+                 * The maximum number of scheduled resubmissions that are skipped after a failed resubmission.
+                 */
+                private final int maximumBackoff;
+
+                /**
+                 * Creates a new enabled resubmission strategy without a limit and without a backoff.
                  *
                  * @param resubmissionScheduler        A scheduler that is responsible for resubmission of types.
                  * @param resubmissionOnErrorMatcher   A matcher to determine resubmissions on errors.
@@ -7052,9 +9966,28 @@ public interface AgentBuilder {
                 protected Enabled(ResubmissionScheduler resubmissionScheduler,
                                   RedefinitionListenable.ResubmissionOnErrorMatcher resubmissionOnErrorMatcher,
                                   RedefinitionListenable.ResubmissionImmediateMatcher resubmissionImmediateMatcher) {
+                    this(resubmissionScheduler, resubmissionOnErrorMatcher, resubmissionImmediateMatcher, Integer.MAX_VALUE, 0);
+                }
+
+                /**
+                 * Creates a new enabled resubmission strategy.
+                 *
+                 * @param resubmissionScheduler        A scheduler that is responsible for resubmission of types.
+                 * @param resubmissionOnErrorMatcher   A matcher to determine resubmissions on errors.
+                 * @param resubmissionImmediateMatcher A matcher to determine resubmissions without errors.
+                 * @param maximumSize                  The maximum number of types that are queued for resubmission.
+                 * @param maximumBackoff               The maximum number of scheduled resubmissions that are skipped after a failed resubmission.
+                 */
+                protected Enabled(ResubmissionScheduler resubmissionScheduler,
+                                  RedefinitionListenable.ResubmissionOnErrorMatcher resubmissionOnErrorMatcher,
+                                  RedefinitionListenable.ResubmissionImmediateMatcher resubmissionImmediateMatcher,
+                                  int maximumSize,
+                                  int maximumBackoff) {
                     this.resubmissionScheduler = resubmissionScheduler;
                     this.resubmissionOnErrorMatcher = resubmissionOnErrorMatcher;
                     this.resubmissionImmediateMatcher = resubmissionImmediateMatcher;
+                    this.maximumSize = maximumSize;
+                    this.maximumBackoff = maximumBackoff;
                 }
 
                 /**
@@ -7074,7 +10007,8 @@ public interface AgentBuilder {
                                           RedefinitionStrategy.Listener redefinitionBatchListener) {
                     if (resubmissionScheduler.isAlive()) {
                         ConcurrentMap<StorageKey, Set<String>> types = new ConcurrentHashMap<StorageKey, Set<String>>();
-                        Resubmitter resubmitter = new Resubmitter(resubmissionOnErrorMatcher, resubmissionImmediateMatcher, types);
+                        AtomicInteger size = new AtomicInteger();
+                        Resubmitter resubmitter = new Resubmitter(resubmissionOnErrorMatcher, resubmissionImmediateMatcher, types, size, maximumSize);
                         return new Installation(new AgentBuilder.Listener.Compound(resubmitter, listener),
                                 new InstallationListener.Compound(new ResubmissionInstallationListener(instrumentation,
                                         resubmissionScheduler,
@@ -7088,7 +10022,9 @@ public interface AgentBuilder {
                                         redefinitionStrategy,
                                         redefinitionBatchAllocator,
                                         redefinitionBatchListener,
-                                        types), installationListener),
+                                        types,
+                                        size,
+                                        maximumBackoff), installationListener),
                                 resubmitter);
                     } else {
                         throw new IllegalStateException("Resubmission scheduler " + resubmissionScheduler + " is not alive");
@@ -7115,58 +10051,82 @@ public interface AgentBuilder {
                      */
                     private final ConcurrentMap<StorageKey, Set<String>> types;
 
+                    /**
+                     * The number of types that are currently queued for resubmission.
+                     */
+                    private final AtomicInteger size;
+
+                    /**
+                     * The maximum number of types that are queued for resubmission.
+                     */
+                    private final int maximumSize;
+
                     /**
                      * Creates a new resubmitter.
                      *
                      * @param resubmissionOnErrorMatcher   A matcher to determine resubmissions on errors.
                      * @param resubmissionImmediateMatcher A matcher to determine resubmissions without errors.
                      * @param types                        A map of class loaders to their types to resubmit.
+                     * @param size                         The number of types that are currently queued for resubmission.
+                     * @param maximumSize                  The maximum number of types that are queued for resubmission.
                      */
                     protected Resubmitter(RedefinitionListenable.ResubmissionOnErrorMatcher resubmissionOnErrorMatcher,
                                           RedefinitionListenable.ResubmissionImmediateMatcher resubmissionImmediateMatcher,
-                                          ConcurrentMap<StorageKey, Set<String>> types) {
+                                          ConcurrentMap<StorageKey, Set<String>> types,
+                                          AtomicInteger size,
+                                          int maximumSize) {
                         this.resubmissionOnErrorMatcher = resubmissionOnErrorMatcher;
                         this.resubmissionImmediateMatcher = resubmissionImmediateMatcher;
                         this.types = types;
+                        this.size = size;
+                        this.maximumSize = maximumSize;
                     }
 
                     /**
                      * {@inheritDoc}
                      */
-                    @SuppressFBWarnings(value = "GC_UNRELATED_TYPES", justification = "Use of unrelated key is intended for avoiding unnecessary weak reference")
                     public void onError(String typeName, @Nullable ClassLoader classLoader, @Nullable JavaModule module, boolean loaded, Throwable throwable) {
                         if (!loaded && resubmissionOnErrorMatcher.matches(throwable, typeName, classLoader, module)) {
-                            Set<String> types = this.types.get(new LookupKey(classLoader));
-                            if (types == null) {
-                                types = new ConcurrentHashSet<String>();
-                                Set<String> previous = this.types.putIfAbsent(new StorageKey(classLoader), types);
-                                if (previous != null) {
-                                    types = previous;
-                                }
-                            }
-                            types.add(typeName);
+                            register(typeName, classLoader);
                         }
                     }
 
                     /**
                      * {@inheritDoc}
                      */
-                    @SuppressFBWarnings(value = "GC_UNRELATED_TYPES", justification = "Use of unrelated key is intended for avoiding unnecessary weak reference")
                     public boolean isEnforced(String typeName, @Nullable ClassLoader classLoader, @Nullable JavaModule module, @Nullable Class<?> classBeingRedefined) {
-                        if (classBeingRedefined == null && resubmissionImmediateMatcher.matches(typeName, classLoader, module)) {
-                            Set<String> types = this.types.get(new LookupKey(classLoader));
-                            if (types == null) {
-                                types = new ConcurrentHashSet<String>();
-                                Set<String> previous = this.types.putIfAbsent(new StorageKey(classLoader), types);
-                                if (previous != null) {
-                                    types = previous;
-                                }
-                            }
-                            types.add(typeName);
+                        return classBeingRedefined == null
+                                && resubmissionImmediateMatcher.matches(typeName, classLoader, module)
+                                && register(typeName, classLoader);
+                    }
+
+                    /**
+                     * Queues a type for resubmission if the maximum number of queued types is not yet exceeded. A type that is
+                     * already queued is not queued a second time.
+                     *
+                     * @param typeName    The name of the type to resubmit.
+                     * @param classLoader The class loader of the type to resubmit or {@code null} if the type is loaded by the bootstrap loader.
+                     * @return {@code true} if the type is queued for resubmission.
+                     */
+                    @SuppressFBWarnings(value = "GC_UNRELATED_TYPES", justification = "Use of unrelated key is intended for avoiding unnecessary weak reference")
+                    private boolean register(String typeName, @Nullable ClassLoader classLoader) {
+                        Set<String> types = this.types.get(new LookupKey(classLoader));
+                        if (types != null && types.contains(typeName)) {
                             return true;
-                        } else {
+                        } else if (size.incrementAndGet() > maximumSize) {
+                            size.decrementAndGet();
                             return false;
+                        } else if (types == null) {
+                            types = new ConcurrentHashSet<String>();
+                            Set<String> previous = this.types.putIfAbsent(new StorageKey(classLoader), types);
+                            if (previous != null) {
+                                types = previous;
+                            }
                         }
+                        if (!types.add(typeName)) {
+                            size.decrementAndGet();
+                        }
+                        return true;
                     }
 
                     /**
@@ -7284,6 +10244,26 @@ public interface AgentBuilder {
                      */
                     private final ConcurrentMap<StorageKey, Set<String>> types;
 
+                    /**
+                     * The number of types that are currently queued for resubmission.
+                     */
+                    private final AtomicInteger size;
+
+                    /**
+                     * The maximum number of scheduled resubmissions that are skipped after a failed resubmission.
+                     */
+                    private final int maximumBackoff;
+
+                    /**
+                     * The number of consecutively failed resubmissions.
+                     */
+                    private int failures;
+
+                    /**
+                     * The number of scheduled resubmissions that are still to be skipped.
+                     */
+                    private int backoff;
+
                     /**
                      * This scheduler's cancelable or {@code null} if no cancelable was registered.
                      */
@@ -7306,6 +10286,8 @@ public interface AgentBuilder {
                      * @param redefinitionBatchAllocator The batch allocator to use.
                      * @param redefinitionBatchListener  The batch listener to notify.
                      * @param types                      A map of class loaders to their types to resubmit.
+                     * @param size                       The number of types that are currently queued for resubmission.
+                     * @param maximumBackoff             The maximum number of scheduled resubmissions that are skipped after a failed resubmission.
                      */
                     protected ResubmissionInstallationListener(Instrumentation instrumentation,
                                                                ResubmissionScheduler resubmissionScheduler,
@@ -7319,7 +10301,9 @@ public interface AgentBuilder {
                                                                RedefinitionStrategy redefinitionStrategy,
                                                                BatchAllocator redefinitionBatchAllocator,
                                                                Listener redefinitionBatchListener,
-                                                               ConcurrentMap<StorageKey, Set<String>> types) {
+                                                               ConcurrentMap<StorageKey, Set<String>> types,
+                                                               AtomicInteger size,
+                                                               int maximumBackoff) {
                         this.instrumentation = instrumentation;
                         this.resubmissionScheduler = resubmissionScheduler;
                         this.poolStrategy = poolStrategy;
@@ -7333,6 +10317,8 @@ public interface AgentBuilder {
                         this.redefinitionBatchAllocator = redefinitionBatchAllocator;
                         this.redefinitionBatchListener = redefinitionBatchListener;
                         this.types = types;
+                        this.size = size;
+                        this.maximumBackoff = maximumBackoff;
                     }
 
                     @Override
@@ -7352,6 +10338,10 @@ public interface AgentBuilder {
                      * {@inheritDoc}
                      */
                     public void run() {
+                        if (backoff > 0) {
+                            backoff -= 1;
+                            return;
+                        }
                         boolean release = circularityLock.acquire();
                         try {
                             RedefinitionStrategy.Collector collector = redefinitionStrategy.make(poolStrategy,
@@ -7384,16 +10374,25 @@ public interface AgentBuilder {
                                             /* do nothing */
                                         } finally {
                                             iterator.remove();
+                                            size.decrementAndGet();
                                         }
                                     }
                                 } else {
                                     entries.remove();
+                                    size.addAndGet(-entry.getValue().size());
                                 }
                             }
+                            FailureRecordingListener failureRecordingListener = new FailureRecordingListener(redefinitionBatchListener);
                             collector.apply(instrumentation,
                                     redefinitionBatchAllocator,
-                                    redefinitionBatchListener,
+                                    failureRecordingListener,
                                     BatchAllocator.FIRST_BATCH);
+                            if (failureRecordingListener.isFailed()) {
+                                failures = Math.min(failures + 1, Integer.SIZE - 2);
+                                backoff = Math.min((1 << failures) - 1, maximumBackoff);
+                            } else {
+                                failures = 0;
+                            }
                         } finally {
                             if (release) {
                                 circularityLock.release();
@@ -7402,6 +10401,63 @@ public interface AgentBuilder {
                     }
                 }
 
+                /**
+                 * A redefinition listener that delegates to another listener and that records if a redefinition yielded a failure.
+                 */
+                protected static class FailureRecordingListener implements Listener {
+
+                    /**
+                     * The listener to delegate to.
+                     */
+                    private final Listener delegate;
+
+                    /**
+                     * {@code true} if a redefinition yielded a failure.
+                     */
+                    private boolean failed;
+
+                    /**
+                     * Creates a new failure recording listener.
+                     *
+                     * @param delegate The listener to delegate to.
+                     */
+                    protected FailureRecordingListener(Listener delegate) {
+                        this.delegate = delegate;
+                    }
+
+                    /**
+                     * Returns {@code true} if a redefinition yielded a failure.
+                     *
+                     * @return {@code true} if a redefinition yielded a failure.
+                     */
+                    protected boolean isFailed() {
+                        return failed;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void onBatch(int index, List<Class<?>> batch, List<Class<?>> types) {
+                        delegate.onBatch(index, batch, types);
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Iterable<? extends List<Class<?>>> onError(int index, List<Class<?>> batch, Throwable throwable, List<Class<?>> types) {
+                        failed = true;
+                        return delegate.onError(index, batch, throwable, types);
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void onComplete(int amount, List<Class<?>> types, Map<List<Class<?>>, Throwable> failures) {
+                        failed = failed || !failures.isEmpty();
+                        delegate.onComplete(amount, types, failures);
+                    }
+                }
+
                 /**
                  * A key for a class loader that can only be used for looking up a preexisting value but avoids reference management.
                  */
@@ -7712,12 +10768,45 @@ public interface AgentBuilder {
              * @param type       The loaded type being considered.
              * @param modifiable {@code true} if the considered type is considered modifiable.
              */
-            protected void consider(Class<?> type, boolean modifiable) {
+            protected void consider(Class<?> type, boolean modifiable) {
+                if (isCollected(type, modifiable)) {
+                    types.add(type);
+                }
+            }
+
+            /**
+             * Considers loaded classes for collection using the supplied matching strategy. Collected classes are retained in the
+             * order of the supplied list.
+             *
+             * @param instrumentation  The instrumentation instance to use for determining the modifiability of a class.
+             * @param types            The loaded types being considered.
+             * @param matchingStrategy The matching strategy to apply.
+             */
+            protected void consider(Instrumentation instrumentation, List<Class<?>> types, MatchingStrategy matchingStrategy) {
+                boolean[] collected = new boolean[types.size()];
+                matchingStrategy.apply(types, new Consideration(instrumentation,
+                        ClassFileVersion.ofThisVm(ClassFileVersion.JAVA_V5).isAtMost(ClassFileVersion.JAVA_V5),
+                        collected));
+                for (int index = 0; index < collected.length; index++) {
+                    if (collected[index]) {
+                        this.types.add(types.get(index));
+                    }
+                }
+            }
+
+            /**
+             * Determines if a loaded class should be collected.
+             *
+             * @param type       The loaded type being considered.
+             * @param modifiable {@code true} if the considered type is considered modifiable.
+             * @return {@code true} if the type should be collected.
+             */
+            private boolean isCollected(Class<?> type, boolean modifiable) {
                 JavaModule module = JavaModule.ofType(type);
                 try {
                     TypePool typePool = poolStrategy.typePool(locationStrategy.classFileLocator(type.getClassLoader(), module), type.getClassLoader());
                     try {
-                        doConsider(matcher,
+                        return doConsider(matcher,
                                 listener,
                                 descriptionStrategy.apply(TypeDescription.ForLoadedType.getName(type), type, typePool, circularityLock, type.getClassLoader(), module),
                                 type,
@@ -7726,7 +10815,7 @@ public interface AgentBuilder {
                                 modifiable);
                     } catch (Throwable throwable) {
                         if (descriptionStrategy.isLoadedFirst() && fallbackStrategy.isFallback(type, throwable)) {
-                            doConsider(matcher,
+                            return doConsider(matcher,
                                     listener,
                                     typePool.describe(TypeDescription.ForLoadedType.getName(type)).resolve(),
                                     type,
@@ -7751,6 +10840,7 @@ public interface AgentBuilder {
                     } catch (Throwable ignored) {
                         // Ignore exceptions that are thrown by listeners to mimic the behavior of a transformation.
                     }
+                    return false;
                 }
             }
 
@@ -7764,14 +10854,15 @@ public interface AgentBuilder {
              * @param classBeingRedefined The loaded type being considered or {@code null} if it should be considered non-available.
              * @param module              The type's Java module or {@code null} if the current VM does not support modules.
              * @param modifiable          {@code true} if the considered type is considered modifiable.
+             * @return {@code true} if the type should be collected.
              */
-            private void doConsider(RawMatcher matcher,
-                                    AgentBuilder.Listener listener,
-                                    TypeDescription typeDescription,
-                                    Class<?> type,
-                                    @Nullable Class<?> classBeingRedefined,
-                                    @Nullable JavaModule module,
-                                    boolean modifiable) {
+            private boolean doConsider(RawMatcher matcher,
+                                       AgentBuilder.Listener listener,
+                                       TypeDescription typeDescription,
+                                       Class<?> type,
+                                       @Nullable Class<?> classBeingRedefined,
+                                       @Nullable JavaModule module,
+                                       boolean modifiable) {
                 if (!modifiable || !matcher.matches(typeDescription, type.getClassLoader(), module, classBeingRedefined, type.getProtectionDomain())) {
                     try {
                         try {
@@ -7785,8 +10876,9 @@ public interface AgentBuilder {
                     } catch (Throwable ignored) {
                         // Ignore exceptions that are thrown by listeners to mimic the behavior of a transformation.
                     }
+                    return false;
                 } else {
-                    types.add(type);
+                    return true;
                 }
             }
 
@@ -7804,12 +10896,17 @@ public interface AgentBuilder {
                                 Listener redefinitionListener,
                                 int batch) {
                 Map<List<Class<?>>, Throwable> failures = new HashMap<List<Class<?>>, Throwable>();
-                PrependableIterator prependableIterator = new PrependableIterator(redefinitionBatchAllocator.batch(this.types));
+                Iterable<? extends List<Class<?>>> batches = redefinitionBatchAllocator.batch(this.types);
+                PrependableIterator prependableIterator = new PrependableIterator(batches);
                 while (prependableIterator.hasNext()) {
                     List<Class<?>> types = prependableIterator.next();
                     redefinitionListener.onBatch(batch, types, this.types);
                     try {
+                        long started = System.nanoTime();
                         doApply(instrumentation, types);
+                        if (batches instanceof BatchAllocator.Feedback) {
+                            ((BatchAllocator.Feedback) batches).onApplied(types, System.nanoTime() - started);
+                        }
                     } catch (Throwable throwable) {
                         prependableIterator.prepend(redefinitionListener.onError(batch, types, throwable, this.types));
                         failures.put(types, throwable);
@@ -7831,6 +10928,54 @@ public interface AgentBuilder {
             protected abstract void doApply(Instrumentation instrumentation,
                                             List<Class<?>> types) throws UnmodifiableClassException, ClassNotFoundException;
 
+            /**
+             * A consideration of loaded types that records if a type should be collected.
+             */
+            protected class Consideration implements MatchingStrategy.Consideration {
+
+                /**
+                 * The instrumentation instance to use for determining the modifiability of a class.
+                 */
+                private final Instrumentation instrumentation;
+
+                /**
+                 * {@code true} if all types should be considered modifiable.
+                 */
+                private final boolean modifiable;
+
+                /**
+                 * An array that records if a type at a given index should be collected.
+                 */
+                private final boolean[] collected;
+
+                /**
+                 * Creates a new consideration.
+                 *
+                 * @param instrumentation The instrumentation instance to use for determining the modifiability of a class.
+                 * @param modifiable      {@code true} if all types should be considered modifiable.
+                 * @param collected       An array that records if a type at a given index should be collected.
+                 */
+                protected Consideration(Instrumentation instrumentation, boolean modifiable, boolean[] collected) {
+                    this.instrumentation = instrumentation;
+                    this.modifiable = modifiable;
+                    this.collected = collected;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void consider(int index, Class<?> type) {
+                    collected[index] = isCollected(type, modifiable || DISPATCHER.isModifiableClass(instrumentation, type));
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public CircularityLock getCircularityLock() {
+                    return circularityLock;
+                }
+            }
+
             /**
              * An iterator that allows prepending of iterables to be applied previous to another iterator.
              */
@@ -9615,6 +12760,12 @@ public interface AgentBuilder {
         @Nonnull(when = When.NEVER)
         private static final Class<?> NOT_PREVIOUSLY_DEFINED = null;
 
+        /**
+         * A type-safe constant to express that no protection domain is known when speculatively transforming a class.
+         */
+        @Nonnull(when = When.NEVER)
+        private static final ProtectionDomain NO_PROTECTION_DOMAIN = null;
+
         /**
          * A dipatcher to use for interacting with the instrumentation API.
          */
@@ -9701,6 +12852,11 @@ public interface AgentBuilder {
          */
         protected final RedefinitionStrategy.ResubmissionStrategy redefinitionResubmissionStrategy;
 
+        /**
+         * The matching strategy for loaded types to be redefined.
+         */
+        protected final RedefinitionStrategy.MatchingStrategy redefinitionMatchingStrategy;
+
         /**
          * The injection strategy for injecting classes into a class loader.
          */
@@ -9727,6 +12883,21 @@ public interface AgentBuilder {
          */
         protected final ClassFileBufferStrategy classFileBufferStrategy;
 
+        /**
+         * The speculation strategy to use.
+         */
+        protected final SpeculationStrategy speculationStrategy;
+
+        /**
+         * The transformation cache to use.
+         */
+        protected final TransformationCache transformationCache;
+
+        /**
+         * The transformation monitor to use.
+         */
+        protected final TransformationMonitor transformationMonitor;
+
         /**
          * The installation listener to notify.
          */
@@ -9773,11 +12944,15 @@ public interface AgentBuilder {
                     RedefinitionStrategy.BatchAllocator.ForTotal.INSTANCE,
                     RedefinitionStrategy.Listener.NoOp.INSTANCE,
                     RedefinitionStrategy.ResubmissionStrategy.Disabled.INSTANCE,
+                    RedefinitionStrategy.MatchingStrategy.Serial.INSTANCE,
                     InjectionStrategy.UsingReflection.INSTANCE,
                     LambdaInstrumentationStrategy.DISABLED,
                     DescriptionStrategy.Default.HYBRID,
                     FallbackStrategy.ByThrowableType.ofOptionalTypes(),
                     ClassFileBufferStrategy.Default.RETAINING,
+                    SpeculationStrategy.Disabled.INSTANCE,
+                    TransformationCache.NoOp.INSTANCE,
+                    TransformationMonitor.NoOp.INSTANCE,
                     InstallationListener.NoOp.INSTANCE,
                     new RawMatcher.Disjunction(
                             new RawMatcher.ForElementMatchers(any(), isBootstrapClassLoader().or(isExtensionClassLoader())),
@@ -9806,12 +12981,16 @@ public interface AgentBuilder {
          * @param redefinitionBatchAllocator       The batch allocator for the redefinition strategy to apply.
          * @param redefinitionListener             The redefinition listener for the redefinition strategy to apply.
          * @param redefinitionResubmissionStrategy The resubmission strategy to apply.
+         * @param redefinitionMatchingStrategy     The matching strategy for loaded types to be redefined.
          * @param injectionStrategy                The injection strategy for injecting classes into a class loader.
          * @param lambdaInstrumentationStrategy    A strategy to determine of the {@code LambdaMetafactory} should be instrumented to allow for the
          *                                         instrumentation of classes that represent lambda expressions.
          * @param descriptionStrategy              The description strategy for resolving type descriptions for types.
          * @param fallbackStrategy                 The fallback strategy to apply.
          * @param classFileBufferStrategy          The class file buffer strategy to use.
+         * @param speculationStrategy              The speculation strategy to use.
+         * @param transformationCache              The transformation cache to use.
+         * @param transformationMonitor            The transformation monitor to use.
          * @param installationListener             The installation listener to notify.
          * @param ignoreMatcher                    Identifies types that should not be instrumented.
          * @param transformations                  The transformations to apply for any non-ignored type.
@@ -9831,11 +13010,15 @@ public interface AgentBuilder {
                           RedefinitionStrategy.BatchAllocator redefinitionBatchAllocator,
                           RedefinitionStrategy.Listener redefinitionListener,
                           RedefinitionStrategy.ResubmissionStrategy redefinitionResubmissionStrategy,
+                          RedefinitionStrategy.MatchingStrategy redefinitionMatchingStrategy,
                           InjectionStrategy injectionStrategy,
                           LambdaInstrumentationStrategy lambdaInstrumentationStrategy,
                           DescriptionStrategy descriptionStrategy,
                           FallbackStrategy fallbackStrategy,
                           ClassFileBufferStrategy classFileBufferStrategy,
+                          SpeculationStrategy speculationStrategy,
+                          TransformationCache transformationCache,
+                          TransformationMonitor transformationMonitor,
                           InstallationListener installationListener,
                           RawMatcher ignoreMatcher,
                           List<Transformation> transformations) {
@@ -9854,11 +13037,15 @@ public interface AgentBuilder {
             this.redefinitionBatchAllocator = redefinitionBatchAllocator;
             this.redefinitionListener = redefinitionListener;
             this.redefinitionResubmissionStrategy = redefinitionResubmissionStrategy;
+            this.redefinitionMatchingStrategy = redefinitionMatchingStrategy;
             this.injectionStrategy = injectionStrategy;
             this.lambdaInstrumentationStrategy = lambdaInstrumentationStrategy;
             this.descriptionStrategy = descriptionStrategy;
             this.fallbackStrategy = fallbackStrategy;
             this.classFileBufferStrategy = classFileBufferStrategy;
+            this.speculationStrategy = speculationStrategy;
+            this.transformationCache = transformationCache;
+            this.transformationMonitor = transformationMonitor;
             this.installationListener = installationListener;
             this.ignoreMatcher = ignoreMatcher;
             this.transformations = transformations;
@@ -9987,11 +13174,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10016,11 +13207,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10045,11 +13240,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10074,11 +13273,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10103,11 +13306,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10132,11 +13339,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10161,11 +13372,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10190,11 +13405,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10234,11 +13453,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10263,11 +13486,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10292,11 +13519,15 @@ public interface AgentBuilder {
                     RedefinitionStrategy.BatchAllocator.ForTotal.INSTANCE,
                     RedefinitionStrategy.Listener.NoOp.INSTANCE,
                     RedefinitionStrategy.ResubmissionStrategy.Disabled.INSTANCE,
+                    RedefinitionStrategy.MatchingStrategy.Serial.INSTANCE,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10321,11 +13552,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10350,11 +13585,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10379,11 +13618,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10408,11 +13651,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10437,11 +13684,114 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
+                    injectionStrategy,
+                    lambdaInstrumentationStrategy,
+                    descriptionStrategy,
+                    fallbackStrategy,
+                    classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
+                    installationListener,
+                    ignoreMatcher,
+                    transformations);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public AgentBuilder with(SpeculationStrategy speculationStrategy) {
+            return new Default(byteBuddy,
+                    listener,
+                    circularityLock,
+                    poolStrategy,
+                    typeStrategy,
+                    locationStrategy,
+                    nativeMethodStrategy,
+                    warmupStrategy,
+                    transformerDecorator,
+                    initializationStrategy,
+                    redefinitionStrategy,
+                    redefinitionDiscoveryStrategy,
+                    redefinitionBatchAllocator,
+                    redefinitionListener,
+                    redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
+                    injectionStrategy,
+                    lambdaInstrumentationStrategy,
+                    descriptionStrategy,
+                    fallbackStrategy,
+                    classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
+                    installationListener,
+                    ignoreMatcher,
+                    transformations);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public AgentBuilder with(TransformationCache transformationCache) {
+            return new Default(byteBuddy,
+                    listener,
+                    circularityLock,
+                    poolStrategy,
+                    typeStrategy,
+                    locationStrategy,
+                    nativeMethodStrategy,
+                    warmupStrategy,
+                    transformerDecorator,
+                    initializationStrategy,
+                    redefinitionStrategy,
+                    redefinitionDiscoveryStrategy,
+                    redefinitionBatchAllocator,
+                    redefinitionListener,
+                    redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
+                    injectionStrategy,
+                    lambdaInstrumentationStrategy,
+                    descriptionStrategy,
+                    fallbackStrategy,
+                    classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
+                    installationListener,
+                    ignoreMatcher,
+                    transformations);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public AgentBuilder with(TransformationMonitor transformationMonitor) {
+            return new Default(byteBuddy,
+                    listener,
+                    circularityLock,
+                    poolStrategy,
+                    typeStrategy,
+                    locationStrategy,
+                    nativeMethodStrategy,
+                    warmupStrategy,
+                    transformerDecorator,
+                    initializationStrategy,
+                    redefinitionStrategy,
+                    redefinitionDiscoveryStrategy,
+                    redefinitionBatchAllocator,
+                    redefinitionListener,
+                    redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10466,11 +13816,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     new InstallationListener.Compound(this.installationListener, installationListener),
                     ignoreMatcher,
                     transformations);
@@ -10495,11 +13849,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10526,11 +13884,15 @@ public interface AgentBuilder {
                     redefinitionBatchAllocator,
                     redefinitionListener,
                     redefinitionResubmissionStrategy,
+                    redefinitionMatchingStrategy,
                     injectionStrategy,
                     lambdaInstrumentationStrategy,
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     transformations);
@@ -10657,9 +14019,9 @@ public interface AgentBuilder {
          * @param resubmissionEnforcer The resubmission enforcer to use.
          * @return The resettable class file transformer to use.
          */
-        private ResettableClassFileTransformer makeRaw(Listener listener,
-                                                       InstallationListener installationListener,
-                                                       RedefinitionStrategy.ResubmissionEnforcer resubmissionEnforcer) {
+        private ExecutingTransformer makeRaw(Listener listener,
+                                             InstallationListener installationListener,
+                                             RedefinitionStrategy.ResubmissionEnforcer resubmissionEnforcer) {
             return ExecutingTransformer.FACTORY.make(byteBuddy,
                     listener,
                     poolStrategy,
@@ -10672,6 +14034,9 @@ public interface AgentBuilder {
                     descriptionStrategy,
                     fallbackStrategy,
                     classFileBufferStrategy,
+                    speculationStrategy,
+                    transformationCache,
+                    transformationMonitor,
                     installationListener,
                     ignoreMatcher,
                     resubmissionEnforcer,
@@ -10765,9 +14130,10 @@ public interface AgentBuilder {
                     redefinitionStrategy,
                     redefinitionBatchAllocator,
                     redefinitionListener);
-            ResettableClassFileTransformer classFileTransformer = transformerDecorator.decorate(makeRaw(installation.getListener(),
+            ExecutingTransformer executingTransformer = makeRaw(installation.getListener(),
                     installation.getInstallationListener(),
-                    installation.getResubmissionEnforcer()));
+                    installation.getResubmissionEnforcer());
+            ResettableClassFileTransformer classFileTransformer = transformerDecorator.decorate(executingTransformer);
             installation.getInstallationListener().onBeforeInstall(instrumentation, classFileTransformer);
             try {
                 warmupStrategy.apply(classFileTransformer,
@@ -10788,6 +14154,7 @@ public interface AgentBuilder {
                         descriptionStrategy,
                         fallbackStrategy,
                         redefinitionDiscoveryStrategy,
+                        redefinitionMatchingStrategy,
                         lambdaInstrumentationStrategy,
                         installation.getListener(),
                         redefinitionListener,
@@ -10802,6 +14169,7 @@ public interface AgentBuilder {
                 }
             }
             installation.getInstallationListener().onInstall(instrumentation, classFileTransformer);
+            executingTransformer.speculate();
             return classFileTransformer;
         }
 
@@ -11396,6 +14764,270 @@ public interface AgentBuilder {
                     throw new UnsupportedOperationException("remove");
                 }
             }
+
+            /**
+             * An index of transformations that allows to preselect the transformations that might apply to a type by the type's name
+             * and by its class file's header without resolving a type description. The index is derived from the {@link NameConstraint}
+             * and the {@link AnnotationConstraint} of a transformation's matcher where transformations without such constraints are
+             * always considered.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            protected static class Index {
+
+                /**
+                 * All indexed transformations in their application order.
+                 */
+                private final List<Transformation> transformations;
+
+                /**
+                 * The indices of all transformations that are not constrained by a name.
+                 */
+                private final List<Integer> unconstrained;
+
+                /**
+                 * A mapping of exact type names to the indices of the transformations that might apply.
+                 */
+                private final Map<String, List<Integer>> names;
+
+                /**
+                 * The root node of a trie of name prefixes.
+                 */
+                private final Node prefixes;
+
+                /**
+                 * The root node of a trie of reversed name suffixes.
+                 */
+                private final Node suffixes;
+
+                /**
+                 * The annotation constraints of all transformations in their application order.
+                 */
+                private final List<AnnotationConstraint> annotationConstraints;
+
+                /**
+                 * {@code true} if at least one transformation is constrained by its annotations.
+                 */
+                private final boolean annotated;
+
+                /**
+                 * Creates a new index.
+                 *
+                 * @param transformations       All indexed transformations in their application order.
+                 * @param unconstrained         The indices of all transformations that are not constrained by a name.
+                 * @param names                 A mapping of exact type names to the indices of the transformations that might apply.
+                 * @param prefixes              The root node of a trie of name prefixes.
+                 * @param suffixes              The root node of a trie of reversed name suffixes.
+                 * @param annotationConstraints The annotation constraints of all transformations in their application order.
+                 * @param annotated             {@code true} if at least one transformation is constrained by its annotations.
+                 */
+                protected Index(List<Transformation> transformations,
+                                List<Integer> unconstrained,
+                                Map<String, List<Integer>> names,
+                                Node prefixes,
+                                Node suffixes,
+                                List<AnnotationConstraint> annotationConstraints,
+                                boolean annotated) {
+                    this.transformations = transformations;
+                    this.unconstrained = unconstrained;
+                    this.names = names;
+                    this.prefixes = prefixes;
+                    this.suffixes = suffixes;
+                    this.annotationConstraints = annotationConstraints;
+                    this.annotated = annotated;
+                }
+
+                /**
+                 * Creates an index for the supplied transformations.
+                 *
+                 * @param transformations The transformations to index in their application order.
+                 * @return An index for the supplied transformations.
+                 */
+                protected static Index of(List<Transformation> transformations) {
+                    List<Integer> unconstrained = new ArrayList<Integer>();
+                    Map<String, List<Integer>> names = new HashMap<String, List<Integer>>();
+                    Node prefixes = new Node(), suffixes = new Node();
+                    List<AnnotationConstraint> annotationConstraints = new ArrayList<AnnotationConstraint>(transformations.size());
+                    boolean annotated = false;
+                    for (int index = 0; index < transformations.size(); index++) {
+                        AnnotationConstraint annotationConstraint = toAnnotationConstraint(transformations.get(index).getMatcher());
+                        annotationConstraints.add(annotationConstraint);
+                        annotated |= annotationConstraint.isConstrained();
+                        NameConstraint nameConstraint = toNameConstraint(transformations.get(index).getMatcher());
+                        if (!nameConstraint.isConstrained()) {
+                            unconstrained.add(index);
+                            continue;
+                        }
+                        for (String name : nameConstraint.getNames()) {
+                            List<Integer> indices = names.get(name);
+                            if (indices == null) {
+                                indices = new ArrayList<Integer>();
+                                names.put(name, indices);
+                            }
+                            indices.add(index);
+                        }
+                        for (String prefix : nameConstraint.getPrefixes()) {
+                            prefixes.add(prefix, index);
+                        }
+                        for (String suffix : nameConstraint.getSuffixes()) {
+                            suffixes.add(new StringBuilder(suffix).reverse().toString(), index);
+                        }
+                    }
+                    return new Index(transformations, unconstrained, names, prefixes, suffixes, annotationConstraints, annotated);
+                }
+
+                /**
+                 * Resolves the name constraint of a raw matcher.
+                 *
+                 * @param matcher The raw matcher to resolve.
+                 * @return The name constraint of the supplied matcher.
+                 */
+                private static NameConstraint toNameConstraint(RawMatcher matcher) {
+                    if (matcher instanceof RawMatcher.ForElementMatchers) {
+                        return NameConstraint.of(((RawMatcher.ForElementMatchers) matcher).typeMatcher);
+                    } else if (matcher == RawMatcher.Trivial.NON_MATCHING) {
+                        return NameConstraint.unsatisfiable();
+                    } else if (matcher instanceof RawMatcher.Conjunction) {
+                        NameConstraint nameConstraint = NameConstraint.unconstrained();
+                        for (RawMatcher element : ((RawMatcher.Conjunction) matcher).matchers) {
+                            nameConstraint = nameConstraint.and(toNameConstraint(element));
+                        }
+                        return nameConstraint;
+                    } else if (matcher instanceof RawMatcher.Disjunction) {
+                        NameConstraint nameConstraint = NameConstraint.unsatisfiable();
+                        for (RawMatcher element : ((RawMatcher.Disjunction) matcher).matchers) {
+                            nameConstraint = nameConstraint.or(toNameConstraint(element));
+                        }
+                        return nameConstraint;
+                    } else {
+                        return NameConstraint.unconstrained();
+                    }
+                }
+
+                /**
+                 * Resolves the annotation constraint of a raw matcher.
+                 *
+                 * @param matcher The raw matcher to resolve.
+                 * @return The annotation constraint of the supplied matcher.
+                 */
+                private static AnnotationConstraint toAnnotationConstraint(RawMatcher matcher) {
+                    if (matcher instanceof RawMatcher.ForElementMatchers) {
+                        return AnnotationConstraint.of(((RawMatcher.ForElementMatchers) matcher).typeMatcher);
+                    } else if (matcher == RawMatcher.Trivial.NON_MATCHING) {
+                        return AnnotationConstraint.unsatisfiable();
+                    } else if (matcher instanceof RawMatcher.Conjunction) {
+                        AnnotationConstraint annotationConstraint = AnnotationConstraint.unconstrained();
+                        for (RawMatcher element : ((RawMatcher.Conjunction) matcher).matchers) {
+                            annotationConstraint = annotationConstraint.and(toAnnotationConstraint(element));
+                        }
+                        return annotationConstraint;
+                    } else if (matcher instanceof RawMatcher.Disjunction) {
+                        AnnotationConstraint annotationConstraint = AnnotationConstraint.unsatisfiable();
+                        for (RawMatcher element : ((RawMatcher.Disjunction) matcher).matchers) {
+                            annotationConstraint = annotationConstraint.or(toAnnotationConstraint(element));
+                        }
+                        return annotationConstraint;
+                    } else {
+                        return AnnotationConstraint.unconstrained();
+                    }
+                }
+
+                /**
+                 * Resolves the transformations that might apply to a type in their application order. The type's class file is
+                 * only inspected if a transformation is constrained by its annotations where only the class file's header and
+                 * constant pool are read.
+                 *
+                 * @param name                 The binary name of the type.
+                 * @param binaryRepresentation The type's class file.
+                 * @return The transformations that might apply to the type in their application order.
+                 */
+                protected List<Transformation> resolve(String name, byte[] binaryRepresentation) {
+                    if (!annotated && unconstrained.size() == transformations.size()) {
+                        return transformations;
+                    }
+                    SortedSet<Integer> indices = new TreeSet<Integer>(unconstrained);
+                    List<Integer> named = names.get(name);
+                    if (named != null) {
+                        indices.addAll(named);
+                    }
+                    Node node = prefixes;
+                    for (int index = 0; node != null; index++) {
+                        indices.addAll(node.indices);
+                        node = index < name.length()
+                                ? node.children.get(name.charAt(index))
+                                : null;
+                    }
+                    node = suffixes;
+                    for (int index = name.length() - 1; node != null; index--) {
+                        indices.addAll(node.indices);
+                        node = index >= 0
+                                ? node.children.get(name.charAt(index))
+                                : null;
+                    }
+                    if (indices.isEmpty()) {
+                        return Collections.emptyList();
+                    }
+                    ClassFileHeader classFileHeader = null;
+                    if (annotated) {
+                        try {
+                            classFileHeader = ClassFileHeader.of(binaryRepresentation);
+                        } catch (IllegalArgumentException ignored) {
+                            /* do nothing */
+                        }
+                    }
+                    List<Transformation> transformations = new ArrayList<Transformation>(indices.size());
+                    for (Integer index : indices) {
+                        if (classFileHeader == null || annotationConstraints.get(index).isSatisfiedBy(classFileHeader)) {
+                            transformations.add(this.transformations.get(index));
+                        }
+                    }
+                    return transformations;
+                }
+
+                /**
+                 * A node of a character trie that records the indices of the transformations that are registered for
+                 * the character sequence that leads to this node.
+                 */
+                @HashCodeAndEqualsPlugin.Enhance
+                protected static class Node {
+
+                    /**
+                     * The indices of the transformations that are registered for this node.
+                     */
+                    private final List<Integer> indices;
+
+                    /**
+                     * This node's children by their character.
+                     */
+                    private final Map<Character, Node> children;
+
+                    /**
+                     * Creates a new node.
+                     */
+                    protected Node() {
+                        indices = new ArrayList<Integer>();
+                        children = new HashMap<Character, Node>();
+                    }
+
+                    /**
+                     * Registers a transformation index for a character sequence that starts at this node.
+                     *
+                     * @param sequence The character sequence to register.
+                     * @param index    The index of the transformation to register.
+                     */
+                    protected void add(String sequence, int index) {
+                        Node node = this;
+                        for (int position = 0; position < sequence.length(); position++) {
+                            Node child = node.children.get(sequence.charAt(position));
+                            if (child == null) {
+                                child = new Node();
+                                node.children.put(sequence.charAt(position), child);
+                            }
+                            node = child;
+                        }
+                        node.indices.add(index);
+                    }
+                }
+            }
         }
 
         /**
@@ -11409,6 +15041,21 @@ public interface AgentBuilder {
              */
             protected static final Factory FACTORY = Default.doPrivileged(Factory.CreationAction.INSTANCE);
 
+            /**
+             * The maximum number of speculative transformations that are retained until their type is loaded.
+             */
+            protected static final int MAXIMUM_SPECULATIONS = 4096;
+
+            /**
+             * The time in nanoseconds after which a speculative transformation expires if its type is not loaded.
+             */
+            protected static final long SPECULATION_TIMEOUT = TimeUnit.MINUTES.toNanos(1);
+
+            /**
+             * A counter of the created transformers from which each transformer derives an identifier that is unique within the current VM.
+             */
+            private static final AtomicLong TRANSFORMERS = new AtomicLong();
+
             /**
              * The Byte Buddy instance to be used.
              */
@@ -11455,19 +15102,34 @@ public interface AgentBuilder {
             private final DescriptionStrategy descriptionStrategy;
 
             /**
-             * The location strategy to use.
+             * The location strategy to use.
+             */
+            private final LocationStrategy locationStrategy;
+
+            /**
+             * The fallback strategy to use.
+             */
+            private final FallbackStrategy fallbackStrategy;
+
+            /**
+             * The class file buffer strategy to use.
+             */
+            private final ClassFileBufferStrategy classFileBufferStrategy;
+
+            /**
+             * The speculation strategy to use.
              */
-            private final LocationStrategy locationStrategy;
+            private final SpeculationStrategy speculationStrategy;
 
             /**
-             * The fallback strategy to use.
+             * The transformation cache to use.
              */
-            private final FallbackStrategy fallbackStrategy;
+            private final TransformationCache transformationCache;
 
             /**
-             * The class file buffer strategy to use.
+             * The transformation monitor to use.
              */
-            private final ClassFileBufferStrategy classFileBufferStrategy;
+            private final TransformationMonitor transformationMonitor;
 
             /**
              * The installation listener to notify.
@@ -11489,11 +15151,44 @@ public interface AgentBuilder {
              */
             private final List<Transformation> transformations;
 
+            /**
+             * An index of the transformations to apply by the name of the instrumented type.
+             */
+            private final Transformation.Index index;
+
+            /**
+             * The positions of the transformations that are applied by this transformer.
+             */
+            private final Map<Transformation, Integer> positions;
+
+            /**
+             * A mapping of type names to the speculative transformations of these types which retains at most
+             * {@link ExecutingTransformer#MAXIMUM_SPECULATIONS} entries.
+             */
+            private final ConcurrentMap<String, Speculation> speculations;
+
             /**
              * A lock that prevents circular class transformations.
              */
             private final CircularityLock circularityLock;
 
+            /**
+             * A lock that prevents circular speculative transformations on the thread that speculates. The agent's circularity
+             * lock is not held while speculating such that types that are loaded concurrently are still transformed.
+             */
+            private final CircularityLock speculationLock;
+
+            /**
+             * An identifier of this transformer which is unique within the current VM and which discriminates the entries of
+             * transformers that share a transformation cache.
+             */
+            private final String discriminator;
+
+            /**
+             * The time in nanoseconds at which expired speculations are removed the next time.
+             */
+            private volatile long expiration;
+
             /**
              * The access control context to use for loading classes or {@code null} if the
              * access controller is not available on the current VM.
@@ -11517,6 +15212,9 @@ public interface AgentBuilder {
              * @param fallbackStrategy              The fallback strategy to use.
              * @param installationListener          The installation listener to notify.
              * @param classFileBufferStrategy       The class file buffer strategy to use.
+             * @param speculationStrategy           The speculation strategy to use.
+             * @param transformationCache           The transformation cache to use.
+             * @param transformationMonitor         The transformation monitor to use.
              * @param ignoreMatcher                 Identifies types that should not be instrumented.
              * @param resubmissionEnforcer          The resubmission enforcer to use.
              * @param transformations               The transformations to apply on non-ignored types.
@@ -11534,6 +15232,9 @@ public interface AgentBuilder {
                                         DescriptionStrategy descriptionStrategy,
                                         FallbackStrategy fallbackStrategy,
                                         ClassFileBufferStrategy classFileBufferStrategy,
+                                        SpeculationStrategy speculationStrategy,
+                                        TransformationCache transformationCache,
+                                        TransformationMonitor transformationMonitor,
                                         InstallationListener installationListener,
                                         RawMatcher ignoreMatcher,
                                         RedefinitionStrategy.ResubmissionEnforcer resubmissionEnforcer,
@@ -11551,14 +15252,52 @@ public interface AgentBuilder {
                 this.descriptionStrategy = descriptionStrategy;
                 this.fallbackStrategy = fallbackStrategy;
                 this.classFileBufferStrategy = classFileBufferStrategy;
+                this.speculationStrategy = speculationStrategy;
+                this.transformationCache = transformationCache;
+                this.transformationMonitor = transformationMonitor;
                 this.installationListener = installationListener;
                 this.ignoreMatcher = ignoreMatcher;
                 this.resubmissionEnforcer = resubmissionEnforcer;
                 this.transformations = transformations;
                 this.circularityLock = circularityLock;
+                index = Transformation.Index.of(transformations);
+                positions = new IdentityHashMap<Transformation, Integer>();
+                for (int position = 0; position < transformations.size(); position++) {
+                    positions.put(transformations.get(position), position);
+                }
+                speculations = new ConcurrentHashMap<String, Speculation>();
+                speculationLock = new CircularityLock.Default();
+                discriminator = Long.toString(TRANSFORMERS.incrementAndGet());
+                expiration = System.nanoTime() + SPECULATION_TIMEOUT;
                 accessControlContext = getContext();
             }
 
+            /**
+             * Starts the speculative transformation of types by applying this transformer's speculation strategy. This method
+             * is invoked once this transformer is installed.
+             */
+            protected void speculate() {
+                speculationStrategy.apply(new Speculator());
+            }
+
+            /**
+             * Removes speculative transformations whose class loader was collected or which were not consumed in time.
+             *
+             * @param force {@code true} if expired speculations should be removed even if they were removed recently.
+             */
+            protected void expunge(boolean force) {
+                long now = System.nanoTime();
+                if (force || now - expiration >= 0) {
+                    expiration = now + SPECULATION_TIMEOUT;
+                    Iterator<Speculation> iterator = speculations.values().iterator();
+                    while (iterator.hasNext()) {
+                        if (iterator.next().isExpired(now)) {
+                            iterator.remove();
+                        }
+                    }
+                }
+            }
+
             /**
              * A proxy for {@code java.security.AccessController#getContext} that is activated if available.
              *
@@ -11682,6 +15421,13 @@ public interface AgentBuilder {
                 }
                 try {
                     listener.onDiscovery(name, classLoader, module, classBeingRedefined != null);
+                    List<Transformation> transformations = index.resolve(name, binaryRepresentation);
+                    if (transformations.isEmpty()) {
+                        listener.onIgnored(classBeingRedefined == null
+                                ? new UnmatchedTypeDescription(module, classLoader, name, protectionDomain, binaryRepresentation)
+                                : TypeDescription.ForLoadedType.of(classBeingRedefined), classLoader, module, classBeingRedefined != null);
+                        return NO_TRANSFORMATION;
+                    }
                     ClassFileLocator classFileLocator = new ClassFileLocator.Compound(classFileBufferStrategy.resolve(name,
                             binaryRepresentation,
                             classLoader,
@@ -11689,10 +15435,10 @@ public interface AgentBuilder {
                             protectionDomain), locationStrategy.classFileLocator(classLoader, module));
                     TypePool typePool = classFileBufferStrategy.typePool(poolStrategy, classFileLocator, classLoader, name);
                     try {
-                        return doTransform(module, classLoader, name, classBeingRedefined, classBeingRedefined != null, protectionDomain, typePool, classFileLocator);
+                        return doTransform(module, classLoader, name, classBeingRedefined, classBeingRedefined != null, protectionDomain, typePool, classFileLocator, binaryRepresentation, transformations);
                     } catch (Throwable throwable) {
                         if (classBeingRedefined != null && descriptionStrategy.isLoadedFirst() && fallbackStrategy.isFallback(classBeingRedefined, throwable)) {
-                            return doTransform(module, classLoader, name, NOT_PREVIOUSLY_DEFINED, Listener.LOADED, protectionDomain, typePool, classFileLocator);
+                            return doTransform(module, classLoader, name, NOT_PREVIOUSLY_DEFINED, Listener.LOADED, protectionDomain, typePool, classFileLocator, binaryRepresentation, transformations);
                         } else {
                             throw throwable;
                         }
@@ -11708,14 +15454,16 @@ public interface AgentBuilder {
             /**
              * Applies a transformation for a class that was captured by this {@link ClassFileTransformer}.
              *
-             * @param module              The instrumented class's Java module in its wrapped form or {@code null} if the current VM does not support modules.
-             * @param classLoader         The instrumented class's class loader.
-             * @param name                The binary name of the instrumented class.
-             * @param classBeingRedefined The loaded {@link Class} being redefined or {@code null} if no such class exists.
-             * @param loaded              {@code true} if the instrumented type is loaded.
-             * @param protectionDomain    The instrumented type's protection domain.
-             * @param typePool            The type pool to use.
-             * @param classFileLocator    The class file locator to use.
+             * @param module               The instrumented class's Java module in its wrapped form or {@code null} if the current VM does not support modules.
+             * @param classLoader          The instrumented class's class loader.
+             * @param name                 The binary name of the instrumented class.
+             * @param classBeingRedefined  The loaded {@link Class} being redefined or {@code null} if no such class exists.
+             * @param loaded               {@code true} if the instrumented type is loaded.
+             * @param protectionDomain     The instrumented type's protection domain.
+             * @param typePool             The type pool to use.
+             * @param classFileLocator     The class file locator to use.
+             * @param binaryRepresentation The class file of the instrumented class.
+             * @param transformations      The transformations that might apply to the instrumented class.
              * @return The transformed class file or an empty byte array if this transformer does not apply an instrumentation.
              */
             @Nullable
@@ -11726,23 +15474,59 @@ public interface AgentBuilder {
                                        boolean loaded,
                                        ProtectionDomain protectionDomain,
                                        TypePool typePool,
-                                       ClassFileLocator classFileLocator) {
+                                       ClassFileLocator classFileLocator,
+                                       byte[] binaryRepresentation,
+                                       List<Transformation> transformations) {
+                TransformationMonitor.Probe probe = transformationMonitor.begin(name);
                 TypeDescription typeDescription = descriptionStrategy.apply(name, classBeingRedefined, typePool, circularityLock, classLoader, module);
-                List<Transformer> transformers = new ArrayList<Transformer>();
+                probe.onPhase(TransformationMonitor.Phase.DESCRIPTION);
+                List<Transformation> matched = new ArrayList<Transformation>();
+                StringBuilder identifier = new StringBuilder();
                 if (!ignoreMatcher.matches(typeDescription, classLoader, module, classBeingRedefined, protectionDomain)) {
                     for (Transformation transformation : transformations) {
-                        if (transformation.getMatcher().matches(typeDescription, classLoader, module, classBeingRedefined, protectionDomain)) {
-                            transformers.addAll(transformation.getTransformers());
+                        boolean matches = transformation.getMatcher().matches(typeDescription, classLoader, module, classBeingRedefined, protectionDomain);
+                        probe.onTransformation(positions.get(transformation), TransformationMonitor.Phase.MATCHING);
+                        if (matches && !transformation.getTransformers().isEmpty()) {
+                            matched.add(transformation);
+                            identifier.append(identifier.length() == 0 ? "" : "_").append(positions.get(transformation));
                             if (transformation.isTerminal()) {
                                 break;
                             }
+                        } else if (matches && transformation.isTerminal()) {
+                            break;
                         }
                     }
                 }
-                if (transformers.isEmpty()) {
+                probe.onPhase(TransformationMonitor.Phase.MATCHING);
+                Speculation speculation = null;
+                if (!loaded && !speculations.isEmpty()) {
+                    speculation = speculations.remove(name);
+                    expunge(false);
+                }
+                if (matched.isEmpty()) {
                     listener.onIgnored(typeDescription, classLoader, module, loaded);
                     return Transformation.NONE;
                 }
+                if (speculation != null && speculation.isApplicable(classLoader, module, binaryRepresentation, identifier.toString(), System.nanoTime())) {
+                    probe.onPhase(TransformationMonitor.Phase.EMISSION);
+                    listener.onTransformation(typeDescription,
+                            classLoader,
+                            module,
+                            loaded,
+                            new DynamicType.Default(typeDescription, speculation.getTransformed(), LoadedTypeInitializer.NoOp.INSTANCE, Collections.<DynamicType>emptyList()));
+                    return speculation.getTransformed();
+                }
+                TransformationCache.Entry entry = transformationCache.lookup(discriminator, classLoader, binaryRepresentation, identifier.toString());
+                byte[] cached = entry.find();
+                if (cached != null) {
+                    probe.onPhase(TransformationMonitor.Phase.EMISSION);
+                    listener.onTransformation(typeDescription,
+                            classLoader,
+                            module,
+                            loaded,
+                            new DynamicType.Default(typeDescription, cached, LoadedTypeInitializer.NoOp.INSTANCE, Collections.<DynamicType>emptyList()));
+                    return cached;
+                }
                 DynamicType.Builder<?> builder = typeStrategy.builder(typeDescription,
                         byteBuddy,
                         classFileLocator,
@@ -11751,13 +15535,23 @@ public interface AgentBuilder {
                         module,
                         protectionDomain);
                 InitializationStrategy.Dispatcher dispatcher = initializationStrategy.dispatcher();
-                for (Transformer transformer : transformers) {
-                    builder = transformer.transform(builder, typeDescription, classLoader, module);
+                for (Transformation transformation : matched) {
+                    for (Transformer transformer : transformation.getTransformers()) {
+                        builder = transformer.transform(builder, typeDescription, classLoader, module);
+                    }
+                    probe.onTransformation(positions.get(transformation), TransformationMonitor.Phase.BUILDER);
                 }
+                probe.onPhase(TransformationMonitor.Phase.BUILDER);
                 DynamicType.Unloaded<?> dynamicType = dispatcher.apply(builder).make(TypeResolutionStrategy.Disabled.INSTANCE, typePool);
+                probe.onPhase(TransformationMonitor.Phase.MAKE);
                 dispatcher.register(dynamicType, classLoader, protectionDomain, injectionStrategy);
+                byte[] binaryRepresentationTransformed = dynamicType.getBytes();
+                if (dynamicType.getAuxiliaryTypes().isEmpty() && !dynamicType.hasAliveLoadedTypeInitializers()) {
+                    entry.register(binaryRepresentationTransformed);
+                }
+                probe.onPhase(TransformationMonitor.Phase.EMISSION);
                 listener.onTransformation(typeDescription, classLoader, module, loaded, dynamicType);
-                return dynamicType.getBytes();
+                return binaryRepresentationTransformed;
             }
 
             /**
@@ -11783,12 +15577,14 @@ public interface AgentBuilder {
                                               RedefinitionStrategy.BatchAllocator redefinitionBatchAllocator,
                                               RedefinitionStrategy.Listener redefinitionListener) {
                 if (instrumentation.removeTransformer(classFileTransformer)) {
+                    speculations.clear();
                     redefinitionStrategy.apply(instrumentation,
                             poolStrategy,
                             locationStrategy,
                             descriptionStrategy,
                             fallbackStrategy,
                             redefinitionDiscoveryStrategy,
+                            RedefinitionStrategy.MatchingStrategy.Serial.INSTANCE,
                             lambdaInstrumentationStrategy,
                             Listener.NoOp.INSTANCE,
                             redefinitionListener,
@@ -11824,6 +15620,9 @@ public interface AgentBuilder {
                  * @param descriptionStrategy           The description strategy for resolving type descriptions for types.
                  * @param fallbackStrategy              The fallback strategy to use.
                  * @param classFileBufferStrategy       The class file buffer strategy to use.
+                 * @param speculationStrategy           The speculation strategy to use.
+                 * @param transformationCache           The transformation cache to use.
+                 * @param transformationMonitor         The transformation monitor to use.
                  * @param installationListener          The installation listener to notify.
                  * @param ignoreMatcher                 Identifies types that should not be instrumented.
                  * @param resubmissionEnforcer          The resubmission enforcer to use.
@@ -11831,23 +15630,26 @@ public interface AgentBuilder {
                  * @param circularityLock               The circularity lock to use.
                  * @return A class file transformer for the current VM that supports the API of the current VM.
                  */
-                ResettableClassFileTransformer make(ByteBuddy byteBuddy,
-                                                    Listener listener,
-                                                    PoolStrategy poolStrategy,
-                                                    TypeStrategy typeStrategy,
-                                                    LocationStrategy locationStrategy,
-                                                    NativeMethodStrategy nativeMethodStrategy,
-                                                    InitializationStrategy initializationStrategy,
-                                                    InjectionStrategy injectionStrategy,
-                                                    LambdaInstrumentationStrategy lambdaInstrumentationStrategy,
-                                                    DescriptionStrategy descriptionStrategy,
-                                                    FallbackStrategy fallbackStrategy,
-                                                    ClassFileBufferStrategy classFileBufferStrategy,
-                                                    InstallationListener installationListener,
-                                                    RawMatcher ignoreMatcher,
-                                                    RedefinitionStrategy.ResubmissionEnforcer resubmissionEnforcer,
-                                                    List<Transformation> transformations,
-                                                    CircularityLock circularityLock);
+                ExecutingTransformer make(ByteBuddy byteBuddy,
+                                          Listener listener,
+                                          PoolStrategy poolStrategy,
+                                          TypeStrategy typeStrategy,
+                                          LocationStrategy locationStrategy,
+                                          NativeMethodStrategy nativeMethodStrategy,
+                                          InitializationStrategy initializationStrategy,
+                                          InjectionStrategy injectionStrategy,
+                                          LambdaInstrumentationStrategy lambdaInstrumentationStrategy,
+                                          DescriptionStrategy descriptionStrategy,
+                                          FallbackStrategy fallbackStrategy,
+                                          ClassFileBufferStrategy classFileBufferStrategy,
+                                          SpeculationStrategy speculationStrategy,
+                                          TransformationCache transformationCache,
+                                          TransformationMonitor transformationMonitor,
+                                          InstallationListener installationListener,
+                                          RawMatcher ignoreMatcher,
+                                          RedefinitionStrategy.ResubmissionEnforcer resubmissionEnforcer,
+                                          List<Transformation> transformations,
+                                          CircularityLock circularityLock);
 
                 /**
                  * An action to create an implementation of {@link ExecutingTransformer} that support Java 9 modules.
@@ -11893,6 +15695,9 @@ public interface AgentBuilder {
                                             DescriptionStrategy.class,
                                             FallbackStrategy.class,
                                             ClassFileBufferStrategy.class,
+                                            SpeculationStrategy.class,
+                                            TransformationCache.class,
+                                            TransformationMonitor.class,
                                             InstallationListener.class,
                                             RawMatcher.class,
                                             RedefinitionStrategy.ResubmissionEnforcer.class,
@@ -11915,7 +15720,7 @@ public interface AgentBuilder {
                      * A constructor for creating a {@link ClassFileTransformer} that overrides the newly added method for extracting
                      * the {@code java.lang.Module} of an instrumented class.
                      */
-                    private final Constructor<? extends ResettableClassFileTransformer> executingTransformer;
+                    private final Constructor<? extends ExecutingTransformer> executingTransformer;
 
                     /**
                      * Creates a class file transformer factory for a Java 9 capable VM.
@@ -11923,30 +15728,33 @@ public interface AgentBuilder {
                      * @param executingTransformer A constructor for creating a {@link ClassFileTransformer} that overrides the newly added
                      *                             method for extracting the {@code java.lang.Module} of an instrumented class.
                      */
-                    protected ForJava9CapableVm(Constructor<? extends ResettableClassFileTransformer> executingTransformer) {
+                    protected ForJava9CapableVm(Constructor<? extends ExecutingTransformer> executingTransformer) {
                         this.executingTransformer = executingTransformer;
                     }
 
                     /**
                      * {@inheritDoc}
                      */
-                    public ResettableClassFileTransformer make(ByteBuddy byteBuddy,
-                                                               Listener listener,
-                                                               PoolStrategy poolStrategy,
-                                                               TypeStrategy typeStrategy,
-                                                               LocationStrategy locationStrategy,
-                                                               NativeMethodStrategy nativeMethodStrategy,
-                                                               InitializationStrategy initializationStrategy,
-                                                               InjectionStrategy injectionStrategy,
-                                                               LambdaInstrumentationStrategy lambdaInstrumentationStrategy,
-                                                               DescriptionStrategy descriptionStrategy,
-                                                               FallbackStrategy fallbackStrategy,
-                                                               ClassFileBufferStrategy classFileBufferStrategy,
-                                                               InstallationListener installationListener,
-                                                               RawMatcher ignoreMatcher,
-                                                               RedefinitionStrategy.ResubmissionEnforcer resubmissionEnforcer,
-                                                               List<Transformation> transformations,
-                                                               CircularityLock circularityLock) {
+                    public ExecutingTransformer make(ByteBuddy byteBuddy,
+                                                     Listener listener,
+                                                     PoolStrategy poolStrategy,
+                                                     TypeStrategy typeStrategy,
+                                                     LocationStrategy locationStrategy,
+                                                     NativeMethodStrategy nativeMethodStrategy,
+                                                     InitializationStrategy initializationStrategy,
+                                                     InjectionStrategy injectionStrategy,
+                                                     LambdaInstrumentationStrategy lambdaInstrumentationStrategy,
+                                                     DescriptionStrategy descriptionStrategy,
+                                                     FallbackStrategy fallbackStrategy,
+                                                     ClassFileBufferStrategy classFileBufferStrategy,
+                                                     SpeculationStrategy speculationStrategy,
+                                                     TransformationCache transformationCache,
+                                                     TransformationMonitor transformationMonitor,
+                                                     InstallationListener installationListener,
+                                                     RawMatcher ignoreMatcher,
+                                                     RedefinitionStrategy.ResubmissionEnforcer resubmissionEnforcer,
+                                                     List<Transformation> transformations,
+                                                     CircularityLock circularityLock) {
                         try {
                             return executingTransformer.newInstance(byteBuddy,
                                     listener,
@@ -11960,6 +15768,9 @@ public interface AgentBuilder {
                                     descriptionStrategy,
                                     fallbackStrategy,
                                     classFileBufferStrategy,
+                                    speculationStrategy,
+                                    transformationCache,
+                                    transformationMonitor,
                                     installationListener,
                                     ignoreMatcher,
                                     resubmissionEnforcer,
@@ -11988,23 +15799,26 @@ public interface AgentBuilder {
                     /**
                      * {@inheritDoc}
                      */
-                    public ResettableClassFileTransformer make(ByteBuddy byteBuddy,
-                                                               Listener listener,
-                                                               PoolStrategy poolStrategy,
-                                                               TypeStrategy typeStrategy,
-                                                               LocationStrategy locationStrategy,
-                                                               NativeMethodStrategy nativeMethodStrategy,
-                                                               InitializationStrategy initializationStrategy,
-                                                               InjectionStrategy injectionStrategy,
-                                                               LambdaInstrumentationStrategy lambdaInstrumentationStrategy,
-                                                               DescriptionStrategy descriptionStrategy,
-                                                               FallbackStrategy fallbackStrategy,
-                                                               ClassFileBufferStrategy classFileBufferStrategy,
-                                                               InstallationListener installationListener,
-                                                               RawMatcher ignoreMatcher,
-                                                               RedefinitionStrategy.ResubmissionEnforcer resubmissionEnforcer,
-                                                               List<Transformation> transformations,
-                                                               CircularityLock circularityLock) {
+                    public ExecutingTransformer make(ByteBuddy byteBuddy,
+                                                     Listener listener,
+                                                     PoolStrategy poolStrategy,
+                                                     TypeStrategy typeStrategy,
+                                                     LocationStrategy locationStrategy,
+                                                     NativeMethodStrategy nativeMethodStrategy,
+                                                     InitializationStrategy initializationStrategy,
+                                                     InjectionStrategy injectionStrategy,
+                                                     LambdaInstrumentationStrategy lambdaInstrumentationStrategy,
+                                                     DescriptionStrategy descriptionStrategy,
+                                                     FallbackStrategy fallbackStrategy,
+                                                     ClassFileBufferStrategy classFileBufferStrategy,
+                                                     SpeculationStrategy speculationStrategy,
+                                                     TransformationCache transformationCache,
+                                                     TransformationMonitor transformationMonitor,
+                                                     InstallationListener installationListener,
+                                                     RawMatcher ignoreMatcher,
+                                                     RedefinitionStrategy.ResubmissionEnforcer resubmissionEnforcer,
+                                                     List<Transformation> transformations,
+                                                     CircularityLock circularityLock) {
                         return new ExecutingTransformer(byteBuddy,
                                 listener,
                                 poolStrategy,
@@ -12017,6 +15831,9 @@ public interface AgentBuilder {
                                 descriptionStrategy,
                                 fallbackStrategy,
                                 classFileBufferStrategy,
+                                speculationStrategy,
+                                transformationCache,
+                                transformationMonitor,
                                 installationListener,
                                 ignoreMatcher,
                                 resubmissionEnforcer,
@@ -12026,6 +15843,272 @@ public interface AgentBuilder {
                 }
             }
 
+            /**
+             * A speculator that transforms types ahead of their loading.
+             */
+            @HashCodeAndEqualsPlugin.Enhance(includeSyntheticFields = true)
+            protected class Speculator implements SpeculationStrategy.Speculator {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public boolean speculate(String name, @Nullable ClassLoader classLoader, byte[] binaryRepresentation) {
+                    if (!(typeStrategy instanceof TypeStrategy.Default)
+                            || !(classFileBufferStrategy instanceof ClassFileBufferStrategy.Default)
+                            || classLoader == null && JavaModule.isSupported()) {
+                        return false;
+                    }
+                    List<Transformation> transformations = index.resolve(name, binaryRepresentation);
+                    if (transformations.isEmpty()) {
+                        return false;
+                    } else if (speculations.size() >= MAXIMUM_SPECULATIONS) {
+                        expunge(true);
+                        if (speculations.size() >= MAXIMUM_SPECULATIONS) {
+                            return false;
+                        }
+                    }
+                    if (!speculationLock.acquire()) {
+                        return false;
+                    }
+                    try {
+                        JavaModule module = classLoader == null
+                                ? JavaModule.UNSUPPORTED
+                                : JavaModule.ofUnnamed(classLoader);
+                        ClassFileLocator classFileLocator = new ClassFileLocator.Compound(classFileBufferStrategy.resolve(name,
+                                binaryRepresentation,
+                                classLoader,
+                                module,
+                                NO_PROTECTION_DOMAIN), locationStrategy.classFileLocator(classLoader, module));
+                        TypePool typePool = classFileBufferStrategy.typePool(poolStrategy, classFileLocator, classLoader, name);
+                        TypeDescription typeDescription = descriptionStrategy.apply(name,
+                                NOT_PREVIOUSLY_DEFINED,
+                                typePool,
+                                speculationLock,
+                                classLoader,
+                                module);
+                        List<Transformation> matched = new ArrayList<Transformation>();
+                        StringBuilder identifier = new StringBuilder();
+                        if (!ignoreMatcher.matches(typeDescription, classLoader, module, NOT_PREVIOUSLY_DEFINED, NO_PROTECTION_DOMAIN)) {
+                            for (Transformation transformation : transformations) {
+                                boolean matches = transformation.getMatcher().matches(typeDescription, classLoader, module, NOT_PREVIOUSLY_DEFINED, NO_PROTECTION_DOMAIN);
+                                if (matches && !transformation.getTransformers().isEmpty()) {
+                                    matched.add(transformation);
+                                    identifier.append(identifier.length() == 0 ? "" : "_").append(positions.get(transformation));
+                                    if (transformation.isTerminal()) {
+                                        break;
+                                    }
+                                } else if (matches && transformation.isTerminal()) {
+                                    break;
+                                }
+                            }
+                        }
+                        if (matched.isEmpty()) {
+                            return false;
+                        }
+                        DynamicType.Builder<?> builder = typeStrategy.builder(typeDescription,
+                                byteBuddy,
+                                classFileLocator,
+                                nativeMethodStrategy.resolve(),
+                                classLoader,
+                                module,
+                                NO_PROTECTION_DOMAIN);
+                        InitializationStrategy.Dispatcher dispatcher = initializationStrategy.dispatcher();
+                        for (Transformation transformation : matched) {
+                            for (Transformer transformer : transformation.getTransformers()) {
+                                builder = transformer.transform(builder, typeDescription, classLoader, module);
+                            }
+                        }
+                        DynamicType.Unloaded<?> dynamicType = dispatcher.apply(builder).make(TypeResolutionStrategy.Disabled.INSTANCE, typePool);
+                        if (!dynamicType.getAuxiliaryTypes().isEmpty() || dynamicType.hasAliveLoadedTypeInitializers()) {
+                            return false;
+                        }
+                        speculations.put(name, new Speculation(classLoader,
+                                binaryRepresentation,
+                                identifier.toString(),
+                                dynamicType.getBytes(),
+                                System.nanoTime() + SPECULATION_TIMEOUT));
+                        return true;
+                    } catch (Throwable throwable) {
+                        speculationStrategy.onError(name, classLoader, throwable);
+                        return false;
+                    } finally {
+                        speculationLock.release();
+                    }
+                }
+            }
+
+            /**
+             * A speculative transformation of a type that is applied once the type is loaded.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            protected static class Speculation {
+
+                /**
+                 * A weak reference to the class loader that is expected to define the type or {@code null} for the bootstrap class loader.
+                 */
+                @Nullable
+                @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.IGNORE)
+                private final WeakReference<ClassLoader> classLoader;
+
+                /**
+                 * The class file that was transformed speculatively.
+                 */
+                private final byte[] binaryRepresentation;
+
+                /**
+                 * An identifier of the transformations that were matched speculatively.
+                 */
+                private final String transformations;
+
+                /**
+                 * The speculatively transformed class file.
+                 */
+                private final byte[] transformed;
+
+                /**
+                 * The time in nanoseconds at which this speculation expires.
+                 */
+                private final long expiration;
+
+                /**
+                 * Creates a new speculation.
+                 *
+                 * @param classLoader          The class loader that is expected to define the type or {@code null} for the bootstrap class loader.
+                 * @param binaryRepresentation The class file that was transformed speculatively.
+                 * @param transformations      An identifier of the transformations that were matched speculatively.
+                 * @param transformed          The speculatively transformed class file.
+                 * @param expiration           The time in nanoseconds at which this speculation expires.
+                 */
+                protected Speculation(@Nullable ClassLoader classLoader,
+                                      byte[] binaryRepresentation,
+                                      String transformations,
+                                      byte[] transformed,
+                                      long expiration) {
+                    this.classLoader = classLoader == null
+                            ? null
+                            : new WeakReference<ClassLoader>(classLoader);
+                    this.binaryRepresentation = binaryRepresentation;
+                    this.transformations = transformations;
+                    this.transformed = transformed;
+                    this.expiration = expiration;
+                }
+
+                /**
+                 * Checks if this speculation applies to a type that is being loaded. A speculation is created for the unnamed module
+                 * of its class loader. As every class loader has a single unnamed module, a speculation for the same class loader applies
+                 * to any type that is not defined in a named module.
+                 *
+                 * @param classLoader          The class loader that is loading the type or {@code null} for the bootstrap class loader.
+                 * @param module               The module of the type that is being loaded or {@code null} if the current VM does not support modules.
+                 * @param binaryRepresentation The class file of the type that is being loaded.
+                 * @param transformations      An identifier of the transformations that match the type that is being loaded.
+                 * @param now                  The current time in nanoseconds.
+                 * @return {@code true} if this speculation applies to the type that is being loaded.
+                 */
+                protected boolean isApplicable(@Nullable ClassLoader classLoader,
+                                               @Nullable JavaModule module,
+                                               byte[] binaryRepresentation,
+                                               String transformations,
+                                               long now) {
+                    return (classLoader == null ? this.classLoader == null : this.classLoader != null && this.classLoader.get() == classLoader)
+                            && (module == null || !module.isNamed())
+                            && now - expiration < 0
+                            && this.transformations.equals(transformations)
+                            && Arrays.equals(this.binaryRepresentation, binaryRepresentation);
+                }
+
+                /**
+                 * Checks if this speculation is expired, either because it was not consumed in time or because its class loader was collected.
+                 *
+                 * @param now The current time in nanoseconds.
+                 * @return {@code true} if this speculation is expired.
+                 */
+                protected boolean isExpired(long now) {
+                    return now - expiration >= 0 || classLoader != null && classLoader.get() == null;
+                }
+
+                /**
+                 * Returns the speculatively transformed class file.
+                 *
+                 * @return The speculatively transformed class file.
+                 */
+                protected byte[] getTransformed() {
+                    return transformed;
+                }
+            }
+
+            /**
+             * A description of a type that was not matched by any transformation by its name or class file header. The type's
+             * class file locator and type pool are only created if a property other than the type's name is resolved.
+             */
+            protected class UnmatchedTypeDescription extends TypeDescription.AbstractBase.OfSimpleType.WithDelegation {
+
+                /**
+                 * The type's module or {@code null} if the current VM does not support modules.
+                 */
+                @Nullable
+                private final JavaModule module;
+
+                /**
+                 * The type's class loader or {@code null} if the bootstrap class loader is represented.
+                 */
+                @Nullable
+                private final ClassLoader classLoader;
+
+                /**
+                 * The type's binary name.
+                 */
+                private final String name;
+
+                /**
+                 * The type's protection domain.
+                 */
+                private final ProtectionDomain protectionDomain;
+
+                /**
+                 * The type's binary representation.
+                 */
+                private final byte[] binaryRepresentation;
+
+                /**
+                 * Creates a new description of a type that was not matched.
+                 *
+                 * @param module               The type's module or {@code null} if the current VM does not support modules.
+                 * @param classLoader          The type's class loader or {@code null} if the bootstrap class loader is represented.
+                 * @param name                 The type's binary name.
+                 * @param protectionDomain     The type's protection domain.
+                 * @param binaryRepresentation The type's binary representation.
+                 */
+                protected UnmatchedTypeDescription(@Nullable JavaModule module,
+                                                   @Nullable ClassLoader classLoader,
+                                                   String name,
+                                                   ProtectionDomain protectionDomain,
+                                                   byte[] binaryRepresentation) {
+                    this.module = module;
+                    this.classLoader = classLoader;
+                    this.name = name;
+                    this.protectionDomain = protectionDomain;
+                    this.binaryRepresentation = binaryRepresentation;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                @CachedReturnPlugin.Enhance("delegate")
+                protected TypeDescription delegate() {
+                    return classFileBufferStrategy.typePool(poolStrategy, new ClassFileLocator.Compound(classFileBufferStrategy.resolve(name,
+                            binaryRepresentation,
+                            classLoader,
+                            module,
+                            protectionDomain), locationStrategy.classFileLocator(classLoader, module)), classLoader, name).describe(name).resolve();
+                }
+            }
+
             /**
              * A privileged action for transforming a class on a JVM prior to Java 9.
              */
@@ -12275,6 +16358,27 @@ public interface AgentBuilder {
                 return materialize().with(classFileBufferStrategy);
             }
 
+            /**
+             * {@inheritDoc}
+             */
+            public AgentBuilder with(SpeculationStrategy speculationStrategy) {
+                return materialize().with(speculationStrategy);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public AgentBuilder with(TransformationCache transformationCache) {
+                return materialize().with(transformationCache);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public AgentBuilder with(TransformationMonitor transformationMonitor) {
+                return materialize().with(transformationMonitor);
+            }
+
             /**
              * {@inheritDoc}
              */
@@ -12560,11 +16664,15 @@ public interface AgentBuilder {
                         redefinitionBatchAllocator,
                         redefinitionListener,
                         redefinitionResubmissionStrategy,
+                        redefinitionMatchingStrategy,
                         injectionStrategy,
                         lambdaInstrumentationStrategy,
                         descriptionStrategy,
                         fallbackStrategy,
                         classFileBufferStrategy,
+                        speculationStrategy,
+                        transformationCache,
+                        transformationMonitor,
                         installationListener,
                         rawMatcher,
                         transformations);
@@ -12638,11 +16746,15 @@ public interface AgentBuilder {
                         redefinitionBatchAllocator,
                         redefinitionListener,
                         redefinitionResubmissionStrategy,
+                        redefinitionMatchingStrategy,
                         injectionStrategy,
                         lambdaInstrumentationStrategy,
                         descriptionStrategy,
                         fallbackStrategy,
                         classFileBufferStrategy,
+                        speculationStrategy,
+                        transformationCache,
+                        transformationMonitor,
                         installationListener,
                         ignoreMatcher,
                         CompoundList.of(transformations, new Transformation(rawMatcher, transformers, terminal)));
@@ -12700,12 +16812,16 @@ public interface AgentBuilder {
              * @param redefinitionBatchAllocator       The batch allocator for the redefinition strategy to apply.
              * @param redefinitionListener             The redefinition listener for the redefinition strategy to apply.
              * @param redefinitionResubmissionStrategy The resubmission strategy to apply.
+             * @param redefinitionMatchingStrategy     The matching strategy for loaded types to be redefined.
              * @param injectionStrategy                The injection strategy to use.
              * @param lambdaInstrumentationStrategy    A strategy to determine of the {@code LambdaMetafactory} should be instrumented to allow for the
              *                                         instrumentation of classes that represent lambda expressions.
              * @param descriptionStrategy              The description strategy for resolving type descriptions for types.
              * @param fallbackStrategy                 The fallback strategy to apply.
              * @param classFileBufferStrategy          The class file buffer strategy to use.
+             * @param speculationStrategy              The speculation strategy to use.
+             * @param transformationCache              The transformation cache to use.
+             * @param transformationMonitor            The transformation monitor to use.
              * @param installationListener             The installation listener to notify.
              * @param ignoreMatcher                    Identifies types that should not be instrumented.
              * @param transformations                  The transformations to apply on non-ignored types.
@@ -12725,11 +16841,15 @@ public interface AgentBuilder {
                                  RedefinitionStrategy.BatchAllocator redefinitionBatchAllocator,
                                  RedefinitionStrategy.Listener redefinitionListener,
                                  RedefinitionStrategy.ResubmissionStrategy redefinitionResubmissionStrategy,
+                                 RedefinitionStrategy.MatchingStrategy redefinitionMatchingStrategy,
                                  InjectionStrategy injectionStrategy,
                                  LambdaInstrumentationStrategy lambdaInstrumentationStrategy,
                                  DescriptionStrategy descriptionStrategy,
                                  FallbackStrategy fallbackStrategy,
                                  ClassFileBufferStrategy classFileBufferStrategy,
+                                 SpeculationStrategy speculationStrategy,
+                                 TransformationCache transformationCache,
+                                 TransformationMonitor transformationMonitor,
                                  InstallationListener installationListener,
                                  RawMatcher ignoreMatcher,
                                  List<Transformation> transformations) {
@@ -12748,11 +16868,15 @@ public interface AgentBuilder {
                         redefinitionBatchAllocator,
                         redefinitionListener,
                         redefinitionResubmissionStrategy,
+                        redefinitionMatchingStrategy,
                         injectionStrategy,
                         lambdaInstrumentationStrategy,
                         descriptionStrategy,
                         fallbackStrategy,
                         classFileBufferStrategy,
+                        speculationStrategy,
+                        transformationCache,
+                        transformationMonitor,
                         installationListener,
                         ignoreMatcher,
                         transformations);
@@ -12780,11 +16904,15 @@ public interface AgentBuilder {
                         redefinitionBatchAllocator,
                         redefinitionListener,
                         redefinitionResubmissionStrategy,
+                        redefinitionMatchingStrategy,
                         injectionStrategy,
                         lambdaInstrumentationStrategy,
                         descriptionStrategy,
                         fallbackStrategy,
                         classFileBufferStrategy,
+                        speculationStrategy,
+                        transformationCache,
+                        transformationMonitor,
                         installationListener,
                         ignoreMatcher,
                         transformations);
@@ -12819,11 +16947,51 @@ public interface AgentBuilder {
                         redefinitionBatchAllocator,
                         redefinitionListener,
                         redefinitionResubmissionStrategy,
+                        redefinitionMatchingStrategy,
+                        injectionStrategy,
+                        lambdaInstrumentationStrategy,
+                        descriptionStrategy,
+                        fallbackStrategy,
+                        classFileBufferStrategy,
+                        speculationStrategy,
+                        transformationCache,
+                        transformationMonitor,
+                        installationListener,
+                        ignoreMatcher,
+                        transformations);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public RedefinitionListenable with(RedefinitionStrategy.MatchingStrategy redefinitionMatchingStrategy) {
+                if (!redefinitionStrategy.isEnabled()) {
+                    throw new IllegalStateException("Cannot set redefinition matching strategy when redefinition is disabled");
+                }
+                return new Redefining(byteBuddy,
+                        listener,
+                        circularityLock,
+                        poolStrategy,
+                        typeStrategy,
+                        locationStrategy,
+                        nativeMethodStrategy,
+                        warmupStrategy,
+                        transformerDecorator,
+                        initializationStrategy,
+                        redefinitionStrategy,
+                        redefinitionDiscoveryStrategy,
+                        redefinitionBatchAllocator,
+                        redefinitionListener,
+                        redefinitionResubmissionStrategy,
+                        redefinitionMatchingStrategy,
                         injectionStrategy,
                         lambdaInstrumentationStrategy,
                         descriptionStrategy,
                         fallbackStrategy,
                         classFileBufferStrategy,
+                        speculationStrategy,
+                        transformationCache,
+                        transformationMonitor,
                         installationListener,
                         ignoreMatcher,
                         transformations);
@@ -12851,11 +17019,15 @@ public interface AgentBuilder {
                         redefinitionBatchAllocator,
                         new RedefinitionStrategy.Listener.Compound(this.redefinitionListener, redefinitionListener),
                         redefinitionResubmissionStrategy,
+                        redefinitionMatchingStrategy,
                         injectionStrategy,
                         lambdaInstrumentationStrategy,
                         descriptionStrategy,
                         fallbackStrategy,
                         classFileBufferStrategy,
+                        speculationStrategy,
+                        transformationCache,
+                        transformationMonitor,
                         installationListener,
                         ignoreMatcher,
                         transformations);
@@ -12865,12 +17037,25 @@ public interface AgentBuilder {
              * {@inheritDoc}
              */
             public WithoutResubmissionSpecification withResubmission(RedefinitionStrategy.ResubmissionScheduler resubmissionScheduler) {
+                return withResubmission(resubmissionScheduler, Integer.MAX_VALUE, 0);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public WithoutResubmissionSpecification withResubmission(RedefinitionStrategy.ResubmissionScheduler resubmissionScheduler, int maximumSize, int maximumBackoff) {
                 if (!redefinitionStrategy.isEnabled()) {
                     throw new IllegalStateException("Cannot enable resubmission when redefinition is disabled");
+                } else if (maximumSize < 1) {
+                    throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+                } else if (maximumBackoff < 0) {
+                    throw new IllegalArgumentException("Maximum backoff must not be negative: " + maximumBackoff);
                 }
                 return new WithResubmission(resubmissionScheduler,
                         ResubmissionOnErrorMatcher.Trivial.NON_MATCHING,
-                        ResubmissionImmediateMatcher.Trivial.NON_MATCHING);
+                        ResubmissionImmediateMatcher.Trivial.NON_MATCHING,
+                        maximumSize,
+                        maximumBackoff);
             }
 
             /**
@@ -12893,19 +17078,35 @@ public interface AgentBuilder {
                  */
                 private final ResubmissionImmediateMatcher resubmissionImmediateMatcher;
 
+                /**
+                 * The maximum number of types that are queued for resubmission.
+                 */
+                private final int maximumSize;
+
+                /**
+                 * The maximum number of scheduled resubmissions that are skipped after a failed resubmission.
+                 */
+                private final int maximumBackoff;
+
                 /**
                  * Creates a new delegator that applies resubmissions.
                  *
                  * @param resubmissionScheduler        The resubmission scheduler to use.
                  * @param resubmissionOnErrorMatcher   A matcher to determine resubmissions on errors.
                  * @param resubmissionImmediateMatcher A matcher to determine resubmissions without errors.
+                 * @param maximumSize                  The maximum number of types that are queued for resubmission.
+                 * @param maximumBackoff               The maximum number of scheduled resubmissions that are skipped after a failed resubmission.
                  */
                 protected WithResubmission(RedefinitionStrategy.ResubmissionScheduler resubmissionScheduler,
                                            ResubmissionOnErrorMatcher resubmissionOnErrorMatcher,
-                                           ResubmissionImmediateMatcher resubmissionImmediateMatcher) {
+                                           ResubmissionImmediateMatcher resubmissionImmediateMatcher,
+                                           int maximumSize,
+                                           int maximumBackoff) {
                     this.resubmissionScheduler = resubmissionScheduler;
                     this.resubmissionOnErrorMatcher = resubmissionOnErrorMatcher;
                     this.resubmissionImmediateMatcher = resubmissionImmediateMatcher;
+                    this.maximumSize = maximumSize;
+                    this.maximumBackoff = maximumBackoff;
                 }
 
                 @Override
@@ -12924,12 +17125,20 @@ public interface AgentBuilder {
                             redefinitionDiscoveryStrategy,
                             redefinitionBatchAllocator,
                             redefinitionListener,
-                            new RedefinitionStrategy.ResubmissionStrategy.Enabled(resubmissionScheduler, resubmissionOnErrorMatcher, resubmissionImmediateMatcher),
+                            new RedefinitionStrategy.ResubmissionStrategy.Enabled(resubmissionScheduler,
+                                    resubmissionOnErrorMatcher,
+                                    resubmissionImmediateMatcher,
+                                    maximumSize,
+                                    maximumBackoff),
+                            redefinitionMatchingStrategy,
                             injectionStrategy,
                             lambdaInstrumentationStrategy,
                             descriptionStrategy,
                             fallbackStrategy,
                             classFileBufferStrategy,
+                            speculationStrategy,
+                            transformationCache,
+                            transformationMonitor,
                             installationListener,
                             ignoreMatcher,
                             transformations);
@@ -12982,7 +17191,9 @@ public interface AgentBuilder {
                 public WithResubmissionSpecification resubmitOnError(ResubmissionOnErrorMatcher matcher) {
                     return new WithResubmission(resubmissionScheduler,
                             new ResubmissionOnErrorMatcher.Disjunction(resubmissionOnErrorMatcher, matcher),
-                            resubmissionImmediateMatcher);
+                            resubmissionImmediateMatcher,
+                            maximumSize,
+                            maximumBackoff);
                 }
 
                 /**
@@ -13022,7 +17233,9 @@ public interface AgentBuilder {
                 public WithResubmissionSpecification resubmitImmediate(ResubmissionImmediateMatcher matcher) {
                     return new WithResubmission(resubmissionScheduler,
                             resubmissionOnErrorMatcher,
-                            new ResubmissionImmediateMatcher.Disjunction(resubmissionImmediateMatcher, matcher));
+                            new ResubmissionImmediateMatcher.Disjunction(resubmissionImmediateMatcher, matcher),
+                            maximumSize,
+                            maximumBackoff);
                 }
             }
         }
@@ -24,26 +24,46 @@ import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.TypeResolutionStrategy;
 import net.bytebuddy.dynamic.scaffold.inline.MethodNameTransformer;
 import net.bytebuddy.implementation.LoadedTypeInitializer;
+import net.bytebuddy.matcher.AnnotationConstraint;
 import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.NameConstraint;
 import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.utility.ClassFileHeader;
 import net.bytebuddy.utility.CompoundList;
 import net.bytebuddy.utility.FileSystem;
+import net.bytebuddy.utility.StreamDrainer;
+import org.objectweb.asm.Opcodes;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.meta.When;
 import java.io.*;
 import java.lang.annotation.*;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipException;
 
 import static net.bytebuddy.matcher.ElementMatchers.none;
 
@@ -97,6 +117,37 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
         void onPreprocess(TypeDescription typeDescription, ClassFileLocator classFileLocator);
     }
 
+    /**
+     * <p>
+     * A plugin that declares a pre-filter which allows a {@link Plugin.Engine} to discard a type by its name or by its class file's
+     * header without resolving a {@link TypeDescription} from a {@link TypePool}. If no plugin of an engine's application passes a type's
+     * pre-filter, the type is not resolved but considered to be ignored by all plugins.
+     * </p>
+     * <p>
+     * <b>Important</b>: A pre-filter must be conservative, i.e. it must never reject a type that is matched by this plugin. A pre-filter is
+     * only consulted if all plugins of an engine's application declare a pre-filter and if no plugin is a {@link WithPreprocessor}.
+     * </p>
+     */
+    interface WithPrefilter extends Plugin {
+
+        /**
+         * Determines if this plugin might match a type of the supplied name.
+         *
+         * @param typeName The binary name of the type.
+         * @return {@code true} if this plugin might match a type of the supplied name.
+         */
+        boolean mightMatch(String typeName);
+
+        /**
+         * Determines if this plugin might match a type that is represented by the supplied class file header. This method is only
+         * invoked if this plugin might match a type of the represented type's name.
+         *
+         * @param classFileHeader The header of the type's class file.
+         * @return {@code true} if this plugin might match the represented type.
+         */
+        boolean mightMatch(ClassFileHeader classFileHeader);
+    }
+
     /**
      * A factory for providing a build plugin.
      */
@@ -836,6 +887,15 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
          */
         Engine ignore(ElementMatcher<? super TypeDescription> matcher);
 
+        /**
+         * Replaces the transformation manifest of this plugin engine which allows for skipping types that did not change since
+         * a previous application.
+         *
+         * @param transformationManifest The transformation manifest to use.
+         * @return A new plugin engine that is equal to this engine but with the supplied transformation manifest being used.
+         */
+        Engine with(TransformationManifest transformationManifest);
+
         /**
          * Applies this plugin engine onto a given source and target.
          *
@@ -2653,9 +2713,13 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                     @Nullable
                     @SuppressWarnings("unchecked")
                     public <T> T resolveAs(Class<T> type) {
-                        return JarEntry.class.isAssignableFrom(type)
-                                ? (T) entry
-                                : null;
+                        if (JarEntry.class.isAssignableFrom(type)) {
+                            return (T) entry;
+                        } else if (JarFile.class.isAssignableFrom(type)) {
+                            return (T) file;
+                        } else {
+                            return null;
+                        }
                     }
                 }
             }
@@ -3152,877 +3216,3637 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         outputStream.close();
                     }
                 }
-            }
-
-            /**
-             * A sink that discards any entry.
-             */
-            enum Discarding implements Target, Sink {
 
                 /**
-                 * The singleton instance.
+                 * <p>
+                 * A sink that writes a jar file where each entry is compressed independently on an executor service. Compressed entries
+                 * are appended to the jar file in the order in which they were submitted to this sink. Entries whose name carries one of a
+                 * set of file extensions are stored without compression, what avoids recompressing resources that are already compressed.
+                 * Entries that are retained from a source as stored entries remain stored.
+                 * </p>
+                 * <p>
+                 * If a retained element resolves to both a {@link JarEntry} and the {@link JarFile} that contains it, the entry's compressed
+                 * data is copied from the source jar file without decompressing and recompressing it. To do so, the source jar file's central
+                 * directory is read once. Entries that cannot be located in the central directory are compressed anew.
+                 * </p>
+                 * <p>
+                 * <b>Important</b>: This sink takes ownership of the supplied executor service which is shut down when this sink is closed.
+                 * Any retained {@link Source.Element} is read from the executor service's threads. Other than the entries' modification
+                 * time, any metadata of retained jar entries is not retained.
+                 * </p>
                  */
-                INSTANCE;
+                class ForParallelDeflation implements Sink {
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public Sink write(Manifest manifest) {
-                    return this;
-                }
+                    /**
+                     * The default file extensions of resources that are stored without compression.
+                     */
+                    public static final Set<String> COMPRESSED_EXTENSIONS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+                            ".jar", ".war", ".ear", ".zip", ".jmod", ".gz", ".tgz", ".bz2", ".xz", ".7z",
+                            ".png", ".jpg", ".jpeg", ".gif", ".webp", ".woff", ".woff2")));
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public void store(Map<TypeDescription, byte[]> binaryRepresentations) {
-                    /* do nothing */
-                }
+                    /**
+                     * The signature of a local file header.
+                     */
+                    private static final int LOCAL_FILE_HEADER = 0x04034b50;
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public void retain(Source.Element element) {
-                    /* do nothing */
-                }
+                    /**
+                     * The signature of a central directory header.
+                     */
+                    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public void close() {
-                    /* do nothing */
-                }
-            }
+                    /**
+                     * The signature of the end of the central directory record.
+                     */
+                    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
 
-            /**
-             * A sink that stores all elements in a memory map.
-             */
-            @HashCodeAndEqualsPlugin.Enhance
-            class InMemory implements Target, Sink {
+                    /**
+                     * The signature of the zip64 end of the central directory record.
+                     */
+                    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
 
-                /**
-                 * The map for storing all elements being received.
-                 */
-                private final Map<String, byte[]> storage;
+                    /**
+                     * The signature of the zip64 end of the central directory locator.
+                     */
+                    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR = 0x07064b50;
 
-                /**
-                 * Creates a new in-memory storage.
-                 */
-                public InMemory() {
-                    this(new HashMap<String, byte[]>());
-                }
+                    /**
+                     * The header id of the zip64 extended information extra field.
+                     */
+                    private static final int ZIP64_EXTRA = 0x0001;
 
-                /**
-                 * Creates a new in-memory storage.
-                 *
-                 * @param storage The map for storing all elements being received.
-                 */
-                public InMemory(Map<String, byte[]> storage) {
-                    this.storage = storage;
-                }
+                    /**
+                     * The header id of the extra field that marks a jar file.
+                     */
+                    private static final int JAR_MAGIC = 0xCAFE;
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public Sink write(Manifest manifest) throws IOException {
-                    if (manifest != null) {
-                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                        try {
-                            manifest.write(outputStream);
-                        } finally {
-                            outputStream.close();
+                    /**
+                     * The general purpose flag that indicates an UTF-8 encoded entry name.
+                     */
+                    private static final int UTF_8_FLAG = 0x0800;
+
+                    /**
+                     * The zip version that is required for an entry without zip64 extensions.
+                     */
+                    private static final int VERSION = 20;
+
+                    /**
+                     * The zip version that is required for zip64 extensions.
+                     */
+                    private static final int ZIP64_VERSION = 45;
+
+                    /**
+                     * The maximum value of an unsigned short.
+                     */
+                    private static final int MAXIMUM_SHORT = 0xFFFF;
+
+                    /**
+                     * The maximum value of an unsigned integer.
+                     */
+                    private static final long MAXIMUM_INTEGER = 0xFFFFFFFFL;
+
+                    /**
+                     * The output stream to write to.
+                     */
+                    private final OutputStream outputStream;
+
+                    /**
+                     * A channel that writes to the unbuffered output stream.
+                     */
+                    private final WritableByteChannel channel;
+
+                    /**
+                     * The executor service to compress entries on.
+                     */
+                    private final ExecutorService executorService;
+
+                    /**
+                     * The maximum amount of entries that are compressed but not yet written.
+                     */
+                    private final int capacity;
+
+                    /**
+                     * The file extensions of resources that are stored without compression.
+                     */
+                    private final Set<String> storedExtensions;
+
+                    /**
+                     * The entries that are currently compressed in their submission order.
+                     */
+                    private final LinkedList<Future<Entry>> pending;
+
+                    /**
+                     * The names of all submitted entries.
+                     */
+                    private final Set<String> names;
+
+                    /**
+                     * All entries that were written to the jar file.
+                     */
+                    private final List<Entry> entries;
+
+                    /**
+                     * A mapping of source jar file names to archives for copying entries or to {@code null} if the jar file cannot be copied from.
+                     */
+                    private final Map<String, Archive> archives;
+
+                    /**
+                     * The amount of bytes that were written to the output stream.
+                     */
+                    private long position;
+
+                    /**
+                     * Creates a new sink that compresses jar entries in parallel.
+                     *
+                     * @param outputStream     The output stream to write to.
+                     * @param manifest         The manifest to write or {@code null} if no manifest should be written.
+                     * @param executorService  The executor service to compress entries on.
+                     * @param capacity         The maximum amount of entries that are compressed but not yet written.
+                     * @param storedExtensions The file extensions of resources that are stored without compression.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    public ForParallelDeflation(OutputStream outputStream,
+                                                @Nullable Manifest manifest,
+                                                ExecutorService executorService,
+                                                int capacity,
+                                                Set<String> storedExtensions) throws IOException {
+                        if (capacity < 1) {
+                            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+                        }
+                        this.outputStream = new BufferedOutputStream(outputStream);
+                        channel = outputStream instanceof FileOutputStream
+                                ? ((FileOutputStream) outputStream).getChannel()
+                                : Channels.newChannel(outputStream);
+                        this.executorService = executorService;
+                        this.capacity = capacity;
+                        this.storedExtensions = storedExtensions;
+                        pending = new LinkedList<Future<Entry>>();
+                        names = new HashSet<String>();
+                        entries = new ArrayList<Entry>();
+                        archives = new HashMap<String, Archive>();
+                        if (manifest != null) {
+                            ByteArrayOutputStream binaryRepresentation = new ByteArrayOutputStream();
+                            manifest.write(binaryRepresentation);
+                            submit(JarFile.MANIFEST_NAME, new Compression.OfBinaryRepresentation(binaryRepresentation.toByteArray()), true, System.currentTimeMillis());
                         }
-                        storage.put(JarFile.MANIFEST_NAME, outputStream.toByteArray());
                     }
-                    return this;
-                }
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public void store(Map<TypeDescription, byte[]> binaryRepresentations) {
-                    for (Map.Entry<TypeDescription, byte[]> entry : binaryRepresentations.entrySet()) {
-                        storage.put(entry.getKey().getInternalName() + CLASS_FILE_EXTENSION, entry.getValue());
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void store(Map<TypeDescription, byte[]> binaryRepresentations) throws IOException {
+                        for (Map.Entry<TypeDescription, byte[]> entry : binaryRepresentations.entrySet()) {
+                            submit(entry.getKey().getInternalName() + CLASS_FILE_EXTENSION,
+                                    new Compression.OfBinaryRepresentation(entry.getValue()),
+                                    true,
+                                    System.currentTimeMillis());
+                        }
                     }
-                }
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public void retain(Source.Element element) throws IOException {
-                    String name = element.getName();
-                    if (!name.endsWith("/")) {
-                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                        try {
-                            InputStream inputStream = element.getInputStream();
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void retain(Source.Element element) throws IOException {
+                        JarEntry entry = element.resolveAs(JarEntry.class);
+                        Task task = toTask(element.getName(),
+                                new Compression.OfElement(element),
+                                entry == null || entry.getMethod() != JarEntry.STORED,
+                                entry == null || entry.getTime() == -1L
+                                        ? System.currentTimeMillis()
+                                        : entry.getTime());
+                        Archive.Location location = entry == null
+                                ? null
+                                : locate(element.resolveAs(JarFile.class), entry);
+                        submit(element.getName(), location == null
+                                ? task
+                                : new Copy(element.getName(), location, task));
+                    }
+
+                    /**
+                     * Locates a jar entry within the central directory of its jar file.
+                     *
+                     * @param file  The jar file that contains the entry or {@code null} if the jar file is unknown.
+                     * @param entry The entry to locate.
+                     * @return The location of the entry or {@code null} if the entry cannot be copied.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    @Nullable
+                    private Archive.Location locate(@Nullable JarFile file, JarEntry entry) throws IOException {
+                        if (file == null) {
+                            return null;
+                        }
+                        Archive archive = archives.get(file.getName());
+                        if (archive == null && !archives.containsKey(file.getName())) {
                             try {
-                                byte[] buffer = new byte[1024];
-                                int length;
-                                while ((length = inputStream.read(buffer)) != -1) {
-                                    outputStream.write(buffer, 0, length);
-                                }
-                            } finally {
-                                inputStream.close();
+                                archive = Archive.of(new File(file.getName()));
+                            } catch (ZipException ignored) {
+                                archive = null;
                             }
-                        } finally {
-                            outputStream.close();
+                            archives.put(file.getName(), archive);
                         }
-                        storage.put(element.getName(), outputStream.toByteArray());
+                        return archive == null
+                                ? null
+                                : archive.locate(entry);
                     }
-                }
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public void close() {
-                    /* do nothing */
-                }
+                    /**
+                     * Submits an entry for compression.
+                     *
+                     * @param name        The entry's name.
+                     * @param compression The compression that supplies the entry's data.
+                     * @param deflated    {@code true} if the entry should be deflated if it does not represent a compressed resource.
+                     * @param time        The entry's modification time.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    private void submit(String name, Compression compression, boolean deflated, long time) throws IOException {
+                        submit(name, toTask(name, compression, deflated, time));
+                    }
 
-                /**
-                 * Returns the in-memory storage.
-                 *
-                 * @return The in-memory storage.
-                 */
-                public Map<String, byte[]> getStorage() {
-                    return storage;
-                }
+                    /**
+                     * Creates a task for compressing an entry.
+                     *
+                     * @param name        The entry's name.
+                     * @param compression The compression that supplies the entry's data.
+                     * @param deflated    {@code true} if the entry should be deflated if it does not represent a compressed resource.
+                     * @param time        The entry's modification time.
+                     * @return A task for compressing the entry.
+                     */
+                    private Task toTask(String name, Compression compression, boolean deflated, long time) {
+                        int index = name.lastIndexOf('.');
+                        return new Task(name,
+                                compression,
+                                deflated && !name.endsWith("/") && (index == -1 || !storedExtensions.contains(name.substring(index).toLowerCase(Locale.US))),
+                                time);
+                    }
 
-                /**
-                 * Returns the in-memory storage as a type-map where all non-class files are discarded.
-                 *
-                 * @return The in-memory storage as a type map.
-                 */
-                public Map<String, byte[]> toTypeMap() {
-                    Map<String, byte[]> binaryRepresentations = new HashMap<String, byte[]>();
-                    for (Map.Entry<String, byte[]> entry : storage.entrySet()) {
-                        if (entry.getKey().endsWith(CLASS_FILE_EXTENSION)) {
-                            binaryRepresentations.put(entry.getKey()
-                                    .substring(0, entry.getKey().length() - CLASS_FILE_EXTENSION.length())
-                                    .replace('/', '.'), entry.getValue());
+                    /**
+                     * Submits a task that resolves an entry.
+                     *
+                     * @param name     The entry's name.
+                     * @param callable The task that resolves the entry.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    private void submit(String name, Callable<Entry> callable) throws IOException {
+                        if (!names.add(name)) {
+                            throw new ZipException("duplicate entry: " + name);
                         }
+                        pending.addLast(executorService.submit(callable));
+                        drain(capacity);
                     }
-                    return binaryRepresentations;
-                }
-            }
 
-            /**
-             * Represents a folder as the target for a plugin engine's application.
-             */
-            @HashCodeAndEqualsPlugin.Enhance
-            class ForFolder implements Target, Sink {
+                    /**
+                     * Writes all pending entries that are already compressed and any entries exceeding the supplied limit.
+                     *
+                     * @param limit The maximum amount of entries that remain pending.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    private void drain(int limit) throws IOException {
+                        while (!pending.isEmpty() && (pending.size() > limit || pending.getFirst().isDone())) {
+                            try {
+                                write(pending.removeFirst().get());
+                            } catch (InterruptedException exception) {
+                                Thread.currentThread().interrupt();
+                                throw new IllegalStateException("Interrupted while compressing entries", exception);
+                            } catch (ExecutionException exception) {
+                                Throwable cause = exception.getCause();
+                                if (cause instanceof IOException) {
+                                    throw (IOException) cause;
+                                } else if (cause instanceof RuntimeException) {
+                                    throw (RuntimeException) cause;
+                                } else if (cause instanceof Error) {
+                                    throw (Error) cause;
+                                } else {
+                                    throw new IllegalStateException(cause);
+                                }
+                            }
+                        }
+                    }
 
-                /**
-                 * The folder that is represented by this instance.
+                    /**
+                     * Writes an entry's local file header and its data.
+                     *
+                     * @param entry The entry to write.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    private void write(Entry entry) throws IOException {
+                        entry.offset = position;
+                        byte[] extra = entries.isEmpty()
+                                ? new byte[]{(byte) JAR_MAGIC, (byte) (JAR_MAGIC >>> 8), 0, 0}
+                                : new byte[0];
+                        writeInt(LOCAL_FILE_HEADER);
+                        writeShort(VERSION);
+                        writeShort(UTF_8_FLAG);
+                        writeShort(entry.method);
+                        writeInt(entry.time);
+                        writeInt((int) entry.crc);
+                        writeInt((int) entry.compressedSize);
+                        writeInt((int) entry.size);
+                        writeShort(entry.name.length);
+                        writeShort(extra.length);
+                        write(entry.name);
+                        write(extra);
+                        if (entry.data != null) {
+                            write(entry.data);
+                        } else if (entry.channel != null) {
+                            outputStream.flush();
+                            long transferred = 0L;
+                            while (transferred < entry.compressedSize) {
+                                long count = entry.channel.transferTo(entry.start + transferred, entry.compressedSize - transferred, channel);
+                                if (count <= 0L) {
+                                    throw new ZipException("Unexpected end of archive when copying " + new String(entry.name, "UTF-8"));
+                                }
+                                transferred += count;
+                            }
+                            position += entry.compressedSize;
+                        }
+                        entry.extra = extra;
+                        entry.data = null;
+                        entries.add(entry);
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void close() throws IOException {
+                        try {
+                            drain(0);
+                            long offset = position;
+                            boolean zip64 = entries.size() > MAXIMUM_SHORT;
+                            for (Entry entry : entries) {
+                                boolean large = entry.offset >= MAXIMUM_INTEGER;
+                                zip64 |= large;
+                                writeInt(CENTRAL_DIRECTORY_HEADER);
+                                writeShort(large ? ZIP64_VERSION : VERSION);
+                                writeShort(large ? ZIP64_VERSION : VERSION);
+                                writeShort(UTF_8_FLAG);
+                                writeShort(entry.method);
+                                writeInt(entry.time);
+                                writeInt((int) entry.crc);
+                                writeInt((int) entry.compressedSize);
+                                writeInt((int) entry.size);
+                                writeShort(entry.name.length);
+                                writeShort(entry.extra.length + (large ? 12 : 0));
+                                writeShort(0);
+                                writeShort(0);
+                                writeShort(0);
+                                writeInt(0);
+                                writeInt((int) (large ? MAXIMUM_INTEGER : entry.offset));
+                                write(entry.name);
+                                write(entry.extra);
+                                if (large) {
+                                    writeShort(ZIP64_EXTRA);
+                                    writeShort(8);
+                                    writeLong(entry.offset);
+                                }
+                            }
+                            long size = position - offset;
+                            zip64 |= offset >= MAXIMUM_INTEGER || size >= MAXIMUM_INTEGER;
+                            if (zip64) {
+                                long record = position;
+                                writeInt(ZIP64_END_OF_CENTRAL_DIRECTORY);
+                                writeLong(44);
+                                writeShort(ZIP64_VERSION);
+                                writeShort(ZIP64_VERSION);
+                                writeInt(0);
+                                writeInt(0);
+                                writeLong(entries.size());
+                                writeLong(entries.size());
+                                writeLong(size);
+                                writeLong(offset);
+                                writeInt(ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR);
+                                writeInt(0);
+                                writeLong(record);
+                                writeInt(1);
+                            }
+                            writeInt(END_OF_CENTRAL_DIRECTORY);
+                            writeShort(0);
+                            writeShort(0);
+                            writeShort(Math.min(entries.size(), MAXIMUM_SHORT));
+                            writeShort(Math.min(entries.size(), MAXIMUM_SHORT));
+                            writeInt((int) Math.min(size, MAXIMUM_INTEGER));
+                            writeInt((int) Math.min(offset, MAXIMUM_INTEGER));
+                            writeShort(0);
+                        } finally {
+                            for (Future<Entry> future : pending) {
+                                future.cancel(true);
+                            }
+                            executorService.shutdown();
+                            try {
+                                outputStream.close();
+                            } finally {
+                                for (Archive archive : archives.values()) {
+                                    if (archive != null) {
+                                        archive.close();
+                                    }
+                                }
+                            }
+                        }
+                    }
+
+                    /**
+                     * Reads a region of a file channel into a buffer in little endian byte order.
+                     *
+                     * @param channel  The channel to read from.
+                     * @param position The position of the region.
+                     * @param length   The length of the region.
+                     * @return A buffer containing the region.
+                     * @throws IOException If an I/O exception occurs or if the channel ends before the region.
+                     */
+                    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+                        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+                        while (buffer.hasRemaining()) {
+                            if (channel.read(buffer, position + buffer.position()) == -1) {
+                                throw new ZipException("Unexpected end of archive");
+                            }
+                        }
+                        buffer.flip();
+                        return buffer;
+                    }
+
+                    /**
+                     * Writes a byte array.
+                     *
+                     * @param value The value to write.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    private void write(byte[] value) throws IOException {
+                        outputStream.write(value);
+                        position += value.length;
+                    }
+
+                    /**
+                     * Writes a short value in little endian byte order.
+                     *
+                     * @param value The value to write.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    private void writeShort(int value) throws IOException {
+                        outputStream.write(value & 0xFF);
+                        outputStream.write((value >>> 8) & 0xFF);
+                        position += 2;
+                    }
+
+                    /**
+                     * Writes an integer value in little endian byte order.
+                     *
+                     * @param value The value to write.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    private void writeInt(int value) throws IOException {
+                        writeShort(value & 0xFFFF);
+                        writeShort((value >>> 16) & 0xFFFF);
+                    }
+
+                    /**
+                     * Writes a long value in little endian byte order.
+                     *
+                     * @param value The value to write.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    private void writeLong(long value) throws IOException {
+                        writeInt((int) value);
+                        writeInt((int) (value >>> 32));
+                    }
+
+                    /**
+                     * A compression supplies the uncompressed data of an entry.
+                     */
+                    protected interface Compression {
+
+                        /**
+                         * Resolves the uncompressed data of the entry.
+                         *
+                         * @return The uncompressed data of the entry.
+                         * @throws IOException If an I/O exception occurs.
+                         */
+                        byte[] resolve() throws IOException;
+
+                        /**
+                         * A compression of a binary representation that is already available.
+                         */
+                        @HashCodeAndEqualsPlugin.Enhance
+                        class OfBinaryRepresentation implements Compression {
+
+                            /**
+                             * The binary representation of the entry.
+                             */
+                            private final byte[] binaryRepresentation;
+
+                            /**
+                             * Creates a new compression of a binary representation.
+                             *
+                             * @param binaryRepresentation The binary representation of the entry.
+                             */
+                            @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "The array is not modified by class contract.")
+                            protected OfBinaryRepresentation(byte[] binaryRepresentation) {
+                                this.binaryRepresentation = binaryRepresentation;
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "The array is not modified by class contract.")
+                            public byte[] resolve() {
+                                return binaryRepresentation;
+                            }
+                        }
+
+                        /**
+                         * A compression of a retained element.
+                         */
+                        @HashCodeAndEqualsPlugin.Enhance
+                        class OfElement implements Compression {
+
+                            /**
+                             * The retained element.
+                             */
+                            private final Source.Element element;
+
+                            /**
+                             * Creates a new compression of a retained element.
+                             *
+                             * @param element The retained element.
+                             */
+                            protected OfElement(Source.Element element) {
+                                this.element = element;
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public byte[] resolve() throws IOException {
+                                InputStream inputStream = element.getInputStream();
+                                try {
+                                    return StreamDrainer.DEFAULT.drain(inputStream);
+                                } finally {
+                                    inputStream.close();
+                                }
+                            }
+                        }
+                    }
+
+                    /**
+                     * A task that compresses a single entry.
+                     */
+                    protected static class Task implements Callable<Entry> {
+
+                        /**
+                         * The entry's name.
+                         */
+                        private final String name;
+
+                        /**
+                         * The compression that supplies the entry's data.
+                         */
+                        private final Compression compression;
+
+                        /**
+                         * {@code true} if the entry should be deflated.
+                         */
+                        private final boolean deflated;
+
+                        /**
+                         * The entry's modification time.
+                         */
+                        private final long time;
+
+                        /**
+                         * Creates a new task.
+                         *
+                         * @param name        The entry's name.
+                         * @param compression The compression that supplies the entry's data.
+                         * @param deflated    {@code true} if the entry should be deflated.
+                         * @param time        The entry's modification time.
+                         */
+                        protected Task(String name, Compression compression, boolean deflated, long time) {
+                            this.name = name;
+                            this.compression = compression;
+                            this.deflated = deflated;
+                            this.time = time;
+                        }
+
+                        /**
+                         * Converts a time stamp to the MS-DOS date and time format.
+                         *
+                         * @param time The time stamp to convert.
+                         * @return The time stamp in MS-DOS format.
+                         */
+                        private static int toDosTime(long time) {
+                            Calendar calendar = Calendar.getInstance();
+                            calendar.setTimeInMillis(time);
+                            int year = calendar.get(Calendar.YEAR);
+                            if (year < 1980) {
+                                return (1 << 21) | (1 << 16);
+                            }
+                            return (year - 1980) << 25
+                                    | (calendar.get(Calendar.MONTH) + 1) << 21
+                                    | calendar.get(Calendar.DAY_OF_MONTH) << 16
+                                    | calendar.get(Calendar.HOUR_OF_DAY) << 11
+                                    | calendar.get(Calendar.MINUTE) << 5
+                                    | calendar.get(Calendar.SECOND) >> 1;
+                        }
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public Entry call() throws IOException {
+                            byte[] binaryRepresentation = compression.resolve(), data;
+                            CRC32 crc = new CRC32();
+                            crc.update(binaryRepresentation);
+                            if (deflated) {
+                                Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                                try {
+                                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(64, binaryRepresentation.length / 2));
+                                    DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(outputStream, deflater);
+                                    deflaterOutputStream.write(binaryRepresentation);
+                                    deflaterOutputStream.finish();
+                                    data = outputStream.toByteArray();
+                                } finally {
+                                    deflater.end();
+                                }
+                            } else {
+                                data = binaryRepresentation;
+                            }
+                            if (binaryRepresentation.length >= MAXIMUM_INTEGER || data.length >= MAXIMUM_INTEGER) {
+                                throw new ZipException("Entry exceeds maximum size: " + name);
+                            }
+                            return new Entry(name.getBytes("UTF-8"),
+                                    deflated ? JarEntry.DEFLATED : JarEntry.STORED,
+                                    toDosTime(time),
+                                    crc.getValue(),
+                                    binaryRepresentation.length,
+                                    data);
+                        }
+                    }
+
+                    /**
+                     * A compressed entry.
+                     */
+                    protected static class Entry {
+
+                        /**
+                         * The entry's UTF-8 encoded name.
+                         */
+                        private final byte[] name;
+
+                        /**
+                         * The entry's compression method.
+                         */
+                        private final int method;
+
+                        /**
+                         * The entry's modification time in MS-DOS format.
+                         */
+                        private final int time;
+
+                        /**
+                         * The CRC-32 checksum of the entry's uncompressed data.
+                         */
+                        private final long crc;
+
+                        /**
+                         * The size of the entry's uncompressed data.
+                         */
+                        private final long size;
+
+                        /**
+                         * The size of the entry's compressed data.
+                         */
+                        private final long compressedSize;
+
+                        /**
+                         * The entry's compressed data or {@code null} if the entry is copied or was already written.
+                         */
+                        @Nullable
+                        private byte[] data;
+
+                        /**
+                         * The channel to copy the entry's compressed data from or {@code null} if the data is not copied.
+                         */
+                        @Nullable
+                        private final FileChannel channel;
+
+                        /**
+                         * The position of the entry's compressed data within the channel to copy from.
+                         */
+                        private final long start;
+
+                        /**
+                         * The entry's extra field.
+                         */
+                        private byte[] extra;
+
+                        /**
+                         * The offset of the entry's local file header.
+                         */
+                        private long offset;
+
+                        /**
+                         * Creates a new compressed entry.
+                         *
+                         * @param name   The entry's UTF-8 encoded name.
+                         * @param method The entry's compression method.
+                         * @param time   The entry's modification time in MS-DOS format.
+                         * @param crc    The CRC-32 checksum of the entry's uncompressed data.
+                         * @param size   The size of the entry's uncompressed data.
+                         * @param data   The entry's compressed data.
+                         */
+                        protected Entry(byte[] name, int method, int time, long crc, long size, byte[] data) {
+                            this(name, method, time, crc, size, data.length, null, 0L);
+                            this.data = data;
+                        }
+
+                        /**
+                         * Creates a new entry.
+                         *
+                         * @param name           The entry's UTF-8 encoded name.
+                         * @param method         The entry's compression method.
+                         * @param time           The entry's modification time in MS-DOS format.
+                         * @param crc            The CRC-32 checksum of the entry's uncompressed data.
+                         * @param size           The size of the entry's uncompressed data.
+                         * @param compressedSize The size of the entry's compressed data.
+                         * @param channel        The channel to copy the entry's compressed data from or {@code null} if the data is not copied.
+                         * @param start          The position of the entry's compressed data within the channel to copy from.
+                         */
+                        protected Entry(byte[] name,
+                                        int method,
+                                        int time,
+                                        long crc,
+                                        long size,
+                                        long compressedSize,
+                                        @Nullable FileChannel channel,
+                                        long start) {
+                            this.name = name;
+                            this.method = method;
+                            this.time = time;
+                            this.crc = crc;
+                            this.size = size;
+                            this.compressedSize = compressedSize;
+                            this.channel = channel;
+                            this.start = start;
+                            extra = new byte[0];
+                        }
+                    }
+
+                    /**
+                     * A task that copies an entry's compressed data from a source jar file. If the entry's local file header does not
+                     * match the entry's location within the central directory, the entry is compressed anew.
+                     */
+                    protected static class Copy implements Callable<Entry> {
+
+                        /**
+                         * The entry's name.
+                         */
+                        private final String name;
+
+                        /**
+                         * The location of the entry within its source jar file.
+                         */
+                        private final Archive.Location location;
+
+                        /**
+                         * The task to apply if the entry cannot be copied.
+                         */
+                        private final Task fallback;
+
+                        /**
+                         * Creates a new copy task.
+                         *
+                         * @param name     The entry's name.
+                         * @param location The location of the entry within its source jar file.
+                         * @param fallback The task to apply if the entry cannot be copied.
+                         */
+                        protected Copy(String name, Archive.Location location, Task fallback) {
+                            this.name = name;
+                            this.location = location;
+                            this.fallback = fallback;
+                        }
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public Entry call() throws IOException {
+                            FileChannel channel = location.getChannel();
+                            ByteBuffer header = read(channel, location.getOffset(), 30);
+                            if (header.getInt(0) != LOCAL_FILE_HEADER) {
+                                return fallback.call();
+                            }
+                            long start = location.getOffset() + 30 + (header.getShort(26) & MAXIMUM_SHORT) + (header.getShort(28) & MAXIMUM_SHORT);
+                            if (start + location.getCompressedSize() > channel.size()) {
+                                return fallback.call();
+                            }
+                            return new Entry(name.getBytes("UTF-8"),
+                                    location.getMethod(),
+                                    location.getTime(),
+                                    location.getCrc(),
+                                    location.getSize(),
+                                    location.getCompressedSize(),
+                                    channel,
+                                    start);
+                        }
+                    }
+
+                    /**
+                     * A source jar file from which compressed entries are copied.
+                     */
+                    protected static class Archive implements Closeable {
+
+                        /**
+                         * The random access file that represents the jar file.
+                         */
+                        private final RandomAccessFile file;
+
+                        /**
+                         * A mapping of entry names to the entries' locations.
+                         */
+                        private final Map<String, Location> locations;
+
+                        /**
+                         * Creates a new archive.
+                         *
+                         * @param file      The random access file that represents the jar file.
+                         * @param locations A mapping of entry names to the entries' locations.
+                         */
+                        protected Archive(RandomAccessFile file, Map<String, Location> locations) {
+                            this.file = file;
+                            this.locations = locations;
+                        }
+
+                        /**
+                         * Reads the central directory of a jar file.
+                         *
+                         * @param file The jar file to read.
+                         * @return An archive that represents the jar file.
+                         * @throws IOException If an I/O exception occurs or if the jar file's central directory cannot be read.
+                         */
+                        protected static Archive of(File file) throws IOException {
+                            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                            try {
+                                return new Archive(randomAccessFile, index(randomAccessFile.getChannel()));
+                            } catch (IOException exception) {
+                                randomAccessFile.close();
+                                throw exception;
+                            } catch (RuntimeException exception) {
+                                randomAccessFile.close();
+                                throw new ZipException("Cannot read central directory of " + file + ": " + exception);
+                            }
+                        }
+
+                        /**
+                         * Reads the locations of all entries that can be copied from a channel's central directory.
+                         *
+                         * @param channel The channel to read from.
+                         * @return A mapping of entry names to the entries' locations.
+                         * @throws IOException If an I/O exception occurs or if the central directory cannot be read.
+                         */
+                        private static Map<String, Location> index(FileChannel channel) throws IOException {
+                            int length = (int) Math.min(channel.size(), 22 + MAXIMUM_SHORT);
+                            ByteBuffer tail = read(channel, channel.size() - length, length);
+                            int end = length - 22;
+                            while (end >= 0 && tail.getInt(end) != END_OF_CENTRAL_DIRECTORY) {
+                                end--;
+                            }
+                            if (end == -1) {
+                                throw new ZipException("Cannot locate end of central directory");
+                            }
+                            long count = tail.getShort(end + 10) & MAXIMUM_SHORT, size = tail.getInt(end + 12) & MAXIMUM_INTEGER, offset = tail.getInt(end + 16) & MAXIMUM_INTEGER;
+                            if (end >= 20 && tail.getInt(end - 20) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR) {
+                                ByteBuffer record = read(channel, tail.getLong(end - 12), 56);
+                                if (record.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY) {
+                                    throw new ZipException("Cannot locate zip64 end of central directory");
+                                }
+                                count = record.getLong(32);
+                                size = record.getLong(40);
+                                offset = record.getLong(48);
+                            }
+                            if (size > Integer.MAX_VALUE) {
+                                throw new ZipException("Central directory is too large: " + size);
+                            }
+                            ByteBuffer directory = read(channel, offset, (int) size);
+                            Map<String, Location> locations = new HashMap<String, Location>();
+                            int position = 0;
+                            for (long index = 0; index < count; index++) {
+                                if (directory.getInt(position) != CENTRAL_DIRECTORY_HEADER) {
+                                    throw new ZipException("Unexpected central directory header at " + position);
+                                }
+                                int flags = directory.getShort(position + 8) & MAXIMUM_SHORT, method = directory.getShort(position + 10) & MAXIMUM_SHORT;
+                                long compressedSize = directory.getInt(position + 20) & MAXIMUM_INTEGER, uncompressedSize = directory.getInt(position + 24) & MAXIMUM_INTEGER;
+                                int nameLength = directory.getShort(position + 28) & MAXIMUM_SHORT, extraLength = directory.getShort(position + 30) & MAXIMUM_SHORT;
+                                long localOffset = directory.getInt(position + 42) & MAXIMUM_INTEGER;
+                                if (localOffset == MAXIMUM_INTEGER && compressedSize != MAXIMUM_INTEGER && uncompressedSize != MAXIMUM_INTEGER) {
+                                    int extra = position + 46 + nameLength;
+                                    while (extra + 4 <= position + 46 + nameLength + extraLength) {
+                                        if ((directory.getShort(extra) & MAXIMUM_SHORT) == ZIP64_EXTRA) {
+                                            localOffset = directory.getLong(extra + 4);
+                                            break;
+                                        }
+                                        extra += 4 + (directory.getShort(extra + 2) & MAXIMUM_SHORT);
+                                    }
+                                }
+                                if ((flags & 1) == 0
+                                        && (method == JarEntry.STORED || method == JarEntry.DEFLATED)
+                                        && compressedSize < MAXIMUM_INTEGER
+                                        && uncompressedSize < MAXIMUM_INTEGER
+                                        && localOffset < MAXIMUM_INTEGER) {
+                                    byte[] name = new byte[nameLength];
+                                    directory.position(position + 46);
+                                    directory.get(name);
+                                    locations.put(new String(name, "UTF-8"), new Location(channel,
+                                            method,
+                                            directory.getInt(position + 12),
+                                            directory.getInt(position + 16) & MAXIMUM_INTEGER,
+                                            uncompressedSize,
+                                            compressedSize,
+                                            localOffset));
+                                }
+                                position += 46 + nameLength + extraLength + (directory.getShort(position + 32) & MAXIMUM_SHORT);
+                            }
+                            return locations;
+                        }
+
+                        /**
+                         * Locates a jar entry within this archive.
+                         *
+                         * @param entry The entry to locate.
+                         * @return The entry's location or {@code null} if the entry cannot be copied from this archive.
+                         */
+                        @Nullable
+                        protected Location locate(JarEntry entry) {
+                            Location location = locations.get(entry.getName());
+                            return location != null
+                                    && location.getMethod() == entry.getMethod()
+                                    && location.getCrc() == entry.getCrc()
+                                    && location.getCompressedSize() == entry.getCompressedSize()
+                                    ? location
+                                    : null;
+                        }
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public void close() throws IOException {
+                            file.close();
+                        }
+
+                        /**
+                         * The location of an entry within a jar file.
+                         */
+                        protected static class Location {
+
+                            /**
+                             * The channel of the jar file that contains the entry.
+                             */
+                            private final FileChannel channel;
+
+                            /**
+                             * The entry's compression method.
+                             */
+                            private final int method;
+
+                            /**
+                             * The entry's modification time in MS-DOS format.
+                             */
+                            private final int time;
+
+                            /**
+                             * The CRC-32 checksum of the entry's uncompressed data.
+                             */
+                            private final long crc;
+
+                            /**
+                             * The size of the entry's uncompressed data.
+                             */
+                            private final long size;
+
+                            /**
+                             * The size of the entry's compressed data.
+                             */
+                            private final long compressedSize;
+
+                            /**
+                             * The offset of the entry's local file header.
+                             */
+                            private final long offset;
+
+                            /**
+                             * Creates a new location.
+                             *
+                             * @param channel        The channel of the jar file that contains the entry.
+                             * @param method         The entry's compression method.
+                             * @param time           The entry's modification time in MS-DOS format.
+                             * @param crc            The CRC-32 checksum of the entry's uncompressed data.
+                             * @param size           The size of the entry's uncompressed data.
+                             * @param compressedSize The size of the entry's compressed data.
+                             * @param offset         The offset of the entry's local file header.
+                             */
+                            protected Location(FileChannel channel, int method, int time, long crc, long size, long compressedSize, long offset) {
+                                this.channel = channel;
+                                this.method = method;
+                                this.time = time;
+                                this.crc = crc;
+                                this.size = size;
+                                this.compressedSize = compressedSize;
+                                this.offset = offset;
+                            }
+
+                            /**
+                             * Returns the channel of the jar file that contains the entry.
+                             *
+                             * @return The channel of the jar file that contains the entry.
+                             */
+                            protected FileChannel getChannel() {
+                                return channel;
+                            }
+
+                            /**
+                             * Returns the entry's compression method.
+                             *
+                             * @return The entry's compression method.
+                             */
+                            protected int getMethod() {
+                                return method;
+                            }
+
+                            /**
+                             * Returns the entry's modification time in MS-DOS format.
+                             *
+                             * @return The entry's modification time in MS-DOS format.
+                             */
+                            protected int getTime() {
+                                return time;
+                            }
+
+                            /**
+                             * Returns the CRC-32 checksum of the entry's uncompressed data.
+                             *
+                             * @return The CRC-32 checksum of the entry's uncompressed data.
+                             */
+                            protected long getCrc() {
+                                return crc;
+                            }
+
+                            /**
+                             * Returns the size of the entry's uncompressed data.
+                             *
+                             * @return The size of the entry's uncompressed data.
+                             */
+                            protected long getSize() {
+                                return size;
+                            }
+
+                            /**
+                             * Returns the size of the entry's compressed data.
+                             *
+                             * @return The size of the entry's compressed data.
+                             */
+                            protected long getCompressedSize() {
+                                return compressedSize;
+                            }
+
+                            /**
+                             * Returns the offset of the entry's local file header.
+                             *
+                             * @return The offset of the entry's local file header.
+                             */
+                            protected long getOffset() {
+                                return offset;
+                            }
+                        }
+                    }
+                }
+            }
+
+            /**
+             * A sink that discards any entry.
+             */
+            enum Discarding implements Target, Sink {
+
+                /**
+                 * The singleton instance.
+                 */
+                INSTANCE;
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public Sink write(Manifest manifest) {
+                    return this;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void store(Map<TypeDescription, byte[]> binaryRepresentations) {
+                    /* do nothing */
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void retain(Source.Element element) {
+                    /* do nothing */
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void close() {
+                    /* do nothing */
+                }
+            }
+
+            /**
+             * A sink that stores all elements in a memory map.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            class InMemory implements Target, Sink {
+
+                /**
+                 * The map for storing all elements being received.
+                 */
+                private final Map<String, byte[]> storage;
+
+                /**
+                 * Creates a new in-memory storage.
+                 */
+                public InMemory() {
+                    this(new HashMap<String, byte[]>());
+                }
+
+                /**
+                 * Creates a new in-memory storage.
+                 *
+                 * @param storage The map for storing all elements being received.
+                 */
+                public InMemory(Map<String, byte[]> storage) {
+                    this.storage = storage;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public Sink write(Manifest manifest) throws IOException {
+                    if (manifest != null) {
+                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                        try {
+                            manifest.write(outputStream);
+                        } finally {
+                            outputStream.close();
+                        }
+                        storage.put(JarFile.MANIFEST_NAME, outputStream.toByteArray());
+                    }
+                    return this;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void store(Map<TypeDescription, byte[]> binaryRepresentations) {
+                    for (Map.Entry<TypeDescription, byte[]> entry : binaryRepresentations.entrySet()) {
+                        storage.put(entry.getKey().getInternalName() + CLASS_FILE_EXTENSION, entry.getValue());
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void retain(Source.Element element) throws IOException {
+                    String name = element.getName();
+                    if (!name.endsWith("/")) {
+                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                        try {
+                            InputStream inputStream = element.getInputStream();
+                            try {
+                                byte[] buffer = new byte[1024];
+                                int length;
+                                while ((length = inputStream.read(buffer)) != -1) {
+                                    outputStream.write(buffer, 0, length);
+                                }
+                            } finally {
+                                inputStream.close();
+                            }
+                        } finally {
+                            outputStream.close();
+                        }
+                        storage.put(element.getName(), outputStream.toByteArray());
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void close() {
+                    /* do nothing */
+                }
+
+                /**
+                 * Returns the in-memory storage.
+                 *
+                 * @return The in-memory storage.
+                 */
+                public Map<String, byte[]> getStorage() {
+                    return storage;
+                }
+
+                /**
+                 * Returns the in-memory storage as a type-map where all non-class files are discarded.
+                 *
+                 * @return The in-memory storage as a type map.
+                 */
+                public Map<String, byte[]> toTypeMap() {
+                    Map<String, byte[]> binaryRepresentations = new HashMap<String, byte[]>();
+                    for (Map.Entry<String, byte[]> entry : storage.entrySet()) {
+                        if (entry.getKey().endsWith(CLASS_FILE_EXTENSION)) {
+                            binaryRepresentations.put(entry.getKey()
+                                    .substring(0, entry.getKey().length() - CLASS_FILE_EXTENSION.length())
+                                    .replace('/', '.'), entry.getValue());
+                        }
+                    }
+                    return binaryRepresentations;
+                }
+            }
+
+            /**
+             * Represents a folder as the target for a plugin engine's application.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            class ForFolder implements Target, Sink {
+
+                /**
+                 * The folder that is represented by this instance.
+                 */
+                private final File folder;
+
+                /**
+                 * Creates a new target for a folder.
+                 *
+                 * @param folder The folder that is represented by this instance.
+                 */
+                public ForFolder(File folder) {
+                    this.folder = folder;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public Sink write(Manifest manifest) throws IOException {
+                    if (manifest != null) {
+                        File target = new File(folder, JarFile.MANIFEST_NAME);
+                        if (!target.getParentFile().isDirectory() && !target.getParentFile().mkdirs()) {
+                            throw new IOException("Could not create directory: " + target.getParent());
+                        }
+                        OutputStream outputStream = new FileOutputStream(target);
+                        try {
+                            manifest.write(outputStream);
+                        } finally {
+                            outputStream.close();
+                        }
+                    }
+                    return this;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void store(Map<TypeDescription, byte[]> binaryRepresentations) throws IOException {
+                    for (Map.Entry<TypeDescription, byte[]> entry : binaryRepresentations.entrySet()) {
+                        File target = new File(folder, entry.getKey().getInternalName() + CLASS_FILE_EXTENSION);
+                        if (!target.getParentFile().isDirectory() && !target.getParentFile().mkdirs()) {
+                            throw new IOException("Could not create directory: " + target.getParent());
+                        }
+                        OutputStream outputStream = new FileOutputStream(target);
+                        try {
+                            outputStream.write(entry.getValue());
+                        } finally {
+                            outputStream.close();
+                        }
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void retain(Source.Element element) throws IOException {
+                    String name = element.getName();
+                    if (!name.endsWith("/")) {
+                        File target = new File(folder, name), resolved = element.resolveAs(File.class);
+                        if (!target.getCanonicalPath().startsWith(folder.getCanonicalPath())) {
+                            throw new IllegalArgumentException(target + " is not a subdirectory of " + folder);
+                        } else if (!target.getParentFile().isDirectory() && !target.getParentFile().mkdirs()) {
+                            throw new IOException("Could not create directory: " + target.getParent());
+                        } else if (resolved != null && !resolved.equals(target)) {
+                            FileSystem.getInstance().copy(resolved, target);
+                        } else if (!target.equals(resolved)) {
+                            InputStream inputStream = element.getInputStream();
+                            try {
+                                OutputStream outputStream = new FileOutputStream(target);
+                                try {
+                                    byte[] buffer = new byte[1024];
+                                    int length;
+                                    while ((length = inputStream.read(buffer)) != -1) {
+                                        outputStream.write(buffer, 0, length);
+                                    }
+                                } finally {
+                                    outputStream.close();
+                                }
+                            } finally {
+                                inputStream.close();
+                            }
+                        }
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void close() {
+                    /* do nothing */
+                }
+            }
+
+            /**
+             * Represents a jar file as a target.
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            class ForJarFile implements Target {
+
+                /**
+                 * The jar file that is represented by this target.
+                 */
+                private final File file;
+
+                /**
+                 * Creates a new target for a jar file.
+                 *
+                 * @param file The jar file that is represented by this target.
+                 */
+                public ForJarFile(File file) {
+                    this.file = file;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public Sink write(Manifest manifest) throws IOException {
+                    return manifest == null
+                            ? new Sink.ForJarOutputStream(new JarOutputStream(new FileOutputStream(file)))
+                            : new Sink.ForJarOutputStream(new JarOutputStream(new FileOutputStream(file), manifest));
+                }
+
+                /**
+                 * Returns a target for the represented jar file that compresses entries in parallel.
+                 *
+                 * @param threads The amount of threads to compress entries on.
+                 * @return A target for the represented jar file that compresses entries in parallel.
+                 */
+                public WithParallelDeflation withParallelDeflation(int threads) {
+                    return new WithParallelDeflation(file, threads, Collections.<String>emptySet());
+                }
+
+                /**
+                 * A target for a jar file that compresses each entry independently on a dedicated thread pool and that appends all
+                 * entries in their order of submission. See {@link Sink.ForParallelDeflation} for details.
+                 */
+                @HashCodeAndEqualsPlugin.Enhance
+                public static class WithParallelDeflation implements Target {
+
+                    /**
+                     * The jar file that is represented by this target.
+                     */
+                    private final File file;
+
+                    /**
+                     * The amount of threads to compress entries on.
+                     */
+                    private final int threads;
+
+                    /**
+                     * The file extensions of resources that are stored without compression.
+                     */
+                    private final Set<String> storedExtensions;
+
+                    /**
+                     * Creates a new target for a jar file that compresses entries in parallel.
+                     *
+                     * @param file             The jar file that is represented by this target.
+                     * @param threads          The amount of threads to compress entries on.
+                     * @param storedExtensions The file extensions of resources that are stored without compression.
+                     */
+                    public WithParallelDeflation(File file, int threads, Set<String> storedExtensions) {
+                        if (threads < 1) {
+                            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+                        }
+                        this.file = file;
+                        this.threads = threads;
+                        this.storedExtensions = storedExtensions;
+                    }
+
+                    /**
+                     * Returns a target that stores resources that are typically already compressed without compressing them again.
+                     *
+                     * @return A target that stores already compressed resources without compression.
+                     */
+                    public WithParallelDeflation withStoredCompressedResources() {
+                        return withStoredExtensions(Sink.ForParallelDeflation.COMPRESSED_EXTENSIONS);
+                    }
+
+                    /**
+                     * Returns a target that stores resources with any of the supplied file extensions without compression.
+                     *
+                     * @param storedExtensions The file extensions of resources, including the leading dot, to store without compression.
+                     * @return A target that stores resources with any of the supplied extensions without compression.
+                     */
+                    public WithParallelDeflation withStoredExtensions(Collection<String> storedExtensions) {
+                        Set<String> extensions = new HashSet<String>(this.storedExtensions);
+                        for (String extension : storedExtensions) {
+                            extensions.add(extension.toLowerCase(Locale.US));
+                        }
+                        return new WithParallelDeflation(file, threads, extensions);
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Sink write(@Nullable Manifest manifest) throws IOException {
+                        return new Sink.ForParallelDeflation(new FileOutputStream(file),
+                                manifest,
+                                Executors.newFixedThreadPool(threads),
+                                threads * 4,
+                                storedExtensions);
+                    }
+                }
+            }
+
+            /**
+             * <p>
+             * A target that decouples writing from a plugin engine's application by applying all writes to the sink of another target
+             * from a dedicated writer thread. Writes are queued in their order of submission and are applied in this order. If more
+             * writes are pending than the supplied capacity permits, submitting further writes blocks until the writer thread catches up.
+             * </p>
+             * <p>
+             * <b>Important</b>: Any retained {@link Source.Element} is read by the writer thread. Any failure of the writer thread is
+             * rethrown upon the next write or upon closing the sink.
+             * </p>
+             */
+            @HashCodeAndEqualsPlugin.Enhance
+            class Asynchronous implements Target {
+
+                /**
+                 * The default amount of writes that can be pending.
+                 */
+                public static final int DEFAULT_CAPACITY = 256;
+
+                /**
+                 * The target to write to.
+                 */
+                private final Target target;
+
+                /**
+                 * The maximum amount of writes that can be pending.
+                 */
+                private final int capacity;
+
+                /**
+                 * Creates a new asynchronous target with a default capacity.
+                 *
+                 * @param target The target to write to.
+                 */
+                public Asynchronous(Target target) {
+                    this(target, DEFAULT_CAPACITY);
+                }
+
+                /**
+                 * Creates a new asynchronous target.
+                 *
+                 * @param target   The target to write to.
+                 * @param capacity The maximum amount of writes that can be pending.
+                 */
+                public Asynchronous(Target target, int capacity) {
+                    if (capacity < 1) {
+                        throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+                    }
+                    this.target = target;
+                    this.capacity = capacity;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public Sink write(Manifest manifest) throws IOException {
+                    return new AsynchronousSink(target.write(manifest), capacity, Executors.newSingleThreadExecutor());
+                }
+
+                /**
+                 * A sink that applies all writes to a delegate sink from a dedicated writer thread.
+                 */
+                protected static class AsynchronousSink implements Sink {
+
+                    /**
+                     * The sink to write to.
+                     */
+                    private final Sink sink;
+
+                    /**
+                     * A semaphore that bounds the amount of pending writes.
+                     */
+                    private final Semaphore semaphore;
+
+                    /**
+                     * The executor service that represents the writer thread.
+                     */
+                    private final ExecutorService executorService;
+
+                    /**
+                     * The first failure of the writer thread or {@code null} if no failure occurred.
+                     */
+                    private final AtomicReference<Throwable> failure;
+
+                    /**
+                     * Creates a new asynchronous sink.
+                     *
+                     * @param sink            The sink to write to.
+                     * @param capacity        The maximum amount of writes that can be pending.
+                     * @param executorService The executor service that represents the writer thread.
+                     */
+                    protected AsynchronousSink(Sink sink, int capacity, ExecutorService executorService) {
+                        this.sink = sink;
+                        this.executorService = executorService;
+                        semaphore = new Semaphore(capacity);
+                        failure = new AtomicReference<Throwable>();
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void store(Map<TypeDescription, byte[]> binaryRepresentations) throws IOException {
+                        submit(new Write.OfBinaryRepresentations(binaryRepresentations));
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void retain(Source.Element element) throws IOException {
+                        submit(new Write.OfElement(element));
+                    }
+
+                    /**
+                     * Submits a write to the writer thread.
+                     *
+                     * @param write The write to submit.
+                     * @throws IOException If a previous write failed.
+                     */
+                    private void submit(Write write) throws IOException {
+                        check();
+                        try {
+                            semaphore.acquire();
+                        } catch (InterruptedException exception) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException("Interrupted while waiting for writer thread", exception);
+                        }
+                        try {
+                            executorService.execute(new Dispatch(write));
+                        } catch (RuntimeException exception) {
+                            semaphore.release();
+                            throw exception;
+                        }
+                    }
+
+                    /**
+                     * Rethrows the failure of the writer thread if any failure occurred.
+                     *
+                     * @throws IOException If the writer thread failed with an I/O exception.
+                     */
+                    private void check() throws IOException {
+                        Throwable throwable = failure.get();
+                        if (throwable == null) {
+                            return;
+                        } else if (throwable instanceof IOException) {
+                            IOException exception = new IOException("Failed to write to target");
+                            exception.initCause(throwable);
+                            throw exception;
+                        } else if (throwable instanceof Error) {
+                            throw (Error) throwable;
+                        } else {
+                            throw new IllegalStateException("Failed to write to target", throwable);
+                        }
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void close() throws IOException {
+                        try {
+                            executorService.shutdown();
+                            try {
+                                while (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+                                    /* wait for writer thread */
+                                }
+                            } catch (InterruptedException exception) {
+                                executorService.shutdownNow();
+                                Thread.currentThread().interrupt();
+                                throw new IllegalStateException("Interrupted while waiting for writer thread", exception);
+                            }
+                        } finally {
+                            sink.close();
+                        }
+                        check();
+                    }
+
+                    /**
+                     * A write to apply to the delegate sink.
+                     */
+                    protected interface Write {
+
+                        /**
+                         * Applies this write.
+                         *
+                         * @param sink The sink to write to.
+                         * @throws IOException If an I/O exception occurs.
+                         */
+                        void apply(Sink sink) throws IOException;
+
+                        /**
+                         * A write of binary representations.
+                         */
+                        @HashCodeAndEqualsPlugin.Enhance
+                        class OfBinaryRepresentations implements Write {
+
+                            /**
+                             * The binary representations to store.
+                             */
+                            private final Map<TypeDescription, byte[]> binaryRepresentations;
+
+                            /**
+                             * Creates a new write of binary representations.
+                             *
+                             * @param binaryRepresentations The binary representations to store.
+                             */
+                            protected OfBinaryRepresentations(Map<TypeDescription, byte[]> binaryRepresentations) {
+                                this.binaryRepresentations = binaryRepresentations;
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public void apply(Sink sink) throws IOException {
+                                sink.store(binaryRepresentations);
+                            }
+                        }
+
+                        /**
+                         * A write of a retained element.
+                         */
+                        @HashCodeAndEqualsPlugin.Enhance
+                        class OfElement implements Write {
+
+                            /**
+                             * The element to retain.
+                             */
+                            private final Source.Element element;
+
+                            /**
+                             * Creates a new write of a retained element.
+                             *
+                             * @param element The element to retain.
+                             */
+                            protected OfElement(Source.Element element) {
+                                this.element = element;
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public void apply(Sink sink) throws IOException {
+                                sink.retain(element);
+                            }
+                        }
+                    }
+
+                    /**
+                     * A dispatch of a write on the writer thread.
+                     */
+                    protected class Dispatch implements Runnable {
+
+                        /**
+                         * The write to apply.
+                         */
+                        private final Write write;
+
+                        /**
+                         * Creates a new dispatch.
+                         *
+                         * @param write The write to apply.
+                         */
+                        protected Dispatch(Write write) {
+                            this.write = write;
+                        }
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public void run() {
+                            try {
+                                if (failure.get() == null) {
+                                    write.apply(sink);
+                                }
+                            } catch (Throwable throwable) {
+                                failure.compareAndSet(null, throwable);
+                            } finally {
+                                semaphore.release();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * A dispatcher to execute a plugin engine transformation. A dispatcher will receive all work assignments prior to the invocation
+         * of complete. After registering and eventually completing the supplied work, the close method will always be called. Any dispatcher
+         * will only be used once and from a single thread.
+         */
+        interface Dispatcher extends Closeable {
+
+            /**
+             * Accepts a new work assignment.
+             *
+             * @param work  The work to handle prefixed by a preprocessing step.
+             * @param eager {@code true} if the processing does not need to be deferred until all preprocessing is complete.
+             * @throws IOException If an I/O exception occurs.
+             */
+            void accept(Callable<? extends Callable<? extends Materializable>> work, boolean eager) throws IOException;
+
+            /**
+             * Completes the work being handled.
+             *
+             * @throws IOException If an I/O exception occurs.
+             */
+            void complete() throws IOException;
+
+            /**
+             * The result of a work assignment that needs to be invoked from the main thread that triggers a dispatchers life-cycle methods.
+             */
+            interface Materializable {
+
+                /**
+                 * Materializes this work result and adds any results to the corresponding collection.
+                 *
+                 * @param sink        The sink to write any work to.
+                 * @param transformed A list of all types that are transformed.
+                 * @param failed      A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                 * @param unresolved  A list of type names that could not be resolved.
+                 * @throws IOException If an I/O exception occurs.
+                 */
+                void materialize(Target.Sink sink,
+                                 List<TypeDescription> transformed,
+                                 Map<TypeDescription,
+                                         List<Throwable>> failed,
+                                 List<String> unresolved) throws IOException;
+
+                /**
+                 * A materializable for a successfully transformed type.
+                 */
+                class ForTransformedElement implements Materializable {
+
+                    /**
+                     * The type that has been transformed.
+                     */
+                    private final DynamicType dynamicType;
+
+                    /**
+                     * Creates a new materializable for a successfully transformed type.
+                     *
+                     * @param dynamicType The type that has been transformed.
+                     */
+                    protected ForTransformedElement(DynamicType dynamicType) {
+                        this.dynamicType = dynamicType;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void materialize(Target.Sink sink,
+                                            List<TypeDescription> transformed,
+                                            Map<TypeDescription,
+                                                    List<Throwable>> failed,
+                                            List<String> unresolved) throws IOException {
+                        sink.store(dynamicType.getAllTypes());
+                        transformed.add(dynamicType.getTypeDescription());
+                    }
+                }
+
+                /**
+                 * A materializable for an element that is retained in its original state.
+                 */
+                class ForRetainedElement implements Materializable {
+
+                    /**
+                     * The retained element.
+                     */
+                    private final Source.Element element;
+
+                    /**
+                     * Creates a new materializable for a retained element.
+                     *
+                     * @param element The retained element.
+                     */
+                    protected ForRetainedElement(Source.Element element) {
+                        this.element = element;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void materialize(Target.Sink sink,
+                                            List<TypeDescription> transformed,
+                                            Map<TypeDescription,
+                                                    List<Throwable>> failed,
+                                            List<String> unresolved) throws IOException {
+                        sink.retain(element);
+                    }
+                }
+
+                /**
+                 * A materializable for an element that failed to be transformed.
+                 */
+                class ForFailedElement implements Materializable {
+
+                    /**
+                     * The element for which the transformation failed.
+                     */
+                    private final Source.Element element;
+
+                    /**
+                     * The type description for the represented type.
+                     */
+                    private final TypeDescription typeDescription;
+
+                    /**
+                     * A non-empty list of errors that occurred when attempting the transformation.
+                     */
+                    private final List<Throwable> errored;
+
+                    /**
+                     * Creates a new materializable for an element that failed to be transformed.
+                     *
+                     * @param element         The element for which the transformation failed.
+                     * @param typeDescription The type description for the represented type.
+                     * @param errored         A non-empty list of errors that occurred when attempting the transformation.
+                     */
+                    protected ForFailedElement(Source.Element element, TypeDescription typeDescription, List<Throwable> errored) {
+                        this.element = element;
+                        this.typeDescription = typeDescription;
+                        this.errored = errored;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void materialize(Target.Sink sink,
+                                            List<TypeDescription> transformed,
+                                            Map<TypeDescription,
+                                                    List<Throwable>> failed,
+                                            List<String> unresolved) throws IOException {
+                        sink.retain(element);
+                        failed.put(typeDescription, errored);
+                    }
+                }
+
+                /**
+                 * A materializable for an element that could not be resolved.
+                 */
+                class ForUnresolvedElement implements Materializable {
+
+                    /**
+                     * The element that could not be resolved.
+                     */
+                    private final Source.Element element;
+
+                    /**
+                     * The name of the type that was deducted for this element.
+                     */
+                    private final String typeName;
+
+                    /**
+                     * Creates a new materializable for an element that could not be resolved.
+                     *
+                     * @param element  The element that could not be resolved.
+                     * @param typeName The name of the type that was deducted for this element.
+                     */
+                    protected ForUnresolvedElement(Source.Element element, String typeName) {
+                        this.element = element;
+                        this.typeName = typeName;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void materialize(Target.Sink sink,
+                                            List<TypeDescription> transformed,
+                                            Map<TypeDescription,
+                                                    List<Throwable>> failed,
+                                            List<String> unresolved) throws IOException {
+                        sink.retain(element);
+                        unresolved.add(typeName);
+                    }
+                }
+
+                /**
+                 * A materializable for an element that is reproduced from the outcome of a previous transformation.
+                 */
+                class ForReusedElement implements Materializable {
+
+                    /**
+                     * A description of the type that was transformed.
+                     */
+                    private final TypeDescription typeDescription;
+
+                    /**
+                     * The elements that represent the outcome of the previous transformation.
+                     */
+                    private final List<Source.Element> elements;
+
+                    /**
+                     * Creates a new materializable for a reused element.
+                     *
+                     * @param typeDescription A description of the type that was transformed.
+                     * @param elements        The elements that represent the outcome of the previous transformation.
+                     */
+                    protected ForReusedElement(TypeDescription typeDescription, List<Source.Element> elements) {
+                        this.typeDescription = typeDescription;
+                        this.elements = elements;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void materialize(Target.Sink sink,
+                                            List<TypeDescription> transformed,
+                                            Map<TypeDescription,
+                                                    List<Throwable>> failed,
+                                            List<String> unresolved) throws IOException {
+                        for (Source.Element element : elements) {
+                            sink.retain(element);
+                        }
+                        transformed.add(typeDescription);
+                    }
+                }
+            }
+
+            /**
+             * A factory that is used for creating a dispatcher that is used for a specific plugin engine application.
+             */
+            interface Factory {
+
+                /**
+                 * Creates a new dispatcher.
+                 *
+                 * @param sink        The sink to write any work to.
+                 * @param transformed A list of all types that are transformed.
+                 * @param failed      A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                 * @param unresolved  A list of type names that could not be resolved.
+                 * @return The dispatcher to use.
+                 */
+                Dispatcher make(Target.Sink sink,
+                                List<TypeDescription> transformed,
+                                Map<TypeDescription,
+                                        List<Throwable>> failed,
+                                List<String> unresolved);
+            }
+
+            /**
+             * A dispatcher that applies transformation upon discovery.
+             */
+            class ForSerialTransformation implements Dispatcher {
+
+                /**
+                 * The sink to write any work to.
+                 */
+                private final Target.Sink sink;
+
+                /**
+                 * A list of all types that are transformed.
+                 */
+                private final List<TypeDescription> transformed;
+
+                /**
+                 * A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                 */
+                private final Map<TypeDescription, List<Throwable>> failed;
+
+                /**
+                 * A list of type names that could not be resolved.
+                 */
+                private final List<String> unresolved;
+
+                /**
+                 * A list of deferred processings.
+                 */
+                private final List<Callable<? extends Materializable>> preprocessings;
+
+                /**
+                 * Creates a dispatcher for a serial transformation.
+                 *
+                 * @param sink        The sink to write any work to.
+                 * @param transformed A list of all types that are transformed.
+                 * @param failed      A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                 * @param unresolved  A list of type names that could not be resolved.
+                 */
+                protected ForSerialTransformation(Target.Sink sink,
+                                                  List<TypeDescription> transformed,
+                                                  Map<TypeDescription, List<Throwable>> failed,
+                                                  List<String> unresolved) {
+                    this.sink = sink;
+                    this.transformed = transformed;
+                    this.failed = failed;
+                    this.unresolved = unresolved;
+                    preprocessings = new ArrayList<Callable<? extends Materializable>>();
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void accept(Callable<? extends Callable<? extends Materializable>> work, boolean eager) throws IOException {
+                    try {
+                        Callable<? extends Materializable> preprocessed = work.call();
+                        if (eager) {
+                            preprocessed.call().materialize(sink, transformed, failed, unresolved);
+                        } else {
+                            preprocessings.add(preprocessed);
+                        }
+                    } catch (Exception exception) {
+                        if (exception instanceof IOException) {
+                            throw (IOException) exception;
+                        } else if (exception instanceof RuntimeException) {
+                            throw (RuntimeException) exception;
+                        } else {
+                            throw new IllegalStateException(exception);
+                        }
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void complete() throws IOException {
+                    for (Callable<? extends Materializable> preprocessing : preprocessings) {
+                        if (Thread.interrupted()) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException("Interrupted during plugin engine completion");
+                        }
+                        try {
+                            preprocessing.call().materialize(sink, transformed, failed, unresolved);
+                        } catch (Exception exception) {
+                            if (exception instanceof IOException) {
+                                throw (IOException) exception;
+                            } else if (exception instanceof RuntimeException) {
+                                throw (RuntimeException) exception;
+                            } else {
+                                throw new IllegalStateException(exception);
+                            }
+                        }
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void close() {
+                    /* do nothing */
+                }
+
+                /**
+                 * A factory for creating a serial dispatcher.
+                 */
+                public enum Factory implements Dispatcher.Factory {
+
+                    /**
+                     * The singleton instance.
+                     */
+                    INSTANCE;
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Dispatcher make(Target.Sink sink,
+                                           List<TypeDescription> transformed,
+                                           Map<TypeDescription,
+                                                   List<Throwable>> failed,
+                                           List<String> unresolved) {
+                        return new ForSerialTransformation(sink, transformed, failed, unresolved);
+                    }
+                }
+            }
+
+            /**
+             * A dispatcher that applies transformations within one or more threads in parallel to the default transformer. Types that
+             * do not require preprocessing are materialized as soon as their transformation completes, such that writing to the
+             * target overlaps with the discovery and transformation of subsequent types. If a capacity is set, the discovery of
+             * further types is blocked while the amount of types that are transformed but not yet materialized exceeds this capacity.
+             */
+            class ForParallelTransformation implements Dispatcher {
+
+                /**
+                 * Indicates that the amount of types that are transformed concurrently is not bounded.
+                 */
+                public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+                /**
+                 * The target sink.
+                 */
+                private final Target.Sink sink;
+
+                /**
+                 * A list of all types that are transformed.
+                 */
+                private final List<TypeDescription> transformed;
+
+                /**
+                 * A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                 */
+                private final Map<TypeDescription, List<Throwable>> failed;
+
+                /**
+                 * A list of type names that could not be resolved.
+                 */
+                private final List<String> unresolved;
+
+                /**
+                 * A completion service for all preprocessings.
+                 */
+                private final CompletionService<Callable<Materializable>> preprocessings;
+
+                /**
+                 * A completion service for all materializers.
+                 */
+                private final CompletionService<Materializable> materializers;
+
+                /**
+                 * The maximum amount of eager work that is scheduled but not yet materialized.
+                 */
+                private final int capacity;
+
+                /**
+                 * A count of deferred processings.
+                 */
+                private int deferred;
+
+                /**
+                 * A count of eager work that is scheduled but not yet materialized.
+                 */
+                private int eager;
+
+                /**
+                 * A collection of futures that are currently scheduled.
+                 */
+                private final Set<Future<?>> futures;
+
+                /**
+                 * Creates a new dispatcher that applies transformations in parallel.
+                 *
+                 * @param executor    The executor to delegate any work to.
+                 * @param sink        The target sink.
+                 * @param transformed A list of all types that are transformed.
+                 * @param failed      A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                 * @param unresolved  A list of type names that could not be resolved.
+                 */
+                protected ForParallelTransformation(Executor executor,
+                                                    Target.Sink sink,
+                                                    List<TypeDescription> transformed,
+                                                    Map<TypeDescription,
+                                                            List<Throwable>> failed,
+                                                    List<String> unresolved) {
+                    this(executor, UNBOUNDED, sink, transformed, failed, unresolved);
+                }
+
+                /**
+                 * Creates a new dispatcher that applies transformations in parallel.
+                 *
+                 * @param executor    The executor to delegate any work to.
+                 * @param capacity    The maximum amount of eager work that is scheduled but not yet materialized.
+                 * @param sink        The target sink.
+                 * @param transformed A list of all types that are transformed.
+                 * @param failed      A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                 * @param unresolved  A list of type names that could not be resolved.
+                 */
+                protected ForParallelTransformation(Executor executor,
+                                                    int capacity,
+                                                    Target.Sink sink,
+                                                    List<TypeDescription> transformed,
+                                                    Map<TypeDescription,
+                                                            List<Throwable>> failed,
+                                                    List<String> unresolved) {
+                    this.capacity = capacity;
+                    this.sink = sink;
+                    this.transformed = transformed;
+                    this.failed = failed;
+                    this.unresolved = unresolved;
+                    preprocessings = new ExecutorCompletionService<Callable<Materializable>>(executor);
+                    materializers = new ExecutorCompletionService<Materializable>(executor);
+                    futures = new HashSet<Future<?>>();
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @SuppressWarnings("unchecked")
+                public void accept(Callable<? extends Callable<? extends Materializable>> work, boolean eager) throws IOException {
+                    if (eager) {
+                        futures.add(materializers.submit(new EagerWork(work)));
+                        this.eager += 1;
+                        try {
+                            Future<Materializable> future;
+                            while ((future = this.eager > capacity ? materializers.take() : materializers.poll()) != null) {
+                                futures.remove(future);
+                                this.eager -= 1;
+                                future.get().materialize(sink, transformed, failed, unresolved);
+                            }
+                        } catch (InterruptedException exception) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException(exception);
+                        } catch (ExecutionException exception) {
+                            throw rethrow(exception);
+                        }
+                    } else {
+                        deferred += 1;
+                        futures.add(preprocessings.submit((Callable<Callable<Materializable>>) work));
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void complete() throws IOException {
+                    try {
+                        List<Callable<Materializable>> preprocessings = new ArrayList<Callable<Materializable>>(deferred);
+                        while (deferred-- > 0) {
+                            Future<Callable<Materializable>> future = this.preprocessings.take();
+                            futures.remove(future);
+                            preprocessings.add(future.get());
+                        }
+                        for (Callable<Materializable> preprocessing : preprocessings) {
+                            futures.add(materializers.submit(preprocessing));
+                        }
+                        while (!futures.isEmpty()) {
+                            Future<Materializable> future = materializers.take();
+                            futures.remove(future);
+                            future.get().materialize(sink, transformed, failed, unresolved);
+                        }
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(exception);
+                    } catch (ExecutionException exception) {
+                        throw rethrow(exception);
+                    }
+                }
+
+                /**
+                 * Rethrows the cause of an execution exception.
+                 *
+                 * @param exception The execution exception to rethrow.
+                 * @return Never returns but allows for a {@code throw} statement at the call site.
+                 * @throws IOException If the cause is an I/O exception.
+                 */
+                private static RuntimeException rethrow(ExecutionException exception) throws IOException {
+                    Throwable cause = exception.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    } else {
+                        throw new IllegalStateException(cause);
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void close() {
+                    for (Future<?> future : futures) {
+                        future.cancel(true);
+                    }
+                }
+
+                /**
+                 * A parallel dispatcher that shuts down its executor service upon completion of a plugin engine's application.
+                 */
+                @HashCodeAndEqualsPlugin.Enhance
+                public static class WithThrowawayExecutorService extends ForParallelTransformation {
+
+                    /**
+                     * The executor service to delegate any work to.
+                     */
+                    private final ExecutorService executorService;
+
+                    /**
+                     * Creates a new dispatcher that applies transformations in parallel and that closes the supplies executor service.
+                     *
+                     * @param executorService The executor service to delegate any work to.
+                     * @param sink            The target sink.
+                     * @param transformed     A list of all types that are transformed.
+                     * @param failed          A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                     * @param unresolved      A list of type names that could not be resolved.
+                     */
+                    protected WithThrowawayExecutorService(ExecutorService executorService,
+                                                           Target.Sink sink,
+                                                           List<TypeDescription> transformed,
+                                                           Map<TypeDescription, List<Throwable>> failed,
+                                                           List<String> unresolved) {
+                        this(executorService, UNBOUNDED, sink, transformed, failed, unresolved);
+                    }
+
+                    /**
+                     * Creates a new dispatcher that applies transformations in parallel and that closes the supplies executor service.
+                     *
+                     * @param executorService The executor service to delegate any work to.
+                     * @param capacity        The maximum amount of eager work that is scheduled but not yet materialized.
+                     * @param sink            The target sink.
+                     * @param transformed     A list of all types that are transformed.
+                     * @param failed          A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                     * @param unresolved      A list of type names that could not be resolved.
+                     */
+                    protected WithThrowawayExecutorService(ExecutorService executorService,
+                                                           int capacity,
+                                                           Target.Sink sink,
+                                                           List<TypeDescription> transformed,
+                                                           Map<TypeDescription, List<Throwable>> failed,
+                                                           List<String> unresolved) {
+                        super(executorService, capacity, sink, transformed, failed, unresolved);
+                        this.executorService = executorService;
+                    }
+
+                    @Override
+                    public void close() {
+                        try {
+                            super.close();
+                        } finally {
+                            executorService.shutdown();
+                        }
+                    }
+
+                    /**
+                     * A factory for a parallel executor service that creates a new executor service on each plugin engine application.
+                     */
+                    @HashCodeAndEqualsPlugin.Enhance
+                    public static class Factory implements Dispatcher.Factory {
+
+                        /**
+                         * The amount of threads to create in the throw-away executor service.
+                         */
+                        private final int threads;
+
+                        /**
+                         * The maximum amount of eager work that is scheduled but not yet materialized.
+                         */
+                        private final int capacity;
+
+                        /**
+                         * Creates a new factory.
+                         *
+                         * @param threads The amount of threads to create in the throw-away executor service.
+                         */
+                        public Factory(int threads) {
+                            this(threads, UNBOUNDED);
+                        }
+
+                        /**
+                         * Creates a new factory.
+                         *
+                         * @param threads  The amount of threads to create in the throw-away executor service.
+                         * @param capacity The maximum amount of eager work that is scheduled but not yet materialized.
+                         */
+                        public Factory(int threads, int capacity) {
+                            if (capacity < 1) {
+                                throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+                            }
+                            this.threads = threads;
+                            this.capacity = capacity;
+                        }
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public Dispatcher make(Target.Sink sink,
+                                               List<TypeDescription> transformed,
+                                               Map<TypeDescription, List<Throwable>> failed,
+                                               List<String> unresolved) {
+                            return new WithThrowawayExecutorService(Executors.newFixedThreadPool(threads), capacity, sink, transformed, failed, unresolved);
+                        }
+                    }
+                }
+
+                /**
+                 * A factory for a dispatcher that uses a given executor service for parallel dispatching.
+                 */
+                @HashCodeAndEqualsPlugin.Enhance
+                public static class Factory implements Dispatcher.Factory {
+
+                    /**
+                     * The executor to use.
+                     */
+                    private final Executor executor;
+
+                    /**
+                     * The maximum amount of eager work that is scheduled but not yet materialized.
+                     */
+                    private final int capacity;
+
+                    /**
+                     * Creates a new dispatcher factory for parallel dispatching using the supplied executor.
+                     *
+                     * @param executor The executor to use.
+                     */
+                    public Factory(Executor executor) {
+                        this(executor, UNBOUNDED);
+                    }
+
+                    /**
+                     * Creates a new dispatcher factory for parallel dispatching using the supplied executor.
+                     *
+                     * @param executor The executor to use.
+                     * @param capacity The maximum amount of eager work that is scheduled but not yet materialized.
+                     */
+                    public Factory(Executor executor, int capacity) {
+                        if (capacity < 1) {
+                            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+                        }
+                        this.executor = executor;
+                        this.capacity = capacity;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Dispatcher make(Target.Sink sink,
+                                           List<TypeDescription> transformed,
+                                           Map<TypeDescription, List<Throwable>> failed,
+                                           List<String> unresolved) {
+                        return new ForParallelTransformation(executor, capacity, sink, transformed, failed, unresolved);
+                    }
+                }
+
+                /**
+                 * An eager materialization that does not defer processing after preprocessing.
                  */
-                private final File folder;
+                @HashCodeAndEqualsPlugin.Enhance
+                protected static class EagerWork implements Callable<Materializable> {
+
+                    /**
+                     * The work to apply.
+                     */
+                    private final Callable<? extends Callable<? extends Materializable>> work;
+
+                    /**
+                     * Creates an eager work resolution.
+                     *
+                     * @param work The work to apply.
+                     */
+                    protected EagerWork(Callable<? extends Callable<? extends Materializable>> work) {
+                        this.work = work;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Materializable call() throws Exception {
+                        return work.call().call();
+                    }
+                }
+            }
+        }
+
+        /**
+         * A transformation manifest records the outcome of a plugin engine application such that a subsequent application can
+         * skip any type whose class file and whose relevant dependencies did not change. Such a type is retained in its
+         * previously transformed state without being transformed again. The previous outcome is still reported to the plugin
+         * engine's {@link Listener} and included in the {@link Summary}, using a description of the type that is only resolved
+         * if a property other than the type's name is requested.
+         */
+        interface TransformationManifest {
+
+            /**
+             * Opens a session of this manifest for a plugin engine application.
+             *
+             * @param plugins          The plugins that are applied.
+             * @param configuration    The configuration of the plugin engine that determines the outcome of a transformation, such
+             *                         as its Byte Buddy instance, its type strategy and the factories of the applied plugins.
+             * @param classFileLocator The class file locator of the plugin engine application.
+             * @return A session for the plugin engine application.
+             * @throws IOException If an I/O exception occurs.
+             */
+            Session open(List<Plugin> plugins, List<?> configuration, ClassFileLocator classFileLocator) throws IOException;
+
+            /**
+             * A session of a transformation manifest that is bound to a single plugin engine application. A session might be
+             * accessed concurrently if the plugin engine applies a parallel {@link Dispatcher}.
+             */
+            interface Session {
 
                 /**
-                 * Creates a new target for a folder.
+                 * Looks up a type that is about to be processed.
                  *
-                 * @param folder The folder that is represented by this instance.
+                 * @param typeName The name of the type.
+                 * @param element  The element that represents the type's class file.
+                 * @return A lookup of the type.
+                 * @throws IOException If an I/O exception occurs.
                  */
-                public ForFolder(File folder) {
-                    this.folder = folder;
+                Lookup lookup(String typeName, Source.Element element) throws IOException;
+
+                /**
+                 * Completes this session after all types were processed and persists the manifest.
+                 *
+                 * @throws IOException If an I/O exception occurs.
+                 */
+                void complete() throws IOException;
+            }
+
+            /**
+             * A lookup of a single type within a transformation manifest.
+             */
+            interface Lookup {
+
+                /**
+                 * Returns {@code true} if the type was not changed since a previous plugin engine application.
+                 *
+                 * @return {@code true} if the type was not changed since a previous plugin engine application.
+                 */
+                boolean isCurrent();
+
+                /**
+                 * Returns the previous outcome of a current type.
+                 *
+                 * @return The previous outcome of this type.
+                 */
+                Outcome reuse();
+
+                /**
+                 * Returns a class file locator that records any type that is located while processing the type as a dependency
+                 * of the type. If this lookup does not record dependencies, the supplied class file locator is returned.
+                 *
+                 * @param classFileLocator The class file locator of the plugin engine application.
+                 * @return The class file locator to use for processing the type.
+                 */
+                ClassFileLocator track(ClassFileLocator classFileLocator);
+
+                /**
+                 * Records the outcome of processing the type together with the dependencies that were located by the class file
+                 * locator that is returned by {@link Lookup#track(ClassFileLocator)}.
+                 *
+                 * @param applied     The plugins that were applied to the type.
+                 * @param dynamicType The dynamic type that was created for the type or {@code null} if the type was retained.
+                 */
+                void record(List<Plugin> applied, @Nullable DynamicType dynamicType);
+            }
+
+            /**
+             * The outcome of a previous processing of a type that is reused.
+             */
+            interface Outcome {
+
+                /**
+                 * Returns the plugins that were applied to the type. If no plugin was applied, the type was retained.
+                 *
+                 * @return The plugins that were applied to the type.
+                 */
+                List<Plugin> getApplied();
+
+                /**
+                 * Returns descriptions of all types of the transformation that declare a live initializer.
+                 *
+                 * @return Descriptions of all types of the transformation that declare a live initializer.
+                 */
+                List<TypeDescription> getLiveInitializers();
+
+                /**
+                 * Returns a materializable that reproduces this outcome.
+                 *
+                 * @param typeDescription A description of the reused type.
+                 * @return A materializable that reproduces this outcome.
+                 */
+                Dispatcher.Materializable toMaterializable(TypeDescription typeDescription);
+            }
+
+            /**
+             * A disabled transformation manifest that processes every type.
+             */
+            enum Disabled implements TransformationManifest, Session, Lookup {
+
+                /**
+                 * The singleton instance.
+                 */
+                INSTANCE;
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public Session open(List<Plugin> plugins, List<?> configuration, ClassFileLocator classFileLocator) {
+                    return this;
                 }
 
                 /**
                  * {@inheritDoc}
                  */
-                public Sink write(Manifest manifest) throws IOException {
-                    if (manifest != null) {
-                        File target = new File(folder, JarFile.MANIFEST_NAME);
-                        if (!target.getParentFile().isDirectory() && !target.getParentFile().mkdirs()) {
-                            throw new IOException("Could not create directory: " + target.getParent());
-                        }
-                        OutputStream outputStream = new FileOutputStream(target);
-                        try {
-                            manifest.write(outputStream);
-                        } finally {
-                            outputStream.close();
-                        }
-                    }
+                public Lookup lookup(String typeName, Source.Element element) {
                     return this;
                 }
 
                 /**
                  * {@inheritDoc}
                  */
-                public void store(Map<TypeDescription, byte[]> binaryRepresentations) throws IOException {
-                    for (Map.Entry<TypeDescription, byte[]> entry : binaryRepresentations.entrySet()) {
-                        File target = new File(folder, entry.getKey().getInternalName() + CLASS_FILE_EXTENSION);
-                        if (!target.getParentFile().isDirectory() && !target.getParentFile().mkdirs()) {
-                            throw new IOException("Could not create directory: " + target.getParent());
-                        }
-                        OutputStream outputStream = new FileOutputStream(target);
-                        try {
-                            outputStream.write(entry.getValue());
-                        } finally {
-                            outputStream.close();
-                        }
-                    }
+                public void complete() {
+                    /* do nothing */
                 }
 
                 /**
                  * {@inheritDoc}
                  */
-                public void retain(Source.Element element) throws IOException {
-                    String name = element.getName();
-                    if (!name.endsWith("/")) {
-                        File target = new File(folder, name), resolved = element.resolveAs(File.class);
-                        if (!target.getCanonicalPath().startsWith(folder.getCanonicalPath())) {
-                            throw new IllegalArgumentException(target + " is not a subdirectory of " + folder);
-                        } else if (!target.getParentFile().isDirectory() && !target.getParentFile().mkdirs()) {
-                            throw new IOException("Could not create directory: " + target.getParent());
-                        } else if (resolved != null && !resolved.equals(target)) {
-                            FileSystem.getInstance().copy(resolved, target);
-                        } else if (!target.equals(resolved)) {
-                            InputStream inputStream = element.getInputStream();
-                            try {
-                                OutputStream outputStream = new FileOutputStream(target);
-                                try {
-                                    byte[] buffer = new byte[1024];
-                                    int length;
-                                    while ((length = inputStream.read(buffer)) != -1) {
-                                        outputStream.write(buffer, 0, length);
-                                    }
-                                } finally {
-                                    outputStream.close();
-                                }
-                            } finally {
-                                inputStream.close();
-                            }
-                        }
-                    }
+                public boolean isCurrent() {
+                    return false;
                 }
 
                 /**
                  * {@inheritDoc}
                  */
-                public void close() {
+                public Outcome reuse() {
+                    throw new IllegalStateException("A disabled manifest cannot reuse a type");
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public ClassFileLocator track(ClassFileLocator classFileLocator) {
+                    return classFileLocator;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void record(List<Plugin> applied, @Nullable DynamicType dynamicType) {
                     /* do nothing */
                 }
             }
 
             /**
-             * Represents a jar file as a target.
+             * <p>
+             * A transformation manifest that is persisted to a file. For each type, the manifest records a digest of the type's
+             * original class file, a digest of its transformed class file and a digest of the class file of every other type that
+             * was located while processing the type, for example by the type pool that resolves the type's hierarchy. To observe
+             * these dependencies, each processed type is resolved by its own type pool. Additionally, the manifest stores any class
+             * file that was created by a transformation such that a transformed type can be reproduced if it is read from its original
+             * class file. A type is current if its class file matches either the original or the transformed class file and if none of
+             * its dependencies changed. The manifest is discarded if its fingerprint changes. The fingerprint represents the applied
+             * plugins and the configuration of the plugin engine by their object graphs, including the class files of any class that
+             * they reference, such as helper or advice classes, the version of Byte Buddy and a version that is supplied by the user.
+             * </p>
+             * <p>
+             * <b>Important</b>: This manifest assumes that a plugin's transformation of a type only depends on the plugin's
+             * configuration, on the type itself and on the types that it locates via the supplied class file locator or type pool.
+             * Any other input of a plugin, such as a system property or a file, must be represented by the user-supplied version.
+             * If any plugin implements {@link WithPreprocessor}, the manifest is not applied as such plugins need to observe all
+             * types. If the manifest file cannot be read, it is ignored and recreated.
+             * </p>
+             * <p>
+             * For each type, the manifest also records the indices of the applied plugins and the names of all types of the
+             * transformation that declare a live initializer such that a reused type is reported to the plugin engine's
+             * {@link Listener} as it was when it was transformed.
+             * </p>
              */
             @HashCodeAndEqualsPlugin.Enhance
-            class ForJarFile implements Target {
+            class ForFile implements TransformationManifest {
 
                 /**
-                 * The jar file that is represented by this target.
+                 * The default digest algorithm.
+                 */
+                public static final String DEFAULT_ALGORITHM = "SHA-256";
+
+                /**
+                 * The magic number that introduces a manifest file.
+                 */
+                private static final int MAGIC = 0xBB7EA7F1;
+
+                /**
+                 * The version of the manifest file format.
+                 */
+                private static final int VERSION = 4;
+
+                /**
+                 * Indicates that no user version is supplied.
+                 */
+                private static final String NO_VERSION = "";
+
+                /**
+                 * The file that persists the manifest.
                  */
                 private final File file;
 
                 /**
-                 * Creates a new target for a jar file.
+                 * The name of the digest algorithm.
+                 */
+                private final String algorithm;
+
+                /**
+                 * A user-supplied version that represents any configuration that is not considered by this manifest.
+                 */
+                private final String version;
+
+                /**
+                 * Creates a new transformation manifest that is persisted to a file using the default digest algorithm and no version.
                  *
-                 * @param file The jar file that is represented by this target.
+                 * @param file The file that persists the manifest.
                  */
-                public ForJarFile(File file) {
+                public ForFile(File file) {
+                    this(file, DEFAULT_ALGORITHM);
+                }
+
+                /**
+                 * Creates a new transformation manifest that is persisted to a file using no version.
+                 *
+                 * @param file      The file that persists the manifest.
+                 * @param algorithm The name of the digest algorithm.
+                 */
+                public ForFile(File file, String algorithm) {
+                    this(file, algorithm, NO_VERSION);
+                }
+
+                /**
+                 * Creates a new transformation manifest that is persisted to a file.
+                 *
+                 * @param file      The file that persists the manifest.
+                 * @param algorithm The name of the digest algorithm.
+                 * @param version   A user-supplied version that represents any configuration that is not considered by this manifest.
+                 */
+                public ForFile(File file, String algorithm, String version) {
+                    digest(algorithm, new byte[0]);
                     this.file = file;
+                    this.algorithm = algorithm;
+                    this.version = version;
                 }
 
                 /**
-                 * {@inheritDoc}
+                 * Creates a transformation manifest that is persisted in a hidden file next to the supplied target folder or jar file.
+                 *
+                 * @param target The target folder or jar file of the plugin engine.
+                 * @return An appropriate transformation manifest.
                  */
-                public Sink write(Manifest manifest) throws IOException {
-                    return manifest == null
-                            ? new Sink.ForJarOutputStream(new JarOutputStream(new FileOutputStream(file)))
-                            : new Sink.ForJarOutputStream(new JarOutputStream(new FileOutputStream(file), manifest));
+                public static TransformationManifest beside(File target) {
+                    return beside(target, NO_VERSION);
                 }
-            }
-        }
 
-        /**
-         * A dispatcher to execute a plugin engine transformation. A dispatcher will receive all work assignments prior to the invocation
-         * of complete. After registering and eventually completing the supplied work, the close method will always be called. Any dispatcher
-         * will only be used once and from a single thread.
-         */
-        interface Dispatcher extends Closeable {
+                /**
+                 * Creates a transformation manifest that is persisted in a hidden file next to the supplied target folder or jar file.
+                 *
+                 * @param target  The target folder or jar file of the plugin engine.
+                 * @param version A user-supplied version that represents any configuration that is not considered by the manifest.
+                 * @return An appropriate transformation manifest.
+                 */
+                public static TransformationManifest beside(File target, String version) {
+                    File absolute = target.getAbsoluteFile();
+                    return new ForFile(new File(absolute.getParentFile(), "." + absolute.getName() + ".bytebuddy"), DEFAULT_ALGORITHM, version);
+                }
 
-            /**
-             * Accepts a new work assignment.
-             *
-             * @param work  The work to handle prefixed by a preprocessing step.
-             * @param eager {@code true} if the processing does not need to be deferred until all preprocessing is complete.
-             * @throws IOException If an I/O exception occurs.
-             */
-            void accept(Callable<? extends Callable<? extends Materializable>> work, boolean eager) throws IOException;
+                /**
+                 * Computes a digest of the supplied binary representation.
+                 *
+                 * @param algorithm            The name of the digest algorithm.
+                 * @param binaryRepresentation The binary representation to digest.
+                 * @return The digest of the supplied binary representation.
+                 */
+                private static byte[] digest(String algorithm, byte[] binaryRepresentation) {
+                    try {
+                        return MessageDigest.getInstance(algorithm).digest(binaryRepresentation);
+                    } catch (NoSuchAlgorithmException exception) {
+                        throw new IllegalArgumentException("Unknown digest algorithm: " + algorithm, exception);
+                    }
+                }
 
-            /**
-             * Completes the work being handled.
-             *
-             * @throws IOException If an I/O exception occurs.
-             */
-            void complete() throws IOException;
+                /**
+                 * {@inheritDoc}
+                 */
+                public TransformationManifest.Session open(List<Plugin> plugins,
+                                                           List<?> configuration,
+                                                           ClassFileLocator classFileLocator) throws IOException {
+                    for (Plugin plugin : plugins) {
+                        if (plugin instanceof WithPreprocessor) {
+                            return Disabled.INSTANCE;
+                        }
+                    }
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    DataOutputStream fingerprint = new DataOutputStream(outputStream);
+                    try {
+                        fingerprint.writeUTF(version);
+                        Fingerprint.of(algorithm, fingerprint).write(plugins).write(configuration);
+                    } finally {
+                        fingerprint.close();
+                    }
+                    return new Recording(digest(algorithm, outputStream.toByteArray()), plugins, classFileLocator);
+                }
 
-            /**
-             * The result of a work assignment that needs to be invoked from the main thread that triggers a dispatchers life-cycle methods.
-             */
-            interface Materializable {
+                /**
+                 * Reads a length-prefixed byte array.
+                 *
+                 * @param inputStream The input stream to read from.
+                 * @return The byte array that was read.
+                 * @throws IOException If an I/O exception occurs.
+                 */
+                private static byte[] read(DataInputStream inputStream) throws IOException {
+                    byte[] value = new byte[inputStream.readInt()];
+                    inputStream.readFully(value);
+                    return value;
+                }
 
                 /**
-                 * Materializes this work result and adds any results to the corresponding collection.
+                 * Writes a length-prefixed byte array.
                  *
-                 * @param sink        The sink to write any work to.
-                 * @param transformed A list of all types that are transformed.
-                 * @param failed      A mapping of all types that failed during transformation to the exceptions that explain the failure.
-                 * @param unresolved  A list of type names that could not be resolved.
+                 * @param outputStream The output stream to write to.
+                 * @param value        The byte array to write.
                  * @throws IOException If an I/O exception occurs.
                  */
-                void materialize(Target.Sink sink,
-                                 List<TypeDescription> transformed,
-                                 Map<TypeDescription,
-                                         List<Throwable>> failed,
-                                 List<String> unresolved) throws IOException;
+                private static void write(DataOutputStream outputStream, byte[] value) throws IOException {
+                    outputStream.writeInt(value.length);
+                    outputStream.write(value);
+                }
 
                 /**
-                 * A materializable for a successfully transformed type.
+                 * A fingerprint of an object graph. Each object is represented by its type and by the values of its non-static and
+                 * non-transient fields. A class that is not part of the Java platform is represented by a digest of its class file and
+                 * of the class files of all classes that are referenced from its constant pool, such as helper or advice classes. Byte
+                 * Buddy's own classes are represented by the version of Byte Buddy if this version is known. Objects of the Java platform
+                 * other than strings, primitive wrappers, enumerations, classes, members, arrays, collections and maps are only represented
+                 * by their type. If an object graph is not stable between two applications, for example, because it contains a lambda
+                 * expression or an unordered collection of objects without a stable hash code, the fingerprint differs such that the
+                 * manifest is discarded.
                  */
-                class ForTransformedElement implements Materializable {
+                protected static class Fingerprint {
 
                     /**
-                     * The type that has been transformed.
+                     * Indicates a {@code null} value.
                      */
-                    private final DynamicType dynamicType;
+                    private static final int NULL = 0;
 
                     /**
-                     * Creates a new materializable for a successfully transformed type.
-                     *
-                     * @param dynamicType The type that has been transformed.
+                     * Indicates a reference to an object that was already written.
                      */
-                    protected ForTransformedElement(DynamicType dynamicType) {
-                        this.dynamicType = dynamicType;
-                    }
+                    private static final int REFERENCE = 1;
 
                     /**
-                     * {@inheritDoc}
+                     * Indicates a string or a primitive wrapper.
                      */
-                    public void materialize(Target.Sink sink,
-                                            List<TypeDescription> transformed,
-                                            Map<TypeDescription,
-                                                    List<Throwable>> failed,
-                                            List<String> unresolved) throws IOException {
-                        sink.store(dynamicType.getAllTypes());
-                        transformed.add(dynamicType.getTypeDescription());
-                    }
-                }
+                    private static final int VALUE = 2;
 
-                /**
-                 * A materializable for an element that is retained in its original state.
-                 */
-                class ForRetainedElement implements Materializable {
+                    /**
+                     * Indicates an enumeration.
+                     */
+                    private static final int ENUMERATION = 3;
 
                     /**
-                     * The retained element.
+                     * Indicates a class.
                      */
-                    private final Source.Element element;
+                    private static final int TYPE = 4;
 
                     /**
-                     * Creates a new materializable for a retained element.
-                     *
-                     * @param element The retained element.
+                     * Indicates a member.
                      */
-                    protected ForRetainedElement(Source.Element element) {
-                        this.element = element;
-                    }
+                    private static final int MEMBER = 5;
 
                     /**
-                     * {@inheritDoc}
+                     * Indicates an array.
                      */
-                    public void materialize(Target.Sink sink,
-                                            List<TypeDescription> transformed,
-                                            Map<TypeDescription,
-                                                    List<Throwable>> failed,
-                                            List<String> unresolved) throws IOException {
-                        sink.retain(element);
-                    }
-                }
+                    private static final int ARRAY = 6;
 
-                /**
-                 * A materializable for an element that failed to be transformed.
-                 */
-                class ForFailedElement implements Materializable {
+                    /**
+                     * Indicates a collection.
+                     */
+                    private static final int COLLECTION = 7;
 
                     /**
-                     * The element for which the transformation failed.
+                     * Indicates a map.
                      */
-                    private final Source.Element element;
+                    private static final int MAP = 8;
 
                     /**
-                     * The type description for the represented type.
+                     * Indicates an object that is only represented by its type.
                      */
-                    private final TypeDescription typeDescription;
+                    private static final int OPAQUE = 9;
 
                     /**
-                     * A non-empty list of errors that occurred when attempting the transformation.
+                     * Indicates an object that is represented by its type and its fields.
                      */
-                    private final List<Throwable> errored;
+                    private static final int OBJECT = 10;
 
                     /**
-                     * Creates a new materializable for an element that failed to be transformed.
-                     *
-                     * @param element         The element for which the transformation failed.
-                     * @param typeDescription The type description for the represented type.
-                     * @param errored         A non-empty list of errors that occurred when attempting the transformation.
+                     * Indicates a field that cannot be read.
                      */
-                    protected ForFailedElement(Source.Element element, TypeDescription typeDescription, List<Throwable> errored) {
-                        this.element = element;
-                        this.typeDescription = typeDescription;
-                        this.errored = errored;
-                    }
+                    private static final int INACCESSIBLE = 11;
 
                     /**
-                     * {@inheritDoc}
+                     * The name of the digest algorithm.
                      */
-                    public void materialize(Target.Sink sink,
-                                            List<TypeDescription> transformed,
-                                            Map<TypeDescription,
-                                                    List<Throwable>> failed,
-                                            List<String> unresolved) throws IOException {
-                        sink.retain(element);
-                        failed.put(typeDescription, errored);
-                    }
-                }
+                    private final String algorithm;
 
-                /**
-                 * A materializable for an element that could not be resolved.
-                 */
-                class ForUnresolvedElement implements Materializable {
+                    /**
+                     * The output stream to write the fingerprint to.
+                     */
+                    private final DataOutputStream outputStream;
 
                     /**
-                     * The element that could not be resolved.
+                     * The version of Byte Buddy or {@code null} if the version is not known.
                      */
-                    private final Source.Element element;
+                    @Nullable
+                    private final String version;
 
                     /**
-                     * The name of the type that was deducted for this element.
+                     * The objects that were already written mapped to their index.
                      */
-                    private final String typeName;
+                    private final Map<Object, Integer> objects;
 
                     /**
-                     * Creates a new materializable for an element that could not be resolved.
+                     * The names of the classes whose class files were already written.
+                     */
+                    private final Set<String> types;
+
+                    /**
+                     * Creates a new fingerprint.
                      *
-                     * @param element  The element that could not be resolved.
-                     * @param typeName The name of the type that was deducted for this element.
+                     * @param algorithm    The name of the digest algorithm.
+                     * @param outputStream The output stream to write the fingerprint to.
+                     * @param version      The version of Byte Buddy or {@code null} if the version is not known.
                      */
-                    protected ForUnresolvedElement(Source.Element element, String typeName) {
-                        this.element = element;
-                        this.typeName = typeName;
+                    protected Fingerprint(String algorithm, DataOutputStream outputStream, @Nullable String version) {
+                        this.algorithm = algorithm;
+                        this.outputStream = outputStream;
+                        this.version = version;
+                        objects = new IdentityHashMap<Object, Integer>();
+                        types = new HashSet<String>();
                     }
 
                     /**
-                     * {@inheritDoc}
+                     * Creates a fingerprint that writes to the supplied output stream and which includes the version of Byte Buddy.
+                     *
+                     * @param algorithm    The name of the digest algorithm.
+                     * @param outputStream The output stream to write the fingerprint to.
+                     * @return A fingerprint that writes to the supplied output stream.
+                     * @throws IOException If an I/O exception occurs.
                      */
-                    public void materialize(Target.Sink sink,
-                                            List<TypeDescription> transformed,
-                                            Map<TypeDescription,
-                                                    List<Throwable>> failed,
-                                            List<String> unresolved) throws IOException {
-                        sink.retain(element);
-                        unresolved.add(typeName);
+                    protected static Fingerprint of(String algorithm, DataOutputStream outputStream) throws IOException {
+                        Package aPackage = ByteBuddy.class.getPackage();
+                        String version = aPackage == null
+                                ? null
+                                : aPackage.getImplementationVersion();
+                        outputStream.writeUTF(version == null ? "" : version);
+                        return new Fingerprint(algorithm, outputStream, version);
                     }
-                }
-            }
-
-            /**
-             * A factory that is used for creating a dispatcher that is used for a specific plugin engine application.
-             */
-            interface Factory {
-
-                /**
-                 * Creates a new dispatcher.
-                 *
-                 * @param sink        The sink to write any work to.
-                 * @param transformed A list of all types that are transformed.
-                 * @param failed      A mapping of all types that failed during transformation to the exceptions that explain the failure.
-                 * @param unresolved  A list of type names that could not be resolved.
-                 * @return The dispatcher to use.
-                 */
-                Dispatcher make(Target.Sink sink,
-                                List<TypeDescription> transformed,
-                                Map<TypeDescription,
-                                        List<Throwable>> failed,
-                                List<String> unresolved);
-            }
-
-            /**
-             * A dispatcher that applies transformation upon discovery.
-             */
-            class ForSerialTransformation implements Dispatcher {
-
-                /**
-                 * The sink to write any work to.
-                 */
-                private final Target.Sink sink;
-
-                /**
-                 * A list of all types that are transformed.
-                 */
-                private final List<TypeDescription> transformed;
-
-                /**
-                 * A mapping of all types that failed during transformation to the exceptions that explain the failure.
-                 */
-                private final Map<TypeDescription, List<Throwable>> failed;
 
-                /**
-                 * A list of type names that could not be resolved.
-                 */
-                private final List<String> unresolved;
-
-                /**
-                 * A list of deferred processings.
-                 */
-                private final List<Callable<? extends Materializable>> preprocessings;
-
-                /**
-                 * Creates a dispatcher for a serial transformation.
-                 *
-                 * @param sink        The sink to write any work to.
-                 * @param transformed A list of all types that are transformed.
-                 * @param failed      A mapping of all types that failed during transformation to the exceptions that explain the failure.
-                 * @param unresolved  A list of type names that could not be resolved.
-                 */
-                protected ForSerialTransformation(Target.Sink sink,
-                                                  List<TypeDescription> transformed,
-                                                  Map<TypeDescription, List<Throwable>> failed,
-                                                  List<String> unresolved) {
-                    this.sink = sink;
-                    this.transformed = transformed;
-                    this.failed = failed;
-                    this.unresolved = unresolved;
-                    preprocessings = new ArrayList<Callable<? extends Materializable>>();
-                }
-
-                /**
-                 * {@inheritDoc}
-                 */
-                public void accept(Callable<? extends Callable<? extends Materializable>> work, boolean eager) throws IOException {
-                    try {
-                        Callable<? extends Materializable> preprocessed = work.call();
-                        if (eager) {
-                            preprocessed.call().materialize(sink, transformed, failed, unresolved);
-                        } else {
-                            preprocessings.add(preprocessed);
-                        }
-                    } catch (Exception exception) {
-                        if (exception instanceof IOException) {
-                            throw (IOException) exception;
-                        } else if (exception instanceof RuntimeException) {
-                            throw (RuntimeException) exception;
-                        } else {
-                            throw new IllegalStateException(exception);
-                        }
+                    /**
+                     * Checks if a class is part of the Java platform.
+                     *
+                     * @param name The name of the class.
+                     * @return {@code true} if the class is part of the Java platform.
+                     */
+                    private static boolean isPlatform(String name) {
+                        return name.startsWith("java.")
+                                || name.startsWith("javax.")
+                                || name.startsWith("jdk.")
+                                || name.startsWith("sun.")
+                                || name.startsWith("com.sun.");
                     }
-                }
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public void complete() throws IOException {
-                    for (Callable<? extends Materializable> preprocessing : preprocessings) {
-                        if (Thread.interrupted()) {
-                            Thread.currentThread().interrupt();
-                            throw new IllegalStateException("Interrupted during plugin engine completion");
+                    /**
+                     * Writes an object graph to this fingerprint.
+                     *
+                     * @param value The root of the object graph or {@code null}.
+                     * @return This fingerprint.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    protected Fingerprint write(@Nullable Object value) throws IOException {
+                        if (value == null) {
+                            outputStream.writeByte(NULL);
+                            return this;
                         }
-                        try {
-                            preprocessing.call().materialize(sink, transformed, failed, unresolved);
-                        } catch (Exception exception) {
-                            if (exception instanceof IOException) {
-                                throw (IOException) exception;
-                            } else if (exception instanceof RuntimeException) {
-                                throw (RuntimeException) exception;
-                            } else {
-                                throw new IllegalStateException(exception);
+                        Integer index = objects.get(value);
+                        if (index != null) {
+                            outputStream.writeByte(REFERENCE);
+                            outputStream.writeInt(index);
+                            return this;
+                        }
+                        objects.put(value, objects.size());
+                        if (value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Character) {
+                            outputStream.writeByte(VALUE);
+                            outputStream.writeUTF(value.getClass().getName());
+                            ForFile.write(outputStream, value.toString().getBytes("UTF-8"));
+                        } else if (value instanceof Enum<?>) {
+                            outputStream.writeByte(ENUMERATION);
+                            type(((Enum<?>) value).getDeclaringClass());
+                            outputStream.writeUTF(((Enum<?>) value).name());
+                        } else if (value instanceof Class<?>) {
+                            outputStream.writeByte(TYPE);
+                            type((Class<?>) value);
+                        } else if (value instanceof Member) {
+                            outputStream.writeByte(MEMBER);
+                            type(((Member) value).getDeclaringClass());
+                            ForFile.write(outputStream, value.toString().getBytes("UTF-8"));
+                        } else if (value.getClass().isArray()) {
+                            outputStream.writeByte(ARRAY);
+                            type(value.getClass());
+                            int length = Array.getLength(value);
+                            outputStream.writeInt(length);
+                            for (int element = 0; element < length; element++) {
+                                write(Array.get(value, element));
+                            }
+                        } else if (value instanceof Collection<?>) {
+                            outputStream.writeByte(COLLECTION);
+                            outputStream.writeUTF(value.getClass().getName());
+                            outputStream.writeInt(((Collection<?>) value).size());
+                            for (Object element : (Collection<?>) value) {
+                                write(element);
+                            }
+                        } else if (value instanceof Map<?, ?>) {
+                            outputStream.writeByte(MAP);
+                            outputStream.writeUTF(value.getClass().getName());
+                            outputStream.writeInt(((Map<?, ?>) value).size());
+                            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                                write(entry.getKey());
+                                write(entry.getValue());
+                            }
+                        } else if (isPlatform(value.getClass().getName()) || value instanceof TypePool) {
+                            outputStream.writeByte(OPAQUE);
+                            outputStream.writeUTF(value.getClass().getName());
+                        } else {
+                            outputStream.writeByte(OBJECT);
+                            type(value.getClass());
+                            for (Class<?> type = value.getClass(); type != null && !isPlatform(type.getName()); type = type.getSuperclass()) {
+                                Field[] field = type.getDeclaredFields();
+                                Arrays.sort(field, FieldComparator.INSTANCE);
+                                for (Field aField : field) {
+                                    if (Modifier.isStatic(aField.getModifiers()) || Modifier.isTransient(aField.getModifiers())) {
+                                        continue;
+                                    }
+                                    outputStream.writeUTF(aField.getName());
+                                    Object fieldValue;
+                                    try {
+                                        aField.setAccessible(true);
+                                        fieldValue = aField.get(value);
+                                    } catch (IllegalAccessException ignored) {
+                                        outputStream.writeByte(INACCESSIBLE);
+                                        continue;
+                                    } catch (RuntimeException ignored) {
+                                        outputStream.writeByte(INACCESSIBLE);
+                                        continue;
+                                    }
+                                    write(fieldValue);
+                                }
                             }
                         }
-                    }
-                }
-
-                /**
-                 * {@inheritDoc}
-                 */
-                public void close() {
-                    /* do nothing */
-                }
-
-                /**
-                 * A factory for creating a serial dispatcher.
-                 */
-                public enum Factory implements Dispatcher.Factory {
+                        return this;
+                    }
 
                     /**
-                     * The singleton instance.
+                     * Writes a class by its name and by the digests of its class file and of the class files of all classes that it
+                     * references, unless these classes are part of the Java platform or of a known version of Byte Buddy.
+                     *
+                     * @param type The class to write.
+                     * @throws IOException If an I/O exception occurs.
                      */
-                    INSTANCE;
+                    private void type(Class<?> type) throws IOException {
+                        outputStream.writeUTF(type.getName());
+                        while (type.isArray()) {
+                            type = type.getComponentType();
+                        }
+                        if (type.isPrimitive()) {
+                            return;
+                        }
+                        ClassFileLocator classFileLocator = ClassFileLocator.ForClassLoader.of(type.getClassLoader());
+                        LinkedList<String> names = new LinkedList<String>(Collections.singleton(type.getName()));
+                        while (!names.isEmpty()) {
+                            String name = names.removeFirst();
+                            if (isPlatform(name) || version != null && name.startsWith("net.bytebuddy.") || !types.add(name)) {
+                                continue;
+                            }
+                            ClassFileLocator.Resolution resolution = classFileLocator.locate(name);
+                            outputStream.writeUTF(name);
+                            if (!resolution.isResolved()) {
+                                ForFile.write(outputStream, new byte[0]);
+                                continue;
+                            }
+                            byte[] binaryRepresentation = resolution.resolve();
+                            ForFile.write(outputStream, digest(algorithm, binaryRepresentation));
+                            try {
+                                for (String reference : ClassFileHeader.of(binaryRepresentation).getClassReferenceInternalNames()) {
+                                    int arity = 0;
+                                    while (reference.charAt(arity) == '[') {
+                                        arity++;
+                                    }
+                                    if (arity == 0) {
+                                        names.add(reference.replace('/', '.'));
+                                    } else if (reference.charAt(arity) == 'L') {
+                                        names.add(reference.substring(arity + 1, reference.length() - 1).replace('/', '.'));
+                                    }
+                                }
+                            } catch (IllegalArgumentException ignored) {
+                                /* do nothing */
+                            }
+                        }
+                    }
 
                     /**
-                     * {@inheritDoc}
+                     * A comparator that orders fields by their names.
                      */
-                    public Dispatcher make(Target.Sink sink,
-                                           List<TypeDescription> transformed,
-                                           Map<TypeDescription,
-                                                   List<Throwable>> failed,
-                                           List<String> unresolved) {
-                        return new ForSerialTransformation(sink, transformed, failed, unresolved);
-                    }
-                }
-            }
-
-            /**
-             * A dispatcher that applies transformations within one or more threads in parallel to the default transformer.
-             */
-            class ForParallelTransformation implements Dispatcher {
+                    protected enum FieldComparator implements Comparator<Field> {
 
-                /**
-                 * The target sink.
-                 */
-                private final Target.Sink sink;
+                        /**
+                         * The singleton instance.
+                         */
+                        INSTANCE;
 
-                /**
-                 * A list of all types that are transformed.
-                 */
-                private final List<TypeDescription> transformed;
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public int compare(Field left, Field right) {
+                            return left.getName().compareTo(right.getName());
+                        }
+                    }
+                }
 
                 /**
-                 * A mapping of all types that failed during transformation to the exceptions that explain the failure.
+                 * An entry of a transformation manifest.
                  */
-                private final Map<TypeDescription, List<Throwable>> failed;
+                protected static class Entry {
 
-                /**
-                 * A list of type names that could not be resolved.
-                 */
-                private final List<String> unresolved;
+                    /**
+                     * The digest of the type's original class file.
+                     */
+                    private final byte[] input;
 
-                /**
-                 * A completion service for all preprocessings.
-                 */
-                private final CompletionService<Callable<Materializable>> preprocessings;
+                    /**
+                     * The digest of the type's transformed class file.
+                     */
+                    private final byte[] output;
 
-                /**
-                 * A completion service for all materializers.
-                 */
-                private final CompletionService<Materializable> materializers;
+                    /**
+                     * A mapping of the names of the types that were located while processing the type to the digests of their class files.
+                     */
+                    private final Map<String, byte[]> dependencies;
 
-                /**
-                 * A count of deferred processings.
-                 */
-                private int deferred;
+                    /**
+                     * The indices of the plugins that were applied to the type.
+                     */
+                    private final List<Integer> applied;
 
-                /**
-                 * A collection of futures that are currently scheduled.
-                 */
-                private final Set<Future<?>> futures;
+                    /**
+                     * The names of all types of the transformation that declare a live initializer.
+                     */
+                    private final List<String> liveInitializers;
 
-                /**
-                 * Creates a new dispatcher that applies transformations in parallel.
-                 *
-                 * @param executor    The executor to delegate any work to.
-                 * @param sink        The target sink.
-                 * @param transformed A list of all types that are transformed.
-                 * @param failed      A mapping of all types that failed during transformation to the exceptions that explain the failure.
-                 * @param unresolved  A list of type names that could not be resolved.
-                 */
-                protected ForParallelTransformation(Executor executor,
-                                                    Target.Sink sink,
-                                                    List<TypeDescription> transformed,
-                                                    Map<TypeDescription,
-                                                            List<Throwable>> failed,
-                                                    List<String> unresolved) {
-                    this.sink = sink;
-                    this.transformed = transformed;
-                    this.failed = failed;
-                    this.unresolved = unresolved;
-                    preprocessings = new ExecutorCompletionService<Callable<Materializable>>(executor);
-                    materializers = new ExecutorCompletionService<Materializable>(executor);
-                    futures = new HashSet<Future<?>>();
-                }
+                    /**
+                     * A mapping of the names of all types that were created by the transformation to their class files.
+                     */
+                    private final Map<String, byte[]> binaryRepresentations;
 
-                /**
-                 * {@inheritDoc}
-                 */
-                @SuppressWarnings("unchecked")
-                public void accept(Callable<? extends Callable<? extends Materializable>> work, boolean eager) {
-                    if (eager) {
-                        futures.add(materializers.submit(new EagerWork(work)));
-                    } else {
-                        deferred += 1;
-                        futures.add(preprocessings.submit((Callable<Callable<Materializable>>) work));
+                    /**
+                     * Creates a new entry.
+                     *
+                     * @param input                 The digest of the type's original class file.
+                     * @param output                The digest of the type's transformed class file.
+                     * @param dependencies          A mapping of the names of the types that were located while processing the type to the digests of their class files.
+                     * @param applied               The indices of the plugins that were applied to the type.
+                     * @param liveInitializers      The names of all types of the transformation that declare a live initializer.
+                     * @param binaryRepresentations A mapping of the names of all types that were created by the transformation to their class files.
+                     */
+                    protected Entry(byte[] input,
+                                    byte[] output,
+                                    Map<String, byte[]> dependencies,
+                                    List<Integer> applied,
+                                    List<String> liveInitializers,
+                                    Map<String, byte[]> binaryRepresentations) {
+                        this.input = input;
+                        this.output = output;
+                        this.dependencies = dependencies;
+                        this.applied = applied;
+                        this.liveInitializers = liveInitializers;
+                        this.binaryRepresentations = binaryRepresentations;
+                    }
+
+                    /**
+                     * Reads an entry.
+                     *
+                     * @param inputStream The input stream to read from.
+                     * @return The entry that was read.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    protected static Entry read(DataInputStream inputStream) throws IOException {
+                        byte[] input = ForFile.read(inputStream), output = ForFile.read(inputStream);
+                        int size = inputStream.readInt();
+                        Map<String, byte[]> dependencies = new LinkedHashMap<String, byte[]>();
+                        for (int index = 0; index < size; index++) {
+                            dependencies.put(inputStream.readUTF(), ForFile.read(inputStream));
+                        }
+                        size = inputStream.readInt();
+                        List<Integer> applied = new ArrayList<Integer>(size);
+                        for (int index = 0; index < size; index++) {
+                            applied.add(inputStream.readInt());
+                        }
+                        size = inputStream.readInt();
+                        List<String> liveInitializers = new ArrayList<String>(size);
+                        for (int index = 0; index < size; index++) {
+                            liveInitializers.add(inputStream.readUTF());
+                        }
+                        size = inputStream.readInt();
+                        Map<String, byte[]> binaryRepresentations = new LinkedHashMap<String, byte[]>();
+                        for (int index = 0; index < size; index++) {
+                            binaryRepresentations.put(inputStream.readUTF(), ForFile.read(inputStream));
+                        }
+                        return new Entry(input, output, dependencies, applied, liveInitializers, binaryRepresentations);
                     }
-                }
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public void complete() throws IOException {
-                    try {
-                        List<Callable<Materializable>> preprocessings = new ArrayList<Callable<Materializable>>(deferred);
-                        while (deferred-- > 0) {
-                            Future<Callable<Materializable>> future = this.preprocessings.take();
-                            futures.remove(future);
-                            preprocessings.add(future.get());
+                    /**
+                     * Writes this entry.
+                     *
+                     * @param outputStream The output stream to write to.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    protected void write(DataOutputStream outputStream) throws IOException {
+                        ForFile.write(outputStream, input);
+                        ForFile.write(outputStream, output);
+                        outputStream.writeInt(dependencies.size());
+                        for (Map.Entry<String, byte[]> entry : dependencies.entrySet()) {
+                            outputStream.writeUTF(entry.getKey());
+                            ForFile.write(outputStream, entry.getValue());
                         }
-                        for (Callable<Materializable> preprocessing : preprocessings) {
-                            futures.add(materializers.submit(preprocessing));
+                        outputStream.writeInt(applied.size());
+                        for (int index : applied) {
+                            outputStream.writeInt(index);
                         }
-                        while (!futures.isEmpty()) {
-                            Future<Materializable> future = materializers.take();
-                            futures.remove(future);
-                            future.get().materialize(sink, transformed, failed, unresolved);
+                        outputStream.writeInt(liveInitializers.size());
+                        for (String liveInitializer : liveInitializers) {
+                            outputStream.writeUTF(liveInitializer);
                         }
-                    } catch (InterruptedException exception) {
-                        Thread.currentThread().interrupt();
-                        throw new IllegalStateException(exception);
-                    } catch (ExecutionException exception) {
-                        Throwable cause = exception.getCause();
-                        if (cause instanceof IOException) {
-                            throw (IOException) cause;
-                        } else if (cause instanceof RuntimeException) {
-                            throw (RuntimeException) cause;
-                        } else if (cause instanceof Error) {
-                            throw (Error) cause;
-                        } else {
-                            throw new IllegalStateException(cause);
+                        outputStream.writeInt(binaryRepresentations.size());
+                        for (Map.Entry<String, byte[]> entry : binaryRepresentations.entrySet()) {
+                            outputStream.writeUTF(entry.getKey());
+                            ForFile.write(outputStream, entry.getValue());
                         }
                     }
                 }
 
                 /**
-                 * {@inheritDoc}
+                 * A session of a file-persisted transformation manifest that records the outcome of the current application.
                  */
-                public void close() {
-                    for (Future<?> future : futures) {
-                        future.cancel(true);
-                    }
-                }
+                protected class Recording implements Session {
 
-                /**
-                 * A parallel dispatcher that shuts down its executor service upon completion of a plugin engine's application.
-                 */
-                @HashCodeAndEqualsPlugin.Enhance
-                public static class WithThrowawayExecutorService extends ForParallelTransformation {
+                    /**
+                     * The fingerprint of the applied plugins.
+                     */
+                    private final byte[] fingerprint;
 
                     /**
-                     * The executor service to delegate any work to.
+                     * The plugins that are applied.
                      */
-                    private final ExecutorService executorService;
+                    private final List<Plugin> plugins;
 
                     /**
-                     * Creates a new dispatcher that applies transformations in parallel and that closes the supplies executor service.
+                     * The class file locator of the plugin engine application.
+                     */
+                    private final ClassFileLocator classFileLocator;
+
+                    /**
+                     * The entries of the previous plugin engine application.
+                     */
+                    private final Map<String, Entry> previous;
+
+                    /**
+                     * The entries of the current plugin engine application.
+                     */
+                    private final ConcurrentMap<String, Entry> current;
+
+                    /**
+                     * A cache of digests of the class files of dependencies.
+                     */
+                    private final ConcurrentMap<String, byte[]> digests;
+
+                    /**
+                     * Creates a new recording session.
                      *
-                     * @param executorService The executor service to delegate any work to.
-                     * @param sink            The target sink.
-                     * @param transformed     A list of all types that are transformed.
-                     * @param failed          A mapping of all types that failed during transformation to the exceptions that explain the failure.
-                     * @param unresolved      A list of type names that could not be resolved.
+                     * @param fingerprint      The fingerprint of the applied plugins.
+                     * @param plugins          The plugins that are applied.
+                     * @param classFileLocator The class file locator of the plugin engine application.
+                     */
+                    protected Recording(byte[] fingerprint, List<Plugin> plugins, ClassFileLocator classFileLocator) {
+                        this.fingerprint = fingerprint;
+                        this.plugins = plugins;
+                        this.classFileLocator = classFileLocator;
+                        previous = new HashMap<String, Entry>();
+                        current = new ConcurrentHashMap<String, Entry>();
+                        digests = new ConcurrentHashMap<String, byte[]>();
+                        if (file.isFile()) {
+                            try {
+                                DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                                try {
+                                    if (inputStream.readInt() == MAGIC
+                                            && inputStream.readInt() == VERSION
+                                            && inputStream.readUTF().equals(algorithm)
+                                            && MessageDigest.isEqual(ForFile.read(inputStream), fingerprint)) {
+                                        int size = inputStream.readInt();
+                                        for (int index = 0; index < size; index++) {
+                                            previous.put(inputStream.readUTF(), Entry.read(inputStream));
+                                        }
+                                    }
+                                } finally {
+                                    inputStream.close();
+                                }
+                            } catch (IOException ignored) {
+                                previous.clear();
+                            }
+                        }
+                    }
+
+                    /**
+                     * Resolves a digest of a dependency's class file. If the class file represents a type's transformed state,
+                     * the digest of the type's original class file is returned such that a transformation of a dependency does
+                     * not invalidate its dependents.
+                     *
+                     * @param typeName The name of the dependency.
+                     * @return The digest of the dependency's class file or an empty array if the class file cannot be located.
+                     * @throws IOException If an I/O exception occurs.
+                     */
+                    private byte[] dependency(String typeName) throws IOException {
+                        byte[] digest = digests.get(typeName);
+                        if (digest == null) {
+                            ClassFileLocator.Resolution resolution = classFileLocator.locate(typeName);
+                            digest = resolution.isResolved()
+                                    ? ForFile.digest(algorithm, resolution.resolve())
+                                    : new byte[0];
+                            Entry entry = current.get(typeName);
+                            if (entry == null) {
+                                entry = previous.get(typeName);
+                            }
+                            if (entry != null && MessageDigest.isEqual(entry.output, digest)) {
+                                digest = entry.input;
+                            }
+                            byte[] cached = digests.putIfAbsent(typeName, digest);
+                            if (cached != null) {
+                                digest = cached;
+                            }
+                        }
+                        return digest;
+                    }
+
+                    /**
+                     * {@inheritDoc}
                      */
-                    protected WithThrowawayExecutorService(ExecutorService executorService,
-                                                           Target.Sink sink,
-                                                           List<TypeDescription> transformed,
-                                                           Map<TypeDescription, List<Throwable>> failed,
-                                                           List<String> unresolved) {
-                        super(executorService, sink, transformed, failed, unresolved);
-                        this.executorService = executorService;
+                    public Lookup lookup(String typeName, Source.Element element) throws IOException {
+                        InputStream inputStream = element.getInputStream();
+                        byte[] binaryRepresentation;
+                        try {
+                            binaryRepresentation = StreamDrainer.DEFAULT.drain(inputStream);
+                        } finally {
+                            inputStream.close();
+                        }
+                        return new Candidate(typeName, element, ForFile.digest(algorithm, binaryRepresentation));
                     }
 
-                    @Override
-                    public void close() {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public void complete() throws IOException {
+                        File folder = file.getAbsoluteFile().getParentFile();
+                        if (!folder.isDirectory() && !folder.mkdirs()) {
+                            throw new IOException("Could not create directory: " + folder);
+                        }
+                        File temporary = File.createTempFile(file.getName(), ".tmp", folder);
                         try {
-                            super.close();
+                            DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+                            try {
+                                outputStream.writeInt(MAGIC);
+                                outputStream.writeInt(VERSION);
+                                outputStream.writeUTF(algorithm);
+                                ForFile.write(outputStream, fingerprint);
+                                outputStream.writeInt(current.size());
+                                for (Map.Entry<String, Entry> entry : new TreeMap<String, Entry>(current).entrySet()) {
+                                    outputStream.writeUTF(entry.getKey());
+                                    entry.getValue().write(outputStream);
+                                }
+                            } finally {
+                                outputStream.close();
+                            }
+                            FileSystem.getInstance().move(temporary, file);
                         } finally {
-                            executorService.shutdown();
+                            if (temporary.exists() && !temporary.delete()) {
+                                temporary.deleteOnExit();
+                            }
                         }
                     }
 
                     /**
-                     * A factory for a parallel executor service that creates a new executor service on each plugin engine application.
+                     * A candidate type for reuse within a file-persisted transformation manifest.
                      */
-                    @HashCodeAndEqualsPlugin.Enhance
-                    public static class Factory implements Dispatcher.Factory {
+                    protected class Candidate implements Lookup {
 
                         /**
-                         * The amount of threads to create in the throw-away executor service.
+                         * The name of the type.
                          */
-                        private final int threads;
+                        private final String typeName;
+
+                        /**
+                         * The element that represents the type's class file.
+                         */
+                        private final Source.Element element;
+
+                        /**
+                         * The digest of the element's class file.
+                         */
+                        private final byte[] digest;
+
+                        /**
+                         * The names of the types that were located while processing the type.
+                         */
+                        private final ConcurrentMap<String, Boolean> dependencies;
+
+                        /**
+                         * Creates a new candidate.
+                         *
+                         * @param typeName The name of the type.
+                         * @param element  The element that represents the type's class file.
+                         * @param digest   The digest of the element's class file.
+                         */
+                        protected Candidate(String typeName, Source.Element element, byte[] digest) {
+                            this.typeName = typeName;
+                            this.element = element;
+                            this.digest = digest;
+                            dependencies = new ConcurrentHashMap<String, Boolean>();
+                        }
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public boolean isCurrent() {
+                            Entry entry = previous.get(typeName);
+                            if (entry == null || !MessageDigest.isEqual(entry.input, digest) && !MessageDigest.isEqual(entry.output, digest)) {
+                                return false;
+                            }
+                            try {
+                                for (Map.Entry<String, byte[]> dependency : entry.dependencies.entrySet()) {
+                                    if (!MessageDigest.isEqual(dependency(dependency.getKey()), dependency.getValue())) {
+                                        return false;
+                                    }
+                                }
+                            } catch (IOException ignored) {
+                                return false;
+                            }
+                            current.put(typeName, entry);
+                            return true;
+                        }
+
+                        /**
+                         * {@inheritDoc}
+                         */
+                        public Outcome reuse() {
+                            Entry entry = current.get(typeName);
+                            if (entry == null) {
+                                throw new IllegalStateException("Cannot reuse type that is not current: " + typeName);
+                            }
+                            return new Reused(entry);
+                        }
 
                         /**
-                         * Creates a new factory.
-                         *
-                         * @param threads The amount of threads to create in the throw-away executor service.
+                         * {@inheritDoc}
                          */
-                        public Factory(int threads) {
-                            this.threads = threads;
+                        public ClassFileLocator track(ClassFileLocator classFileLocator) {
+                            return new Tracking(classFileLocator);
                         }
 
                         /**
                          * {@inheritDoc}
                          */
-                        public Dispatcher make(Target.Sink sink,
-                                               List<TypeDescription> transformed,
-                                               Map<TypeDescription, List<Throwable>> failed,
-                                               List<String> unresolved) {
-                            return new WithThrowawayExecutorService(Executors.newFixedThreadPool(threads), sink, transformed, failed, unresolved);
+                        public void record(List<Plugin> applied, @Nullable DynamicType dynamicType) {
+                            Map<String, byte[]> dependencies = new LinkedHashMap<String, byte[]>();
+                            try {
+                                for (String name : new TreeSet<String>(this.dependencies.keySet())) {
+                                    if (!name.equals(typeName)) {
+                                        dependencies.put(name, dependency(name));
+                                    }
+                                }
+                            } catch (IOException ignored) {
+                                return;
+                            }
+                            List<Integer> indices = new ArrayList<Integer>(applied.size());
+                            for (Plugin plugin : applied) {
+                                indices.add(plugins.indexOf(plugin));
+                            }
+                            List<String> liveInitializers = new ArrayList<String>();
+                            Map<String, byte[]> binaryRepresentations = new LinkedHashMap<String, byte[]>();
+                            byte[] output;
+                            if (dynamicType == null) {
+                                output = digest;
+                            } else {
+                                for (Map.Entry<TypeDescription, LoadedTypeInitializer> entry : dynamicType.getLoadedTypeInitializers().entrySet()) {
+                                    if (entry.getValue().isAlive()) {
+                                        liveInitializers.add(entry.getKey().getName());
+                                    }
+                                }
+                                for (Map.Entry<TypeDescription, byte[]> entry : dynamicType.getAllTypes().entrySet()) {
+                                    binaryRepresentations.put(entry.getKey().getName(), entry.getValue());
+                                }
+                                output = ForFile.digest(algorithm, dynamicType.getBytes());
+                            }
+                            current.put(typeName, new Entry(digest, output, dependencies, indices, liveInitializers, binaryRepresentations));
                         }
-                    }
-                }
-
-                /**
-                 * A factory for a dispatcher that uses a given executor service for parallel dispatching.
-                 */
-                @HashCodeAndEqualsPlugin.Enhance
-                public static class Factory implements Dispatcher.Factory {
 
-                    /**
-                     * The executor to use.
-                     */
-                    private final Executor executor;
+                        /**
+                         * The outcome of a previous processing of the candidate.
+                         */
+                        protected class Reused implements Outcome {
+
+                            /**
+                             * The entry that represents the previous outcome.
+                             */
+                            private final Entry entry;
+
+                            /**
+                             * Creates a new reused outcome.
+                             *
+                             * @param entry The entry that represents the previous outcome.
+                             */
+                            protected Reused(Entry entry) {
+                                this.entry = entry;
+                            }
 
-                    /**
-                     * Creates a new dispatcher factory for parallel dispatching using the supplied executor.
-                     *
-                     * @param executor The executor to use.
-                     */
-                    public Factory(Executor executor) {
-                        this.executor = executor;
-                    }
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public List<Plugin> getApplied() {
+                                List<Plugin> applied = new ArrayList<Plugin>(entry.applied.size());
+                                for (int index : entry.applied) {
+                                    applied.add(plugins.get(index));
+                                }
+                                return applied;
+                            }
 
-                    /**
-                     * {@inheritDoc}
-                     */
-                    public Dispatcher make(Target.Sink sink,
-                                           List<TypeDescription> transformed,
-                                           Map<TypeDescription, List<Throwable>> failed,
-                                           List<String> unresolved) {
-                        return new ForParallelTransformation(executor, sink, transformed, failed, unresolved);
-                    }
-                }
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public List<TypeDescription> getLiveInitializers() {
+                                if (entry.liveInitializers.isEmpty()) {
+                                    return Collections.emptyList();
+                                }
+                                TypePool typePool = TypePool.Default.of(new ClassFileLocator.Compound(new ClassFileLocator.Simple(entry.binaryRepresentations),
+                                        classFileLocator));
+                                List<TypeDescription> liveInitializers = new ArrayList<TypeDescription>(entry.liveInitializers.size());
+                                for (String liveInitializer : entry.liveInitializers) {
+                                    liveInitializers.add(typePool.describe(liveInitializer).resolve());
+                                }
+                                return liveInitializers;
+                            }
 
-                /**
-                 * An eager materialization that does not defer processing after preprocessing.
-                 */
-                @HashCodeAndEqualsPlugin.Enhance
-                protected static class EagerWork implements Callable<Materializable> {
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public Dispatcher.Materializable toMaterializable(TypeDescription typeDescription) {
+                                if (entry.binaryRepresentations.isEmpty()) {
+                                    return new Dispatcher.Materializable.ForRetainedElement(element);
+                                }
+                                List<Source.Element> elements = new ArrayList<Source.Element>(entry.binaryRepresentations.size());
+                                for (Map.Entry<String, byte[]> binaryRepresentation : entry.binaryRepresentations.entrySet()) {
+                                    elements.add(new Source.Element.ForByteArray(binaryRepresentation.getKey().replace('.', '/')
+                                            + CLASS_FILE_EXTENSION, binaryRepresentation.getValue()));
+                                }
+                                return new Dispatcher.Materializable.ForReusedElement(typeDescription, elements);
+                            }
+                        }
 
-                    /**
-                     * The work to apply.
-                     */
-                    private final Callable<? extends Callable<? extends Materializable>> work;
+                        /**
+                         * A class file locator that records the names of all types that it locates as dependencies of the candidate.
+                         */
+                        protected class Tracking implements ClassFileLocator {
+
+                            /**
+                             * The class file locator to delegate to.
+                             */
+                            private final ClassFileLocator classFileLocator;
+
+                            /**
+                             * Creates a new tracking class file locator.
+                             *
+                             * @param classFileLocator The class file locator to delegate to.
+                             */
+                            protected Tracking(ClassFileLocator classFileLocator) {
+                                this.classFileLocator = classFileLocator;
+                            }
 
-                    /**
-                     * Creates an eager work resolution.
-                     *
-                     * @param work The work to apply.
-                     */
-                    protected EagerWork(Callable<? extends Callable<? extends Materializable>> work) {
-                        this.work = work;
-                    }
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public Resolution locate(String name) throws IOException {
+                                dependencies.put(name, Boolean.TRUE);
+                                return classFileLocator.locate(name);
+                            }
 
-                    /**
-                     * {@inheritDoc}
-                     */
-                    public Materializable call() throws Exception {
-                        return work.call().call();
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public void close() {
+                                /* do nothing as the delegate is closed by the plugin engine */
+                            }
+                        }
                     }
                 }
             }
@@ -4204,6 +7028,11 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
              */
             private final ElementMatcher.Junction<? super TypeDescription> ignoredTypeMatcher;
 
+            /**
+             * The transformation manifest to use.
+             */
+            private final TransformationManifest transformationManifest;
+
             /**
              * Creates a new default plugin engine that rebases types and fails fast and on unresolved types and on live initializers.
              */
@@ -4259,6 +7088,39 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                               ErrorHandler errorHandler,
                               Dispatcher.Factory dispatcherFactory,
                               ElementMatcher.Junction<? super TypeDescription> ignoredTypeMatcher) {
+                this(byteBuddy,
+                        typeStrategy,
+                        poolStrategy,
+                        classFileLocator,
+                        listener,
+                        errorHandler,
+                        dispatcherFactory,
+                        ignoredTypeMatcher,
+                        TransformationManifest.Disabled.INSTANCE);
+            }
+
+            /**
+             * Creates a new default plugin engine.
+             *
+             * @param byteBuddy              The Byte Buddy instance to use.
+             * @param typeStrategy           The type strategy to use.
+             * @param poolStrategy           The pool strategy to use.
+             * @param classFileLocator       The class file locator to use.
+             * @param listener               The listener to use.
+             * @param errorHandler           The error handler to use.
+             * @param dispatcherFactory      The dispatcher factory to use.
+             * @param ignoredTypeMatcher     A matcher for types to exclude from transformation.
+             * @param transformationManifest The transformation manifest to use.
+             */
+            protected Default(ByteBuddy byteBuddy,
+                              TypeStrategy typeStrategy,
+                              PoolStrategy poolStrategy,
+                              ClassFileLocator classFileLocator,
+                              Listener listener,
+                              ErrorHandler errorHandler,
+                              Dispatcher.Factory dispatcherFactory,
+                              ElementMatcher.Junction<? super TypeDescription> ignoredTypeMatcher,
+                              TransformationManifest transformationManifest) {
                 this.byteBuddy = byteBuddy;
                 this.typeStrategy = typeStrategy;
                 this.poolStrategy = poolStrategy;
@@ -4267,6 +7129,7 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                 this.errorHandler = errorHandler;
                 this.dispatcherFactory = dispatcherFactory;
                 this.ignoredTypeMatcher = ignoredTypeMatcher;
+                this.transformationManifest = transformationManifest;
             }
 
             /**
@@ -4312,7 +7175,8 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         listener,
                         errorHandler,
                         dispatcherFactory,
-                        ignoredTypeMatcher);
+                        ignoredTypeMatcher,
+                        transformationManifest);
             }
 
             /**
@@ -4326,7 +7190,8 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         listener,
                         errorHandler,
                         dispatcherFactory,
-                        ignoredTypeMatcher);
+                        ignoredTypeMatcher,
+                        transformationManifest);
             }
 
             /**
@@ -4340,7 +7205,8 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         listener,
                         errorHandler,
                         dispatcherFactory,
-                        ignoredTypeMatcher);
+                        ignoredTypeMatcher,
+                        transformationManifest);
             }
 
             /**
@@ -4354,7 +7220,8 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         listener,
                         errorHandler,
                         dispatcherFactory,
-                        ignoredTypeMatcher);
+                        ignoredTypeMatcher,
+                        transformationManifest);
             }
 
             /**
@@ -4368,7 +7235,8 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         new Listener.Compound(this.listener, listener),
                         errorHandler,
                         dispatcherFactory,
-                        ignoredTypeMatcher);
+                        ignoredTypeMatcher,
+                        transformationManifest);
             }
 
             /**
@@ -4382,7 +7250,8 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         listener,
                         Listener.NoOp.INSTANCE,
                         dispatcherFactory,
-                        ignoredTypeMatcher);
+                        ignoredTypeMatcher,
+                        transformationManifest);
             }
 
             /**
@@ -4396,7 +7265,8 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         listener,
                         new ErrorHandler.Compound(errorHandlers),
                         dispatcherFactory,
-                        ignoredTypeMatcher);
+                        ignoredTypeMatcher,
+                        transformationManifest);
             }
 
             /**
@@ -4410,7 +7280,8 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         listener,
                         errorHandler,
                         dispatcherFactory,
-                        ignoredTypeMatcher);
+                        ignoredTypeMatcher,
+                        transformationManifest);
             }
 
             /**
@@ -4424,7 +7295,23 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                         listener,
                         errorHandler,
                         dispatcherFactory,
-                        ignoredTypeMatcher.<TypeDescription>or(matcher));
+                        ignoredTypeMatcher.<TypeDescription>or(matcher),
+                        transformationManifest);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public Engine with(TransformationManifest transformationManifest) {
+                return new Default(byteBuddy,
+                        typeStrategy,
+                        poolStrategy,
+                        classFileLocator,
+                        listener,
+                        errorHandler,
+                        dispatcherFactory,
+                        ignoredTypeMatcher,
+                        transformationManifest);
             }
 
             /**
@@ -4448,8 +7335,14 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                     }
                     Source.Origin origin = source.read();
                     try {
-                        ClassFileLocator classFileLocator = new ClassFileLocator.Compound(origin.getClassFileLocator(), this.classFileLocator);
+                        Map<String, byte[]> classFiles = new ConcurrentHashMap<String, byte[]>();
+                        ClassFileLocator classFileLocator = new ClassFileLocator.Compound(new ClassFileLocator.Simple(classFiles),
+                                origin.getClassFileLocator(),
+                                this.classFileLocator);
                         TypePool typePool = poolStrategy.typePool(classFileLocator);
+                        TransformationManifest.Session session = transformationManifest.open(plugins,
+                                Arrays.asList(byteBuddy, typeStrategy, poolStrategy, ignoredTypeMatcher, factories),
+                                classFileLocator);
                         Manifest manifest = origin.getManifest();
                         listener.onManifest(manifest);
                         Target.Sink sink = target.write(manifest);
@@ -4469,10 +7362,12 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                                         dispatcher.accept(new Preprocessor(element,
                                                 name.substring(0, name.length() - CLASS_FILE_EXTENSION.length()).replace('/', '.'),
                                                 classFileLocator,
+                                                classFiles,
                                                 typePool,
                                                 listener,
                                                 plugins,
-                                                preprocessors), preprocessors.isEmpty());
+                                                preprocessors,
+                                                session), preprocessors.isEmpty());
                                     } else if (!name.equals(JarFile.MANIFEST_NAME)) {
                                         listener.onResource(name);
                                         sink.retain(element);
@@ -4482,6 +7377,7 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                             } finally {
                                 dispatcher.close();
                             }
+                            session.complete();
                             if (!failed.isEmpty()) {
                                 listener.onError(failed);
                             }
@@ -4537,6 +7433,12 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                  */
                 private final ClassFileLocator classFileLocator;
 
+                /**
+                 * The class files that were read by a pre-filter by their type names. These class files are located by the class file
+                 * locator until the processed type is materialized.
+                 */
+                private final Map<String, byte[]> classFiles;
+
                 /**
                  * The type pool to use.
                  */
@@ -4557,31 +7459,48 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                  */
                 private final List<WithPreprocessor> preprocessors;
 
+                /**
+                 * The session of the transformation manifest.
+                 */
+                private final TransformationManifest.Session session;
+
+                /**
+                 * The header of the processed type's class file or {@code null} if the header was not read by a pre-filter.
+                 */
+                @Nullable
+                private ClassFileHeader classFileHeader;
+
                 /**
                  * Creates a new preprocessor.
                  *
                  * @param element          The processed element.
                  * @param typeName         The name of the processed type.
                  * @param classFileLocator The class file locator to use.
+                 * @param classFiles       The class files that were read by a pre-filter by their type names.
                  * @param typePool         The type pool to use.
                  * @param listener         The listener to notify.
                  * @param plugins          The plugins to apply.
                  * @param preprocessors    The plugins with preprocessors to preprocess.
+                 * @param session          The session of the transformation manifest.
                  */
                 private Preprocessor(Source.Element element,
                                      String typeName,
                                      ClassFileLocator classFileLocator,
+                                     Map<String, byte[]> classFiles,
                                      TypePool typePool,
                                      Listener listener,
                                      List<Plugin> plugins,
-                                     List<WithPreprocessor> preprocessors) {
+                                     List<WithPreprocessor> preprocessors,
+                                     TransformationManifest.Session session) {
                     this.element = element;
                     this.typeName = typeName;
                     this.classFileLocator = classFileLocator;
+                    this.classFiles = classFiles;
                     this.typePool = typePool;
                     this.listener = listener;
                     this.plugins = plugins;
                     this.preprocessors = preprocessors;
+                    this.session = session;
                 }
 
                 /**
@@ -4589,6 +7508,16 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                  */
                 public Callable<Dispatcher.Materializable> call() throws Exception {
                     listener.onDiscovery(typeName);
+                    TransformationManifest.Lookup lookup = session.lookup(typeName, element);
+                    if (lookup.isCurrent()) {
+                        return new Reused(lookup.reuse());
+                    } else if (preprocessors.isEmpty() && !isCandidate()) {
+                        return new Prefiltered(lookup);
+                    }
+                    ClassFileLocator classFileLocator = lookup.track(this.classFileLocator);
+                    TypePool typePool = classFileLocator == this.classFileLocator
+                            ? this.typePool
+                            : poolStrategy.typePool(classFileLocator);
                     TypePool.Resolution resolution = typePool.describe(typeName);
                     if (resolution.isResolved()) {
                         TypeDescription typeDescription = resolution.resolve();
@@ -4597,11 +7526,12 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                                 for (WithPreprocessor preprocessor : preprocessors) {
                                     preprocessor.onPreprocess(typeDescription, classFileLocator);
                                 }
-                                return new Resolved(typeDescription);
+                                return new Resolved(typeDescription, lookup, classFileLocator, typePool);
                             } else {
-                                return new Ignored(typeDescription);
+                                return new Ignored(typeDescription, lookup);
                             }
                         } catch (Throwable throwable) {
+                            classFiles.remove(typeName);
                             listener.onComplete(typeDescription);
                             if (throwable instanceof Exception) {
                                 throw (Exception) throwable;
@@ -4616,6 +7546,76 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                     }
                 }
 
+                /**
+                 * Determines if any plugin might match the processed type by consulting the plugins' pre-filters. The class file's
+                 * header is only read if a plugin might match the processed type by its name. If the processed type might be matched,
+                 * the read class file is retained such that the type pool does not read it again.
+                 *
+                 * @return {@code true} if any plugin might match the processed type or if a plugin does not declare a pre-filter.
+                 */
+                private boolean isCandidate() {
+                    List<WithPrefilter> prefilters = new ArrayList<WithPrefilter>(plugins.size());
+                    for (Plugin plugin : plugins) {
+                        if (!(plugin instanceof WithPrefilter)) {
+                            return true;
+                        } else if (((WithPrefilter) plugin).mightMatch(typeName)) {
+                            prefilters.add((WithPrefilter) plugin);
+                        }
+                    }
+                    if (prefilters.isEmpty()) {
+                        return false;
+                    }
+                    byte[] binaryRepresentation;
+                    try {
+                        InputStream inputStream = element.getInputStream();
+                        try {
+                            binaryRepresentation = StreamDrainer.DEFAULT.drain(inputStream);
+                        } finally {
+                            inputStream.close();
+                        }
+                        classFileHeader = ClassFileHeader.of(binaryRepresentation);
+                    } catch (IOException ignored) {
+                        return true;
+                    } catch (IllegalArgumentException ignored) {
+                        return true;
+                    }
+                    for (WithPrefilter prefilter : prefilters) {
+                        if (prefilter.mightMatch(classFileHeader)) {
+                            classFiles.put(typeName, binaryRepresentation);
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+
+                /**
+                 * A type description of the processed type that is only resolved from the type pool if a property other than
+                 * its name or its string representation is requested. Such a description is used for types that are pre-filtered
+                 * or reused from a transformation manifest.
+                 */
+                private class LazyTypeDescription extends TypeDescription.AbstractBase.OfSimpleType.WithDelegation {
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public String getName() {
+                        return typeName;
+                    }
+
+                    @Override
+                    @CachedReturnPlugin.Enhance("delegate")
+                    protected TypeDescription delegate() {
+                        return typePool.describe(typeName).resolve();
+                    }
+
+                    @Override
+                    public String toString() {
+                        return classFileHeader == null
+                                ? typeName
+                                : ((classFileHeader.getModifiers() & Opcodes.ACC_INTERFACE) == 0 ? "class" : "interface") + " " + typeName;
+                    }
+                }
+
                 /**
                  * A resolved materializable.
                  */
@@ -4626,13 +7626,37 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                      */
                     private final TypeDescription typeDescription;
 
+                    /**
+                     * The lookup of the resolved type within the transformation manifest.
+                     */
+                    private final TransformationManifest.Lookup lookup;
+
+                    /**
+                     * The class file locator to use for the resolved type.
+                     */
+                    private final ClassFileLocator classFileLocator;
+
+                    /**
+                     * The type pool to use for the resolved type.
+                     */
+                    private final TypePool typePool;
+
                     /**
                      * Creates a new resolved materializable.
                      *
-                     * @param typeDescription A description of the resolved type.
+                     * @param typeDescription  A description of the resolved type.
+                     * @param lookup           The lookup of the resolved type within the transformation manifest.
+                     * @param classFileLocator The class file locator to use for the resolved type.
+                     * @param typePool         The type pool to use for the resolved type.
                      */
-                    private Resolved(TypeDescription typeDescription) {
+                    private Resolved(TypeDescription typeDescription,
+                                     TransformationManifest.Lookup lookup,
+                                     ClassFileLocator classFileLocator,
+                                     TypePool typePool) {
                         this.typeDescription = typeDescription;
+                        this.lookup = lookup;
+                        this.classFileLocator = classFileLocator;
+                        this.typePool = typePool;
                     }
 
                     /**
@@ -4669,12 +7693,15 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                                         listener.onLiveInitializer(typeDescription, entry.getKey());
                                     }
                                 }
+                                lookup.record(applied, dynamicType);
                                 return new Dispatcher.Materializable.ForTransformedElement(dynamicType);
                             } else {
                                 listener.onIgnored(typeDescription, ignored);
+                                lookup.record(Collections.<Plugin>emptyList(), null);
                                 return new Dispatcher.Materializable.ForRetainedElement(element);
                             }
                         } finally {
+                            classFiles.remove(typeName);
                             listener.onComplete(typeDescription);
                         }
                     }
@@ -4690,28 +7717,137 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                      */
                     private final TypeDescription typeDescription;
 
+                    /**
+                     * The lookup of the ignored type within the transformation manifest.
+                     */
+                    private final TransformationManifest.Lookup lookup;
+
                     /**
                      * A materializable for an ignored element.
                      *
                      * @param typeDescription A description of the ignored type.
+                     * @param lookup          The lookup of the ignored type within the transformation manifest.
                      */
-                    private Ignored(TypeDescription typeDescription) {
+                    private Ignored(TypeDescription typeDescription, TransformationManifest.Lookup lookup) {
                         this.typeDescription = typeDescription;
+                        this.lookup = lookup;
                     }
 
                     /**
                      * {@inheritDoc}
                      */
                     public Dispatcher.Materializable call() {
+                        classFiles.remove(typeName);
                         try {
                             listener.onIgnored(typeDescription, plugins);
                         } finally {
                             listener.onComplete(typeDescription);
                         }
+                        lookup.record(Collections.<Plugin>emptyList(), null);
+                        return new Dispatcher.Materializable.ForRetainedElement(element);
+                    }
+                }
+
+                /**
+                 * A materializable for an element that was rejected by the plugins' pre-filters. The type is reported by a description
+                 * that is only resolved if a listener requests a property other than the type's name. If the type cannot be resolved
+                 * in this case, it is reported as unresolved.
+                 */
+                private class Prefiltered implements Callable<Dispatcher.Materializable> {
+
+                    /**
+                     * The lookup of the ignored type within the transformation manifest.
+                     */
+                    private final TransformationManifest.Lookup lookup;
+
+                    /**
+                     * Creates a materializable for a prefiltered element.
+                     *
+                     * @param lookup The lookup of the ignored type within the transformation manifest.
+                     */
+                    private Prefiltered(TransformationManifest.Lookup lookup) {
+                        this.lookup = lookup;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Dispatcher.Materializable call() {
+                        TypeDescription typeDescription = new LazyTypeDescription();
+                        try {
+                            try {
+                                listener.onIgnored(typeDescription, plugins);
+                            } finally {
+                                listener.onComplete(typeDescription);
+                            }
+                        } catch (RuntimeException exception) {
+                            if (typePool.describe(typeName).isResolved()) {
+                                throw exception;
+                            }
+                            return new Unresolved().call();
+                        }
+                        lookup.record(Collections.<Plugin>emptyList(), null);
                         return new Dispatcher.Materializable.ForRetainedElement(element);
                     }
                 }
 
+                /**
+                 * A materializable for an element that is reused from a previous application. The type is reported as it was when
+                 * it was processed by a description that is only resolved if a listener requests a property other than the type's
+                 * name. If the type cannot be resolved in this case, it is reported as unresolved.
+                 */
+                private class Reused implements Callable<Dispatcher.Materializable> {
+
+                    /**
+                     * The previous outcome of the reused type.
+                     */
+                    private final TransformationManifest.Outcome outcome;
+
+                    /**
+                     * Creates a materializable for a reused element.
+                     *
+                     * @param outcome The previous outcome of the reused type.
+                     */
+                    private Reused(TransformationManifest.Outcome outcome) {
+                        this.outcome = outcome;
+                    }
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public Dispatcher.Materializable call() {
+                        TypeDescription typeDescription = new LazyTypeDescription();
+                        try {
+                            try {
+                                List<Plugin> applied = outcome.getApplied();
+                                if (applied.isEmpty()) {
+                                    listener.onIgnored(typeDescription, plugins);
+                                } else {
+                                    for (Plugin plugin : plugins) {
+                                        if (applied.contains(plugin)) {
+                                            listener.onTransformation(typeDescription, plugin);
+                                        } else {
+                                            listener.onIgnored(typeDescription, plugin);
+                                        }
+                                    }
+                                    listener.onTransformation(typeDescription, applied);
+                                    for (TypeDescription liveInitializer : outcome.getLiveInitializers()) {
+                                        listener.onLiveInitializer(typeDescription, liveInitializer);
+                                    }
+                                }
+                            } finally {
+                                listener.onComplete(typeDescription);
+                            }
+                        } catch (RuntimeException exception) {
+                            if (typePool.describe(typeName).isResolved()) {
+                                throw exception;
+                            }
+                            return new Unresolved().call();
+                        }
+                        return outcome.toMaterializable(typeDescription);
+                    }
+                }
+
                 /**
                  * A materializable that represents an unresolved type.
                  */
@@ -4721,6 +7857,7 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
                      * {@inheritDoc}
                      */
                     public Dispatcher.Materializable call() {
+                        classFiles.remove(typeName);
                         listener.onUnresolved(typeName);
                         return new Dispatcher.Materializable.ForUnresolvedElement(element, typeName);
                     }
@@ -4765,16 +7902,29 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
     }
 
     /**
-     * An abstract base for a {@link Plugin} that matches types by a given {@link ElementMatcher}.
+     * An abstract base for a {@link Plugin} that matches types by a given {@link ElementMatcher}. The plugin's pre-filter is derived from
+     * the {@link NameConstraint} and the {@link AnnotationConstraint} of its matcher unless a subclass overrides {@link Plugin#matches(Object)}.
      */
     @HashCodeAndEqualsPlugin.Enhance
-    abstract class ForElementMatcher implements Plugin {
+    abstract class ForElementMatcher implements WithPrefilter {
 
         /**
          * The element matcher to apply.
          */
         private final ElementMatcher<? super TypeDescription> matcher;
 
+        /**
+         * The name constraint of the element matcher.
+         */
+        @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.IGNORE)
+        private final NameConstraint nameConstraint;
+
+        /**
+         * The annotation constraint of the element matcher.
+         */
+        @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.IGNORE)
+        private final AnnotationConstraint annotationConstraint;
+
         /**
          * Creates a new plugin that matches types using an element matcher.
          *
@@ -4782,6 +7932,19 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
          */
         protected ForElementMatcher(ElementMatcher<? super TypeDescription> matcher) {
             this.matcher = matcher;
+            boolean overridden;
+            try {
+                overridden = getClass().getMethod("matches", TypeDescription.class).getDeclaringClass() != ForElementMatcher.class;
+            } catch (NoSuchMethodException ignored) {
+                overridden = true;
+            }
+            if (overridden) {
+                nameConstraint = NameConstraint.unconstrained();
+                annotationConstraint = AnnotationConstraint.unconstrained();
+            } else {
+                nameConstraint = NameConstraint.of(matcher);
+                annotationConstraint = AnnotationConstraint.of(matcher);
+            }
         }
 
         /**
@@ -4790,5 +7953,19 @@ public interface Plugin extends ElementMatcher<TypeDescription>, Closeable {
         public boolean matches(@Nullable TypeDescription target) {
             return matcher.matches(target);
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean mightMatch(String typeName) {
+            return nameConstraint.isSatisfiedBy(typeName);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean mightMatch(ClassFileHeader classFileHeader) {
+            return annotationConstraint.isSatisfiedBy(classFileHeader);
+        }
     }
 }
@@ -39,11 +39,20 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.security.PrivilegedAction;
 import java.security.ProtectionDomain;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -866,6 +875,294 @@ public interface ClassFileLocator extends Closeable {
         }
     }
 
+    /**
+     * <p>
+     * A class file locator that locates classes within a Java <i>jar</i> file that is mapped into memory. The jar file's central
+     * directory is read once when the locator is created such that any class file is located without querying the file system.
+     * Class files that are stored without compression are copied directly from the mapped region into a byte array of their
+     * exact size. Deflated class files are first copied from the mapped region into an array of their compressed size as an
+     * {@link Inflater} cannot read from a buffer on all supported versions of the JVM, and are then inflated into an array of their
+     * exact size.
+     * </p>
+     * <p>
+     * <b>Important</b>: A memory-mapped region cannot be released explicitly on all supported versions of the JVM. The mapping
+     * is released once this class file locator is garbage collected, closing this class file locator does not release any resources.
+     * Jar files that are larger than {@link Integer#MAX_VALUE} bytes or that use the <i>zip64</i> format are not supported.
+     * </p>
+     */
+    @HashCodeAndEqualsPlugin.Enhance
+    class ForMappedJarFile implements ClassFileLocator {
+
+        /**
+         * The signature of the end of central directory record.
+         */
+        private static final int END_OF_CENTRAL_DIRECTORY = 0x06054B50;
+
+        /**
+         * The signature of a central directory file header.
+         */
+        private static final int CENTRAL_DIRECTORY_HEADER = 0x02014B50;
+
+        /**
+         * The signature of a local file header.
+         */
+        private static final int LOCAL_FILE_HEADER = 0x04034B50;
+
+        /**
+         * The minimal size of the end of central directory record.
+         */
+        private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+
+        /**
+         * The maximal length of a zip file comment.
+         */
+        private static final int MAXIMUM_COMMENT_LENGTH = 0xFFFF;
+
+        /**
+         * The minimal size of a central directory file header.
+         */
+        private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+
+        /**
+         * The minimal size of a local file header.
+         */
+        private static final int LOCAL_FILE_HEADER_SIZE = 30;
+
+        /**
+         * A value that indicates that a value is stored in a <i>zip64</i> extra field.
+         */
+        private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+
+        /**
+         * The jar file that is mapped.
+         */
+        private final File file;
+
+        /**
+         * The memory-mapped jar file in little-endian byte order.
+         */
+        @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.IGNORE)
+        private final ByteBuffer buffer;
+
+        /**
+         * A mapping of class file names to their central directory entries.
+         */
+        @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.IGNORE)
+        private final Map<String, Entry> entries;
+
+        /**
+         * Creates a new class file locator for a memory-mapped jar file.
+         *
+         * @param file    The jar file that is mapped.
+         * @param buffer  The memory-mapped jar file in little-endian byte order.
+         * @param entries A mapping of class file names to their central directory entries.
+         */
+        protected ForMappedJarFile(File file, ByteBuffer buffer, Map<String, Entry> entries) {
+            this.file = file;
+            this.buffer = buffer;
+            this.entries = entries;
+        }
+
+        /**
+         * Creates a new class file locator for the given jar file by mapping it into memory.
+         *
+         * @param file The jar file to read from.
+         * @return A class file locator for the jar file.
+         * @throws IOException If an I/O exception is thrown or if the jar file's format is not supported.
+         */
+        public static ClassFileLocator of(File file) throws IOException {
+            ByteBuffer buffer;
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = randomAccessFile.getChannel();
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Cannot map jar file that exceeds " + Integer.MAX_VALUE + " bytes: " + file);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            } finally {
+                randomAccessFile.close();
+            }
+            return new ForMappedJarFile(file, buffer, entries(file, buffer));
+        }
+
+        /**
+         * Reads the class file entries of a jar file's central directory.
+         *
+         * @param file   The jar file that is mapped.
+         * @param buffer The memory-mapped jar file in little-endian byte order.
+         * @return A mapping of class file names to their central directory entries.
+         * @throws IOException If the jar file's format is not supported.
+         */
+        private static Map<String, Entry> entries(File file, ByteBuffer buffer) throws IOException {
+            int end = -1;
+            for (int index = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+                 index >= Math.max(0, buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE - MAXIMUM_COMMENT_LENGTH);
+                 index--) {
+                if (buffer.getInt(index) == END_OF_CENTRAL_DIRECTORY) {
+                    end = index;
+                    break;
+                }
+            }
+            if (end == -1) {
+                throw new IOException("Cannot locate end of central directory in " + file);
+            }
+            long offset = buffer.getInt(end + 16) & ZIP64_MARKER, size = buffer.getInt(end + 12) & ZIP64_MARKER;
+            if (offset == ZIP64_MARKER || size == ZIP64_MARKER || (buffer.getShort(end + 10) & 0xFFFF) == 0xFFFF) {
+                throw new IOException("Cannot map zip64 file " + file);
+            } else if (offset + size > end) {
+                throw new IOException("Central directory exceeds file boundary in " + file);
+            }
+            Map<String, Entry> entries = new HashMap<String, Entry>();
+            int index = (int) offset;
+            while (index < offset + size) {
+                if (index + CENTRAL_DIRECTORY_HEADER_SIZE > offset + size) {
+                    throw new IOException("Central directory header at " + index + " exceeds central directory in " + file);
+                } else if (buffer.getInt(index) != CENTRAL_DIRECTORY_HEADER) {
+                    throw new IOException("Unexpected central directory header at " + index + " in " + file);
+                }
+                int nameLength = buffer.getShort(index + 28) & 0xFFFF;
+                if (index + CENTRAL_DIRECTORY_HEADER_SIZE + nameLength > offset + size) {
+                    throw new IOException("Name of central directory header at " + index + " exceeds central directory in " + file);
+                }
+                byte[] name = new byte[nameLength];
+                ByteBuffer duplicate = buffer.duplicate();
+                duplicate.position(index + CENTRAL_DIRECTORY_HEADER_SIZE);
+                duplicate.get(name);
+                String path = new String(name, "UTF-8");
+                if (path.endsWith(CLASS_FILE_EXTENSION)) {
+                    long compressedSize = buffer.getInt(index + 20) & ZIP64_MARKER,
+                            uncompressedSize = buffer.getInt(index + 24) & ZIP64_MARKER,
+                            localHeader = buffer.getInt(index + 42) & ZIP64_MARKER;
+                    if (compressedSize == ZIP64_MARKER || uncompressedSize == ZIP64_MARKER || localHeader == ZIP64_MARKER) {
+                        throw new IOException("Cannot map zip64 entry " + path + " in " + file);
+                    }
+                    entries.put(path.substring(0, path.length() - CLASS_FILE_EXTENSION.length()), new Entry(buffer.getShort(index + 10) & 0xFFFF,
+                            (int) localHeader,
+                            (int) compressedSize,
+                            (int) uncompressedSize));
+                }
+                index += CENTRAL_DIRECTORY_HEADER_SIZE
+                        + nameLength
+                        + (buffer.getShort(index + 30) & 0xFFFF)
+                        + (buffer.getShort(index + 32) & 0xFFFF);
+            }
+            return entries;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Resolution locate(String name) throws IOException {
+            Entry entry = entries.get(name.replace('.', '/'));
+            return entry == null
+                    ? new Resolution.Illegal(name)
+                    : new Resolution.Explicit(entry.read(buffer));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void close() {
+            /* do nothing */
+        }
+
+        /**
+         * Represents a class file entry of a jar file's central directory.
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        protected static class Entry {
+
+            /**
+             * The compression method of the entry.
+             */
+            private final int method;
+
+            /**
+             * The offset of the entry's local file header.
+             */
+            private final int localHeader;
+
+            /**
+             * The compressed size of the entry.
+             */
+            private final int compressedSize;
+
+            /**
+             * The uncompressed size of the entry.
+             */
+            private final int uncompressedSize;
+
+            /**
+             * Creates a new central directory entry.
+             *
+             * @param method           The compression method of the entry.
+             * @param localHeader      The offset of the entry's local file header.
+             * @param compressedSize   The compressed size of the entry.
+             * @param uncompressedSize The uncompressed size of the entry.
+             */
+            protected Entry(int method, int localHeader, int compressedSize, int uncompressedSize) {
+                this.method = method;
+                this.localHeader = localHeader;
+                this.compressedSize = compressedSize;
+                this.uncompressedSize = uncompressedSize;
+            }
+
+            /**
+             * Reads this entry's uncompressed content from the supplied buffer.
+             *
+             * @param buffer The memory-mapped jar file in little-endian byte order.
+             * @return The uncompressed content of this entry.
+             * @throws IOException If the entry cannot be read.
+             */
+            protected byte[] read(ByteBuffer buffer) throws IOException {
+                if (localHeader < 0 || (long) localHeader + LOCAL_FILE_HEADER_SIZE > buffer.limit()) {
+                    throw new IOException("Local file header at " + localHeader + " exceeds file boundary");
+                } else if (buffer.getInt(localHeader) != LOCAL_FILE_HEADER) {
+                    throw new IOException("Unexpected local file header at " + localHeader);
+                } else if (compressedSize < 0 || uncompressedSize < 0) {
+                    throw new IOException("Illegal size of entry at " + localHeader);
+                }
+                long position = (long) localHeader
+                        + LOCAL_FILE_HEADER_SIZE
+                        + (buffer.getShort(localHeader + 26) & 0xFFFF)
+                        + (buffer.getShort(localHeader + 28) & 0xFFFF);
+                if (position + (method == ZipEntry.STORED ? uncompressedSize : compressedSize) > buffer.limit()) {
+                    throw new IOException("Content of entry at " + localHeader + " exceeds file boundary");
+                }
+                ByteBuffer duplicate = buffer.duplicate();
+                duplicate.position((int) position);
+                byte[] binaryRepresentation = new byte[uncompressedSize];
+                switch (method) {
+                    case ZipEntry.STORED:
+                        duplicate.get(binaryRepresentation);
+                        return binaryRepresentation;
+                    case ZipEntry.DEFLATED:
+                        byte[] compressed = new byte[compressedSize];
+                        duplicate.get(compressed);
+                        Inflater inflater = new Inflater(true);
+                        try {
+                            inflater.setInput(compressed);
+                            int length = 0;
+                            while (length < uncompressedSize) {
+                                int inflated = inflater.inflate(binaryRepresentation, length, uncompressedSize - length);
+                                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                                    throw new IOException("Unexpected end of deflated entry at " + localHeader);
+                                }
+                                length += inflated;
+                            }
+                        } catch (DataFormatException exception) {
+                            throw new IOException("Cannot inflate entry at " + localHeader + ": " + exception.getMessage());
+                        } finally {
+                            inflater.end();
+                        }
+                        return binaryRepresentation;
+                    default:
+                        throw new IOException("Unsupported compression method " + method + " for entry at " + localHeader);
+                }
+            }
+        }
+    }
+
     /**
      * A class file locator that locates classes within a Java <i>jmod</i> file. This class file locator should not be used
      * for reading modular jar files for which {@link ForJarFile} is appropriate.
@@ -1800,6 +2097,234 @@ public interface ClassFileLocator extends Closeable {
         }
     }
 
+    /**
+     * A class file locator that remembers the names of types that could not be located by another class file locator such that
+     * repeated lookups of absent types, for example of optional dependencies, do not cause repeated I/O.
+     */
+    @HashCodeAndEqualsPlugin.Enhance
+    class WithNegativeCache implements ClassFileLocator {
+
+        /**
+         * The class file locator to delegate to.
+         */
+        private final ClassFileLocator classFileLocator;
+
+        /**
+         * The cache of type names that could not be located.
+         */
+        private final Cache cache;
+
+        /**
+         * Creates a new class file locator with a negative cache.
+         *
+         * @param classFileLocator The class file locator to delegate to.
+         * @param cache            The cache of type names that could not be located.
+         */
+        public WithNegativeCache(ClassFileLocator classFileLocator, Cache cache) {
+            this.classFileLocator = classFileLocator;
+            this.cache = cache;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Resolution locate(String name) throws IOException {
+            if (cache.isMissing(name)) {
+                return new Resolution.Illegal(name);
+            }
+            Resolution resolution = classFileLocator.locate(name);
+            if (!resolution.isResolved()) {
+                cache.onMissing(name);
+            }
+            return resolution;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void close() throws IOException {
+            classFileLocator.close();
+        }
+
+        /**
+         * A cache of type names that could not be located.
+         */
+        public interface Cache {
+
+            /**
+             * Checks if a type name is known to be missing.
+             *
+             * @param name The name of the type.
+             * @return {@code true} if the type is known to be missing.
+             */
+            boolean isMissing(String name);
+
+            /**
+             * Registers a type name as missing.
+             *
+             * @param name The name of the missing type.
+             */
+            void onMissing(String name);
+
+            /**
+             * Removes a type name from the cache, for example if a type of this name was defined.
+             *
+             * @param name The name of the type.
+             */
+            void invalidate(String name);
+
+            /**
+             * Removes all type names from the cache.
+             */
+            void clear();
+
+            /**
+             * A non-operational cache that never considers a type name as missing.
+             */
+            enum NoOp implements Cache {
+
+                /**
+                 * The singleton instance.
+                 */
+                INSTANCE;
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public boolean isMissing(String name) {
+                    return false;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void onMissing(String name) {
+                    /* do nothing */
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void invalidate(String name) {
+                    /* do nothing */
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void clear() {
+                    /* do nothing */
+                }
+            }
+
+            /**
+             * A thread-safe cache that considers a type name missing for a limited time. If the cache exceeds its maximum size,
+             * all entries are discarded.
+             */
+            class WithExpiration implements Cache {
+
+                /**
+                 * The default maximum number of missing type names to retain.
+                 */
+                public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+                /**
+                 * The default time to live of a missing type name in seconds.
+                 */
+                public static final long DEFAULT_TIME_TO_LIVE_SECONDS = 300;
+
+                /**
+                 * The time to live of a missing type name in nanoseconds.
+                 */
+                private final long timeToLive;
+
+                /**
+                 * The maximum number of missing type names to retain.
+                 */
+                private final int maximumSize;
+
+                /**
+                 * A mapping of missing type names to the time of their expiration as given by {@link System#nanoTime()}.
+                 */
+                private final ConcurrentMap<String, Long> expirations;
+
+                /**
+                 * Creates a new cache with a default time to live and maximum size.
+                 */
+                public WithExpiration() {
+                    this(DEFAULT_TIME_TO_LIVE_SECONDS, TimeUnit.SECONDS, DEFAULT_MAXIMUM_SIZE);
+                }
+
+                /**
+                 * Creates a new cache.
+                 *
+                 * @param timeToLive  The time to live of a missing type name.
+                 * @param timeUnit    The time unit of the time to live.
+                 * @param maximumSize The maximum number of missing type names to retain.
+                 */
+                public WithExpiration(long timeToLive, TimeUnit timeUnit, int maximumSize) {
+                    if (timeToLive <= 0) {
+                        throw new IllegalArgumentException("Time to live must be positive: " + timeToLive);
+                    } else if (maximumSize <= 0) {
+                        throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+                    }
+                    this.timeToLive = timeUnit.toNanos(timeToLive);
+                    this.maximumSize = maximumSize;
+                    expirations = new ConcurrentHashMap<String, Long>();
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public boolean isMissing(String name) {
+                    Long expiration = expirations.get(name);
+                    if (expiration == null) {
+                        return false;
+                    } else if (expiration - System.nanoTime() > 0) {
+                        return true;
+                    } else {
+                        expirations.remove(name, expiration);
+                        return false;
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void onMissing(String name) {
+                    if (expirations.size() >= maximumSize) {
+                        expirations.clear();
+                    }
+                    expirations.put(name, System.nanoTime() + timeToLive);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void invalidate(String name) {
+                    expirations.remove(name);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void clear() {
+                    expirations.clear();
+                }
+
+                /**
+                 * Returns the number of type names that are currently registered as missing, including expired type names that
+                 * were not yet discarded.
+                 *
+                 * @return The number of type names that are currently registered as missing.
+                 */
+                public int getSize() {
+                    return expirations.size();
+                }
+            }
+        }
+    }
+
     /**
      * A class file locator that discriminates by a type's package.
      */
@@ -1843,6 +2368,186 @@ public interface ClassFileLocator extends Closeable {
         }
     }
 
+    /**
+     * <p>
+     * A class file locator that indexes the packages of a list of jar files and folders such that any lookup only queries
+     * the class file locators that contain a type's package. The index is created once upon the creation of this class file
+     * locator such that a lookup does not probe every jar file or folder, as it is the case for a {@link Compound} locator.
+     * If several jar files or folders contain the same package, they are queried in the order of their registration.
+     * </p>
+     * <p>
+     * <b>Note</b>: Class files that are added to an indexed folder after the creation of this locator are only found if their
+     * package was already contained in the folder at the time of indexing.
+     * </p>
+     */
+    @HashCodeAndEqualsPlugin.Enhance
+    class Indexed implements ClassFileLocator {
+
+        /**
+         * A mapping of package names to the class file locators that contain types of this package in their order of application.
+         */
+        private final Map<String, List<ClassFileLocator>> packages;
+
+        /**
+         * All class file locators that are represented by this locator.
+         */
+        private final List<ClassFileLocator> classFileLocators;
+
+        /**
+         * Creates a new indexed class file locator.
+         *
+         * @param packages          A mapping of package names to the class file locators that contain types of this package in
+         *                          their order of application where an empty string donates the default package.
+         * @param classFileLocators All class file locators that are represented by this locator.
+         */
+        public Indexed(Map<String, List<ClassFileLocator>> packages, List<ClassFileLocator> classFileLocators) {
+            this.packages = packages;
+            this.classFileLocators = classFileLocators;
+        }
+
+        /**
+         * Resolves an indexed class file locator for the class path that reads class files directly from the file system. The resulting
+         * class file locator does not imply classes on the boot path.
+         *
+         * @return An indexed class file locator for the class path.
+         * @throws IOException If an I/O exception occurs.
+         */
+        public static ClassFileLocator ofClassPath() throws IOException {
+            return ofClassPath(System.getProperty("java.class.path"));
+        }
+
+        /**
+         * <p>
+         * Resolves an indexed class file locator for the class path that reads class files directly from the file system.
+         * </p>
+         * <p>
+         * <b>Note</b>: The resulting class file locator does not include classes of the bootstrap class loader.
+         * </p>
+         *
+         * @param classPath The class path to scan with the elements separated by {@code path.separator}.
+         * @return An indexed class file locator for the class path.
+         * @throws IOException If an I/O exception occurs.
+         */
+        public static ClassFileLocator ofClassPath(String classPath) throws IOException {
+            List<File> files = new ArrayList<File>();
+            for (String element : Pattern.compile(System.getProperty("path.separator"), Pattern.LITERAL).split(classPath)) {
+                files.add(new File(element));
+            }
+            return of(files);
+        }
+
+        /**
+         * Resolves an indexed class file locator for the supplied jar files and folders. Files that neither represent a folder or
+         * a file are ignored.
+         *
+         * @param files The jar files and folders to index in their order of application.
+         * @return An indexed class file locator for the supplied jar files and folders.
+         * @throws IOException If an I/O exception occurs.
+         */
+        public static ClassFileLocator of(List<? extends File> files) throws IOException {
+            Map<String, List<ClassFileLocator>> packages = new HashMap<String, List<ClassFileLocator>>();
+            List<ClassFileLocator> classFileLocators = new ArrayList<ClassFileLocator>(files.size());
+            boolean completed = false;
+            try {
+                for (File file : files) {
+                    ClassFileLocator classFileLocator;
+                    Set<String> names = new HashSet<String>();
+                    if (file.isDirectory()) {
+                        classFileLocator = new ForFolder(file);
+                        index(file, NamedElement.EMPTY_NAME, names);
+                    } else if (file.isFile()) {
+                        JarFile jarFile = new JarFile(file);
+                        try {
+                            Enumeration<JarEntry> enumeration = jarFile.entries();
+                            while (enumeration.hasMoreElements()) {
+                                String name = enumeration.nextElement().getName();
+                                if (name.endsWith(CLASS_FILE_EXTENSION)) {
+                                    int packageIndex = name.lastIndexOf('/');
+                                    names.add(packageIndex == -1
+                                            ? NamedElement.EMPTY_NAME
+                                            : name.substring(0, packageIndex).replace('/', '.'));
+                                }
+                            }
+                        } catch (RuntimeException exception) {
+                            jarFile.close();
+                            throw exception;
+                        }
+                        classFileLocator = new ForJarFile(jarFile);
+                    } else {
+                        continue;
+                    }
+                    classFileLocators.add(classFileLocator);
+                    for (String name : names) {
+                        List<ClassFileLocator> candidates = packages.get(name);
+                        if (candidates == null) {
+                            candidates = new ArrayList<ClassFileLocator>(1);
+                            packages.put(name, candidates);
+                        }
+                        candidates.add(classFileLocator);
+                    }
+                }
+                completed = true;
+            } finally {
+                if (!completed) {
+                    for (ClassFileLocator classFileLocator : classFileLocators) {
+                        classFileLocator.close();
+                    }
+                }
+            }
+            return new Indexed(packages, classFileLocators);
+        }
+
+        /**
+         * Indexes the packages of a folder that contain at least one class file.
+         *
+         * @param folder The folder to index.
+         * @param name   The name of the package that is represented by the folder.
+         * @param names  A set of package names to which any found package is added.
+         */
+        private static void index(File folder, String name, Set<String> names) {
+            File[] file = folder.listFiles();
+            if (file != null) {
+                for (File candidate : file) {
+                    if (candidate.isDirectory()) {
+                        index(candidate, name.length() == 0
+                                ? candidate.getName()
+                                : name + "." + candidate.getName(), names);
+                    } else if (candidate.getName().endsWith(CLASS_FILE_EXTENSION)) {
+                        names.add(name);
+                    }
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Resolution locate(String name) throws IOException {
+            int packageIndex = name.lastIndexOf('.');
+            List<ClassFileLocator> classFileLocators = packages.get(packageIndex == -1
+                    ? NamedElement.EMPTY_NAME
+                    : name.substring(0, packageIndex));
+            if (classFileLocators != null) {
+                for (ClassFileLocator classFileLocator : classFileLocators) {
+                    Resolution resolution = classFileLocator.locate(name);
+                    if (resolution.isResolved()) {
+                        return resolution;
+                    }
+                }
+            }
+            return new Resolution.Illegal(name);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void close() throws IOException {
+            for (ClassFileLocator classFileLocator : classFileLocators) {
+                classFileLocator.close();
+            }
+        }
+    }
+
     /**
      * A compound {@link ClassFileLocator} that chains several locators.
      * Any class file locator is queried in the supplied order until one locator is able to provide an input
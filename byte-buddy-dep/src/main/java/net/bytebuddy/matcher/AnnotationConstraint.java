@@ -0,0 +1,278 @@
+/*
+ * Copyright 2014 - Present Rafael Winterhalter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.bytebuddy.matcher;
+
+import net.bytebuddy.build.HashCodeAndEqualsPlugin;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.utility.ClassFileHeader;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <p>
+ * A conservative approximation of the annotations that a type must declare for an {@link ElementMatcher} to match it. An annotation
+ * constraint is derived from matchers such as {@link ElementMatchers#isAnnotatedWith(Class)} and their conjunctions and disjunctions.
+ * A constrained type can only be matched if it declares at least one of the constraint's annotations.
+ * </p>
+ * <p>
+ * As the descriptor of any declared annotation is contained in a class file's constant pool, an annotation constraint can be checked
+ * against a {@link ClassFileHeader} without parsing the class file's attributes.
+ * </p>
+ */
+@HashCodeAndEqualsPlugin.Enhance
+public class AnnotationConstraint {
+
+    /**
+     * An annotation constraint that is satisfied by any type.
+     */
+    private static final AnnotationConstraint UNCONSTRAINED = new AnnotationConstraint(false, Collections.<String>emptySet());
+
+    /**
+     * An annotation constraint that is not satisfied by any type.
+     */
+    private static final AnnotationConstraint UNSATISFIABLE = new AnnotationConstraint(true, Collections.<String>emptySet());
+
+    /**
+     * {@code true} if this annotation constraint is only satisfied by types that declare one of the represented annotations.
+     */
+    private final boolean constrained;
+
+    /**
+     * The descriptors of the annotations of which at least one must be declared to satisfy this constraint.
+     */
+    private final Set<String> descriptors;
+
+    /**
+     * Creates a new annotation constraint.
+     *
+     * @param constrained {@code true} if this annotation constraint is only satisfied by types that declare one of the represented annotations.
+     * @param descriptors The descriptors of the annotations of which at least one must be declared to satisfy this constraint.
+     */
+    protected AnnotationConstraint(boolean constrained, Set<String> descriptors) {
+        this.constrained = constrained;
+        this.descriptors = descriptors;
+    }
+
+    /**
+     * Returns an annotation constraint that is satisfied by any type.
+     *
+     * @return An annotation constraint that is satisfied by any type.
+     */
+    public static AnnotationConstraint unconstrained() {
+        return UNCONSTRAINED;
+    }
+
+    /**
+     * Returns an annotation constraint that is not satisfied by any type.
+     *
+     * @return An annotation constraint that is not satisfied by any type.
+     */
+    public static AnnotationConstraint unsatisfiable() {
+        return UNSATISFIABLE;
+    }
+
+    /**
+     * Resolves the annotation constraint of a matcher for annotated elements.
+     *
+     * @param matcher The matcher to resolve the annotation constraint for.
+     * @return The annotation constraint of the supplied matcher.
+     */
+    public static AnnotationConstraint of(ElementMatcher<?> matcher) {
+        return of(matcher, Sort.ANNOTATED_ELEMENT);
+    }
+
+    /**
+     * Resolves the annotation constraint of a matcher.
+     *
+     * @param matcher The matcher to resolve the annotation constraint for.
+     * @param sort    The sort of value that the matcher is applied to.
+     * @return The annotation constraint of the supplied matcher.
+     */
+    private static AnnotationConstraint of(ElementMatcher<?> matcher, Sort sort) {
+        if (matcher instanceof BooleanMatcher<?>) {
+            return ((BooleanMatcher<?>) matcher).matches
+                    ? UNCONSTRAINED
+                    : UNSATISFIABLE;
+        } else if (matcher instanceof ElementMatcher.Junction.Conjunction<?>) {
+            AnnotationConstraint annotationConstraint = UNCONSTRAINED;
+            for (ElementMatcher<?> element : ((ElementMatcher.Junction.Conjunction<?>) matcher).getMatchers()) {
+                annotationConstraint = annotationConstraint.and(of(element, sort));
+            }
+            return annotationConstraint;
+        } else if (matcher instanceof ElementMatcher.Junction.Disjunction<?>) {
+            AnnotationConstraint annotationConstraint = UNSATISFIABLE;
+            for (ElementMatcher<?> element : ((ElementMatcher.Junction.Disjunction<?>) matcher).getMatchers()) {
+                annotationConstraint = annotationConstraint.or(of(element, sort));
+            }
+            return annotationConstraint;
+        } else {
+            return sort.resolve(matcher);
+        }
+    }
+
+    /**
+     * Returns an annotation constraint that is only satisfied if this and the supplied constraint are satisfied. As the
+     * resulting constraint is conservative, it might be satisfied by types that only satisfy one of both constraints.
+     *
+     * @param annotationConstraint The other annotation constraint.
+     * @return An annotation constraint that represents a conjunction of this and the supplied constraint.
+     */
+    public AnnotationConstraint and(AnnotationConstraint annotationConstraint) {
+        if (!constrained) {
+            return annotationConstraint;
+        } else if (!annotationConstraint.constrained) {
+            return this;
+        } else {
+            return annotationConstraint.descriptors.size() < descriptors.size()
+                    ? annotationConstraint
+                    : this;
+        }
+    }
+
+    /**
+     * Returns an annotation constraint that is satisfied if this or the supplied constraint is satisfied.
+     *
+     * @param annotationConstraint The other annotation constraint.
+     * @return An annotation constraint that represents a disjunction of this and the supplied constraint.
+     */
+    public AnnotationConstraint or(AnnotationConstraint annotationConstraint) {
+        if (!constrained || !annotationConstraint.constrained) {
+            return UNCONSTRAINED;
+        }
+        Set<String> descriptors = new HashSet<String>(this.descriptors);
+        descriptors.addAll(annotationConstraint.descriptors);
+        return new AnnotationConstraint(true, descriptors);
+    }
+
+    /**
+     * Returns {@code true} if this annotation constraint is not satisfied by all types.
+     *
+     * @return {@code true} if this annotation constraint is not satisfied by all types.
+     */
+    public boolean isConstrained() {
+        return constrained;
+    }
+
+    /**
+     * Returns the descriptors of the annotations of which at least one must be declared to satisfy this constraint if it is constrained.
+     *
+     * @return The descriptors of the annotations of which at least one must be declared to satisfy this constraint if it is constrained.
+     */
+    public Set<String> getDescriptors() {
+        return descriptors;
+    }
+
+    /**
+     * Checks if a class file with the supplied header might satisfy this constraint.
+     *
+     * @param classFileHeader The header of the class file to check.
+     * @return {@code true} if the represented type might satisfy this constraint.
+     */
+    public boolean isSatisfiedBy(ClassFileHeader classFileHeader) {
+        if (!constrained) {
+            return true;
+        }
+        for (String descriptor : descriptors) {
+            if (classFileHeader.containsUtf8(descriptor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return constrained
+                ? "annotationConstraint(" + descriptors + ")"
+                : "annotationConstraint(unconstrained)";
+    }
+
+    /**
+     * Describes the sort of value that a matcher is applied to when resolving an annotation constraint.
+     */
+    protected enum Sort {
+
+        /**
+         * A matcher that is applied to an annotated element.
+         */
+        ANNOTATED_ELEMENT {
+            @Override
+            protected AnnotationConstraint resolve(ElementMatcher<?> matcher) {
+                return matcher instanceof DeclaringAnnotationMatcher<?>
+                        ? of(((DeclaringAnnotationMatcher<?>) matcher).getMatcher(), ANNOTATION_LIST)
+                        : UNCONSTRAINED;
+            }
+        },
+
+        /**
+         * A matcher that is applied to a list of declared annotations.
+         */
+        ANNOTATION_LIST {
+            @Override
+            protected AnnotationConstraint resolve(ElementMatcher<?> matcher) {
+                return matcher instanceof CollectionItemMatcher<?>
+                        ? of(((CollectionItemMatcher<?>) matcher).getMatcher(), ANNOTATION)
+                        : UNCONSTRAINED;
+            }
+        },
+
+        /**
+         * A matcher that is applied to an annotation.
+         */
+        ANNOTATION {
+            @Override
+            protected AnnotationConstraint resolve(ElementMatcher<?> matcher) {
+                return matcher instanceof AnnotationTypeMatcher<?>
+                        ? of(((AnnotationTypeMatcher<?>) matcher).getMatcher(), ANNOTATION_TYPE)
+                        : UNCONSTRAINED;
+            }
+        },
+
+        /**
+         * A matcher that is applied to an annotation's type.
+         */
+        ANNOTATION_TYPE {
+            @Override
+            protected AnnotationConstraint resolve(ElementMatcher<?> matcher) {
+                if (matcher instanceof EqualityMatcher<?> && ((EqualityMatcher<?>) matcher).getValue() instanceof TypeDescription) {
+                    return new AnnotationConstraint(true, Collections.singleton(((TypeDescription) ((EqualityMatcher<?>) matcher).getValue()).getDescriptor()));
+                } else if (matcher instanceof NameMatcher<?>) {
+                    NameConstraint nameConstraint = NameConstraint.of(matcher);
+                    if (!nameConstraint.isConstrained() || !nameConstraint.getPrefixes().isEmpty() || !nameConstraint.getSuffixes().isEmpty()) {
+                        return UNCONSTRAINED;
+                    }
+                    Set<String> descriptors = new HashSet<String>();
+                    for (String name : nameConstraint.getNames()) {
+                        descriptors.add("L" + name.replace('.', '/') + ";");
+                    }
+                    return new AnnotationConstraint(true, descriptors);
+                } else {
+                    return UNCONSTRAINED;
+                }
+            }
+        };
+
+        /**
+         * Resolves the annotation constraint of a matcher that is not a junction or a boolean matcher.
+         *
+         * @param matcher The matcher to resolve.
+         * @return The annotation constraint of the supplied matcher.
+         */
+        protected abstract AnnotationConstraint resolve(ElementMatcher<?> matcher);
+    }
+}
@@ -48,6 +48,15 @@ public class AnnotationTypeMatcher<T extends AnnotationDescription> extends Elem
         return matcher.matches(target.getAnnotationType());
     }
 
+    /**
+     * Returns the type matcher to apply to an annotation's type.
+     *
+     * @return The type matcher to apply to an annotation's type.
+     */
+    ElementMatcher<? super TypeDescription> getMatcher() {
+        return matcher;
+    }
+
     @Override
     public String toString() {
         return "ofAnnotationType(" + matcher + ')';
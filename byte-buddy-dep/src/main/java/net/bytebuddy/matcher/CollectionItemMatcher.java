@@ -52,6 +52,15 @@ public class CollectionItemMatcher<T> extends ElementMatcher.Junction.ForNonNull
         return false;
     }
 
+    /**
+     * Returns the element matcher to apply to each element of a collection.
+     *
+     * @return The element matcher to apply to each element of a collection.
+     */
+    ElementMatcher<? super T> getMatcher() {
+        return matcher;
+    }
+
     @Override
     public String toString() {
         return "whereOne(" + matcher + ")";
@@ -48,6 +48,15 @@ public class DeclaringAnnotationMatcher<T extends AnnotationSource> extends Elem
         return matcher.matches(target.getDeclaredAnnotations());
     }
 
+    /**
+     * Returns the matcher to be applied to the provided annotation list.
+     *
+     * @return The matcher to be applied to the provided annotation list.
+     */
+    ElementMatcher<? super AnnotationList> getMatcher() {
+        return matcher;
+    }
+
     @Override
     public String toString() {
         return "declaresAnnotations(" + matcher + ")";
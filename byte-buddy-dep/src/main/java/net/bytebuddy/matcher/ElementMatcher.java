@@ -137,6 +137,15 @@ public interface ElementMatcher<T> {
                 }
             }
 
+            /**
+             * Returns the element matchers that constitute this conjunction.
+             *
+             * @return The element matchers that constitute this conjunction.
+             */
+            List<ElementMatcher<? super W>> getMatchers() {
+                return matchers;
+            }
+
             /**
              * {@inheritDoc}
              */
@@ -205,6 +214,15 @@ public interface ElementMatcher<T> {
                 }
             }
 
+            /**
+             * Returns the element matchers that constitute this disjunction.
+             *
+             * @return The element matchers that constitute this disjunction.
+             */
+            List<ElementMatcher<? super W>> getMatchers() {
+                return matchers;
+            }
+
             /**
              * {@inheritDoc}
              */
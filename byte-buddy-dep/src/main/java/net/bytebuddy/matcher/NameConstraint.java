@@ -0,0 +1,302 @@
+/*
+ * Copyright 2014 - Present Rafael Winterhalter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.bytebuddy.matcher;
+
+import net.bytebuddy.build.HashCodeAndEqualsPlugin;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <p>
+ * A conservative approximation of the names of the elements that an {@link ElementMatcher} is able to match. A name constraint
+ * is derived from name matchers such as {@link ElementMatchers#named(String)}, {@link ElementMatchers#namedOneOf(String...)},
+ * {@link ElementMatchers#nameStartsWith(String)} or {@link ElementMatchers#nameEndsWith(String)} and their conjunctions and disjunctions.
+ * If an element's name does not satisfy a matcher's name constraint, the matcher does not match the element. A constrained name
+ * does however not imply a match.
+ * </p>
+ * <p>
+ * <b>Note</b>: A name constraint is evaluated against an element's actual name, i.e. a type's binary name if the type is not an array.
+ * </p>
+ */
+@HashCodeAndEqualsPlugin.Enhance
+public class NameConstraint {
+
+    /**
+     * A name constraint that is satisfied by any name.
+     */
+    private static final NameConstraint UNCONSTRAINED = new NameConstraint(false,
+            Collections.<String>emptySet(),
+            Collections.<String>emptySet(),
+            Collections.<String>emptySet());
+
+    /**
+     * A name constraint that is not satisfied by any name.
+     */
+    private static final NameConstraint UNSATISFIABLE = new NameConstraint(true,
+            Collections.<String>emptySet(),
+            Collections.<String>emptySet(),
+            Collections.<String>emptySet());
+
+    /**
+     * {@code true} if this name constraint is only satisfied by the represented names, prefixes and suffixes.
+     */
+    private final boolean constrained;
+
+    /**
+     * The names that satisfy this constraint.
+     */
+    private final Set<String> names;
+
+    /**
+     * The prefixes of names that satisfy this constraint.
+     */
+    private final Set<String> prefixes;
+
+    /**
+     * The suffixes of names that satisfy this constraint.
+     */
+    private final Set<String> suffixes;
+
+    /**
+     * Creates a new name constraint.
+     *
+     * @param constrained {@code true} if this name constraint is only satisfied by the represented names, prefixes and suffixes.
+     * @param names       The names that satisfy this constraint.
+     * @param prefixes    The prefixes of names that satisfy this constraint.
+     * @param suffixes    The suffixes of names that satisfy this constraint.
+     */
+    protected NameConstraint(boolean constrained, Set<String> names, Set<String> prefixes, Set<String> suffixes) {
+        this.constrained = constrained;
+        this.names = names;
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+    }
+
+    /**
+     * Returns a name constraint that is satisfied by any name.
+     *
+     * @return A name constraint that is satisfied by any name.
+     */
+    public static NameConstraint unconstrained() {
+        return UNCONSTRAINED;
+    }
+
+    /**
+     * Returns a name constraint that is not satisfied by any name.
+     *
+     * @return A name constraint that is not satisfied by any name.
+     */
+    public static NameConstraint unsatisfiable() {
+        return UNSATISFIABLE;
+    }
+
+    /**
+     * Resolves the name constraint of a matcher for named elements.
+     *
+     * @param matcher The matcher to resolve the name constraint for.
+     * @return The name constraint of the supplied matcher.
+     */
+    public static NameConstraint of(ElementMatcher<?> matcher) {
+        if (matcher instanceof NameMatcher<?>) {
+            return ofName(((NameMatcher<?>) matcher).getMatcher());
+        } else if (matcher instanceof BooleanMatcher<?>) {
+            return ((BooleanMatcher<?>) matcher).matches
+                    ? UNCONSTRAINED
+                    : UNSATISFIABLE;
+        } else if (matcher instanceof ElementMatcher.Junction.Conjunction<?>) {
+            NameConstraint nameConstraint = UNCONSTRAINED;
+            for (ElementMatcher<?> element : ((ElementMatcher.Junction.Conjunction<?>) matcher).getMatchers()) {
+                nameConstraint = nameConstraint.and(of(element));
+            }
+            return nameConstraint;
+        } else if (matcher instanceof ElementMatcher.Junction.Disjunction<?>) {
+            NameConstraint nameConstraint = UNSATISFIABLE;
+            for (ElementMatcher<?> element : ((ElementMatcher.Junction.Disjunction<?>) matcher).getMatchers()) {
+                nameConstraint = nameConstraint.or(of(element));
+            }
+            return nameConstraint;
+        } else {
+            return UNCONSTRAINED;
+        }
+    }
+
+    /**
+     * Resolves the name constraint of a matcher that is applied to an element's name.
+     *
+     * @param matcher The matcher that is applied to an element's name.
+     * @return The name constraint of the supplied matcher.
+     */
+    private static NameConstraint ofName(ElementMatcher<?> matcher) {
+        if (matcher instanceof StringMatcher) {
+            StringMatcher stringMatcher = (StringMatcher) matcher;
+            switch (stringMatcher.getMode()) {
+                case EQUALS_FULLY:
+                    return new NameConstraint(true,
+                            Collections.singleton(stringMatcher.getValue()),
+                            Collections.<String>emptySet(),
+                            Collections.<String>emptySet());
+                case STARTS_WITH:
+                    return new NameConstraint(true,
+                            Collections.<String>emptySet(),
+                            Collections.singleton(stringMatcher.getValue()),
+                            Collections.<String>emptySet());
+                case ENDS_WITH:
+                    return new NameConstraint(true,
+                            Collections.<String>emptySet(),
+                            Collections.<String>emptySet(),
+                            Collections.singleton(stringMatcher.getValue()));
+                default:
+                    return UNCONSTRAINED;
+            }
+        } else if (matcher instanceof StringSetMatcher) {
+            return new NameConstraint(true,
+                    ((StringSetMatcher) matcher).getValues(),
+                    Collections.<String>emptySet(),
+                    Collections.<String>emptySet());
+        } else if (matcher instanceof BooleanMatcher<?>) {
+            return ((BooleanMatcher<?>) matcher).matches
+                    ? UNCONSTRAINED
+                    : UNSATISFIABLE;
+        } else if (matcher instanceof ElementMatcher.Junction.Conjunction<?>) {
+            NameConstraint nameConstraint = UNCONSTRAINED;
+            for (ElementMatcher<?> element : ((ElementMatcher.Junction.Conjunction<?>) matcher).getMatchers()) {
+                nameConstraint = nameConstraint.and(ofName(element));
+            }
+            return nameConstraint;
+        } else if (matcher instanceof ElementMatcher.Junction.Disjunction<?>) {
+            NameConstraint nameConstraint = UNSATISFIABLE;
+            for (ElementMatcher<?> element : ((ElementMatcher.Junction.Disjunction<?>) matcher).getMatchers()) {
+                nameConstraint = nameConstraint.or(ofName(element));
+            }
+            return nameConstraint;
+        } else {
+            return UNCONSTRAINED;
+        }
+    }
+
+    /**
+     * Returns a name constraint that is only satisfied if this and the supplied constraint are satisfied. As the
+     * resulting constraint is conservative, it might be satisfied by names that only satisfy one of both constraints.
+     *
+     * @param nameConstraint The other name constraint.
+     * @return A name constraint that represents a conjunction of this and the supplied constraint.
+     */
+    public NameConstraint and(NameConstraint nameConstraint) {
+        if (!constrained) {
+            return nameConstraint;
+        } else if (!nameConstraint.constrained) {
+            return this;
+        } else {
+            return nameConstraint.size() < size()
+                    ? nameConstraint
+                    : this;
+        }
+    }
+
+    /**
+     * Returns a name constraint that is satisfied if this or the supplied constraint is satisfied.
+     *
+     * @param nameConstraint The other name constraint.
+     * @return A name constraint that represents a disjunction of this and the supplied constraint.
+     */
+    public NameConstraint or(NameConstraint nameConstraint) {
+        if (!constrained || !nameConstraint.constrained) {
+            return UNCONSTRAINED;
+        }
+        Set<String> names = new HashSet<String>(this.names), prefixes = new HashSet<String>(this.prefixes), suffixes = new HashSet<String>(this.suffixes);
+        names.addAll(nameConstraint.names);
+        prefixes.addAll(nameConstraint.prefixes);
+        suffixes.addAll(nameConstraint.suffixes);
+        return new NameConstraint(true, names, prefixes, suffixes);
+    }
+
+    /**
+     * Returns the number of names, prefixes and suffixes that constitute this constraint.
+     *
+     * @return The number of names, prefixes and suffixes that constitute this constraint.
+     */
+    private int size() {
+        return names.size() + prefixes.size() + suffixes.size();
+    }
+
+    /**
+     * Returns {@code true} if this name constraint is not satisfied by all names.
+     *
+     * @return {@code true} if this name constraint is not satisfied by all names.
+     */
+    public boolean isConstrained() {
+        return constrained;
+    }
+
+    /**
+     * Returns the names that satisfy this constraint if it is constrained.
+     *
+     * @return The names that satisfy this constraint if it is constrained.
+     */
+    public Set<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the prefixes of names that satisfy this constraint if it is constrained.
+     *
+     * @return The prefixes of names that satisfy this constraint if it is constrained.
+     */
+    public Set<String> getPrefixes() {
+        return prefixes;
+    }
+
+    /**
+     * Returns the suffixes of names that satisfy this constraint if it is constrained.
+     *
+     * @return The suffixes of names that satisfy this constraint if it is constrained.
+     */
+    public Set<String> getSuffixes() {
+        return suffixes;
+    }
+
+    /**
+     * Checks if the supplied name satisfies this constraint.
+     *
+     * @param name The name to check.
+     * @return {@code true} if the supplied name satisfies this constraint.
+     */
+    public boolean isSatisfiedBy(String name) {
+        if (!constrained || names.contains(name)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        for (String suffix : suffixes) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return constrained
+                ? "nameConstraint(names=" + names + ", prefixes=" + prefixes + ", suffixes=" + suffixes + ")"
+                : "nameConstraint(unconstrained)";
+    }
+}
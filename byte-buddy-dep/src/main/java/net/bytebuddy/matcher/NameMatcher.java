@@ -54,6 +54,15 @@ public class NameMatcher<T extends NamedElement> extends ElementMatcher.Junction
         return matcher.matches(target.getActualName());
     }
 
+    /**
+     * Returns the matcher that is applied to a byte code element's source code name.
+     *
+     * @return The matcher that is applied to a byte code element's source code name.
+     */
+    ElementMatcher<String> getMatcher() {
+        return matcher;
+    }
+
     @Override
     public String toString() {
         return "name(" + matcher + ")";
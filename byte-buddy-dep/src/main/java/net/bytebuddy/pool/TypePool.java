@@ -44,13 +44,29 @@ import org.objectweb.asm.signature.SignatureVisitor;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.meta.When;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.lang.annotation.Annotation;
 import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.GenericSignatureFormatError;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static net.bytebuddy.matcher.ElementMatchers.*;
@@ -404,687 +420,3679 @@ public interface TypePool {
         }
 
         /**
-         * A discriminating cache provider that delegates a type name to one of two caches.
+         * <p>
+         * A thread-safe cache provider that retains resolutions up to a maximum weight. Resolutions are weighed by a {@link Weigher}
+         * which, by default, considers each resolution to be of equal weight such that the maximum weight represents a maximum number
+         * of entries. If the maximum weight is exceeded, resolutions are evicted using a segmented least-recently-used policy: newly
+         * registered resolutions are kept in a probationary segment and are only moved to a protected segment once they are found
+         * again. Evictions are applied to the probationary segment first, such that types that are only described once do not
+         * displace types that are described repeatedly. A resolution is weighed again whenever it is found such that a resolution
+         * that was weighed before it was resolved reflects its weight once it is resolved.
+         * </p>
+         * <p>
+         * The cache is split into stripes that are locked independently of one another where each stripe retains an equal share of
+         * the maximum weight. This cache provider counts hits, misses and evictions which can be read to size the cache.
+         * </p>
          */
-        class Discriminating implements CacheProvider {
+        class Bounded implements CacheProvider {
 
             /**
-             * The matcher that determines which cache to use.
+             * The default number of stripes.
              */
-            private final ElementMatcher<String> matcher;
+            public static final int DEFAULT_CONCURRENCY = 16;
 
             /**
-             * The cache provider to use for matched types.
+             * The share of a stripe's maximum weight in percent that is retained by the protected segment.
              */
-            private final CacheProvider matched;
+            private static final int PROTECTED_SHARE = 80;
 
             /**
-             * The cache provider to use for unmatched types.
+             * The stripes of this cache.
              */
-            private final CacheProvider unmatched;
+            private final Stripe[] stripes;
 
             /**
-             * Creates a new discriminating cache provider.
+             * Creates a new bounded cache provider where each resolution is of equal weight.
              *
-             * @param matcher   The matcher that determines which cache to use.
-             * @param matched   The cache provider to use for matched types.
-             * @param unmatched The cache provider to use for unmatched types.
+             * @param maximumSize The maximum number of resolutions to retain.
              */
-            public Discriminating(ElementMatcher<String> matcher, CacheProvider matched, CacheProvider unmatched) {
-                this.matcher = matcher;
-                this.matched = matched;
-                this.unmatched = unmatched;
+            public Bounded(long maximumSize) {
+                this(maximumSize, Weigher.ForEntries.INSTANCE);
             }
 
             /**
-             * {@inheritDoc}
+             * Creates a new bounded cache provider.
+             *
+             * @param maximumWeight The maximum weight of all resolutions to retain.
+             * @param weigher       The weigher to use for determining a resolution's weight.
              */
-            @Nullable
-            public Resolution find(String name) {
-                return (matcher.matches(name) ? matched : unmatched).find(name);
+            public Bounded(long maximumWeight, Weigher weigher) {
+                this(maximumWeight, weigher, DEFAULT_CONCURRENCY);
             }
 
             /**
-             * {@inheritDoc}
+             * Creates a new bounded cache provider.
+             *
+             * @param maximumWeight The maximum weight of all resolutions to retain.
+             * @param weigher       The weigher to use for determining a resolution's weight.
+             * @param concurrency   The minimal number of stripes that can be accessed concurrently. The number of stripes is limited
+             *                      to the largest power of two that does not exceed the maximum weight.
              */
-            public Resolution register(String name, Resolution resolution) {
-                return (matcher.matches(name) ? matched : unmatched).register(name, resolution);
+            public Bounded(long maximumWeight, Weigher weigher, int concurrency) {
+                if (maximumWeight < 1) {
+                    throw new IllegalArgumentException("Maximum weight must be positive: " + maximumWeight);
+                } else if (concurrency < 1) {
+                    throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+                }
+                int size = 1;
+                while (size < concurrency && (long) size << 1 <= maximumWeight) {
+                    size <<= 1;
+                }
+                stripes = new Stripe[size];
+                for (int index = 0; index < size; index++) {
+                    long weight = maximumWeight / size + (index < maximumWeight % size ? 1 : 0);
+                    stripes[index] = new Stripe(weight, weight * PROTECTED_SHARE / 100, weigher);
+                }
             }
 
             /**
-             * {@inheritDoc}
+             * Returns a bounded cache provider that is prepopulated with the {@link Object} type. The {@link Object} type is pinned,
+             * i.e. it is neither weighed nor evicted and it is retained when the cache is cleared.
+             *
+             * @param maximumSize The maximum number of resolutions to retain.
+             * @return A bounded cache provider that is prepopulated with the {@link Object} type.
              */
-            public void clear() {
-                try {
-                    unmatched.clear();
-                } finally {
-                    matched.clear();
-                }
-            }
-        }
-    }
-
-    /**
-     * An empty type pool that cannot describe any type.
-     */
-    enum Empty implements TypePool {
-
-        /**
-         * The singleton instance.
-         */
-        INSTANCE;
-
-        /**
-         * {@inheritDoc}
-         */
-        public Resolution describe(String name) {
-            return new Resolution.Illegal(name);
-        }
-
-        /**
-         * {@inheritDoc}
-         */
-        public void clear() {
-            /* do nothing */
-        }
-    }
-
-    /**
-     * A base implementation of a {@link net.bytebuddy.pool.TypePool} that is managing a cache provider and
-     * that handles the description of array and primitive types.
-     */
-    @HashCodeAndEqualsPlugin.Enhance
-    abstract class AbstractBase implements TypePool {
-
-        /**
-         * A map of primitive types by their name.
-         */
-        protected static final Map<String, TypeDescription> PRIMITIVE_TYPES;
-
-        /**
-         * A map of primitive types by their descriptor.
-         */
-        protected static final Map<String, String> PRIMITIVE_DESCRIPTORS;
-
-        /**
-         * The array symbol as used by Java descriptors.
-         */
-        private static final String ARRAY_SYMBOL = "[";
-
-        /*
-         * Initializes the maps of primitive type names and descriptors.
-         */
-        static {
-            Map<String, TypeDescription> primitiveTypes = new HashMap<String, TypeDescription>();
-            Map<String, String> primitiveDescriptors = new HashMap<String, String>();
-            for (Class<?> type : new Class<?>[]{boolean.class,
-                    byte.class,
-                    short.class,
-                    char.class,
-                    int.class,
-                    long.class,
-                    float.class,
-                    double.class,
-                    void.class}) {
-                primitiveTypes.put(type.getName(), TypeDescription.ForLoadedType.of(type));
-                primitiveDescriptors.put(Type.getDescriptor(type), type.getName());
+            public static CacheProvider withObjectType(long maximumSize) {
+                Bounded cacheProvider = new Bounded(maximumSize);
+                cacheProvider.stripe(Object.class.getName()).pin(Object.class.getName(), new Resolution.Simple(TypeDescription.OBJECT));
+                return cacheProvider;
             }
-            PRIMITIVE_TYPES = Collections.unmodifiableMap(primitiveTypes);
-            PRIMITIVE_DESCRIPTORS = Collections.unmodifiableMap(primitiveDescriptors);
-        }
 
-        /**
-         * The cache provider of this instance.
-         */
-        protected final CacheProvider cacheProvider;
-
-        /**
-         * Creates a new instance.
-         *
-         * @param cacheProvider The cache provider to be used.
-         */
-        protected AbstractBase(CacheProvider cacheProvider) {
-            this.cacheProvider = cacheProvider;
-        }
-
-        /**
-         * {@inheritDoc}
-         */
-        public Resolution describe(String name) {
-            if (name.contains("/")) {
-                throw new IllegalArgumentException(name + " contains the illegal character '/'");
-            }
-            int arity = 0;
-            while (name.startsWith(ARRAY_SYMBOL)) {
-                arity++;
-                name = name.substring(1);
-            }
-            if (arity > 0) {
-                String primitiveName = PRIMITIVE_DESCRIPTORS.get(name);
-                name = primitiveName == null
-                        ? name.substring(1, name.length() - 1)
-                        : primitiveName;
-            }
-            TypeDescription typeDescription = PRIMITIVE_TYPES.get(name);
-            Resolution resolution = typeDescription == null
-                    ? cacheProvider.find(name)
-                    : new Resolution.Simple(typeDescription);
-            if (resolution == null) {
-                resolution = doCache(name, doDescribe(name));
+            /**
+             * Returns the stripe that is responsible for a given type name.
+             *
+             * @param name The name of the type.
+             * @return The stripe that is responsible for the type name.
+             */
+            private Stripe stripe(String name) {
+                int hash = name.hashCode();
+                hash ^= (hash >>> 16);
+                return stripes[hash & (stripes.length - 1)];
             }
-            return ArrayTypeResolution.of(resolution, arity);
-        }
-
-        /**
-         * Writes the resolution to the cache. This method should be overridden if the directly
-         * resolved instance should not be added to the cache.
-         *
-         * @param name       The name of the type.
-         * @param resolution The resolution for this type.
-         * @return The actual resolution for the type of this name that is stored in the cache.
-         */
-        protected Resolution doCache(String name, Resolution resolution) {
-            return cacheProvider.register(name, resolution);
-        }
-
-        /**
-         * {@inheritDoc}
-         */
-        public void clear() {
-            cacheProvider.clear();
-        }
-
-        /**
-         * Determines a resolution to a non-primitive, non-array type.
-         *
-         * @param name The name of the type to describe.
-         * @return A resolution to the type to describe.
-         */
-        protected abstract Resolution doDescribe(String name);
-
-        /**
-         * A lazy representation of the component type of an array.
-         */
-        protected interface ComponentTypeReference {
 
             /**
-             * Indicates that no component type is defined for the property.
+             * {@inheritDoc}
              */
             @Nullable
-            String NO_ARRAY = null;
+            public Resolution find(String name) {
+                return stripe(name).find(name);
+            }
 
             /**
-             * Lazily resolves the binary name of the array component type of an annotation value.
-             *
-             * @return The binary name of the component type of the array or {@code null} if the referenced type is not an array.
+             * {@inheritDoc}
              */
-            @Nullable
-            String resolve();
-        }
-
-        /**
-         * Implements a hierarchical view of type pools, similarly to class loader hierarchies. For every lookup, the parent type pool
-         * is asked first if it can resolve a type. Only if the parent (and potentially its parents) are unable to resolve a type,
-         * this instance is queried for a type description.
-         */
-        @HashCodeAndEqualsPlugin.Enhance
-        public abstract static class Hierarchical extends AbstractBase {
+            public Resolution register(String name, Resolution resolution) {
+                return stripe(name).register(name, resolution);
+            }
 
             /**
-             * The parent type pool.
+             * {@inheritDoc}
              */
-            private final TypePool parent;
+            public void clear() {
+                for (Stripe stripe : stripes) {
+                    stripe.clear();
+                }
+            }
 
             /**
-             * Creates a hierarchical type pool.
+             * Returns the number of lookups that found a resolution.
              *
-             * @param cacheProvider The cache provider to be used.
-             * @param parent        The parent type pool to be used.
+             * @return The number of lookups that found a resolution.
              */
-            protected Hierarchical(CacheProvider cacheProvider, TypePool parent) {
-                super(cacheProvider);
-                this.parent = parent;
+            public long getHitCount() {
+                long count = 0;
+                for (Stripe stripe : stripes) {
+                    count += stripe.getHitCount();
+                }
+                return count;
             }
 
             /**
-             * {@inheritDoc}
+             * Returns the number of lookups that did not find a resolution.
+             *
+             * @return The number of lookups that did not find a resolution.
              */
-            public Resolution describe(String name) {
-                Resolution resolution = parent.describe(name);
-                return resolution.isResolved()
-                        ? resolution
-                        : super.describe(name);
+            public long getMissCount() {
+                long count = 0;
+                for (Stripe stripe : stripes) {
+                    count += stripe.getMissCount();
+                }
+                return count;
             }
 
             /**
-             * {@inheritDoc}
+             * Returns the number of resolutions that were evicted to retain the maximum weight.
+             *
+             * @return The number of resolutions that were evicted.
              */
-            public void clear() {
-                try {
-                    parent.clear();
-                } finally {
-                    super.clear();
+            public long getEvictionCount() {
+                long count = 0;
+                for (Stripe stripe : stripes) {
+                    count += stripe.getEvictionCount();
                 }
+                return count;
             }
-        }
-
-        /**
-         * A resolution for a type that, if resolved, represents an array type.
-         */
-        @HashCodeAndEqualsPlugin.Enhance
-        protected static class ArrayTypeResolution implements Resolution {
 
             /**
-             * The underlying resolution that is represented by this instance.
+             * Returns the number of resolutions that are currently retained.
+             *
+             * @return The number of resolutions that are currently retained.
              */
-            private final Resolution resolution;
+            public int getSize() {
+                int size = 0;
+                for (Stripe stripe : stripes) {
+                    size += stripe.getSize();
+                }
+                return size;
+            }
 
             /**
-             * The arity of the represented array.
+             * Returns the weight of all resolutions that are currently retained.
+             *
+             * @return The weight of all resolutions that are currently retained.
              */
-            private final int arity;
+            public long getWeight() {
+                long weight = 0;
+                for (Stripe stripe : stripes) {
+                    weight += stripe.getWeight();
+                }
+                return weight;
+            }
 
             /**
-             * Creates a wrapper for another resolution that, if resolved, represents an array type.
-             *
-             * @param resolution The underlying resolution that is represented by this instance.
-             * @param arity      The arity of the represented array.
+             * A weigher determines the weight of a resolution. A weigher is invoked whenever a resolution is registered or found and
+             * must therefore not resolve a resolution that is not yet resolved, as for example a lazy resolution. Such a resolution
+             * should be weighed provisionally; it is weighed again once it is found.
              */
-            protected ArrayTypeResolution(Resolution resolution, int arity) {
-                this.resolution = resolution;
-                this.arity = arity;
+            public interface Weigher {
+
+                /**
+                 * Determines the weight of a resolution without resolving it.
+                 *
+                 * @param name       The name of the type.
+                 * @param resolution The resolution to weigh.
+                 * @return The weight of the resolution which must not be negative.
+                 */
+                int weigh(String name, Resolution resolution);
+
+                /**
+                 * A weigher that considers every resolution to be of equal weight.
+                 */
+                enum ForEntries implements Weigher {
+
+                    /**
+                     * The singleton instance.
+                     */
+                    INSTANCE;
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public int weigh(String name, Resolution resolution) {
+                        return 1;
+                    }
+                }
+
+                /**
+                 * A weigher that approximates a resolution's retained heap by the number of the represented type's declared members.
+                 * Only resolutions that already retain a type description are weighed by their members, as it is the case for a
+                 * {@link Resolution.Simple} or for a {@link Default.WithCompactStorage.CompactResolution} that is currently rehydrated.
+                 * Any other resolution, for example an unresolved or a lazy resolution, is of a weight of one.
+                 */
+                enum ForDeclaredMembers implements Weigher {
+
+                    /**
+                     * The singleton instance.
+                     */
+                    INSTANCE;
+
+                    /**
+                     * {@inheritDoc}
+                     */
+                    public int weigh(String name, Resolution resolution) {
+                        TypeDescription typeDescription;
+                        if (resolution instanceof Resolution.Simple) {
+                            typeDescription = resolution.resolve();
+                        } else if (resolution instanceof Default.WithCompactStorage.CompactResolution) {
+                            typeDescription = ((Default.WithCompactStorage.CompactResolution) resolution).getRehydrated();
+                        } else {
+                            typeDescription = null;
+                        }
+                        return typeDescription == null
+                                ? 1
+                                : 1 + typeDescription.getDeclaredFields().size() + typeDescription.getDeclaredMethods().size();
+                    }
+                }
             }
 
             /**
-             * Creates a wrapper for another resolution that, if resolved, represents an array type. The wrapper
-             * is only created if the arity is not zero. If the arity is zero, the given resolution is simply
-             * returned instead.
+             * A stripe of a bounded cache provider that applies a segmented least-recently-used eviction policy.
+             */
+            protected static class Stripe {
+
+                /**
+                 * The maximum weight of this stripe.
+                 */
+                private final long maximumWeight;
+
+                /**
+                 * The maximum weight of the protected segment.
+                 */
+                private final long protectedWeight;
+
+                /**
+                 * The weigher to use for determining a resolution's weight.
+                 */
+                private final Weigher weigher;
+
+                /**
+                 * Resolutions that are neither weighed nor evicted.
+                 */
+                private final Map<String, Resolution> pinned;
+
+                /**
+                 * The probationary segment in access order.
+                 */
+                private final LinkedHashMap<String, Entry> probationary;
+
+                /**
+                 * The protected segment in access order.
+                 */
+                private final LinkedHashMap<String, Entry> protectedEntries;
+
+                /**
+                 * The current weight of the probationary segment.
+                 */
+                private long currentProbationaryWeight;
+
+                /**
+                 * The current weight of the protected segment.
+                 */
+                private long currentProtectedWeight;
+
+                /**
+                 * The number of lookups that found a resolution.
+                 */
+                private long hitCount;
+
+                /**
+                 * The number of lookups that did not find a resolution.
+                 */
+                private long missCount;
+
+                /**
+                 * The number of evicted resolutions.
+                 */
+                private long evictionCount;
+
+                /**
+                 * Creates a new stripe.
+                 *
+                 * @param maximumWeight   The maximum weight of this stripe.
+                 * @param protectedWeight The maximum weight of the protected segment.
+                 * @param weigher         The weigher to use for determining a resolution's weight.
+                 */
+                protected Stripe(long maximumWeight, long protectedWeight, Weigher weigher) {
+                    this.maximumWeight = maximumWeight;
+                    this.protectedWeight = protectedWeight;
+                    this.weigher = weigher;
+                    pinned = new HashMap<String, Resolution>();
+                    probationary = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+                    protectedEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+                }
+
+                /**
+                 * Attempts to find a resolution, weighs it again and promotes it to the protected segment if it is found.
+                 *
+                 * @param name The name of the type.
+                 * @return The resolution of the type or {@code null} if no such resolution is retained.
+                 */
+                @Nullable
+                protected synchronized Resolution find(String name) {
+                    Resolution resolution = pinned.get(name);
+                    if (resolution != null) {
+                        hitCount++;
+                        return resolution;
+                    }
+                    Entry entry = protectedEntries.get(name);
+                    if (entry != null) {
+                        hitCount++;
+                        currentProtectedWeight += entry.reweigh(weigher, name);
+                    } else {
+                        entry = probationary.remove(name);
+                        if (entry == null) {
+                            missCount++;
+                            return UNRESOLVED;
+                        }
+                        hitCount++;
+                        currentProbationaryWeight -= entry.getWeight();
+                        entry.reweigh(weigher, name);
+                        protectedEntries.put(name, entry);
+                        currentProtectedWeight += entry.getWeight();
+                    }
+                    Iterator<Map.Entry<String, Entry>> iterator = protectedEntries.entrySet().iterator();
+                    while (currentProtectedWeight > protectedWeight && iterator.hasNext()) {
+                        Map.Entry<String, Entry> demoted = iterator.next();
+                        iterator.remove();
+                        currentProtectedWeight -= demoted.getValue().getWeight();
+                        probationary.put(demoted.getKey(), demoted.getValue());
+                        currentProbationaryWeight += demoted.getValue().getWeight();
+                    }
+                    evict(probationary);
+                    evict(protectedEntries);
+                    return entry.getResolution();
+                }
+
+                /**
+                 * Registers a resolution within the probationary segment if no resolution is retained for the type.
+                 *
+                 * @param name       The name of the type.
+                 * @param resolution The resolution to register.
+                 * @return The resolution that is registered for the type.
+                 */
+                protected synchronized Resolution register(String name, Resolution resolution) {
+                    Resolution pinned = this.pinned.get(name);
+                    if (pinned != null) {
+                        return pinned;
+                    }
+                    Entry entry = protectedEntries.get(name);
+                    if (entry == null) {
+                        entry = probationary.get(name);
+                    }
+                    if (entry != null) {
+                        return entry.getResolution();
+                    }
+                    entry = new Entry(resolution, weigher.weigh(name, resolution));
+                    probationary.put(name, entry);
+                    currentProbationaryWeight += entry.getWeight();
+                    evict(probationary);
+                    evict(protectedEntries);
+                    return resolution;
+                }
+
+                /**
+                 * Pins a resolution such that it is neither weighed nor evicted and such that it is retained when this stripe is cleared.
+                 *
+                 * @param name       The name of the type.
+                 * @param resolution The resolution to pin.
+                 */
+                protected synchronized void pin(String name, Resolution resolution) {
+                    pinned.put(name, resolution);
+                }
+
+                /**
+                 * Evicts the least-recently used resolutions of a segment until the maximum weight is no longer exceeded.
+                 *
+                 * @param segment The segment to evict resolutions from.
+                 */
+                private void evict(Map<String, Entry> segment) {
+                    Iterator<Entry> iterator = segment.values().iterator();
+                    while (currentProbationaryWeight + currentProtectedWeight > maximumWeight && iterator.hasNext()) {
+                        Entry evicted = iterator.next();
+                        iterator.remove();
+                        if (segment == probationary) {
+                            currentProbationaryWeight -= evicted.getWeight();
+                        } else {
+                            currentProtectedWeight -= evicted.getWeight();
+                        }
+                        evictionCount++;
+                    }
+                }
+
+                /**
+                 * Clears this stripe.
+                 */
+                protected synchronized void clear() {
+                    probationary.clear();
+                    protectedEntries.clear();
+                    currentProbationaryWeight = 0;
+                    currentProtectedWeight = 0;
+                }
+
+                /**
+                 * Returns the number of lookups that found a resolution.
+                 *
+                 * @return The number of lookups that found a resolution.
+                 */
+                protected synchronized long getHitCount() {
+                    return hitCount;
+                }
+
+                /**
+                 * Returns the number of lookups that did not find a resolution.
+                 *
+                 * @return The number of lookups that did not find a resolution.
+                 */
+                protected synchronized long getMissCount() {
+                    return missCount;
+                }
+
+                /**
+                 * Returns the number of evicted resolutions.
+                 *
+                 * @return The number of evicted resolutions.
+                 */
+                protected synchronized long getEvictionCount() {
+                    return evictionCount;
+                }
+
+                /**
+                 * Returns the number of retained resolutions.
+                 *
+                 * @return The number of retained resolutions.
+                 */
+                protected synchronized int getSize() {
+                    return pinned.size() + probationary.size() + protectedEntries.size();
+                }
+
+                /**
+                 * Returns the weight of all retained resolutions.
+                 *
+                 * @return The weight of all retained resolutions.
+                 */
+                protected synchronized long getWeight() {
+                    return currentProbationaryWeight + currentProtectedWeight;
+                }
+
+                /**
+                 * An entry of a stripe.
+                 */
+                protected static class Entry {
+
+                    /**
+                     * The retained resolution.
+                     */
+                    private final Resolution resolution;
+
+                    /**
+                     * The weight of the resolution.
+                     */
+                    private int weight;
+
+                    /**
+                     * Creates a new entry.
+                     *
+                     * @param resolution The retained resolution.
+                     * @param weight     The weight of the resolution.
+                     */
+                    protected Entry(Resolution resolution, int weight) {
+                        this.resolution = resolution;
+                        this.weight = weight;
+                    }
+
+                    /**
+                     * Returns the retained resolution.
+                     *
+                     * @return The retained resolution.
+                     */
+                    protected Resolution getResolution() {
+                        return resolution;
+                    }
+
+                    /**
+                     * Returns the weight of the resolution.
+                     *
+                     * @return The weight of the resolution.
+                     */
+                    protected int getWeight() {
+                        return weight;
+                    }
+
+                    /**
+                     * Weighs the resolution again.
+                     *
+                     * @param weigher The weigher to use.
+                     * @param name    The name of the type.
+                     * @return The difference of the resolution's new weight to its previous weight.
+                     */
+                    protected int reweigh(Weigher weigher, String name) {
+                        int weight = weigher.weigh(name, resolution), difference = weight - this.weight;
+                        this.weight = weight;
+                        return difference;
+                    }
+                }
+            }
+        }
+
+        /**
+         * A discriminating cache provider that delegates a type name to one of two caches.
+         */
+        class Discriminating implements CacheProvider {
+
+            /**
+             * The matcher that determines which cache to use.
+             */
+            private final ElementMatcher<String> matcher;
+
+            /**
+             * The cache provider to use for matched types.
+             */
+            private final CacheProvider matched;
+
+            /**
+             * The cache provider to use for unmatched types.
+             */
+            private final CacheProvider unmatched;
+
+            /**
+             * Creates a new discriminating cache provider.
              *
-             * @param resolution The underlying resolution that is represented by this instance.
-             * @param arity      The arity of the represented array.
-             * @return A wrapper for another resolution that, if resolved, represents an array type or the
-             * given resolution if the given arity is zero.
+             * @param matcher   The matcher that determines which cache to use.
+             * @param matched   The cache provider to use for matched types.
+             * @param unmatched The cache provider to use for unmatched types.
              */
-            protected static Resolution of(Resolution resolution, int arity) {
-                return arity == 0
-                        ? resolution
-                        : new ArrayTypeResolution(resolution, arity);
+            public Discriminating(ElementMatcher<String> matcher, CacheProvider matched, CacheProvider unmatched) {
+                this.matcher = matcher;
+                this.matched = matched;
+                this.unmatched = unmatched;
             }
 
             /**
              * {@inheritDoc}
              */
-            public boolean isResolved() {
-                return resolution.isResolved();
+            @Nullable
+            public Resolution find(String name) {
+                return (matcher.matches(name) ? matched : unmatched).find(name);
             }
 
             /**
              * {@inheritDoc}
              */
-            public TypeDescription resolve() {
-                return TypeDescription.ArrayProjection.of(resolution.resolve(), arity);
+            public Resolution register(String name, Resolution resolution) {
+                return (matcher.matches(name) ? matched : unmatched).register(name, resolution);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public void clear() {
+                try {
+                    unmatched.clear();
+                } finally {
+                    matched.clear();
+                }
             }
         }
     }
 
     /**
-     * <p>
-     * A default implementation of a {@link net.bytebuddy.pool.TypePool} that models binary data in the Java byte code format
-     * into a {@link TypeDescription}. The data lookup is delegated to a {@link net.bytebuddy.dynamic.ClassFileLocator}.
-     * </p>
-     * <p>
-     * {@link Resolution}s that are produced by this type pool are either fully resolved or not resolved at all.
-     * </p>
+     * An empty type pool that cannot describe any type.
      */
-    @HashCodeAndEqualsPlugin.Enhance
-    class Default extends AbstractBase.Hierarchical {
+    enum Empty implements TypePool {
 
         /**
-         * Indicates that a visited method should be ignored.
+         * The singleton instance.
          */
-        @Nonnull(when = When.NEVER)
-        private static final MethodVisitor IGNORE_METHOD = null;
+        INSTANCE;
 
         /**
-         * The locator to query for finding binary data of a type.
+         * {@inheritDoc}
          */
-        protected final ClassFileLocator classFileLocator;
+        public Resolution describe(String name) {
+            return new Resolution.Illegal(name);
+        }
 
         /**
-         * The reader mode to apply by this default type pool.
+         * {@inheritDoc}
          */
-        protected final ReaderMode readerMode;
-
+        public void clear() {
+            /* do nothing */
+        }
+    }
+
+    /**
+     * A base implementation of a {@link net.bytebuddy.pool.TypePool} that is managing a cache provider and
+     * that handles the description of array and primitive types.
+     */
+    @HashCodeAndEqualsPlugin.Enhance
+    abstract class AbstractBase implements TypePool {
+
         /**
-         * Creates a new default type pool without a parent pool.
-         *
-         * @param cacheProvider    The cache provider to be used.
-         * @param classFileLocator The class file locator to be used.
-         * @param readerMode       The reader mode to apply by this default type pool.
+         * A map of primitive types by their name.
          */
-        public Default(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode) {
-            this(cacheProvider, classFileLocator, readerMode, Empty.INSTANCE);
-        }
+        protected static final Map<String, TypeDescription> PRIMITIVE_TYPES;
 
         /**
-         * Creates a new default type pool.
-         *
-         * @param cacheProvider    The cache provider to be used.
-         * @param classFileLocator The class file locator to be used.
-         * @param readerMode       The reader mode to apply by this default type pool.
-         * @param parentPool       The parent type pool.
+         * A map of primitive types by their descriptor.
          */
-        public Default(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode, TypePool parentPool) {
-            super(cacheProvider, parentPool);
-            this.classFileLocator = classFileLocator;
-            this.readerMode = readerMode;
-        }
+        protected static final Map<String, String> PRIMITIVE_DESCRIPTORS;
 
         /**
-         * Creates a default {@link net.bytebuddy.pool.TypePool} that looks up data by querying the system class
-         * loader. The returned instance is configured to use a fast reading mode and a simple cache.
-         *
-         * @return A type pool that reads its data from the system class loader.
+         * The array symbol as used by Java descriptors.
          */
-        public static TypePool ofSystemLoader() {
-            return of(ClassFileLocator.ForClassLoader.ofSystemLoader());
+        private static final String ARRAY_SYMBOL = "[";
+
+        /*
+         * Initializes the maps of primitive type names and descriptors.
+         */
+        static {
+            Map<String, TypeDescription> primitiveTypes = new HashMap<String, TypeDescription>();
+            Map<String, String> primitiveDescriptors = new HashMap<String, String>();
+            for (Class<?> type : new Class<?>[]{boolean.class,
+                    byte.class,
+                    short.class,
+                    char.class,
+                    int.class,
+                    long.class,
+                    float.class,
+                    double.class,
+                    void.class}) {
+                primitiveTypes.put(type.getName(), TypeDescription.ForLoadedType.of(type));
+                primitiveDescriptors.put(Type.getDescriptor(type), type.getName());
+            }
+            PRIMITIVE_TYPES = Collections.unmodifiableMap(primitiveTypes);
+            PRIMITIVE_DESCRIPTORS = Collections.unmodifiableMap(primitiveDescriptors);
         }
 
         /**
-         * Creates a default {@link net.bytebuddy.pool.TypePool} that looks up data by querying the plaform class
-         * loader. The returned instance is configured to use a fast reading mode and a simple cache. If the current
-         * VM is of version 8 or older, the extension class loader is represented instead.
-         *
-         * @return A type pool that reads its data from the platform class path.
+         * The cache provider of this instance.
          */
-        public static TypePool ofPlatformLoader() {
-            return of(ClassFileLocator.ForClassLoader.ofPlatformLoader());
-        }
+        protected final CacheProvider cacheProvider;
 
         /**
-         * Creates a default {@link net.bytebuddy.pool.TypePool} that looks up data by querying the boot class
-         * loader. The returned instance is configured to use a fast reading mode and a simple cache.
+         * Creates a new instance.
          *
-         * @return A type pool that reads its data from the boot class loader.
+         * @param cacheProvider The cache provider to be used.
          */
-        public static TypePool ofBootLoader() {
-            return of(ClassFileLocator.ForClassLoader.ofBootLoader());
+        protected AbstractBase(CacheProvider cacheProvider) {
+            this.cacheProvider = cacheProvider;
         }
 
         /**
-         * Returns a type pool for the provided class loader.
-         *
-         * @param classLoader The class loader for which this class pool is representing types.
-         * @return An appropriate type pool.
+         * {@inheritDoc}
          */
-        public static TypePool of(@Nullable ClassLoader classLoader) {
-            return of(ClassFileLocator.ForClassLoader.of(classLoader));
+        public Resolution describe(String name) {
+            if (name.contains("/")) {
+                throw new IllegalArgumentException(name + " contains the illegal character '/'");
+            }
+            int arity = 0;
+            while (name.startsWith(ARRAY_SYMBOL)) {
+                arity++;
+                name = name.substring(1);
+            }
+            if (arity > 0) {
+                String primitiveName = PRIMITIVE_DESCRIPTORS.get(name);
+                name = primitiveName == null
+                        ? name.substring(1, name.length() - 1)
+                        : primitiveName;
+            }
+            TypeDescription typeDescription = PRIMITIVE_TYPES.get(name);
+            Resolution resolution = typeDescription == null
+                    ? cacheProvider.find(name)
+                    : new Resolution.Simple(typeDescription);
+            if (resolution == null) {
+                resolution = doCache(name, doDescribe(name));
+            }
+            return ArrayTypeResolution.of(resolution, arity);
         }
 
         /**
-         * Creates a default {@link net.bytebuddy.pool.TypePool} that looks up data by querying the supplied class
-         * file locator. The returned instance is configured to use a fast reading mode and a simple cache.
+         * Writes the resolution to the cache. This method should be overridden if the directly
+         * resolved instance should not be added to the cache.
          *
-         * @param classFileLocator The class file locator to use.
-         * @return A type pool that reads its data from the system class path.
+         * @param name       The name of the type.
+         * @param resolution The resolution for this type.
+         * @return The actual resolution for the type of this name that is stored in the cache.
          */
-        public static TypePool of(ClassFileLocator classFileLocator) {
-            return new Default(new CacheProvider.Simple(), classFileLocator, ReaderMode.FAST);
+        protected Resolution doCache(String name, Resolution resolution) {
+            return cacheProvider.register(name, resolution);
         }
 
-        @Override
-        protected Resolution doDescribe(String name) {
-            try {
-                ClassFileLocator.Resolution resolution = classFileLocator.locate(name);
-                return resolution.isResolved()
-                        ? new Resolution.Simple(parse(resolution.resolve()))
-                        : new Resolution.Illegal(name);
-            } catch (IOException exception) {
-                throw new IllegalStateException("Error while reading class file", exception);
-            }
+        /**
+         * {@inheritDoc}
+         */
+        public void clear() {
+            cacheProvider.clear();
         }
 
         /**
-         * Parses a binary representation and transforms it into a type description.
+         * Determines a resolution to a non-primitive, non-array type.
          *
-         * @param binaryRepresentation The binary data to be parsed.
-         * @return A type description of the binary data.
+         * @param name The name of the type to describe.
+         * @return A resolution to the type to describe.
          */
-        private TypeDescription parse(byte[] binaryRepresentation) {
-            ClassReader classReader = OpenedClassReader.of(binaryRepresentation);
-            TypeExtractor typeExtractor = new TypeExtractor();
-            classReader.accept(typeExtractor, readerMode.getFlags());
-            return typeExtractor.toTypeDescription();
-        }
+        protected abstract Resolution doDescribe(String name);
 
         /**
-         * Determines the granularity of the class file parsing that is conducted by a {@link net.bytebuddy.pool.TypePool.Default}.
+         * A lazy representation of the component type of an array.
          */
-        public enum ReaderMode {
+        protected interface ComponentTypeReference {
 
             /**
-             * The extended reader mode parses the code segment of each method in order to detect parameter names
-             * that are only stored in a method's debugging information but are not explicitly included.
+             * Indicates that no component type is defined for the property.
              */
-            EXTENDED(ClassReader.SKIP_FRAMES),
+            @Nullable
+            String NO_ARRAY = null;
 
             /**
-             * The fast reader mode skips the code segment of each method and cannot detect parameter names that are
-             * only contained within the debugging information. This mode still detects explicitly included method
-             * parameter names.
+             * Lazily resolves the binary name of the array component type of an annotation value.
+             *
+             * @return The binary name of the component type of the array or {@code null} if the referenced type is not an array.
              */
-            FAST(ClassReader.SKIP_CODE);
+            @Nullable
+            String resolve();
+        }
+
+        /**
+         * Implements a hierarchical view of type pools, similarly to class loader hierarchies. For every lookup, the parent type pool
+         * is asked first if it can resolve a type. Only if the parent (and potentially its parents) are unable to resolve a type,
+         * this instance is queried for a type description.
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        public abstract static class Hierarchical extends AbstractBase {
 
             /**
-             * The flags to provide to a {@link ClassReader} for parsing a file.
+             * The parent type pool.
              */
-            private final int flags;
+            private final TypePool parent;
 
             /**
-             * Creates a new reader mode constant.
+             * Creates a hierarchical type pool.
              *
-             * @param flags The flags to provide to a {@link ClassReader} for parsing a file.
+             * @param cacheProvider The cache provider to be used.
+             * @param parent        The parent type pool to be used.
              */
-            ReaderMode(int flags) {
-                this.flags = flags;
+            protected Hierarchical(CacheProvider cacheProvider, TypePool parent) {
+                super(cacheProvider);
+                this.parent = parent;
             }
 
             /**
-             * Returns the flags to provide to a {@link ClassReader} for parsing a file.
-             *
-             * @return The flags to provide to a {@link ClassReader} for parsing a file.
+             * {@inheritDoc}
              */
-            protected int getFlags() {
-                return flags;
+            public Resolution describe(String name) {
+                Resolution resolution = parent.describe(name);
+                return resolution.isResolved()
+                        ? resolution
+                        : super.describe(name);
             }
 
             /**
-             * Determines if this reader mode represents extended reading.
-             *
-             * @return {@code true} if this reader mode represents extended reading.
+             * {@inheritDoc}
              */
-            public boolean isExtended() {
-                return this == EXTENDED;
+            public void clear() {
+                try {
+                    parent.clear();
+                } finally {
+                    super.clear();
+                }
             }
         }
 
         /**
-         * <p>
-         * A variant of {@link TypePool.Default} that resolves type descriptions lazily. A lazy resolution respects this type
-         * pool's {@link CacheProvider} but requeries this cache pool for every access of a property of a {@link TypeDescription}.
-         * </p>
-         * <p>
-         * {@link Resolution}s of this type pool are only fully resolved if a property that is not the type's name is required.
-         * </p>
+         * A resolution for a type that, if resolved, represents an array type.
          */
-        public static class WithLazyResolution extends Default {
+        @HashCodeAndEqualsPlugin.Enhance
+        protected static class ArrayTypeResolution implements Resolution {
 
             /**
-             * Creates a new default type pool with lazy resolution and without a parent pool.
-             *
-             * @param cacheProvider    The cache provider to be used.
-             * @param classFileLocator The class file locator to be used.
-             * @param readerMode       The reader mode to apply by this default type pool.
+             * The underlying resolution that is represented by this instance.
              */
-            public WithLazyResolution(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode) {
-                this(cacheProvider, classFileLocator, readerMode, Empty.INSTANCE);
-            }
+            private final Resolution resolution;
 
             /**
-             * Creates a new default type pool with lazy resolution.
-             *
-             * @param cacheProvider    The cache provider to be used.
-             * @param classFileLocator The class file locator to be used.
-             * @param readerMode       The reader mode to apply by this default type pool.
-             * @param parentPool       The parent type pool.
+             * The arity of the represented array.
              */
-            public WithLazyResolution(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode, TypePool parentPool) {
-                super(cacheProvider, classFileLocator, readerMode, parentPool);
-            }
+            private final int arity;
 
             /**
-             * Creates a default {@link net.bytebuddy.pool.TypePool} with lazy resolution that looks up data by querying the system class
-             * loader. The returned instance is configured to use a fast reading mode and a simple cache.
+             * Creates a wrapper for another resolution that, if resolved, represents an array type.
              *
-             * @return A type pool that reads its data from the system class loader.
-             */
+             * @param resolution The underlying resolution that is represented by this instance.
+             * @param arity      The arity of the represented array.
+             */
+            protected ArrayTypeResolution(Resolution resolution, int arity) {
+                this.resolution = resolution;
+                this.arity = arity;
+            }
+
+            /**
+             * Creates a wrapper for another resolution that, if resolved, represents an array type. The wrapper
+             * is only created if the arity is not zero. If the arity is zero, the given resolution is simply
+             * returned instead.
+             *
+             * @param resolution The underlying resolution that is represented by this instance.
+             * @param arity      The arity of the represented array.
+             * @return A wrapper for another resolution that, if resolved, represents an array type or the
+             * given resolution if the given arity is zero.
+             */
+            protected static Resolution of(Resolution resolution, int arity) {
+                return arity == 0
+                        ? resolution
+                        : new ArrayTypeResolution(resolution, arity);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public boolean isResolved() {
+                return resolution.isResolved();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public TypeDescription resolve() {
+                return TypeDescription.ArrayProjection.of(resolution.resolve(), arity);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * A default implementation of a {@link net.bytebuddy.pool.TypePool} that models binary data in the Java byte code format
+     * into a {@link TypeDescription}. The data lookup is delegated to a {@link net.bytebuddy.dynamic.ClassFileLocator}.
+     * </p>
+     * <p>
+     * {@link Resolution}s that are produced by this type pool are either fully resolved or not resolved at all.
+     * </p>
+     */
+    @HashCodeAndEqualsPlugin.Enhance
+    class Default extends AbstractBase.Hierarchical {
+
+        /**
+         * Indicates that a visited method should be ignored.
+         */
+        @Nonnull(when = When.NEVER)
+        private static final MethodVisitor IGNORE_METHOD = null;
+
+        /**
+         * The locator to query for finding binary data of a type.
+         */
+        protected final ClassFileLocator classFileLocator;
+
+        /**
+         * The reader mode to apply by this default type pool.
+         */
+        protected final ReaderMode readerMode;
+
+        /**
+         * Creates a new default type pool without a parent pool.
+         *
+         * @param cacheProvider    The cache provider to be used.
+         * @param classFileLocator The class file locator to be used.
+         * @param readerMode       The reader mode to apply by this default type pool.
+         */
+        public Default(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode) {
+            this(cacheProvider, classFileLocator, readerMode, Empty.INSTANCE);
+        }
+
+        /**
+         * Creates a new default type pool.
+         *
+         * @param cacheProvider    The cache provider to be used.
+         * @param classFileLocator The class file locator to be used.
+         * @param readerMode       The reader mode to apply by this default type pool.
+         * @param parentPool       The parent type pool.
+         */
+        public Default(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode, TypePool parentPool) {
+            super(cacheProvider, parentPool);
+            this.classFileLocator = classFileLocator;
+            this.readerMode = readerMode;
+        }
+
+        /**
+         * Creates a default {@link net.bytebuddy.pool.TypePool} that looks up data by querying the system class
+         * loader. The returned instance is configured to use a fast reading mode and a simple cache.
+         *
+         * @return A type pool that reads its data from the system class loader.
+         */
+        public static TypePool ofSystemLoader() {
+            return of(ClassFileLocator.ForClassLoader.ofSystemLoader());
+        }
+
+        /**
+         * Creates a default {@link net.bytebuddy.pool.TypePool} that looks up data by querying the plaform class
+         * loader. The returned instance is configured to use a fast reading mode and a simple cache. If the current
+         * VM is of version 8 or older, the extension class loader is represented instead.
+         *
+         * @return A type pool that reads its data from the platform class path.
+         */
+        public static TypePool ofPlatformLoader() {
+            return of(ClassFileLocator.ForClassLoader.ofPlatformLoader());
+        }
+
+        /**
+         * Creates a default {@link net.bytebuddy.pool.TypePool} that looks up data by querying the boot class
+         * loader. The returned instance is configured to use a fast reading mode and a simple cache.
+         *
+         * @return A type pool that reads its data from the boot class loader.
+         */
+        public static TypePool ofBootLoader() {
+            return of(ClassFileLocator.ForClassLoader.ofBootLoader());
+        }
+
+        /**
+         * Returns a type pool for the provided class loader.
+         *
+         * @param classLoader The class loader for which this class pool is representing types.
+         * @return An appropriate type pool.
+         */
+        public static TypePool of(@Nullable ClassLoader classLoader) {
+            return of(ClassFileLocator.ForClassLoader.of(classLoader));
+        }
+
+        /**
+         * Creates a default {@link net.bytebuddy.pool.TypePool} that looks up data by querying the supplied class
+         * file locator. The returned instance is configured to use a fast reading mode and a simple cache.
+         *
+         * @param classFileLocator The class file locator to use.
+         * @return A type pool that reads its data from the system class path.
+         */
+        public static TypePool of(ClassFileLocator classFileLocator) {
+            return new Default(new CacheProvider.Simple(), classFileLocator, ReaderMode.FAST);
+        }
+
+        @Override
+        protected Resolution doDescribe(String name) {
+            try {
+                ClassFileLocator.Resolution resolution = classFileLocator.locate(name);
+                return resolution.isResolved()
+                        ? new Resolution.Simple(parse(resolution.resolve()))
+                        : new Resolution.Illegal(name);
+            } catch (IOException exception) {
+                throw new IllegalStateException("Error while reading class file", exception);
+            }
+        }
+
+        /**
+         * Parses a binary representation and transforms it into a type description.
+         *
+         * @param binaryRepresentation The binary data to be parsed.
+         * @return A type description of the binary data.
+         */
+        private TypeDescription parse(byte[] binaryRepresentation) {
+            ClassReader classReader = OpenedClassReader.of(binaryRepresentation);
+            TypeExtractor typeExtractor = new TypeExtractor();
+            classReader.accept(typeExtractor, readerMode.getFlags());
+            return typeExtractor.toTypeDescription();
+        }
+
+        /**
+         * Determines the granularity of the class file parsing that is conducted by a {@link net.bytebuddy.pool.TypePool.Default}.
+         */
+        public enum ReaderMode {
+
+            /**
+             * The extended reader mode parses the code segment of each method in order to detect parameter names
+             * that are only stored in a method's debugging information but are not explicitly included.
+             */
+            EXTENDED(ClassReader.SKIP_FRAMES),
+
+            /**
+             * The fast reader mode skips the code segment of each method and cannot detect parameter names that are
+             * only contained within the debugging information. This mode still detects explicitly included method
+             * parameter names.
+             */
+            FAST(ClassReader.SKIP_CODE);
+
+            /**
+             * The flags to provide to a {@link ClassReader} for parsing a file.
+             */
+            private final int flags;
+
+            /**
+             * Creates a new reader mode constant.
+             *
+             * @param flags The flags to provide to a {@link ClassReader} for parsing a file.
+             */
+            ReaderMode(int flags) {
+                this.flags = flags;
+            }
+
+            /**
+             * Returns the flags to provide to a {@link ClassReader} for parsing a file.
+             *
+             * @return The flags to provide to a {@link ClassReader} for parsing a file.
+             */
+            protected int getFlags() {
+                return flags;
+            }
+
+            /**
+             * Determines if this reader mode represents extended reading.
+             *
+             * @return {@code true} if this reader mode represents extended reading.
+             */
+            public boolean isExtended() {
+                return this == EXTENDED;
+            }
+        }
+
+        /**
+         * <p>
+         * A variant of {@link TypePool.Default} that resolves type descriptions lazily. A lazy resolution respects this type
+         * pool's {@link CacheProvider} but requeries this cache pool for every access of a property of a {@link TypeDescription}.
+         * </p>
+         * <p>
+         * {@link Resolution}s of this type pool are only fully resolved if a property that is not the type's name is required.
+         * </p>
+         */
+        public static class WithLazyResolution extends Default {
+
+            /**
+             * Creates a new default type pool with lazy resolution and without a parent pool.
+             *
+             * @param cacheProvider    The cache provider to be used.
+             * @param classFileLocator The class file locator to be used.
+             * @param readerMode       The reader mode to apply by this default type pool.
+             */
+            public WithLazyResolution(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode) {
+                this(cacheProvider, classFileLocator, readerMode, Empty.INSTANCE);
+            }
+
+            /**
+             * Creates a new default type pool with lazy resolution.
+             *
+             * @param cacheProvider    The cache provider to be used.
+             * @param classFileLocator The class file locator to be used.
+             * @param readerMode       The reader mode to apply by this default type pool.
+             * @param parentPool       The parent type pool.
+             */
+            public WithLazyResolution(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode, TypePool parentPool) {
+                super(cacheProvider, classFileLocator, readerMode, parentPool);
+            }
+
+            /**
+             * Creates a default {@link net.bytebuddy.pool.TypePool} with lazy resolution that looks up data by querying the system class
+             * loader. The returned instance is configured to use a fast reading mode and a simple cache.
+             *
+             * @return A type pool that reads its data from the system class loader.
+             */
             public static TypePool ofSystemLoader() {
                 return of(ClassFileLocator.ForClassLoader.ofSystemLoader());
             }
 
             /**
-             * Creates a default {@link net.bytebuddy.pool.TypePool} with lazy resolution that looks up data by querying the platform class
-             * loader. The returned instance is configured to use a fast reading mode and a simple cache. If the current VM is Java 8 or older,
-             * the type pool represents the extension class loader.
+             * Creates a default {@link net.bytebuddy.pool.TypePool} with lazy resolution that looks up data by querying the platform class
+             * loader. The returned instance is configured to use a fast reading mode and a simple cache. If the current VM is Java 8 or older,
+             * the type pool represents the extension class loader.
+             *
+             * @return A type pool that reads its data from the boot class loader.
+             */
+            public static TypePool ofPlatformLoader() {
+                return of(ClassFileLocator.ForClassLoader.ofPlatformLoader());
+            }
+
+            /**
+             * Creates a default {@link net.bytebuddy.pool.TypePool} with lazy resolution that looks up data by querying the boot class
+             * loader. The returned instance is configured to use a fast reading mode and a simple cache.
+             *
+             * @return A type pool that reads its data from the boot class loader.
+             */
+            public static TypePool ofBootLoader() {
+                return of(ClassFileLocator.ForClassLoader.ofBootLoader());
+            }
+
+            /**
+             * Returns a default {@link TypePool} with lazy resolution for the provided class loader.
+             *
+             * @param classLoader The class loader for which this class pool is representing types.
+             * @return An appropriate type pool.
+             */
+            public static TypePool of(@Nullable ClassLoader classLoader) {
+                return of(ClassFileLocator.ForClassLoader.of(classLoader));
+            }
+
+            /**
+             * Creates a default {@link net.bytebuddy.pool.TypePool} with lazy resolution that looks up data by querying the supplied class
+             * file locator. The returned instance is configured to use a fast reading mode and a simple cache.
+             *
+             * @param classFileLocator The class file locator to use.
+             * @return A type pool that reads its data from the system class path.
+             */
+            public static TypePool of(ClassFileLocator classFileLocator) {
+                return new WithLazyResolution(new CacheProvider.Simple(), classFileLocator, ReaderMode.FAST);
+            }
+
+            @Override
+            protected Resolution doDescribe(String name) {
+                return new LazyResolution(name);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            protected Resolution doCache(String name, Resolution resolution) {
+                return resolution;
+            }
+
+            /**
+             * Non-lazily resolves a type name.
+             *
+             * @param name The name of the type to resolve.
+             * @return The resolution for the type of this name.
+             */
+            protected Resolution doResolve(String name) {
+                Resolution resolution = cacheProvider.find(name);
+                if (resolution == null) {
+                    resolution = cacheProvider.register(name, WithLazyResolution.super.doDescribe(name));
+                }
+                return resolution;
+            }
+
+            /**
+             * A lazy resolution of a type that the enclosing type pool attempts to resolve.
+             */
+            @HashCodeAndEqualsPlugin.Enhance(includeSyntheticFields = true)
+            protected class LazyResolution implements Resolution {
+
+                /**
+                 * The type's name.
+                 */
+                private final String name;
+
+                /**
+                 * Creates a new lazy resolution.
+                 *
+                 * @param name The type's name.
+                 */
+                protected LazyResolution(String name) {
+                    this.name = name;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public boolean isResolved() {
+                    return doResolve(name).isResolved();
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public TypeDescription resolve() {
+                    return new LazyTypeDescription(name);
+                }
+            }
+
+            /**
+             * A lazy type description that resolves any property that is not the name only when requested.
+             */
+            protected class LazyTypeDescription extends TypeDescription.AbstractBase.OfSimpleType.WithDelegation {
+
+                /**
+                 * The type's name.
+                 */
+                private final String name;
+
+                /**
+                 * Creates a new lazy type description.
+                 *
+                 * @param name The type's name.
+                 */
+                protected LazyTypeDescription(String name) {
+                    this.name = name;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                @CachedReturnPlugin.Enhance("delegate")
+                protected TypeDescription delegate() {
+                    return doResolve(name).resolve();
+                }
+            }
+        }
+
+        /**
+         * <p>
+         * A variant of {@link TypePool.Default} that consults a {@link PersistentCache} before parsing a class file. If the persistent
+         * cache contains a {@link ClassFileRecording} for a class file with identical content, the recording is replayed instead of
+         * parsing the class file. Otherwise, the class file is parsed and the recording of this parsing is registered with the cache.
+         * </p>
+         * <p>
+         * <b>Note</b>: The class file is still located by this pool's {@link ClassFileLocator} to validate that a recording is up to date.
+         * Only the parsing of the class file is avoided.
+         * </p>
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        public static class WithPersistentCache extends Default {
+
+            /**
+             * The persistent cache to consult before parsing a class file.
+             */
+            private final PersistentCache persistentCache;
+
+            /**
+             * Creates a new default type pool with a persistent cache and without a parent pool.
+             *
+             * @param cacheProvider    The cache provider to be used.
+             * @param classFileLocator The class file locator to be used.
+             * @param readerMode       The reader mode to apply by this default type pool.
+             * @param persistentCache  The persistent cache to consult before parsing a class file.
+             */
+            public WithPersistentCache(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode, PersistentCache persistentCache) {
+                this(cacheProvider, classFileLocator, readerMode, Empty.INSTANCE, persistentCache);
+            }
+
+            /**
+             * Creates a new default type pool with a persistent cache.
+             *
+             * @param cacheProvider    The cache provider to be used.
+             * @param classFileLocator The class file locator to be used.
+             * @param readerMode       The reader mode to apply by this default type pool.
+             * @param parentPool       The parent type pool.
+             * @param persistentCache  The persistent cache to consult before parsing a class file.
+             */
+            public WithPersistentCache(CacheProvider cacheProvider,
+                                       ClassFileLocator classFileLocator,
+                                       ReaderMode readerMode,
+                                       TypePool parentPool,
+                                       PersistentCache persistentCache) {
+                super(cacheProvider, classFileLocator, readerMode, parentPool);
+                this.persistentCache = persistentCache;
+            }
+
+            /**
+             * Creates a default {@link net.bytebuddy.pool.TypePool} with a persistent cache that looks up data by querying the supplied
+             * class file locator. The returned instance is configured to use a fast reading mode and a simple cache.
+             *
+             * @param classFileLocator The class file locator to use.
+             * @param persistentCache  The persistent cache to consult before parsing a class file.
+             * @return An appropriate type pool.
+             */
+            public static TypePool of(ClassFileLocator classFileLocator, PersistentCache persistentCache) {
+                return new WithPersistentCache(new CacheProvider.Simple(), classFileLocator, ReaderMode.FAST, persistentCache);
+            }
+
+            @Override
+            protected Resolution doDescribe(String name) {
+                try {
+                    ClassFileLocator.Resolution resolution = classFileLocator.locate(name);
+                    if (!resolution.isResolved()) {
+                        return new Resolution.Illegal(name);
+                    }
+                    byte[] binaryRepresentation = resolution.resolve(), digest = persistentCache.digest(binaryRepresentation);
+                    TypeExtractor typeExtractor = new TypeExtractor();
+                    ClassFileRecording classFileRecording = persistentCache.find(name, digest, readerMode);
+                    if (classFileRecording == null) {
+                        classFileRecording = ClassFileRecording.of(binaryRepresentation, readerMode, typeExtractor);
+                        try {
+                            persistentCache.register(name, digest, readerMode, classFileRecording);
+                        } catch (IOException ignored) {
+                            /* a recording that cannot be persisted is parsed again in the future */
+                        }
+                    } else {
+                        classFileRecording.accept(typeExtractor);
+                    }
+                    return new Resolution.Simple(typeExtractor.toTypeDescription());
+                } catch (IOException exception) {
+                    throw new IllegalStateException("Error while reading class file", exception);
+                }
+            }
+        }
+
+        /**
+         * <p>
+         * A variant of {@link TypePool.Default} that retains a compact {@link ClassFileRecording} of each parsed class file rather than
+         * its tokenized representation. A recording stores a type's and its members' metadata in a single byte array where any string is
+         * only stored once. A type description is rehydrated from this recording on demand and is only weakly referenced by its resolution
+         * such that cached types that are not currently in use only retain their recording.
+         * </p>
+         * <p>
+         * <b>Note</b>: Rehydrating a type description requires replaying its recording what is considerably cheaper than locating and
+         * parsing a class file but more expensive than a lookup in a cache of type descriptions.
+         * </p>
+         */
+        public static class WithCompactStorage extends Default {
+
+            /**
+             * Creates a new default type pool with compact storage and without a parent pool.
+             *
+             * @param cacheProvider    The cache provider to be used.
+             * @param classFileLocator The class file locator to be used.
+             * @param readerMode       The reader mode to apply by this default type pool.
+             */
+            public WithCompactStorage(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode) {
+                this(cacheProvider, classFileLocator, readerMode, Empty.INSTANCE);
+            }
+
+            /**
+             * Creates a new default type pool with compact storage.
+             *
+             * @param cacheProvider    The cache provider to be used.
+             * @param classFileLocator The class file locator to be used.
+             * @param readerMode       The reader mode to apply by this default type pool.
+             * @param parentPool       The parent type pool.
+             */
+            public WithCompactStorage(CacheProvider cacheProvider, ClassFileLocator classFileLocator, ReaderMode readerMode, TypePool parentPool) {
+                super(cacheProvider, classFileLocator, readerMode, parentPool);
+            }
+
+            /**
+             * Creates a default {@link net.bytebuddy.pool.TypePool} with compact storage that looks up data by querying the supplied
+             * class file locator. The returned instance is configured to use a fast reading mode and a simple cache.
+             *
+             * @param classFileLocator The class file locator to use.
+             * @return An appropriate type pool.
+             */
+            public static TypePool of(ClassFileLocator classFileLocator) {
+                return new WithCompactStorage(new CacheProvider.Simple(), classFileLocator, ReaderMode.FAST);
+            }
+
+            @Override
+            protected Resolution doDescribe(String name) {
+                try {
+                    ClassFileLocator.Resolution resolution = classFileLocator.locate(name);
+                    return resolution.isResolved()
+                            ? new CompactResolution(ClassFileRecording.of(resolution.resolve(), readerMode))
+                            : new Resolution.Illegal(name);
+                } catch (IOException exception) {
+                    throw new IllegalStateException("Error while reading class file", exception);
+                }
+            }
+
+            /**
+             * A resolution that rehydrates a type description from a compact recording of its class file.
+             */
+            @HashCodeAndEqualsPlugin.Enhance(includeSyntheticFields = true)
+            protected class CompactResolution implements Resolution {
+
+                /**
+                 * The recording of the represented type's class file.
+                 */
+                private final ClassFileRecording classFileRecording;
+
+                /**
+                 * A weak reference to the most recently rehydrated type description or {@code null} if no type description was rehydrated.
+                 */
+                @Nullable
+                @HashCodeAndEqualsPlugin.ValueHandling(HashCodeAndEqualsPlugin.ValueHandling.Sort.IGNORE)
+                private volatile WeakReference<TypeDescription> reference;
+
+                /**
+                 * Creates a new compact resolution.
+                 *
+                 * @param classFileRecording The recording of the represented type's class file.
+                 */
+                protected CompactResolution(ClassFileRecording classFileRecording) {
+                    this.classFileRecording = classFileRecording;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public boolean isResolved() {
+                    return true;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public TypeDescription resolve() {
+                    WeakReference<TypeDescription> reference = this.reference;
+                    TypeDescription typeDescription = reference == null
+                            ? null
+                            : reference.get();
+                    if (typeDescription == null) {
+                        TypeExtractor typeExtractor = new TypeExtractor();
+                        classFileRecording.accept(typeExtractor);
+                        typeDescription = typeExtractor.toTypeDescription();
+                        this.reference = new WeakReference<TypeDescription>(typeDescription);
+                    }
+                    return typeDescription;
+                }
+
+                /**
+                 * Returns the recording of the represented type's class file.
+                 *
+                 * @return The recording of the represented type's class file.
+                 */
+                public ClassFileRecording getClassFileRecording() {
+                    return classFileRecording;
+                }
+
+                /**
+                 * Returns the most recently rehydrated type description if it is still retained without rehydrating a type description.
+                 *
+                 * @return The most recently rehydrated type description or {@code null} if no such description is retained.
+                 */
+                @Nullable
+                public TypeDescription getRehydrated() {
+                    WeakReference<TypeDescription> reference = this.reference;
+                    return reference == null
+                            ? null
+                            : reference.get();
+                }
+            }
+        }
+
+        /**
+         * A persistent cache of {@link ClassFileRecording}s that is keyed by a type's name and its class file's content.
+         */
+        public interface PersistentCache {
+
+            /**
+             * Computes the digest by which this cache identifies the content of a class file.
+             *
+             * @param binaryRepresentation The binary representation of the type's class file.
+             * @return The digest of the supplied class file.
+             */
+            byte[] digest(byte[] binaryRepresentation);
+
+            /**
+             * Attempts to find a recording for a class file.
+             *
+             * @param name       The name of the type.
+             * @param digest     The digest of the type's class file as computed by {@link PersistentCache#digest(byte[])}.
+             * @param readerMode The reader mode that the recording must satisfy.
+             * @return A recording of the class file or {@code null} if no such recording is known.
+             * @throws IOException If an I/O error occurs.
+             */
+            @Nullable
+            ClassFileRecording find(String name, byte[] digest, ReaderMode readerMode) throws IOException;
+
+            /**
+             * Registers a recording for a class file.
+             *
+             * @param name               The name of the type.
+             * @param digest             The digest of the type's class file as computed by {@link PersistentCache#digest(byte[])}.
+             * @param readerMode         The reader mode that was used for the recording.
+             * @param classFileRecording The recording of the class file.
+             * @throws IOException If an I/O error occurs.
+             */
+            void register(String name, byte[] digest, ReaderMode readerMode, ClassFileRecording classFileRecording) throws IOException;
+
+            /**
+             * A non-operational persistent cache that does not retain any recordings.
+             */
+            enum NoOp implements PersistentCache {
+
+                /**
+                 * The singleton instance.
+                 */
+                INSTANCE;
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public byte[] digest(byte[] binaryRepresentation) {
+                    return new byte[0];
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Nullable
+                public ClassFileRecording find(String name, byte[] digest, ReaderMode readerMode) {
+                    return null;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void register(String name, byte[] digest, ReaderMode readerMode, ClassFileRecording classFileRecording) {
+                    /* do nothing */
+                }
+            }
+
+            /**
+             * <p>
+             * A persistent cache that is backed by an append-only file which is memory-mapped when the cache is opened. Any recording
+             * is stored together with a digest of the recorded class file such that a recording is only reused if a class file is
+             * unchanged. If a type's recording is registered multiple times, the most recently appended recording is used.
+             * </p>
+             * <p>
+             * A cache file is never truncated as other virtual machines might have mapped it. Instead, a file is replaced by writing a
+             * new file and renaming it to the cache file's name. Any process that still uses the replaced file observes a marker that
+             * is appended to it and reopens the cache file before appending a recording. A file is replaced if it was written with another
+             * format or digest algorithm, if it ends with an incomplete entry, for example because a process was terminated while appending
+             * to it, in which case all complete entries are retained, or if appending a recording would exceed the cache's size limit,
+             * in which case the cache file is started anew. If the cache file cannot be replaced, for example because the file system does
+             * not permit replacing an open file, recordings are no longer appended.
+             * </p>
+             * <p>
+             * A cache file can be shared by multiple virtual machines. The file is locked when it is opened and when a recording is appended
+             * such that records are never interleaved. Before appending a recording, any recordings that were appended by another process are
+             * read. Within a single virtual machine, instances that are backed by the same file must not append recordings concurrently. If
+             * they do, the recording is not appended and an {@link IOException} is thrown.
+             * </p>
+             */
+            class ForMappedFile implements PersistentCache, Closeable {
+
+                /**
+                 * The default digest algorithm.
+                 */
+                public static final String DEFAULT_ALGORITHM = "SHA-1";
+
+                /**
+                 * The default size limit of a cache file.
+                 */
+                public static final int DEFAULT_LIMIT = 256 * 1024 * 1024;
+
+                /**
+                 * The magic number that introduces a cache file.
+                 */
+                private static final int MAGIC = 0xBB7CAC4E;
+
+                /**
+                 * The version of the cache file format.
+                 */
+                private static final int VERSION = 1;
+
+                /**
+                 * The size of an entry's length prefix.
+                 */
+                private static final int LENGTH_SIZE = 4;
+
+                /**
+                 * The length prefix that marks a cache file as replaced. The marker is followed by the {@link ForMappedFile#MAGIC} number.
+                 */
+                private static final int REPLACED = -1;
+
+                /**
+                 * The size of the marker of a replaced cache file.
+                 */
+                private static final int REPLACED_SIZE = LENGTH_SIZE + 4;
+
+                /**
+                 * The file that is backing this cache.
+                 */
+                private final File file;
+
+                /**
+                 * The name of the digest algorithm.
+                 */
+                private final String algorithm;
+
+                /**
+                 * The header of the cache file.
+                 */
+                private final byte[] header;
+
+                /**
+                 * The maximum size of the cache file.
+                 */
+                private final int limit;
+
+                /**
+                 * The entries of this cache by their type names.
+                 */
+                private final ConcurrentMap<String, Entry> entries;
+
+                /**
+                 * The currently opened cache file.
+                 */
+                private RandomAccessFile randomAccessFile;
+
+                /**
+                 * The channel of the currently opened cache file.
+                 */
+                private FileChannel channel;
+
+                /**
+                 * The position at which the next entry is appended.
+                 */
+                private long position;
+
+                /**
+                 * Creates a new persistent cache backed by a mapped file. The cache must be opened before it is used.
+                 *
+                 * @param file      The file that is backing this cache.
+                 * @param algorithm The name of the digest algorithm.
+                 * @param header    The header of the cache file.
+                 * @param limit     The maximum size of the cache file.
+                 */
+                protected ForMappedFile(File file, String algorithm, byte[] header, int limit) {
+                    this.file = file;
+                    this.algorithm = algorithm;
+                    this.header = header;
+                    this.limit = limit;
+                    entries = new ConcurrentHashMap<String, Entry>();
+                }
+
+                /**
+                 * Opens a persistent cache for the supplied file using the {@link ForMappedFile#DEFAULT_ALGORITHM}. If the file does
+                 * not exist, it is created.
+                 *
+                 * @param file The file that is backing the cache.
+                 * @return A persistent cache that is backed by the supplied file.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                public static ForMappedFile of(File file) throws IOException {
+                    return of(file, DEFAULT_ALGORITHM);
+                }
+
+                /**
+                 * Opens a persistent cache for the supplied file using the {@link ForMappedFile#DEFAULT_LIMIT}. If the file does not
+                 * exist, it is created.
+                 *
+                 * @param file      The file that is backing the cache.
+                 * @param algorithm The name of the digest algorithm to use for validating class files.
+                 * @return A persistent cache that is backed by the supplied file.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                public static ForMappedFile of(File file, String algorithm) throws IOException {
+                    return of(file, algorithm, DEFAULT_LIMIT);
+                }
+
+                /**
+                 * Opens a persistent cache for the supplied file. If the file does not exist, it is created.
+                 *
+                 * @param file      The file that is backing the cache.
+                 * @param algorithm The name of the digest algorithm to use for validating class files.
+                 * @param limit     The maximum size of the cache file after which the file is started anew.
+                 * @return A persistent cache that is backed by the supplied file.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                public static ForMappedFile of(File file, String algorithm, int limit) throws IOException {
+                    digest(algorithm, new byte[0]);
+                    byte[] header = header(algorithm);
+                    if (limit <= header.length || limit > Integer.MAX_VALUE - REPLACED_SIZE) {
+                        throw new IllegalArgumentException("Illegal limit for cache file: " + limit);
+                    }
+                    ForMappedFile persistentCache = new ForMappedFile(file, algorithm, header, limit);
+                    persistentCache.open();
+                    return persistentCache;
+                }
+
+                /**
+                 * Creates the header of a cache file.
+                 *
+                 * @param algorithm The name of the digest algorithm.
+                 * @return The header of a cache file.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                private static byte[] header(String algorithm) throws IOException {
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+                    dataOutputStream.writeInt(MAGIC);
+                    dataOutputStream.writeInt(VERSION);
+                    dataOutputStream.writeUTF(algorithm);
+                    dataOutputStream.close();
+                    return outputStream.toByteArray();
+                }
+
+                /**
+                 * Maps the supplied channel and reads all complete entries.
+                 *
+                 * @param channel   The channel to read.
+                 * @param algorithm The name of the digest algorithm.
+                 * @param entries   The map to which all read entries are added.
+                 * @return The position after the last complete entry or {@code 0} if the file does not contain a valid header.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                private static long read(FileChannel channel, String algorithm, Map<String, Entry> entries) throws IOException {
+                    byte[] header = header(algorithm);
+                    return isHeader(channel, header)
+                            ? read(channel, header.length, entries)
+                            : 0L;
+                }
+
+                /**
+                 * Determines if the supplied channel starts with the supplied header.
+                 *
+                 * @param channel The channel to read.
+                 * @param header  The expected header.
+                 * @return {@code true} if the channel starts with the supplied header.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                private static boolean isHeader(FileChannel channel, byte[] header) throws IOException {
+                    long size = channel.size();
+                    if (size < header.length || size > Integer.MAX_VALUE) {
+                        return false;
+                    }
+                    ByteBuffer buffer = ByteBuffer.allocate(header.length);
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, buffer.position()) == -1) {
+                            return false;
+                        }
+                    }
+                    return Arrays.equals(buffer.array(), header);
+                }
+
+                /**
+                 * Maps the supplied channel from the supplied position and reads all complete entries.
+                 *
+                 * @param channel  The channel to read.
+                 * @param position The position from which to read.
+                 * @param entries  The map to which all read entries are added.
+                 * @return The position after the last complete entry.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                private static long read(FileChannel channel, long position, Map<String, Entry> entries) throws IOException {
+                    long size = channel.size();
+                    return size <= position || size > Integer.MAX_VALUE
+                            ? position
+                            : position + read(channel.map(FileChannel.MapMode.READ_ONLY, position, size - position), entries);
+                }
+
+                /**
+                 * Reads all complete entries from the supplied buffer, starting at its current position.
+                 *
+                 * @param buffer  The buffer to read.
+                 * @param entries The map to which all read entries are added.
+                 * @return The position within the buffer after the last complete entry.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                private static int read(ByteBuffer buffer, Map<String, Entry> entries) throws IOException {
+                    while (buffer.remaining() >= LENGTH_SIZE) {
+                        int start = buffer.position(), length = buffer.getInt();
+                        if (length < 0 || length > buffer.remaining()) {
+                            return start;
+                        }
+                        ByteBuffer entry = buffer.slice();
+                        entry.limit(length);
+                        buffer.position(buffer.position() + length);
+                        try {
+                            int mode = entry.get();
+                            byte[] name = new byte[entry.getShort() & 0xFFFF];
+                            entry.get(name);
+                            byte[] digest = new byte[entry.get() & 0xFF];
+                            entry.get(digest);
+                            entries.put(new String(name, "UTF-8"), new Entry(ReaderMode.values()[mode], digest, new ClassFileRecording(entry.slice())));
+                        } catch (RuntimeException ignored) {
+                            return start;
+                        }
+                    }
+                    return buffer.position();
+                }
+
+                /**
+                 * Determines if the supplied channel contains a marker for a replaced cache file at the supplied position.
+                 *
+                 * @param channel  The channel to read.
+                 * @param position The position after the last complete entry.
+                 * @return {@code true} if the cache file was replaced.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                private static boolean isReplaced(FileChannel channel, long position) throws IOException {
+                    if (channel.size() - position < REPLACED_SIZE) {
+                        return false;
+                    }
+                    ByteBuffer buffer = ByteBuffer.allocate(REPLACED_SIZE);
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, position + buffer.position()) == -1) {
+                            return false;
+                        }
+                    }
+                    return buffer.getInt(0) == REPLACED && buffer.getInt(LENGTH_SIZE) == MAGIC;
+                }
+
+                /**
+                 * Locks the supplied channel.
+                 *
+                 * @param channel The channel to lock.
+                 * @return The acquired lock.
+                 * @throws IOException If an I/O error occurs or if the file is already locked within this virtual machine.
+                 */
+                private static FileLock lock(FileChannel channel) throws IOException {
+                    try {
+                        return channel.lock();
+                    } catch (OverlappingFileLockException exception) {
+                        IOException ioException = new IOException("Cache file is locked by another cache within this virtual machine");
+                        ioException.initCause(exception);
+                        throw ioException;
+                    }
+                }
+
+                /**
+                 * Computes a digest of the supplied binary representation.
+                 *
+                 * @param algorithm            The name of the digest algorithm.
+                 * @param binaryRepresentation The binary representation to digest.
+                 * @return The digest of the supplied binary representation.
+                 */
+                private static byte[] digest(String algorithm, byte[] binaryRepresentation) {
+                    try {
+                        return MessageDigest.getInstance(algorithm).digest(binaryRepresentation);
+                    } catch (NoSuchAlgorithmException exception) {
+                        throw new IllegalArgumentException("Unknown digest algorithm: " + algorithm, exception);
+                    }
+                }
+
+                /**
+                 * Opens the cache file and reads all of its complete entries. If the cache file was replaced by another process, the
+                 * cache file is reopened. If the cache file is incompatible or ends with an incomplete entry, it is replaced.
+                 *
+                 * @throws IOException If an I/O error occurs.
+                 */
+                private void open() throws IOException {
+                    boolean replaced;
+                    do {
+                        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+                        try {
+                            FileChannel channel = randomAccessFile.getChannel();
+                            FileLock lock = lock(channel);
+                            try {
+                                long size = channel.size(), position;
+                                if (size == 0L) {
+                                    ByteBuffer buffer = ByteBuffer.wrap(header);
+                                    while (buffer.hasRemaining()) {
+                                        channel.write(buffer, buffer.position());
+                                    }
+                                    position = header.length;
+                                    replaced = false;
+                                } else if (!isHeader(channel, header)) {
+                                    replace(channel, 0L);
+                                    position = 0L;
+                                    replaced = true;
+                                } else {
+                                    position = read(channel, header.length, entries);
+                                    if (position == size) {
+                                        replaced = false;
+                                    } else if (isReplaced(channel, position)) {
+                                        replaced = true;
+                                    } else {
+                                        try {
+                                            replace(channel, position);
+                                            mark(channel, position);
+                                            replaced = true;
+                                        } catch (IOException ignored) {
+                                            /* the incomplete entry is ignored and replacing the file is attempted again when appending */
+                                            replaced = false;
+                                        }
+                                    }
+                                }
+                                if (!replaced) {
+                                    this.randomAccessFile = randomAccessFile;
+                                    this.channel = channel;
+                                    this.position = position;
+                                }
+                            } finally {
+                                lock.release();
+                            }
+                        } catch (IOException exception) {
+                            randomAccessFile.close();
+                            throw exception;
+                        } catch (RuntimeException exception) {
+                            randomAccessFile.close();
+                            throw exception;
+                        }
+                        if (replaced) {
+                            randomAccessFile.close();
+                        }
+                    } while (replaced);
+                }
+
+                /**
+                 * Replaces the cache file with a new file that retains the supplied number of bytes of the currently locked cache file.
+                 * If no bytes are retained, the new file only contains a header. The replaced file is never truncated.
+                 *
+                 * @param channel  The channel of the locked cache file.
+                 * @param retained The number of bytes to retain from the replaced cache file.
+                 * @throws IOException If an I/O error occurs or if the cache file cannot be replaced.
+                 */
+                private void replace(FileChannel channel, long retained) throws IOException {
+                    File temporary = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+                    try {
+                        RandomAccessFile randomAccessFile = new RandomAccessFile(temporary, "rw");
+                        try {
+                            FileChannel target = randomAccessFile.getChannel();
+                            if (retained == 0L) {
+                                ByteBuffer buffer = ByteBuffer.wrap(header);
+                                while (buffer.hasRemaining()) {
+                                    target.write(buffer);
+                                }
+                            } else {
+                                long transferred = 0L;
+                                while (transferred < retained) {
+                                    transferred += channel.transferTo(transferred, retained - transferred, target);
+                                }
+                            }
+                        } finally {
+                            randomAccessFile.close();
+                        }
+                        if (!temporary.renameTo(file)) {
+                            throw new IOException("Cannot replace cache file: " + file);
+                        }
+                    } finally {
+                        if (temporary.exists() && !temporary.delete()) {
+                            temporary.deleteOnExit();
+                        }
+                    }
+                }
+
+                /**
+                 * Marks a replaced cache file such that any process that still uses the file reopens the cache file.
+                 *
+                 * @param channel  The channel of the locked, replaced cache file.
+                 * @param position The position after the last complete entry of the replaced cache file.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                private static void mark(FileChannel channel, long position) throws IOException {
+                    ByteBuffer buffer = ByteBuffer.allocate(REPLACED_SIZE).putInt(REPLACED).putInt(MAGIC);
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public byte[] digest(byte[] binaryRepresentation) {
+                    return digest(algorithm, binaryRepresentation);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Nullable
+                public ClassFileRecording find(String name, byte[] digest, ReaderMode readerMode) {
+                    Entry entry = entries.get(name);
+                    return entry == null || !entry.isSatisfying(readerMode) || !MessageDigest.isEqual(entry.getDigest(), digest)
+                            ? null
+                            : entry.getClassFileRecording();
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void register(String name, byte[] digest, ReaderMode readerMode, ClassFileRecording classFileRecording) throws IOException {
+                    byte[] encodedName = name.getBytes("UTF-8"), recording = classFileRecording.getBinaryRepresentation();
+                    ByteBuffer buffer = ByteBuffer.allocate(LENGTH_SIZE + 1 + 2 + encodedName.length + 1 + digest.length + recording.length);
+                    if (buffer.capacity() > limit - header.length) {
+                        throw new IOException("Recording of " + name + " exceeds the cache file's limit: " + limit);
+                    }
+                    buffer.putInt(buffer.capacity() - LENGTH_SIZE)
+                            .put((byte) readerMode.ordinal())
+                            .putShort((short) encodedName.length)
+                            .put(encodedName)
+                            .put((byte) digest.length)
+                            .put(digest)
+                            .put(recording)
+                            .flip();
+                    synchronized (this) {
+                        while (!append(buffer)) {
+                            randomAccessFile.close();
+                            open();
+                        }
+                    }
+                    entries.put(name, new Entry(readerMode, digest, classFileRecording));
+                }
+
+                /**
+                 * Appends an entry to the currently opened cache file after reading any entries that were appended by another process.
+                 *
+                 * @param buffer The buffer containing the entry to append.
+                 * @return {@code true} if the entry was appended or {@code false} if the cache file was replaced and must be reopened.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                private boolean append(ByteBuffer buffer) throws IOException {
+                    FileLock lock = lock(channel);
+                    try {
+                        long size = channel.size();
+                        if (size < position) {
+                            throw new IOException("Cache file was truncated by another process: " + size);
+                        }
+                        position = read(channel, position, entries);
+                        if (position < size) {
+                            if (!isReplaced(channel, position)) {
+                                replace(channel, position);
+                                mark(channel, position);
+                            }
+                            return false;
+                        } else if (position + buffer.remaining() > limit) {
+                            replace(channel, 0L);
+                            mark(channel, position);
+                            return false;
+                        }
+                        while (buffer.hasRemaining()) {
+                            position += channel.write(buffer, position);
+                        }
+                        return true;
+                    } finally {
+                        lock.release();
+                    }
+                }
+
+                /**
+                 * Returns the number of recordings that are currently contained by this cache.
+                 *
+                 * @return The number of recordings that are currently contained by this cache.
+                 */
+                public int size() {
+                    return entries.size();
+                }
+
+                /**
+                 * Forces any appended recording to be written to the storage device.
+                 *
+                 * @throws IOException If an I/O error occurs.
+                 */
+                public synchronized void force() throws IOException {
+                    channel.force(false);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public synchronized void close() throws IOException {
+                    randomAccessFile.close();
+                }
+
+                /**
+                 * An entry of a persistent cache.
+                 */
+                protected static class Entry {
+
+                    /**
+                     * The reader mode that was used for the recording.
+                     */
+                    private final ReaderMode readerMode;
+
+                    /**
+                     * The digest of the recorded class file.
+                     */
+                    private final byte[] digest;
+
+                    /**
+                     * The recording of the class file.
+                     */
+                    private final ClassFileRecording classFileRecording;
+
+                    /**
+                     * Creates a new entry.
+                     *
+                     * @param readerMode         The reader mode that was used for the recording.
+                     * @param digest             The digest of the recorded class file.
+                     * @param classFileRecording The recording of the class file.
+                     */
+                    protected Entry(ReaderMode readerMode, byte[] digest, ClassFileRecording classFileRecording) {
+                        this.readerMode = readerMode;
+                        this.digest = digest;
+                        this.classFileRecording = classFileRecording;
+                    }
+
+                    /**
+                     * Determines if this entry's recording can be used for a pool of the given reader mode.
+                     *
+                     * @param readerMode The reader mode of the requesting pool.
+                     * @return {@code true} if this entry's recording can be used for the given reader mode.
+                     */
+                    protected boolean isSatisfying(ReaderMode readerMode) {
+                        return this.readerMode.isExtended() || !readerMode.isExtended();
+                    }
+
+                    /**
+                     * Returns the digest of the recorded class file.
+                     *
+                     * @return The digest of the recorded class file.
+                     */
+                    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "The array is not modified by class contract.")
+                    protected byte[] getDigest() {
+                        return digest;
+                    }
+
+                    /**
+                     * Returns the recording of the class file.
+                     *
+                     * @return The recording of the class file.
+                     */
+                    protected ClassFileRecording getClassFileRecording() {
+                        return classFileRecording;
+                    }
+                }
+            }
+
+            /**
+             * <p>
+             * A read-only persistent cache that is backed by a snapshot file in the format of {@link ForMappedFile}. A snapshot is typically
+             * created at build time by {@link ForSnapshot#create(File, ClassFileLocator, Collection, ReaderMode)} and is then shared by any
+             * number of virtual machines as it is never modified when being read. Any recording is validated against the digest of the
+             * actual class file such that a class file that changed after creating the snapshot is parsed rather than replayed.
+             * </p>
+             * <p>
+             * <b>Note</b>: The snapshot file is mapped into memory and closed immediately. Recordings are read from the mapped region
+             * without copying them onto the heap.
+             * </p>
+             */
+            class ForSnapshot implements PersistentCache {
+
+                /**
+                 * The name of the digest algorithm.
+                 */
+                private final String algorithm;
+
+                /**
+                 * The entries of this snapshot by their type names.
+                 */
+                private final Map<String, ForMappedFile.Entry> entries;
+
+                /**
+                 * Creates a new persistent cache for a snapshot.
+                 *
+                 * @param algorithm The name of the digest algorithm.
+                 * @param entries   The entries of this snapshot by their type names.
+                 */
+                protected ForSnapshot(String algorithm, Map<String, ForMappedFile.Entry> entries) {
+                    this.algorithm = algorithm;
+                    this.entries = entries;
+                }
+
+                /**
+                 * Opens a snapshot that was created using the {@link ForMappedFile#DEFAULT_ALGORITHM}.
+                 *
+                 * @param file The snapshot file.
+                 * @return A persistent cache that is backed by the supplied snapshot.
+                 * @throws IOException If an I/O error occurs or if the file is not a valid snapshot.
+                 */
+                public static ForSnapshot of(File file) throws IOException {
+                    return of(file, ForMappedFile.DEFAULT_ALGORITHM);
+                }
+
+                /**
+                 * Opens a snapshot.
+                 *
+                 * @param file      The snapshot file.
+                 * @param algorithm The name of the digest algorithm that was used for creating the snapshot.
+                 * @return A persistent cache that is backed by the supplied snapshot.
+                 * @throws IOException If an I/O error occurs or if the file is not a valid snapshot.
+                 */
+                public static ForSnapshot of(File file, String algorithm) throws IOException {
+                    ForMappedFile.digest(algorithm, new byte[0]);
+                    Map<String, ForMappedFile.Entry> entries = new HashMap<String, ForMappedFile.Entry>();
+                    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                    try {
+                        if (ForMappedFile.read(randomAccessFile.getChannel(), algorithm, entries) == 0L) {
+                            throw new IOException("Not a valid snapshot for " + algorithm + ": " + file);
+                        }
+                    } finally {
+                        randomAccessFile.close();
+                    }
+                    return new ForSnapshot(algorithm, entries);
+                }
+
+                /**
+                 * Creates a snapshot of the supplied types using the {@link ForMappedFile#DEFAULT_ALGORITHM}. Any existing file is replaced.
+                 *
+                 * @param file             The snapshot file to create.
+                 * @param classFileLocator The class file locator to use for locating the types' class files.
+                 * @param names            The names of the types to include in the snapshot.
+                 * @param readerMode       The reader mode to use for recording class files.
+                 * @return The number of types that were included in the snapshot.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                public static int create(File file, ClassFileLocator classFileLocator, Collection<String> names, ReaderMode readerMode) throws IOException {
+                    return create(file, classFileLocator, names, readerMode, ForMappedFile.DEFAULT_ALGORITHM);
+                }
+
+                /**
+                 * Creates a snapshot of the supplied types. Any existing file is replaced. Types that cannot be located are not included.
+                 *
+                 * @param file             The snapshot file to create.
+                 * @param classFileLocator The class file locator to use for locating the types' class files.
+                 * @param names            The names of the types to include in the snapshot.
+                 * @param readerMode       The reader mode to use for recording class files.
+                 * @param algorithm        The name of the digest algorithm to use for validating class files.
+                 * @return The number of types that were included in the snapshot.
+                 * @throws IOException If an I/O error occurs.
+                 */
+                public static int create(File file,
+                                         ClassFileLocator classFileLocator,
+                                         Collection<String> names,
+                                         ReaderMode readerMode,
+                                         String algorithm) throws IOException {
+                    if (file.exists() && !file.delete()) {
+                        throw new IOException("Cannot replace existing snapshot: " + file);
+                    }
+                    ForMappedFile persistentCache = ForMappedFile.of(file, algorithm);
+                    try {
+                        for (String name : names) {
+                            ClassFileLocator.Resolution resolution = classFileLocator.locate(name);
+                            if (resolution.isResolved()) {
+                                byte[] binaryRepresentation = resolution.resolve();
+                                persistentCache.register(name, persistentCache.digest(binaryRepresentation), readerMode, ClassFileRecording.of(binaryRepresentation, readerMode));
+                            }
+                        }
+                        persistentCache.force();
+                        return persistentCache.size();
+                    } finally {
+                        persistentCache.close();
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public byte[] digest(byte[] binaryRepresentation) {
+                    return ForMappedFile.digest(algorithm, binaryRepresentation);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Nullable
+                public ClassFileRecording find(String name, byte[] digest, ReaderMode readerMode) {
+                    ForMappedFile.Entry entry = entries.get(name);
+                    return entry == null || !entry.isSatisfying(readerMode) || !MessageDigest.isEqual(entry.getDigest(), digest)
+                            ? null
+                            : entry.getClassFileRecording();
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                public void register(String name, byte[] digest, ReaderMode readerMode, ClassFileRecording classFileRecording) {
+                    /* do nothing */
+                }
+
+                /**
+                 * Returns the number of recordings that are contained by this snapshot.
+                 *
+                 * @return The number of recordings that are contained by this snapshot.
+                 */
+                public int size() {
+                    return entries.size();
+                }
+            }
+        }
+
+        /**
+         * <p>
+         * A recording of the parsing events that a {@link TypePool.Default} consumes when it reads a class file. A recording can be replayed
+         * onto a {@link ClassVisitor} without processing the original class file by a {@link ClassReader}. This avoids decoding the constant
+         * pool and the class file's attributes.
+         * </p>
+         * <p>
+         * A recording only retains the information that is required for describing a type. Byte code instructions are not recorded. When
+         * recording a class file in {@link ReaderMode#EXTENDED}, only the first label of a method and the local variables that start at
+         * this label are recorded, as only those are required for discovering parameter names from debug information.
+         * </p>
+         */
+        public static class ClassFileRecording {
+
+            /**
+             * Indicates the end of a visitor's events.
+             */
+            private static final byte END = 0;
+
+            /**
+             * Indicates a visit of a class file's header.
+             */
+            private static final byte VISIT = 1;
+
+            /**
+             * Indicates a visit of an outer class.
+             */
+            private static final byte OUTER_CLASS = 2;
+
+            /**
+             * Indicates a visit of an inner class.
+             */
+            private static final byte INNER_CLASS = 3;
+
+            /**
+             * Indicates a visit of an annotation.
+             */
+            private static final byte ANNOTATION = 4;
+
+            /**
+             * Indicates a visit of a type annotation.
+             */
+            private static final byte TYPE_ANNOTATION = 5;
+
+            /**
+             * Indicates a visit of a field.
+             */
+            private static final byte FIELD = 6;
+
+            /**
+             * Indicates a visit of a method.
+             */
+            private static final byte METHOD = 7;
+
+            /**
+             * Indicates a visit of a nest host.
+             */
+            private static final byte NEST_HOST = 8;
+
+            /**
+             * Indicates a visit of a nest member.
+             */
+            private static final byte NEST_MEMBER = 9;
+
+            /**
+             * Indicates a visit of a permitted subclass.
+             */
+            private static final byte PERMITTED_SUBCLASS = 10;
+
+            /**
+             * Indicates a visit of a record component.
+             */
+            private static final byte RECORD_COMPONENT = 11;
+
+            /**
+             * Indicates a visit of a method parameter.
+             */
+            private static final byte PARAMETER = 12;
+
+            /**
+             * Indicates a visit of an annotation default value.
+             */
+            private static final byte ANNOTATION_DEFAULT = 13;
+
+            /**
+             * Indicates a visit of the number of annotatable parameters.
+             */
+            private static final byte ANNOTABLE_PARAMETER_COUNT = 14;
+
+            /**
+             * Indicates a visit of a parameter annotation.
+             */
+            private static final byte PARAMETER_ANNOTATION = 15;
+
+            /**
+             * Indicates a visit of a method's first label.
+             */
+            private static final byte LABEL = 16;
+
+            /**
+             * Indicates a visit of a local variable that starts at a method's first label.
+             */
+            private static final byte LOCAL_VARIABLE = 17;
+
+            /**
+             * Indicates a visit of an annotation value.
+             */
+            private static final byte VALUE = 18;
+
+            /**
+             * Indicates a visit of an enumeration value.
+             */
+            private static final byte ENUMERATION = 19;
+
+            /**
+             * Indicates a visit of a nested annotation value.
+             */
+            private static final byte NESTED_ANNOTATION = 20;
+
+            /**
+             * Indicates a visit of an array value.
+             */
+            private static final byte ARRAY = 21;
+
+            /**
+             * Indicates a {@code null} string.
+             */
+            private static final int NULL_STRING = 0;
+
+            /**
+             * Indicates a string that is not yet contained in a recording's string table.
+             */
+            private static final int NEW_STRING = 1;
+
+            /**
+             * The offset of indices into a recording's string table.
+             */
+            private static final int STRING_OFFSET = 2;
+
+            /**
+             * The recorded events.
+             */
+            private final ByteBuffer buffer;
+
+            /**
+             * Creates a new class file recording.
+             *
+             * @param buffer The recorded events.
+             */
+            protected ClassFileRecording(ByteBuffer buffer) {
+                this.buffer = buffer;
+            }
+
+            /**
+             * Creates a recording of the supplied class file.
+             *
+             * @param binaryRepresentation The binary representation of the class file to record.
+             * @param readerMode           The reader mode to apply when reading the class file.
+             * @return A recording of the supplied class file.
+             */
+            public static ClassFileRecording of(byte[] binaryRepresentation, ReaderMode readerMode) {
+                return of(binaryRepresentation, readerMode, null);
+            }
+
+            /**
+             * Creates a recording of the supplied class file while forwarding all events to the supplied class visitor.
+             *
+             * @param binaryRepresentation The binary representation of the class file to record.
+             * @param readerMode           The reader mode to apply when reading the class file.
+             * @param classVisitor         The class visitor to forward events to or {@code null} if events should only be recorded.
+             * @return A recording of the supplied class file.
+             */
+            public static ClassFileRecording of(byte[] binaryRepresentation, ReaderMode readerMode, @Nullable ClassVisitor classVisitor) {
+                Output output = new Output();
+                OpenedClassReader.of(binaryRepresentation).accept(new ClassRecorder(classVisitor, output), readerMode.getFlags());
+                return new ClassFileRecording(ByteBuffer.wrap(output.toByteArray()));
+            }
+
+            /**
+             * Wraps a binary representation of a recording, as returned by {@link ClassFileRecording#getBinaryRepresentation()}.
+             *
+             * @param binaryRepresentation The binary representation of the recording.
+             * @return A class file recording for the supplied binary representation.
+             */
+            public static ClassFileRecording wrap(byte[] binaryRepresentation) {
+                return new ClassFileRecording(ByteBuffer.wrap(binaryRepresentation));
+            }
+
+            /**
+             * Replays this recording onto the supplied class visitor.
+             *
+             * @param classVisitor The class visitor to replay this recording onto.
+             */
+            public void accept(ClassVisitor classVisitor) {
+                Input input = new Input(buffer);
+                byte event;
+                while ((event = input.readByte()) != END) {
+                    switch (event) {
+                        case VISIT:
+                            classVisitor.visit(input.readInt(), input.readInt(), input.readString(), input.readString(), input.readString(), input.readStrings());
+                            break;
+                        case OUTER_CLASS:
+                            classVisitor.visitOuterClass(input.readString(), input.readString(), input.readString());
+                            break;
+                        case INNER_CLASS:
+                            classVisitor.visitInnerClass(input.readString(), input.readString(), input.readString(), input.readInt());
+                            break;
+                        case ANNOTATION: {
+                            String descriptor = input.readString();
+                            accept(classVisitor.visitAnnotation(descriptor, input.readBoolean()), input);
+                            break;
+                        }
+                        case TYPE_ANNOTATION: {
+                            int typeReference = input.readInt();
+                            TypePath typePath = input.readTypePath();
+                            String descriptor = input.readString();
+                            accept(classVisitor.visitTypeAnnotation(typeReference, typePath, descriptor, input.readBoolean()), input);
+                            break;
+                        }
+                        case FIELD:
+                            accept(classVisitor.visitField(input.readInt(), input.readString(), input.readString(), input.readString(), input.readValue()), input);
+                            break;
+                        case METHOD:
+                            accept(classVisitor.visitMethod(input.readInt(), input.readString(), input.readString(), input.readString(), input.readStrings()), input);
+                            break;
+                        case NEST_HOST:
+                            classVisitor.visitNestHost(input.readString());
+                            break;
+                        case NEST_MEMBER:
+                            classVisitor.visitNestMember(input.readString());
+                            break;
+                        case PERMITTED_SUBCLASS:
+                            classVisitor.visitPermittedSubclass(input.readString());
+                            break;
+                        case RECORD_COMPONENT:
+                            accept(classVisitor.visitRecordComponent(input.readString(), input.readString(), input.readString()), input);
+                            break;
+                        default:
+                            throw new IllegalStateException("Unexpected class event: " + event);
+                    }
+                }
+                classVisitor.visitEnd();
+            }
+
+            /**
+             * Replays the events of a field onto the supplied field visitor.
+             *
+             * @param fieldVisitor The field visitor to replay events onto or {@code null} if the events should be skipped.
+             * @param input        The input to read events from.
+             */
+            private static void accept(@Nullable FieldVisitor fieldVisitor, Input input) {
+                byte event;
+                while ((event = input.readByte()) != END) {
+                    switch (event) {
+                        case ANNOTATION: {
+                            String descriptor = input.readString();
+                            boolean visible = input.readBoolean();
+                            accept(fieldVisitor == null ? null : fieldVisitor.visitAnnotation(descriptor, visible), input);
+                            break;
+                        }
+                        case TYPE_ANNOTATION: {
+                            int typeReference = input.readInt();
+                            TypePath typePath = input.readTypePath();
+                            String descriptor = input.readString();
+                            boolean visible = input.readBoolean();
+                            accept(fieldVisitor == null ? null : fieldVisitor.visitTypeAnnotation(typeReference, typePath, descriptor, visible), input);
+                            break;
+                        }
+                        default:
+                            throw new IllegalStateException("Unexpected field event: " + event);
+                    }
+                }
+                if (fieldVisitor != null) {
+                    fieldVisitor.visitEnd();
+                }
+            }
+
+            /**
+             * Replays the events of a method onto the supplied method visitor.
+             *
+             * @param methodVisitor The method visitor to replay events onto or {@code null} if the events should be skipped.
+             * @param input         The input to read events from.
+             */
+            private static void accept(@Nullable MethodVisitor methodVisitor, Input input) {
+                Label label = new Label();
+                byte event;
+                while ((event = input.readByte()) != END) {
+                    switch (event) {
+                        case PARAMETER: {
+                            String name = input.readString();
+                            int modifiers = input.readInt();
+                            if (methodVisitor != null) {
+                                methodVisitor.visitParameter(name, modifiers);
+                            }
+                            break;
+                        }
+                        case ANNOTATION_DEFAULT:
+                            accept(methodVisitor == null ? null : methodVisitor.visitAnnotationDefault(), input);
+                            break;
+                        case ANNOTATION: {
+                            String descriptor = input.readString();
+                            boolean visible = input.readBoolean();
+                            accept(methodVisitor == null ? null : methodVisitor.visitAnnotation(descriptor, visible), input);
+                            break;
+                        }
+                        case TYPE_ANNOTATION: {
+                            int typeReference = input.readInt();
+                            TypePath typePath = input.readTypePath();
+                            String descriptor = input.readString();
+                            boolean visible = input.readBoolean();
+                            accept(methodVisitor == null ? null : methodVisitor.visitTypeAnnotation(typeReference, typePath, descriptor, visible), input);
+                            break;
+                        }
+                        case ANNOTABLE_PARAMETER_COUNT: {
+                            int count = input.readInt();
+                            boolean visible = input.readBoolean();
+                            if (methodVisitor != null) {
+                                methodVisitor.visitAnnotableParameterCount(count, visible);
+                            }
+                            break;
+                        }
+                        case PARAMETER_ANNOTATION: {
+                            int index = input.readInt();
+                            String descriptor = input.readString();
+                            boolean visible = input.readBoolean();
+                            accept(methodVisitor == null ? null : methodVisitor.visitParameterAnnotation(index, descriptor, visible), input);
+                            break;
+                        }
+                        case LABEL:
+                            if (methodVisitor != null) {
+                                methodVisitor.visitLabel(label);
+                            }
+                            break;
+                        case LOCAL_VARIABLE: {
+                            String name = input.readString(), descriptor = input.readString(), genericSignature = input.readString();
+                            int index = input.readInt();
+                            if (methodVisitor != null) {
+                                methodVisitor.visitLocalVariable(name, descriptor, genericSignature, label, label, index);
+                            }
+                            break;
+                        }
+                        default:
+                            throw new IllegalStateException("Unexpected method event: " + event);
+                    }
+                }
+                if (methodVisitor != null) {
+                    methodVisitor.visitEnd();
+                }
+            }
+
+            /**
+             * Replays the events of a record component onto the supplied record component visitor.
+             *
+             * @param recordComponentVisitor The record component visitor to replay events onto or {@code null} if the events should be skipped.
+             * @param input                  The input to read events from.
+             */
+            private static void accept(@Nullable RecordComponentVisitor recordComponentVisitor, Input input) {
+                byte event;
+                while ((event = input.readByte()) != END) {
+                    switch (event) {
+                        case ANNOTATION: {
+                            String descriptor = input.readString();
+                            boolean visible = input.readBoolean();
+                            accept(recordComponentVisitor == null ? null : recordComponentVisitor.visitAnnotation(descriptor, visible), input);
+                            break;
+                        }
+                        case TYPE_ANNOTATION: {
+                            int typeReference = input.readInt();
+                            TypePath typePath = input.readTypePath();
+                            String descriptor = input.readString();
+                            boolean visible = input.readBoolean();
+                            accept(recordComponentVisitor == null
+                                    ? null
+                                    : recordComponentVisitor.visitTypeAnnotation(typeReference, typePath, descriptor, visible), input);
+                            break;
+                        }
+                        default:
+                            throw new IllegalStateException("Unexpected record component event: " + event);
+                    }
+                }
+                if (recordComponentVisitor != null) {
+                    recordComponentVisitor.visitEnd();
+                }
+            }
+
+            /**
+             * Replays the events of an annotation onto the supplied annotation visitor.
              *
-             * @return A type pool that reads its data from the boot class loader.
+             * @param annotationVisitor The annotation visitor to replay events onto or {@code null} if the events should be skipped.
+             * @param input             The input to read events from.
+             */
+            private static void accept(@Nullable AnnotationVisitor annotationVisitor, Input input) {
+                byte event;
+                while ((event = input.readByte()) != END) {
+                    switch (event) {
+                        case VALUE: {
+                            String name = input.readString();
+                            Object value = input.readValue();
+                            if (annotationVisitor != null) {
+                                annotationVisitor.visit(name, value);
+                            }
+                            break;
+                        }
+                        case ENUMERATION: {
+                            String name = input.readString(), descriptor = input.readString(), value = input.readString();
+                            if (annotationVisitor != null) {
+                                annotationVisitor.visitEnum(name, descriptor, value);
+                            }
+                            break;
+                        }
+                        case NESTED_ANNOTATION: {
+                            String name = input.readString(), descriptor = input.readString();
+                            accept(annotationVisitor == null ? null : annotationVisitor.visitAnnotation(name, descriptor), input);
+                            break;
+                        }
+                        case ARRAY: {
+                            String name = input.readString();
+                            accept(annotationVisitor == null ? null : annotationVisitor.visitArray(name), input);
+                            break;
+                        }
+                        default:
+                            throw new IllegalStateException("Unexpected annotation event: " + event);
+                    }
+                }
+                if (annotationVisitor != null) {
+                    annotationVisitor.visitEnd();
+                }
+            }
+
+            /**
+             * Returns the binary representation of this recording.
+             *
+             * @return The binary representation of this recording.
              */
-            public static TypePool ofPlatformLoader() {
-                return of(ClassFileLocator.ForClassLoader.ofPlatformLoader());
+            public byte[] getBinaryRepresentation() {
+                ByteBuffer buffer = this.buffer.duplicate();
+                buffer.clear();
+                byte[] binaryRepresentation = new byte[buffer.remaining()];
+                buffer.get(binaryRepresentation);
+                return binaryRepresentation;
+            }
+
+            /**
+             * Returns the size of this recording in bytes.
+             *
+             * @return The size of this recording in bytes.
+             */
+            public int getSize() {
+                return buffer.capacity();
+            }
+
+            /**
+             * An output for recording events.
+             */
+            protected static class Output {
+
+                /**
+                 * The strings that were already written, mapped to their index in the string table.
+                 */
+                private final Map<String, Integer> strings;
+
+                /**
+                 * The written bytes.
+                 */
+                private byte[] buffer;
+
+                /**
+                 * The number of written bytes.
+                 */
+                private int length;
+
+                /**
+                 * Creates a new output.
+                 */
+                protected Output() {
+                    strings = new HashMap<String, Integer>();
+                    buffer = new byte[256];
+                }
+
+                /**
+                 * Writes a single byte.
+                 *
+                 * @param value The byte to write.
+                 */
+                protected void writeByte(int value) {
+                    if (length == buffer.length) {
+                        byte[] buffer = new byte[this.buffer.length * 2];
+                        System.arraycopy(this.buffer, 0, buffer, 0, length);
+                        this.buffer = buffer;
+                    }
+                    buffer[length++] = (byte) value;
+                }
+
+                /**
+                 * Writes a boolean value.
+                 *
+                 * @param value The boolean value to write.
+                 */
+                protected void writeBoolean(boolean value) {
+                    writeByte(value ? 1 : 0);
+                }
+
+                /**
+                 * Writes an integer value by a variable-length encoding.
+                 *
+                 * @param value The integer value to write.
+                 */
+                protected void writeInt(int value) {
+                    while ((value & ~0x7F) != 0) {
+                        writeByte((value & 0x7F) | 0x80);
+                        value >>>= 7;
+                    }
+                    writeByte(value);
+                }
+
+                /**
+                 * Writes a long value by its eight bytes.
+                 *
+                 * @param value The long value to write.
+                 */
+                protected void writeLong(long value) {
+                    for (int shift = 56; shift >= 0; shift -= 8) {
+                        writeByte((int) (value >>> shift));
+                    }
+                }
+
+                /**
+                 * Writes a string. Any string is only written once per recording, later writes reference the string's first occurrence.
+                 *
+                 * @param value The string to write or {@code null}.
+                 */
+                protected void writeString(@Nullable String value) {
+                    if (value == null) {
+                        writeInt(NULL_STRING);
+                        return;
+                    }
+                    Integer index = strings.get(value);
+                    if (index != null) {
+                        writeInt(index + STRING_OFFSET);
+                        return;
+                    }
+                    strings.put(value, strings.size());
+                    writeInt(NEW_STRING);
+                    writeInt(value.length());
+                    for (int offset = 0; offset < value.length(); offset++) {
+                        char character = value.charAt(offset);
+                        if (character != 0 && character < 0x80) {
+                            writeByte(character);
+                        } else if (character < 0x800) {
+                            writeByte(0xC0 | (character >> 6));
+                            writeByte(0x80 | (character & 0x3F));
+                        } else {
+                            writeByte(0xE0 | (character >> 12));
+                            writeByte(0x80 | ((character >> 6) & 0x3F));
+                            writeByte(0x80 | (character & 0x3F));
+                        }
+                    }
+                }
+
+                /**
+                 * Writes an array of strings.
+                 *
+                 * @param value The strings to write or {@code null}.
+                 */
+                protected void writeStrings(@Nullable String[] value) {
+                    if (value == null) {
+                        writeInt(0);
+                    } else {
+                        writeInt(value.length + 1);
+                        for (String element : value) {
+                            writeString(element);
+                        }
+                    }
+                }
+
+                /**
+                 * Writes a type path.
+                 *
+                 * @param typePath The type path to write or {@code null}.
+                 */
+                protected void writeTypePath(@Nullable TypePath typePath) {
+                    writeString(typePath == null ? null : typePath.toString());
+                }
+
+                /**
+                 * Writes a constant value as it is supplied to an annotation or field visitor.
+                 *
+                 * @param value The value to write or {@code null}.
+                 */
+                protected void writeValue(@Nullable Object value) {
+                    if (value == null) {
+                        writeByte('N');
+                    } else if (value instanceof Boolean) {
+                        writeByte('Z');
+                        writeBoolean((Boolean) value);
+                    } else if (value instanceof Byte) {
+                        writeByte('B');
+                        writeByte((Byte) value);
+                    } else if (value instanceof Short) {
+                        writeByte('S');
+                        writeInt((Short) value);
+                    } else if (value instanceof Character) {
+                        writeByte('C');
+                        writeInt((Character) value);
+                    } else if (value instanceof Integer) {
+                        writeByte('I');
+                        writeInt((Integer) value);
+                    } else if (value instanceof Long) {
+                        writeByte('J');
+                        writeLong((Long) value);
+                    } else if (value instanceof Float) {
+                        writeByte('F');
+                        writeInt(Float.floatToRawIntBits((Float) value));
+                    } else if (value instanceof Double) {
+                        writeByte('D');
+                        writeLong(Double.doubleToRawLongBits((Double) value));
+                    } else if (value instanceof String) {
+                        writeByte('s');
+                        writeString((String) value);
+                    } else if (value instanceof Type) {
+                        writeByte('T');
+                        writeString(((Type) value).getDescriptor());
+                    } else if (value instanceof boolean[]) {
+                        writeByte('[');
+                        writeByte('Z');
+                        writeInt(((boolean[]) value).length);
+                        for (boolean element : (boolean[]) value) {
+                            writeBoolean(element);
+                        }
+                    } else if (value instanceof byte[]) {
+                        writeByte('[');
+                        writeByte('B');
+                        writeInt(((byte[]) value).length);
+                        for (byte element : (byte[]) value) {
+                            writeByte(element);
+                        }
+                    } else if (value instanceof short[]) {
+                        writeByte('[');
+                        writeByte('S');
+                        writeInt(((short[]) value).length);
+                        for (short element : (short[]) value) {
+                            writeInt(element);
+                        }
+                    } else if (value instanceof char[]) {
+                        writeByte('[');
+                        writeByte('C');
+                        writeInt(((char[]) value).length);
+                        for (char element : (char[]) value) {
+                            writeInt(element);
+                        }
+                    } else if (value instanceof int[]) {
+                        writeByte('[');
+                        writeByte('I');
+                        writeInt(((int[]) value).length);
+                        for (int element : (int[]) value) {
+                            writeInt(element);
+                        }
+                    } else if (value instanceof long[]) {
+                        writeByte('[');
+                        writeByte('J');
+                        writeInt(((long[]) value).length);
+                        for (long element : (long[]) value) {
+                            writeLong(element);
+                        }
+                    } else if (value instanceof float[]) {
+                        writeByte('[');
+                        writeByte('F');
+                        writeInt(((float[]) value).length);
+                        for (float element : (float[]) value) {
+                            writeInt(Float.floatToRawIntBits(element));
+                        }
+                    } else if (value instanceof double[]) {
+                        writeByte('[');
+                        writeByte('D');
+                        writeInt(((double[]) value).length);
+                        for (double element : (double[]) value) {
+                            writeLong(Double.doubleToRawLongBits(element));
+                        }
+                    } else {
+                        throw new IllegalArgumentException("Cannot record value: " + value);
+                    }
+                }
+
+                /**
+                 * Returns the written bytes.
+                 *
+                 * @return An array containing the written bytes.
+                 */
+                protected byte[] toByteArray() {
+                    byte[] buffer = new byte[length];
+                    System.arraycopy(this.buffer, 0, buffer, 0, length);
+                    return buffer;
+                }
+            }
+
+            /**
+             * An input for reading recorded events.
+             */
+            protected static class Input {
+
+                /**
+                 * The buffer to read from.
+                 */
+                private final ByteBuffer buffer;
+
+                /**
+                 * The strings that were already read in the order of their first occurrence.
+                 */
+                private final List<String> strings;
+
+                /**
+                 * The current position within the buffer.
+                 */
+                private int position;
+
+                /**
+                 * Creates a new input.
+                 *
+                 * @param buffer The buffer to read from.
+                 */
+                protected Input(ByteBuffer buffer) {
+                    this.buffer = buffer;
+                    strings = new ArrayList<String>();
+                }
+
+                /**
+                 * Reads a single byte.
+                 *
+                 * @return The byte that was read.
+                 */
+                protected byte readByte() {
+                    return buffer.get(position++);
+                }
+
+                /**
+                 * Reads a boolean value.
+                 *
+                 * @return The boolean value that was read.
+                 */
+                protected boolean readBoolean() {
+                    return readByte() != 0;
+                }
+
+                /**
+                 * Reads an integer value of a variable-length encoding.
+                 *
+                 * @return The integer value that was read.
+                 */
+                protected int readInt() {
+                    int value = 0, shift = 0;
+                    byte current;
+                    do {
+                        current = readByte();
+                        value |= (current & 0x7F) << shift;
+                        shift += 7;
+                    } while ((current & 0x80) != 0);
+                    return value;
+                }
+
+                /**
+                 * Reads a long value of eight bytes.
+                 *
+                 * @return The long value that was read.
+                 */
+                protected long readLong() {
+                    long value = 0L;
+                    for (int index = 0; index < 8; index++) {
+                        value = (value << 8) | (readByte() & 0xFF);
+                    }
+                    return value;
+                }
+
+                /**
+                 * Reads a string.
+                 *
+                 * @return The string that was read or {@code null}.
+                 */
+                @Nullable
+                protected String readString() {
+                    int code = readInt();
+                    if (code == NULL_STRING) {
+                        return null;
+                    } else if (code != NEW_STRING) {
+                        return strings.get(code - STRING_OFFSET);
+                    }
+                    char[] character = new char[readInt()];
+                    for (int index = 0; index < character.length; index++) {
+                        int current = readByte() & 0xFF;
+                        if ((current & 0x80) == 0) {
+                            character[index] = (char) current;
+                        } else if ((current & 0xE0) == 0xC0) {
+                            character[index] = (char) (((current & 0x1F) << 6) | (readByte() & 0x3F));
+                        } else {
+                            character[index] = (char) (((current & 0x0F) << 12) | ((readByte() & 0x3F) << 6) | (readByte() & 0x3F));
+                        }
+                    }
+                    String value = new String(character);
+                    strings.add(value);
+                    return value;
+                }
+
+                /**
+                 * Reads an array of strings.
+                 *
+                 * @return The strings that were read or {@code null}.
+                 */
+                @Nullable
+                protected String[] readStrings() {
+                    int length = readInt();
+                    if (length == 0) {
+                        return null;
+                    }
+                    String[] value = new String[length - 1];
+                    for (int index = 0; index < value.length; index++) {
+                        value[index] = readString();
+                    }
+                    return value;
+                }
+
+                /**
+                 * Reads a type path.
+                 *
+                 * @return The type path that was read or {@code null}.
+                 */
+                @Nullable
+                protected TypePath readTypePath() {
+                    String typePath = readString();
+                    return typePath == null
+                            ? null
+                            : TypePath.fromString(typePath);
+                }
+
+                /**
+                 * Reads a constant value.
+                 *
+                 * @return The constant value that was read or {@code null}.
+                 */
+                @Nullable
+                protected Object readValue() {
+                    byte tag = readByte();
+                    switch (tag) {
+                        case 'N':
+                            return null;
+                        case 'Z':
+                            return readBoolean();
+                        case 'B':
+                            return readByte();
+                        case 'S':
+                            return (short) readInt();
+                        case 'C':
+                            return (char) readInt();
+                        case 'I':
+                            return readInt();
+                        case 'J':
+                            return readLong();
+                        case 'F':
+                            return Float.intBitsToFloat(readInt());
+                        case 'D':
+                            return Double.longBitsToDouble(readLong());
+                        case 's':
+                            return readString();
+                        case 'T':
+                            return Type.getType(readString());
+                        case '[':
+                            return readArray();
+                        default:
+                            throw new IllegalStateException("Unexpected value tag: " + tag);
+                    }
+                }
+
+                /**
+                 * Reads an array of primitive values.
+                 *
+                 * @return The array that was read.
+                 */
+                private Object readArray() {
+                    byte tag = readByte();
+                    int length = readInt();
+                    switch (tag) {
+                        case 'Z': {
+                            boolean[] value = new boolean[length];
+                            for (int index = 0; index < length; index++) {
+                                value[index] = readBoolean();
+                            }
+                            return value;
+                        }
+                        case 'B': {
+                            byte[] value = new byte[length];
+                            for (int index = 0; index < length; index++) {
+                                value[index] = readByte();
+                            }
+                            return value;
+                        }
+                        case 'S': {
+                            short[] value = new short[length];
+                            for (int index = 0; index < length; index++) {
+                                value[index] = (short) readInt();
+                            }
+                            return value;
+                        }
+                        case 'C': {
+                            char[] value = new char[length];
+                            for (int index = 0; index < length; index++) {
+                                value[index] = (char) readInt();
+                            }
+                            return value;
+                        }
+                        case 'I': {
+                            int[] value = new int[length];
+                            for (int index = 0; index < length; index++) {
+                                value[index] = readInt();
+                            }
+                            return value;
+                        }
+                        case 'J': {
+                            long[] value = new long[length];
+                            for (int index = 0; index < length; index++) {
+                                value[index] = readLong();
+                            }
+                            return value;
+                        }
+                        case 'F': {
+                            float[] value = new float[length];
+                            for (int index = 0; index < length; index++) {
+                                value[index] = Float.intBitsToFloat(readInt());
+                            }
+                            return value;
+                        }
+                        case 'D': {
+                            double[] value = new double[length];
+                            for (int index = 0; index < length; index++) {
+                                value[index] = Double.longBitsToDouble(readLong());
+                            }
+                            return value;
+                        }
+                        default:
+                            throw new IllegalStateException("Unexpected array tag: " + tag);
+                    }
+                }
             }
 
-            /**
-             * Creates a default {@link net.bytebuddy.pool.TypePool} with lazy resolution that looks up data by querying the boot class
-             * loader. The returned instance is configured to use a fast reading mode and a simple cache.
-             *
-             * @return A type pool that reads its data from the boot class loader.
-             */
-            public static TypePool ofBootLoader() {
-                return of(ClassFileLocator.ForClassLoader.ofBootLoader());
+            /**
+             * A class visitor that records all events that are relevant for describing a type.
+             */
+            protected static class ClassRecorder extends ClassVisitor {
+
+                /**
+                 * The output to record events to.
+                 */
+                private final Output output;
+
+                /**
+                 * Creates a new class recorder.
+                 *
+                 * @param classVisitor The class visitor to forward events to or {@code null} if events should only be recorded.
+                 * @param output       The output to record events to.
+                 */
+                protected ClassRecorder(@Nullable ClassVisitor classVisitor, Output output) {
+                    super(OpenedClassReader.ASM_API, classVisitor);
+                    this.output = output;
+                }
+
+                @Override
+                public void visit(int version, int modifiers, String internalName, @Nullable String genericSignature, @Nullable String superClassName, @Nullable String[] interfaceName) {
+                    output.writeByte(VISIT);
+                    output.writeInt(version);
+                    output.writeInt(modifiers);
+                    output.writeString(internalName);
+                    output.writeString(genericSignature);
+                    output.writeString(superClassName);
+                    output.writeStrings(interfaceName);
+                    super.visit(version, modifiers, internalName, genericSignature, superClassName, interfaceName);
+                }
+
+                @Override
+                public void visitOuterClass(String typeName, @Nullable String methodName, @Nullable String methodDescriptor) {
+                    output.writeByte(OUTER_CLASS);
+                    output.writeString(typeName);
+                    output.writeString(methodName);
+                    output.writeString(methodDescriptor);
+                    super.visitOuterClass(typeName, methodName, methodDescriptor);
+                }
+
+                @Override
+                public void visitInnerClass(String internalName, @Nullable String outerName, @Nullable String innerName, int modifiers) {
+                    output.writeByte(INNER_CLASS);
+                    output.writeString(internalName);
+                    output.writeString(outerName);
+                    output.writeString(innerName);
+                    output.writeInt(modifiers);
+                    super.visitInnerClass(internalName, outerName, innerName, modifiers);
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    AnnotationVisitor annotationVisitor = super.visitAnnotation(descriptor, visible);
+                    if (cv != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(ANNOTATION);
+                    output.writeString(descriptor);
+                    output.writeBoolean(visible);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitTypeAnnotation(int typeReference, @Nullable TypePath typePath, String descriptor, boolean visible) {
+                    AnnotationVisitor annotationVisitor = super.visitTypeAnnotation(typeReference, typePath, descriptor, visible);
+                    if (cv != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(TYPE_ANNOTATION);
+                    output.writeInt(typeReference);
+                    output.writeTypePath(typePath);
+                    output.writeString(descriptor);
+                    output.writeBoolean(visible);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                @Nullable
+                public FieldVisitor visitField(int modifiers, String internalName, String descriptor, @Nullable String genericSignature, @Nullable Object value) {
+                    FieldVisitor fieldVisitor = super.visitField(modifiers, internalName, descriptor, genericSignature, value);
+                    if (cv != null && fieldVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(FIELD);
+                    output.writeInt(modifiers);
+                    output.writeString(internalName);
+                    output.writeString(descriptor);
+                    output.writeString(genericSignature);
+                    output.writeValue(value);
+                    return new FieldRecorder(fieldVisitor, output);
+                }
+
+                @Override
+                @Nullable
+                public MethodVisitor visitMethod(int modifiers, String internalName, String descriptor, @Nullable String genericSignature, @Nullable String[] exceptionName) {
+                    MethodVisitor methodVisitor = super.visitMethod(modifiers, internalName, descriptor, genericSignature, exceptionName);
+                    if (cv != null && methodVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(METHOD);
+                    output.writeInt(modifiers);
+                    output.writeString(internalName);
+                    output.writeString(descriptor);
+                    output.writeString(genericSignature);
+                    output.writeStrings(exceptionName);
+                    return new MethodRecorder(methodVisitor, output);
+                }
+
+                @Override
+                public void visitNestHost(String nestHost) {
+                    output.writeByte(NEST_HOST);
+                    output.writeString(nestHost);
+                    super.visitNestHost(nestHost);
+                }
+
+                @Override
+                public void visitNestMember(String nestMember) {
+                    output.writeByte(NEST_MEMBER);
+                    output.writeString(nestMember);
+                    super.visitNestMember(nestMember);
+                }
+
+                @Override
+                public void visitPermittedSubclass(String permittedSubclass) {
+                    output.writeByte(PERMITTED_SUBCLASS);
+                    output.writeString(permittedSubclass);
+                    super.visitPermittedSubclass(permittedSubclass);
+                }
+
+                @Override
+                @Nullable
+                public RecordComponentVisitor visitRecordComponent(String name, String descriptor, @Nullable String genericSignature) {
+                    RecordComponentVisitor recordComponentVisitor = super.visitRecordComponent(name, descriptor, genericSignature);
+                    if (cv != null && recordComponentVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(RECORD_COMPONENT);
+                    output.writeString(name);
+                    output.writeString(descriptor);
+                    output.writeString(genericSignature);
+                    return new RecordComponentRecorder(recordComponentVisitor, output);
+                }
+
+                @Override
+                public void visitEnd() {
+                    output.writeByte(END);
+                    super.visitEnd();
+                }
             }
 
             /**
-             * Returns a default {@link TypePool} with lazy resolution for the provided class loader.
-             *
-             * @param classLoader The class loader for which this class pool is representing types.
-             * @return An appropriate type pool.
+             * A field visitor that records all events that are relevant for describing a field.
              */
-            public static TypePool of(@Nullable ClassLoader classLoader) {
-                return of(ClassFileLocator.ForClassLoader.of(classLoader));
-            }
+            protected static class FieldRecorder extends FieldVisitor {
 
-            /**
-             * Creates a default {@link net.bytebuddy.pool.TypePool} with lazy resolution that looks up data by querying the supplied class
-             * file locator. The returned instance is configured to use a fast reading mode and a simple cache.
-             *
-             * @param classFileLocator The class file locator to use.
-             * @return A type pool that reads its data from the system class path.
-             */
-            public static TypePool of(ClassFileLocator classFileLocator) {
-                return new WithLazyResolution(new CacheProvider.Simple(), classFileLocator, ReaderMode.FAST);
-            }
+                /**
+                 * The output to record events to.
+                 */
+                private final Output output;
 
-            @Override
-            protected Resolution doDescribe(String name) {
-                return new LazyResolution(name);
-            }
+                /**
+                 * Creates a new field recorder.
+                 *
+                 * @param fieldVisitor The field visitor to forward events to or {@code null} if events should only be recorded.
+                 * @param output       The output to record events to.
+                 */
+                protected FieldRecorder(@Nullable FieldVisitor fieldVisitor, Output output) {
+                    super(OpenedClassReader.ASM_API, fieldVisitor);
+                    this.output = output;
+                }
 
-            /**
-             * {@inheritDoc}
-             */
-            protected Resolution doCache(String name, Resolution resolution) {
-                return resolution;
-            }
+                @Override
+                @Nullable
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    AnnotationVisitor annotationVisitor = super.visitAnnotation(descriptor, visible);
+                    if (fv != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(ANNOTATION);
+                    output.writeString(descriptor);
+                    output.writeBoolean(visible);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
 
-            /**
-             * Non-lazily resolves a type name.
-             *
-             * @param name The name of the type to resolve.
-             * @return The resolution for the type of this name.
-             */
-            protected Resolution doResolve(String name) {
-                Resolution resolution = cacheProvider.find(name);
-                if (resolution == null) {
-                    resolution = cacheProvider.register(name, WithLazyResolution.super.doDescribe(name));
+                @Override
+                @Nullable
+                public AnnotationVisitor visitTypeAnnotation(int typeReference, @Nullable TypePath typePath, String descriptor, boolean visible) {
+                    AnnotationVisitor annotationVisitor = super.visitTypeAnnotation(typeReference, typePath, descriptor, visible);
+                    if (fv != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(TYPE_ANNOTATION);
+                    output.writeInt(typeReference);
+                    output.writeTypePath(typePath);
+                    output.writeString(descriptor);
+                    output.writeBoolean(visible);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                public void visitEnd() {
+                    output.writeByte(END);
+                    super.visitEnd();
                 }
-                return resolution;
             }
 
             /**
-             * A lazy resolution of a type that the enclosing type pool attempts to resolve.
+             * A method visitor that records all events that are relevant for describing a method.
              */
-            @HashCodeAndEqualsPlugin.Enhance(includeSyntheticFields = true)
-            protected class LazyResolution implements Resolution {
+            protected static class MethodRecorder extends MethodVisitor {
 
                 /**
-                 * The type's name.
+                 * The output to record events to.
                  */
-                private final String name;
+                private final Output output;
 
                 /**
-                 * Creates a new lazy resolution.
+                 * The first label that was visited or {@code null} if no label was yet visited.
+                 */
+                @Nullable
+                private Label firstLabel;
+
+                /**
+                 * Creates a new method recorder.
                  *
-                 * @param name The type's name.
+                 * @param methodVisitor The method visitor to forward events to or {@code null} if events should only be recorded.
+                 * @param output        The output to record events to.
                  */
-                protected LazyResolution(String name) {
-                    this.name = name;
+                protected MethodRecorder(@Nullable MethodVisitor methodVisitor, Output output) {
+                    super(OpenedClassReader.ASM_API, methodVisitor);
+                    this.output = output;
+                }
+
+                @Override
+                public void visitParameter(String name, int modifiers) {
+                    output.writeByte(PARAMETER);
+                    output.writeString(name);
+                    output.writeInt(modifiers);
+                    super.visitParameter(name, modifiers);
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitAnnotationDefault() {
+                    AnnotationVisitor annotationVisitor = super.visitAnnotationDefault();
+                    if (mv != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(ANNOTATION_DEFAULT);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    AnnotationVisitor annotationVisitor = super.visitAnnotation(descriptor, visible);
+                    if (mv != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(ANNOTATION);
+                    output.writeString(descriptor);
+                    output.writeBoolean(visible);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitTypeAnnotation(int typeReference, @Nullable TypePath typePath, String descriptor, boolean visible) {
+                    AnnotationVisitor annotationVisitor = super.visitTypeAnnotation(typeReference, typePath, descriptor, visible);
+                    if (mv != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(TYPE_ANNOTATION);
+                    output.writeInt(typeReference);
+                    output.writeTypePath(typePath);
+                    output.writeString(descriptor);
+                    output.writeBoolean(visible);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                public void visitAnnotableParameterCount(int count, boolean visible) {
+                    output.writeByte(ANNOTABLE_PARAMETER_COUNT);
+                    output.writeInt(count);
+                    output.writeBoolean(visible);
+                    super.visitAnnotableParameterCount(count, visible);
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitParameterAnnotation(int index, String descriptor, boolean visible) {
+                    AnnotationVisitor annotationVisitor = super.visitParameterAnnotation(index, descriptor, visible);
+                    if (mv != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(PARAMETER_ANNOTATION);
+                    output.writeInt(index);
+                    output.writeString(descriptor);
+                    output.writeBoolean(visible);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                public void visitLabel(Label label) {
+                    if (firstLabel == null) {
+                        firstLabel = label;
+                        output.writeByte(LABEL);
+                    }
+                    super.visitLabel(label);
+                }
+
+                @Override
+                public void visitLocalVariable(String name, String descriptor, @Nullable String genericSignature, Label start, Label end, int index) {
+                    if (start == firstLabel) {
+                        output.writeByte(LOCAL_VARIABLE);
+                        output.writeString(name);
+                        output.writeString(descriptor);
+                        output.writeString(genericSignature);
+                        output.writeInt(index);
+                    }
+                    super.visitLocalVariable(name, descriptor, genericSignature, start, end, index);
+                }
+
+                @Override
+                public void visitEnd() {
+                    output.writeByte(END);
+                    super.visitEnd();
                 }
+            }
+
+            /**
+             * A record component visitor that records all events that are relevant for describing a record component.
+             */
+            protected static class RecordComponentRecorder extends RecordComponentVisitor {
 
                 /**
-                 * {@inheritDoc}
+                 * The output to record events to.
                  */
-                public boolean isResolved() {
-                    return doResolve(name).isResolved();
-                }
+                private final Output output;
 
                 /**
-                 * {@inheritDoc}
+                 * Creates a new record component recorder.
+                 *
+                 * @param recordComponentVisitor The record component visitor to forward events to or {@code null} if events should only be recorded.
+                 * @param output                 The output to record events to.
                  */
-                public TypeDescription resolve() {
-                    return new LazyTypeDescription(name);
+                protected RecordComponentRecorder(@Nullable RecordComponentVisitor recordComponentVisitor, Output output) {
+                    super(OpenedClassReader.ASM_API, recordComponentVisitor);
+                    this.output = output;
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    AnnotationVisitor annotationVisitor = super.visitAnnotation(descriptor, visible);
+                    if (getDelegate() != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(ANNOTATION);
+                    output.writeString(descriptor);
+                    output.writeBoolean(visible);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitTypeAnnotation(int typeReference, @Nullable TypePath typePath, String descriptor, boolean visible) {
+                    AnnotationVisitor annotationVisitor = super.visitTypeAnnotation(typeReference, typePath, descriptor, visible);
+                    if (getDelegate() != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(TYPE_ANNOTATION);
+                    output.writeInt(typeReference);
+                    output.writeTypePath(typePath);
+                    output.writeString(descriptor);
+                    output.writeBoolean(visible);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                public void visitEnd() {
+                    output.writeByte(END);
+                    super.visitEnd();
                 }
             }
 
             /**
-             * A lazy type description that resolves any property that is not the name only when requested.
+             * An annotation visitor that records all events of an annotation.
              */
-            protected class LazyTypeDescription extends TypeDescription.AbstractBase.OfSimpleType.WithDelegation {
+            protected static class AnnotationRecorder extends AnnotationVisitor {
 
                 /**
-                 * The type's name.
+                 * The output to record events to.
                  */
-                private final String name;
+                private final Output output;
 
                 /**
-                 * Creates a new lazy type description.
+                 * Creates a new annotation recorder.
                  *
-                 * @param name The type's name.
+                 * @param annotationVisitor The annotation visitor to forward events to or {@code null} if events should only be recorded.
+                 * @param output            The output to record events to.
                  */
-                protected LazyTypeDescription(String name) {
-                    this.name = name;
+                protected AnnotationRecorder(@Nullable AnnotationVisitor annotationVisitor, Output output) {
+                    super(OpenedClassReader.ASM_API, annotationVisitor);
+                    this.output = output;
                 }
 
-                /**
-                 * {@inheritDoc}
-                 */
-                public String getName() {
-                    return name;
+                @Override
+                public void visit(@Nullable String name, Object value) {
+                    output.writeByte(VALUE);
+                    output.writeString(name);
+                    output.writeValue(value);
+                    super.visit(name, value);
                 }
 
                 @Override
-                @CachedReturnPlugin.Enhance("delegate")
-                protected TypeDescription delegate() {
-                    return doResolve(name).resolve();
+                public void visitEnum(@Nullable String name, String descriptor, String value) {
+                    output.writeByte(ENUMERATION);
+                    output.writeString(name);
+                    output.writeString(descriptor);
+                    output.writeString(value);
+                    super.visitEnum(name, descriptor, value);
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitAnnotation(@Nullable String name, String descriptor) {
+                    AnnotationVisitor annotationVisitor = super.visitAnnotation(name, descriptor);
+                    if (av != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(NESTED_ANNOTATION);
+                    output.writeString(name);
+                    output.writeString(descriptor);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                @Nullable
+                public AnnotationVisitor visitArray(@Nullable String name) {
+                    AnnotationVisitor annotationVisitor = super.visitArray(name);
+                    if (av != null && annotationVisitor == null) {
+                        return null;
+                    }
+                    output.writeByte(ARRAY);
+                    output.writeString(name);
+                    return new AnnotationRecorder(annotationVisitor, output);
+                }
+
+                @Override
+                public void visitEnd() {
+                    output.writeByte(END);
+                    super.visitEnd();
                 }
             }
         }
@@ -2722,9 +5730,7 @@ public interface TypePool {
                         ? NO_TYPE
                         : Type.getObjectType(superClassInternalName).getDescriptor();
                 this.genericSignature = genericSignature;
-                signatureResolution = RAW_TYPES
-                        ? GenericTypeToken.Resolution.Raw.INSTANCE
-                        : GenericTypeExtractor.ForSignature.OfType.extract(genericSignature);
+                signatureResolution = GenericTypeToken.Resolution.ForType.Lazy.of(genericSignature);
                 if (interfaceInternalName == null) {
                     interfaceTypeDescriptors = Collections.emptyList();
                 } else {
@@ -4014,39 +7020,116 @@ public interface TypePool {
                                                                TypeDescription definingType);
 
                         /**
-                         * An implementation of a tokenized resolution of generic types of a {@link TypeDescription}.
+                         * An implementation of a tokenized resolution of generic types of a {@link TypeDescription}.
+                         */
+                        @HashCodeAndEqualsPlugin.Enhance
+                        class Tokenized implements ForType {
+
+                            /**
+                             * The super type's generic type token.
+                             */
+                            private final GenericTypeToken superClassToken;
+
+                            /**
+                             * The interface type's generic type tokens.
+                             */
+                            private final List<GenericTypeToken> interfaceTypeTokens;
+
+                            /**
+                             * The type variables generic type tokens.
+                             */
+                            private final List<OfFormalTypeVariable> typeVariableTokens;
+
+                            /**
+                             * Creates a new tokenized resolution of a {@link TypeDescription}'s generic signatures.
+                             *
+                             * @param superClassToken     The super class's generic type token.
+                             * @param interfaceTypeTokens The interface type's generic type tokens.
+                             * @param typeVariableTokens  The type variables generic type tokens.
+                             */
+                            protected Tokenized(GenericTypeToken superClassToken,
+                                                List<GenericTypeToken> interfaceTypeTokens,
+                                                List<OfFormalTypeVariable> typeVariableTokens) {
+                                this.superClassToken = superClassToken;
+                                this.interfaceTypeTokens = interfaceTypeTokens;
+                                this.typeVariableTokens = typeVariableTokens;
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public Generic resolveSuperClass(String superClassDescriptor,
+                                                             TypePool typePool,
+                                                             Map<String, List<AnnotationToken>> annotationTokens,
+                                                             TypeDescription definingType) {
+                                return TokenizedGenericType.of(typePool,
+                                        superClassToken,
+                                        superClassDescriptor,
+                                        annotationTokens,
+                                        definingType);
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public TypeList.Generic resolveInterfaceTypes(List<String> interfaceTypeDescriptors,
+                                                                          TypePool typePool,
+                                                                          Map<Integer, Map<String, List<AnnotationToken>>> annotationTokens,
+                                                                          TypeDescription definingType) {
+                                return new TokenizedGenericType.TokenList(typePool, interfaceTypeTokens, annotationTokens, interfaceTypeDescriptors, definingType);
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public TypeList.Generic resolveTypeVariables(TypePool typePool,
+                                                                         TypeVariableSource typeVariableSource,
+                                                                         Map<Integer, Map<String, List<AnnotationToken>>> annotationTokens,
+                                                                         Map<Integer, Map<Integer, Map<String, List<AnnotationToken>>>> boundAnnotationTokens) {
+                                return new TokenizedGenericType.TypeVariableList(typePool, typeVariableTokens, typeVariableSource, annotationTokens, boundAnnotationTokens);
+                            }
+                        }
+
+                        /**
+                         * A lazy resolution of the generic types of a {@link TypeDescription} that only parses the generic signature when first needed.
                          */
                         @HashCodeAndEqualsPlugin.Enhance
-                        class Tokenized implements ForType {
+                        class Lazy implements ForType {
 
                             /**
-                             * The super type's generic type token.
+                             * The generic signature to parse.
                              */
-                            private final GenericTypeToken superClassToken;
+                            private final String genericSignature;
 
                             /**
-                             * The interface type's generic type tokens.
+                             * Creates a new lazy resolution of a generic signature.
+                             *
+                             * @param genericSignature The generic signature to parse.
                              */
-                            private final List<GenericTypeToken> interfaceTypeTokens;
+                            protected Lazy(String genericSignature) {
+                                this.genericSignature = genericSignature;
+                            }
 
                             /**
-                             * The type variables generic type tokens.
+                             * Resolves a lazy resolution of the supplied generic signature.
+                             *
+                             * @param genericSignature The generic signature to parse or {@code null} if the represented element is not generic.
+                             * @return An appropriate resolution.
                              */
-                            private final List<OfFormalTypeVariable> typeVariableTokens;
+                            protected static ForType of(@Nullable String genericSignature) {
+                                return RAW_TYPES || genericSignature == null
+                                        ? Raw.INSTANCE
+                                        : new Lazy(genericSignature);
+                            }
 
                             /**
-                             * Creates a new tokenized resolution of a {@link TypeDescription}'s generic signatures.
+                             * Parses the generic signature.
                              *
-                             * @param superClassToken     The super class's generic type token.
-                             * @param interfaceTypeTokens The interface type's generic type tokens.
-                             * @param typeVariableTokens  The type variables generic type tokens.
+                             * @return The parsed generic signature.
                              */
-                            protected Tokenized(GenericTypeToken superClassToken,
-                                                List<GenericTypeToken> interfaceTypeTokens,
-                                                List<OfFormalTypeVariable> typeVariableTokens) {
-                                this.superClassToken = superClassToken;
-                                this.interfaceTypeTokens = interfaceTypeTokens;
-                                this.typeVariableTokens = typeVariableTokens;
+                            @CachedReturnPlugin.Enhance("resolved")
+                            protected ForType resolve() {
+                                return GenericTypeExtractor.ForSignature.OfType.extract(genericSignature);
                             }
 
                             /**
@@ -4056,11 +7139,7 @@ public interface TypePool {
                                                              TypePool typePool,
                                                              Map<String, List<AnnotationToken>> annotationTokens,
                                                              TypeDescription definingType) {
-                                return TokenizedGenericType.of(typePool,
-                                        superClassToken,
-                                        superClassDescriptor,
-                                        annotationTokens,
-                                        definingType);
+                                return resolve().resolveSuperClass(superClassDescriptor, typePool, annotationTokens, definingType);
                             }
 
                             /**
@@ -4070,7 +7149,7 @@ public interface TypePool {
                                                                           TypePool typePool,
                                                                           Map<Integer, Map<String, List<AnnotationToken>>> annotationTokens,
                                                                           TypeDescription definingType) {
-                                return new TokenizedGenericType.TokenList(typePool, interfaceTypeTokens, annotationTokens, interfaceTypeDescriptors, definingType);
+                                return resolve().resolveInterfaceTypes(interfaceTypeDescriptors, typePool, annotationTokens, definingType);
                             }
 
                             /**
@@ -4080,7 +7159,7 @@ public interface TypePool {
                                                                          TypeVariableSource typeVariableSource,
                                                                          Map<Integer, Map<String, List<AnnotationToken>>> annotationTokens,
                                                                          Map<Integer, Map<Integer, Map<String, List<AnnotationToken>>>> boundAnnotationTokens) {
-                                return new TokenizedGenericType.TypeVariableList(typePool, typeVariableTokens, typeVariableSource, annotationTokens, boundAnnotationTokens);
+                                return resolve().resolveTypeVariables(typePool, typeVariableSource, annotationTokens, boundAnnotationTokens);
                             }
                         }
                     }
@@ -4138,6 +7217,59 @@ public interface TypePool {
                                         definingField.getDeclaringType());
                             }
                         }
+
+                        /**
+                         * A lazy resolution of the generic types of a {@link FieldDescription} that only parses the generic signature when first needed.
+                         */
+                        @HashCodeAndEqualsPlugin.Enhance
+                        class Lazy implements ForField {
+
+                            /**
+                             * The generic signature to parse.
+                             */
+                            private final String genericSignature;
+
+                            /**
+                             * Creates a new lazy resolution of a generic signature.
+                             *
+                             * @param genericSignature The generic signature to parse.
+                             */
+                            protected Lazy(String genericSignature) {
+                                this.genericSignature = genericSignature;
+                            }
+
+                            /**
+                             * Resolves a lazy resolution of the supplied generic signature.
+                             *
+                             * @param genericSignature The generic signature to parse or {@code null} if the represented element is not generic.
+                             * @return An appropriate resolution.
+                             */
+                            protected static ForField of(@Nullable String genericSignature) {
+                                return RAW_TYPES || genericSignature == null
+                                        ? Raw.INSTANCE
+                                        : new Lazy(genericSignature);
+                            }
+
+                            /**
+                             * Parses the generic signature.
+                             *
+                             * @return The parsed generic signature.
+                             */
+                            @CachedReturnPlugin.Enhance("resolved")
+                            protected ForField resolve() {
+                                return GenericTypeExtractor.ForSignature.OfField.extract(genericSignature);
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public Generic resolveFieldType(String fieldTypeDescriptor,
+                                                            TypePool typePool,
+                                                            Map<String, List<AnnotationToken>> annotationTokens,
+                                                            FieldDescription.InDefinedShape definingField) {
+                                return resolve().resolveFieldType(fieldTypeDescriptor, typePool, annotationTokens, definingField);
+                            }
+                        }
                     }
 
                     /**
@@ -4278,6 +7410,89 @@ public interface TypePool {
                                 return new TokenizedGenericType.TypeVariableList(typePool, typeVariableTokens, typeVariableSource, annotationTokens, boundAnnotationTokens);
                             }
                         }
+
+                        /**
+                         * A lazy resolution of the generic types of a {@link MethodDescription} that only parses the generic signature when first needed.
+                         */
+                        @HashCodeAndEqualsPlugin.Enhance
+                        class Lazy implements ForMethod {
+
+                            /**
+                             * The generic signature to parse.
+                             */
+                            private final String genericSignature;
+
+                            /**
+                             * Creates a new lazy resolution of a generic signature.
+                             *
+                             * @param genericSignature The generic signature to parse.
+                             */
+                            protected Lazy(String genericSignature) {
+                                this.genericSignature = genericSignature;
+                            }
+
+                            /**
+                             * Resolves a lazy resolution of the supplied generic signature.
+                             *
+                             * @param genericSignature The generic signature to parse or {@code null} if the represented element is not generic.
+                             * @return An appropriate resolution.
+                             */
+                            protected static ForMethod of(@Nullable String genericSignature) {
+                                return RAW_TYPES || genericSignature == null
+                                        ? Raw.INSTANCE
+                                        : new Lazy(genericSignature);
+                            }
+
+                            /**
+                             * Parses the generic signature.
+                             *
+                             * @return The parsed generic signature.
+                             */
+                            @CachedReturnPlugin.Enhance("resolved")
+                            protected ForMethod resolve() {
+                                return GenericTypeExtractor.ForSignature.OfMethod.extract(genericSignature);
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public Generic resolveReturnType(String returnTypeDescriptor,
+                                                             TypePool typePool,
+                                                             Map<String, List<AnnotationToken>> annotationTokens,
+                                                             MethodDescription.InDefinedShape definingMethod) {
+                                return resolve().resolveReturnType(returnTypeDescriptor, typePool, annotationTokens, definingMethod);
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public TypeList.Generic resolveParameterTypes(List<String> parameterTypeDescriptors,
+                                                                          TypePool typePool,
+                                                                          Map<Integer, Map<String, List<AnnotationToken>>> annotationTokens,
+                                                                          MethodDescription.InDefinedShape definingMethod) {
+                                return resolve().resolveParameterTypes(parameterTypeDescriptors, typePool, annotationTokens, definingMethod);
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public TypeList.Generic resolveExceptionTypes(List<String> exceptionTypeDescriptors,
+                                                                          TypePool typePool,
+                                                                          Map<Integer, Map<String, List<AnnotationToken>>> annotationTokens,
+                                                                          MethodDescription.InDefinedShape definingMethod) {
+                                return resolve().resolveExceptionTypes(exceptionTypeDescriptors, typePool, annotationTokens, definingMethod);
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public TypeList.Generic resolveTypeVariables(TypePool typePool,
+                                                                         TypeVariableSource typeVariableSource,
+                                                                         Map<Integer, Map<String, List<AnnotationToken>>> annotationTokens,
+                                                                         Map<Integer, Map<Integer, Map<String, List<AnnotationToken>>>> boundAnnotationTokens) {
+                                return resolve().resolveTypeVariables(typePool, typeVariableSource, annotationTokens, boundAnnotationTokens);
+                            }
+                        }
                     }
 
                     /**
@@ -4333,6 +7548,59 @@ public interface TypePool {
                                         definingRecordComponent.getDeclaringType());
                             }
                         }
+
+                        /**
+                         * A lazy resolution of the generic types of a {@link RecordComponentDescription} that only parses the generic signature when first needed.
+                         */
+                        @HashCodeAndEqualsPlugin.Enhance
+                        class Lazy implements ForRecordComponent {
+
+                            /**
+                             * The generic signature to parse.
+                             */
+                            private final String genericSignature;
+
+                            /**
+                             * Creates a new lazy resolution of a generic signature.
+                             *
+                             * @param genericSignature The generic signature to parse.
+                             */
+                            protected Lazy(String genericSignature) {
+                                this.genericSignature = genericSignature;
+                            }
+
+                            /**
+                             * Resolves a lazy resolution of the supplied generic signature.
+                             *
+                             * @param genericSignature The generic signature to parse or {@code null} if the represented element is not generic.
+                             * @return An appropriate resolution.
+                             */
+                            protected static ForRecordComponent of(@Nullable String genericSignature) {
+                                return RAW_TYPES || genericSignature == null
+                                        ? Raw.INSTANCE
+                                        : new Lazy(genericSignature);
+                            }
+
+                            /**
+                             * Parses the generic signature.
+                             *
+                             * @return The parsed generic signature.
+                             */
+                            @CachedReturnPlugin.Enhance("resolved")
+                            protected ForRecordComponent resolve() {
+                                return GenericTypeExtractor.ForSignature.OfRecordComponent.extract(genericSignature);
+                            }
+
+                            /**
+                             * {@inheritDoc}
+                             */
+                            public Generic resolveRecordType(String recordTypeDescriptor,
+                                                             TypePool typePool,
+                                                             Map<String, List<AnnotationToken>> annotationTokens,
+                                                             RecordComponentDescription.InDefinedShape definingRecordComponent) {
+                                return resolve().resolveRecordType(recordTypeDescriptor, typePool, annotationTokens, definingRecordComponent);
+                            }
+                        }
                     }
                 }
 
@@ -5754,9 +9022,7 @@ public interface TypePool {
                     this.name = name;
                     this.descriptor = descriptor;
                     this.genericSignature = genericSignature;
-                    signatureResolution = RAW_TYPES
-                            ? GenericTypeToken.Resolution.Raw.INSTANCE
-                            : GenericTypeExtractor.ForSignature.OfField.extract(genericSignature);
+                    signatureResolution = GenericTypeToken.Resolution.ForField.Lazy.of(genericSignature);
                     this.typeAnnotationTokens = typeAnnotationTokens;
                     this.annotationTokens = annotationTokens;
                 }
@@ -5908,9 +9174,7 @@ public interface TypePool {
                     this.name = name;
                     this.descriptor = descriptor;
                     this.genericSignature = genericSignature;
-                    signatureResolution = RAW_TYPES
-                            ? GenericTypeToken.Resolution.Raw.INSTANCE
-                            : GenericTypeExtractor.ForSignature.OfMethod.extract(genericSignature);
+                    signatureResolution = GenericTypeToken.Resolution.ForMethod.Lazy.of(genericSignature);
                     this.exceptionName = exceptionName;
                     this.typeVariableAnnotationTokens = typeVariableAnnotationTokens;
                     this.typeVariableBoundAnnotationTokens = typeVariableBoundAnnotationTokens;
@@ -6084,9 +9348,7 @@ public interface TypePool {
                     this.name = name;
                     this.descriptor = descriptor;
                     this.genericSignature = genericSignature;
-                    signatureResolution = RAW_TYPES
-                            ? GenericTypeToken.Resolution.Raw.INSTANCE
-                            : GenericTypeExtractor.ForSignature.OfRecordComponent.extract(genericSignature);
+                    signatureResolution = GenericTypeToken.Resolution.ForRecordComponent.Lazy.of(genericSignature);
                     this.typeAnnotationTokens = typeAnnotationTokens;
                     this.annotationTokens = annotationTokens;
                 }
@@ -8891,6 +12153,173 @@ public interface TypePool {
         }
     }
 
+    /**
+     * <p>
+     * A type pool that is able to resolve types in parallel by a supplied {@link ExecutorService} before they are described. Once a type
+     * is prefetched, it is described by the delegate type pool on a thread of the executor service what fills the delegate pool's cache.
+     * If a type is described while it is still being prefetched, the describing thread awaits the prefetching instead of resolving the
+     * type a second time. If the prefetching of a type did not yet start, for example because it is queued behind other prefetches, the
+     * describing thread resolves the type itself. The executor service can be a fork join pool, if available.
+     * </p>
+     * <p>
+     * <b>Important</b>: The delegate type pool must be thread-safe and must apply a cache for prefetching to be effective. The executor
+     * service is not shut down by this type pool.
+     * </p>
+     */
+    class Prefetching implements TypePool {
+
+        /**
+         * The type pool to delegate to.
+         */
+        private final TypePool typePool;
+
+        /**
+         * The executor service to use for prefetching types.
+         */
+        private final ExecutorService executorService;
+
+        /**
+         * A mapping of type names to resolutions that are currently prefetched.
+         */
+        private final ConcurrentMap<String, Prefetch> prefetches;
+
+        /**
+         * Creates a new prefetching type pool.
+         *
+         * @param typePool        The type pool to delegate to.
+         * @param executorService The executor service to use for prefetching types.
+         */
+        public Prefetching(TypePool typePool, ExecutorService executorService) {
+            this.typePool = typePool;
+            this.executorService = executorService;
+            prefetches = new ConcurrentHashMap<String, Prefetch>();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Resolution describe(String name) {
+            Prefetch prefetch = prefetches.get(name);
+            if (prefetch != null) {
+                prefetch.run();
+                try {
+                    return prefetch.get();
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ignored) {
+                    /* describe the type on the current thread to propagate the error */
+                }
+            }
+            return typePool.describe(name);
+        }
+
+        /**
+         * Resolves the supplied types in the background. This method returns without awaiting the resolution of the supplied types.
+         *
+         * @param names The names of the types to resolve.
+         */
+        public void prefetch(Collection<String> names) {
+            for (String name : names) {
+                if (!prefetches.containsKey(name)) {
+                    Prefetch prefetch = new Prefetch(name);
+                    if (prefetches.putIfAbsent(name, prefetch) == null) {
+                        try {
+                            executorService.execute(prefetch);
+                        } catch (RuntimeException exception) {
+                            prefetches.remove(name, prefetch);
+                            throw exception;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Resolves the supplied types in parallel and returns their resolutions once all types are resolved.
+         *
+         * @param names The names of the types to resolve.
+         * @return A mapping of the supplied type names to their resolution in the iteration order of the supplied collection.
+         */
+        public Map<String, Resolution> describeAll(Collection<String> names) {
+            prefetch(names);
+            Map<String, Resolution> resolutions = new LinkedHashMap<String, Resolution>();
+            for (String name : names) {
+                resolutions.put(name, describe(name));
+            }
+            return resolutions;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void clear() {
+            typePool.clear();
+        }
+
+        /**
+         * A task for prefetching a type that removes itself from the currently prefetched types upon its completion.
+         */
+        protected class Prefetch extends FutureTask<Resolution> {
+
+            /**
+             * The name of the prefetched type.
+             */
+            private final String name;
+
+            /**
+             * Creates a new prefetch task.
+             *
+             * @param name The name of the prefetched type.
+             */
+            protected Prefetch(String name) {
+                super(new Resolver(typePool, name));
+                this.name = name;
+            }
+
+            @Override
+            protected void done() {
+                prefetches.remove(name, this);
+            }
+        }
+
+        /**
+         * A resolver for a type of the delegate type pool.
+         */
+        @HashCodeAndEqualsPlugin.Enhance
+        protected static class Resolver implements Callable<Resolution> {
+
+            /**
+             * The type pool to delegate to.
+             */
+            private final TypePool typePool;
+
+            /**
+             * The name of the type to resolve.
+             */
+            private final String name;
+
+            /**
+             * Creates a new resolver.
+             *
+             * @param typePool The type pool to delegate to.
+             * @param name     The name of the type to resolve.
+             */
+            protected Resolver(TypePool typePool, String name) {
+                this.typePool = typePool;
+                this.name = name;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            public Resolution call() {
+                Resolution resolution = typePool.describe(name);
+                resolution.isResolved();
+                return resolution;
+            }
+        }
+    }
+
     /**
      * A lazy facade of a type pool that delegates any lookups to another type pool only if another value than the type's name is looked up.
      */
@@ -0,0 +1,414 @@
+/*
+ * Copyright 2014 - Present Rafael Winterhalter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.bytebuddy.utility;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import net.bytebuddy.build.HashCodeAndEqualsPlugin;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A minimal view on a class file's header that only processes the constant pool and the class's declaration, i.e. its modifiers,
+ * its name, the name of its super class and the names of its interfaces. Reading a header does not require parsing a class file's
+ * members or attributes. As any symbol that is referenced by a class file is contained in its constant pool, the header allows
+ * to conservatively decide if a class file might declare a given annotation or reference a given type.
+ */
+@HashCodeAndEqualsPlugin.Enhance
+public class ClassFileHeader {
+
+    /**
+     * The magic number of a class file.
+     */
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * The offset of the constant pool's size within a class file.
+     */
+    private static final int CONSTANT_POOL_OFFSET = 8;
+
+    /**
+     * The tag of a {@code CONSTANT_Utf8_info} constant pool entry.
+     */
+    private static final int UTF8 = 1;
+
+    /**
+     * The tag of a {@code CONSTANT_Integer_info} constant pool entry.
+     */
+    private static final int INTEGER = 3;
+
+    /**
+     * The tag of a {@code CONSTANT_Float_info} constant pool entry.
+     */
+    private static final int FLOAT = 4;
+
+    /**
+     * The tag of a {@code CONSTANT_Long_info} constant pool entry.
+     */
+    private static final int LONG = 5;
+
+    /**
+     * The tag of a {@code CONSTANT_Double_info} constant pool entry.
+     */
+    private static final int DOUBLE = 6;
+
+    /**
+     * The tag of a {@code CONSTANT_Class_info} constant pool entry.
+     */
+    private static final int CLASS = 7;
+
+    /**
+     * The tag of a {@code CONSTANT_String_info} constant pool entry.
+     */
+    private static final int STRING = 8;
+
+    /**
+     * The tag of a {@code CONSTANT_Fieldref_info} constant pool entry.
+     */
+    private static final int FIELD_REFERENCE = 9;
+
+    /**
+     * The tag of a {@code CONSTANT_Methodref_info} constant pool entry.
+     */
+    private static final int METHOD_REFERENCE = 10;
+
+    /**
+     * The tag of a {@code CONSTANT_InterfaceMethodref_info} constant pool entry.
+     */
+    private static final int INTERFACE_METHOD_REFERENCE = 11;
+
+    /**
+     * The tag of a {@code CONSTANT_NameAndType_info} constant pool entry.
+     */
+    private static final int NAME_AND_TYPE = 12;
+
+    /**
+     * The tag of a {@code CONSTANT_MethodHandle_info} constant pool entry.
+     */
+    private static final int METHOD_HANDLE = 15;
+
+    /**
+     * The tag of a {@code CONSTANT_MethodType_info} constant pool entry.
+     */
+    private static final int METHOD_TYPE = 16;
+
+    /**
+     * The tag of a {@code CONSTANT_Dynamic_info} constant pool entry.
+     */
+    private static final int DYNAMIC = 17;
+
+    /**
+     * The tag of a {@code CONSTANT_InvokeDynamic_info} constant pool entry.
+     */
+    private static final int INVOKE_DYNAMIC = 18;
+
+    /**
+     * The tag of a {@code CONSTANT_Module_info} constant pool entry.
+     */
+    private static final int MODULE = 19;
+
+    /**
+     * The tag of a {@code CONSTANT_Package_info} constant pool entry.
+     */
+    private static final int PACKAGE = 20;
+
+    /**
+     * The binary representation of the class file.
+     */
+    private final byte[] binaryRepresentation;
+
+    /**
+     * The offsets of the constant pool entries' tags within the class file where the first entry is not used.
+     */
+    private final int[] offsets;
+
+    /**
+     * The offset of the class's access flags within the class file.
+     */
+    private final int header;
+
+    /**
+     * Creates a new class file header.
+     *
+     * @param binaryRepresentation The binary representation of the class file.
+     * @param offsets              The offsets of the constant pool entries' tags within the class file where the first entry is not used.
+     * @param header               The offset of the class's access flags within the class file.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "The array is not to be modified by contract")
+    protected ClassFileHeader(byte[] binaryRepresentation, int[] offsets, int header) {
+        this.binaryRepresentation = binaryRepresentation;
+        this.offsets = offsets;
+        this.header = header;
+    }
+
+    /**
+     * Reads the header of a class file. The supplied array must not be modified after the header was read.
+     *
+     * @param binaryRepresentation The binary representation of the class file.
+     * @return A header of the supplied class file.
+     * @throws IllegalArgumentException If the supplied array does not represent a well-formed class file header.
+     */
+    public static ClassFileHeader of(byte[] binaryRepresentation) {
+        if (binaryRepresentation.length < CONSTANT_POOL_OFFSET + 2 || readInteger(binaryRepresentation, 0) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        int[] offsets = new int[readUnsignedShort(binaryRepresentation, CONSTANT_POOL_OFFSET)];
+        int offset = CONSTANT_POOL_OFFSET + 2;
+        try {
+            for (int index = 1; index < offsets.length; index++) {
+                offsets[index] = offset;
+                switch (binaryRepresentation[offset]) {
+                    case UTF8:
+                        offset += 3 + readUnsignedShort(binaryRepresentation, offset + 1);
+                        break;
+                    case CLASS:
+                    case STRING:
+                    case METHOD_TYPE:
+                    case MODULE:
+                    case PACKAGE:
+                        offset += 3;
+                        break;
+                    case METHOD_HANDLE:
+                        offset += 4;
+                        break;
+                    case INTEGER:
+                    case FLOAT:
+                    case FIELD_REFERENCE:
+                    case METHOD_REFERENCE:
+                    case INTERFACE_METHOD_REFERENCE:
+                    case NAME_AND_TYPE:
+                    case DYNAMIC:
+                    case INVOKE_DYNAMIC:
+                        offset += 5;
+                        break;
+                    case LONG:
+                    case DOUBLE:
+                        offset += 9;
+                        index++;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown constant pool tag " + binaryRepresentation[offset] + " at " + offset);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException exception) {
+            throw new IllegalArgumentException("Truncated constant pool", exception);
+        }
+        if (offset + 8 > binaryRepresentation.length) {
+            throw new IllegalArgumentException("Truncated class file header");
+        }
+        return new ClassFileHeader(binaryRepresentation, offsets, offset);
+    }
+
+    /**
+     * Reads an unsigned short value in big-endian order.
+     *
+     * @param binaryRepresentation The array to read from.
+     * @param offset               The offset of the value.
+     * @return The value that was read.
+     */
+    private static int readUnsignedShort(byte[] binaryRepresentation, int offset) {
+        return ((binaryRepresentation[offset] & 0xFF) << 8) | (binaryRepresentation[offset + 1] & 0xFF);
+    }
+
+    /**
+     * Reads an integer value in big-endian order.
+     *
+     * @param binaryRepresentation The array to read from.
+     * @param offset               The offset of the value.
+     * @return The value that was read.
+     */
+    private static int readInteger(byte[] binaryRepresentation, int offset) {
+        return (readUnsignedShort(binaryRepresentation, offset) << 16) | readUnsignedShort(binaryRepresentation, offset + 2);
+    }
+
+    /**
+     * Returns the class's modifiers as found in the class file.
+     *
+     * @return The class's modifiers as found in the class file.
+     */
+    public int getModifiers() {
+        return readUnsignedShort(binaryRepresentation, header);
+    }
+
+    /**
+     * Returns the internal name of the represented class.
+     *
+     * @return The internal name of the represented class.
+     */
+    public String getInternalName() {
+        return readClass(readUnsignedShort(binaryRepresentation, header + 2));
+    }
+
+    /**
+     * Returns the internal name of the represented class's super class or {@code null} if no super class is defined.
+     *
+     * @return The internal name of the represented class's super class or {@code null} if no super class is defined.
+     */
+    @Nullable
+    public String getSuperClassInternalName() {
+        int index = readUnsignedShort(binaryRepresentation, header + 4);
+        return index == 0
+                ? null
+                : readClass(index);
+    }
+
+    /**
+     * Returns the internal names of the represented class's interfaces.
+     *
+     * @return The internal names of the represented class's interfaces.
+     */
+    public List<String> getInterfaceInternalNames() {
+        int count = readUnsignedShort(binaryRepresentation, header + 6);
+        List<String> interfaces = new ArrayList<String>(count);
+        for (int index = 0; index < count; index++) {
+            interfaces.add(readClass(readUnsignedShort(binaryRepresentation, header + 8 + index * 2)));
+        }
+        return interfaces;
+    }
+
+    /**
+     * Returns the internal names of all classes that are referenced by a {@code CONSTANT_Class_info} entry of the class file's
+     * constant pool, including the represented class itself. Array types are represented by their descriptor.
+     *
+     * @return The internal names of all classes that are referenced by the class file's constant pool.
+     */
+    public List<String> getClassReferenceInternalNames() {
+        List<String> classReferences = new ArrayList<String>();
+        for (int index = 1; index < offsets.length; index++) {
+            if (offsets[index] != 0 && binaryRepresentation[offsets[index]] == CLASS) {
+                classReferences.add(readClass(index));
+            }
+        }
+        return classReferences;
+    }
+
+    /**
+     * Checks if the class file's constant pool contains the supplied value as a {@code CONSTANT_Utf8_info} entry. Any
+     * name or descriptor that is used by a class file is represented by such an entry, including the descriptors of
+     * the annotations that are declared by the class or its members.
+     *
+     * @param value The value to locate.
+     * @return {@code true} if the constant pool contains the supplied value.
+     */
+    public boolean containsUtf8(String value) {
+        byte[] encoded = encode(value);
+        for (int index = 1; index < offsets.length; index++) {
+            int offset = offsets[index];
+            if (offset != 0
+                    && binaryRepresentation[offset] == UTF8
+                    && readUnsignedShort(binaryRepresentation, offset + 1) == encoded.length
+                    && matches(encoded, offset + 3)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the class file contains the supplied bytes at the given offset.
+     *
+     * @param encoded The bytes to compare.
+     * @param offset  The offset of the class file's bytes to compare to.
+     * @return {@code true} if the class file contains the supplied bytes at the given offset.
+     */
+    private boolean matches(byte[] encoded, int offset) {
+        for (int index = 0; index < encoded.length; index++) {
+            if (binaryRepresentation[offset + index] != encoded[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the name of a {@code CONSTANT_Class_info} entry.
+     *
+     * @param index The index of the constant pool entry.
+     * @return The referenced class's internal name.
+     */
+    private String readClass(int index) {
+        if (binaryRepresentation[offsets[index]] != CLASS) {
+            throw new IllegalStateException("Expected class entry at constant pool index " + index);
+        }
+        return readUtf8(readUnsignedShort(binaryRepresentation, offsets[index] + 1));
+    }
+
+    /**
+     * Reads the value of a {@code CONSTANT_Utf8_info} entry.
+     *
+     * @param index The index of the constant pool entry.
+     * @return The decoded value.
+     */
+    private String readUtf8(int index) {
+        int offset = offsets[index];
+        if (binaryRepresentation[offset] != UTF8) {
+            throw new IllegalStateException("Expected UTF-8 entry at constant pool index " + index);
+        }
+        int length = readUnsignedShort(binaryRepresentation, offset + 1), position = offset + 3, limit = position + length;
+        char[] value = new char[length];
+        int size = 0;
+        while (position < limit) {
+            int current = binaryRepresentation[position++] & 0xFF;
+            if ((current & 0x80) == 0) {
+                value[size++] = (char) current;
+            } else if ((current & 0xE0) == 0xC0) {
+                value[size++] = (char) (((current & 0x1F) << 6) | (binaryRepresentation[position++] & 0x3F));
+            } else {
+                value[size++] = (char) (((current & 0x0F) << 12)
+                        | ((binaryRepresentation[position++] & 0x3F) << 6)
+                        | (binaryRepresentation[position++] & 0x3F));
+            }
+        }
+        return new String(value, 0, size);
+    }
+
+    /**
+     * Encodes a value in the modified UTF-8 format that is used by class files.
+     *
+     * @param value The value to encode.
+     * @return The encoded value.
+     */
+    private static byte[] encode(String value) {
+        int length = 0;
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (character >= 0x0001 && character <= 0x007F) {
+                length += 1;
+            } else if (character <= 0x07FF) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        byte[] encoded = new byte[length];
+        int position = 0;
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (character >= 0x0001 && character <= 0x007F) {
+                encoded[position++] = (byte) character;
+            } else if (character <= 0x07FF) {
+                encoded[position++] = (byte) (0xC0 | ((character >> 6) & 0x1F));
+                encoded[position++] = (byte) (0x80 | (character & 0x3F));
+            } else {
+                encoded[position++] = (byte) (0xE0 | ((character >> 12) & 0x0F));
+                encoded[position++] = (byte) (0x80 | ((character >> 6) & 0x3F));
+                encoded[position++] = (byte) (0x80 | (character & 0x3F));
+            }
+        }
+        return encoded;
+    }
+}
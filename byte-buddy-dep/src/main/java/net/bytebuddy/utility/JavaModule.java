@@ -47,6 +47,11 @@ public class JavaModule implements NamedElement.WithOptionalName, AnnotationSour
      */
     protected static final Resolver RESOLVER = doPrivileged(JavaDispatcher.of(Resolver.class));
 
+    /**
+     * A dispatcher to resolve a {@link ClassLoader}'s unnamed {@code java.lang.Module}.
+     */
+    protected static final UnnamedModuleResolver UNNAMED_MODULE_RESOLVER = doPrivileged(JavaDispatcher.of(UnnamedModuleResolver.class));
+
     /**
      * A dispatcher to interact with {@code java.lang.Module}.
      */
@@ -92,6 +97,21 @@ public class JavaModule implements NamedElement.WithOptionalName, AnnotationSour
                 : new JavaModule((AnnotatedElement) module);
     }
 
+    /**
+     * Returns a representation of the supplied class loader's unnamed {@code java.lang.Module} or {@code null} if the current VM
+     * does not support modules.
+     *
+     * @param classLoader The class loader for which to describe the unnamed module.
+     * @return A representation of the class loader's unnamed module or {@code null} if the current VM does not support modules.
+     */
+    @Nullable
+    public static JavaModule ofUnnamed(ClassLoader classLoader) {
+        Object module = UNNAMED_MODULE_RESOLVER.getUnnamedModule(classLoader);
+        return module == null
+                ? UNSUPPORTED
+                : new JavaModule((AnnotatedElement) module);
+    }
+
     /**
      * Represents the supplied {@code java.lang.Module} as an instance of this class and validates that the
      * supplied instance really represents a Java {@code Module}.
@@ -237,6 +257,23 @@ public class JavaModule implements NamedElement.WithOptionalName, AnnotationSour
         Object getModule(Class<?> type);
     }
 
+    /**
+     * A proxy for resolving a {@link ClassLoader}'s unnamed {@code java.lang.Module}.
+     */
+    @JavaDispatcher.Proxied("java.lang.ClassLoader")
+    protected interface UnnamedModuleResolver {
+
+        /**
+         * Resolves the unnamed {@code java.lang.Module} of the supplied class loader.
+         *
+         * @param classLoader The class loader for which to resolve the unnamed module.
+         * @return The class loader's unnamed module or {@code null} if the module system is not supported.
+         */
+        @Nullable
+        @JavaDispatcher.Defaults
+        Object getUnnamedModule(ClassLoader classLoader);
+    }
+
     /**
      * A proxy for interacting with {@code java.lang.Module}.
      */
@@ -2,7 +2,12 @@ package net.bytebuddy.agent.builder;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -45,4 +50,54 @@ public class AgentBuilderCircularityLockTest {
         assertThat(circularityLock.acquire(), is(true));
         circularityLock.release();
     }
+
+    @Test
+    public void testStripedLock() throws Exception {
+        AgentBuilder.CircularityLock circularityLock = new AgentBuilder.CircularityLock.Striped();
+        assertThat(circularityLock.acquire(), is(true));
+        assertThat(circularityLock.acquire(), is(false));
+        circularityLock.release();
+        assertThat(circularityLock.acquire(), is(true));
+        assertThat(circularityLock.acquire(), is(false));
+        circularityLock.release();
+    }
+
+    @Test
+    public void testStripedLockOverflow() throws Exception {
+        final AgentBuilder.CircularityLock circularityLock = new AgentBuilder.CircularityLock.Striped(1);
+        assertThat(circularityLock.acquire(), is(true));
+        final CountDownLatch acquired = new CountDownLatch(1), released = new CountDownLatch(1);
+        final AtomicReference<List<Boolean>> results = new AtomicReference<List<Boolean>>();
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                List<Boolean> result = new ArrayList<Boolean>();
+                result.add(circularityLock.acquire());
+                result.add(circularityLock.acquire());
+                acquired.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException exception) {
+                    throw new AssertionError(exception);
+                }
+                result.add(circularityLock.acquire());
+                circularityLock.release();
+                result.add(circularityLock.acquire());
+                circularityLock.release();
+                results.set(result);
+            }
+        });
+        thread.start();
+        acquired.await();
+        circularityLock.release();
+        released.countDown();
+        thread.join();
+        assertThat(results.get(), is(Arrays.asList(true, false, false, true)));
+        assertThat(circularityLock.acquire(), is(true));
+        circularityLock.release();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStripedLockIllegalSize() throws Exception {
+        new AgentBuilder.CircularityLock.Striped(0);
+    }
 }
@@ -26,9 +26,13 @@ import org.junit.runners.Parameterized;
 
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.Instrumentation;
+import java.security.ProtectionDomain;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.bytebuddy.matcher.ElementMatchers.named;
 import static net.bytebuddy.matcher.ElementMatchers.none;
@@ -205,6 +209,92 @@ public class AgentBuilderDefaultApplicationRedefineTest {
         }
     }
 
+    @Test
+    @AgentAttachmentRule.Enforce(retransformsClasses = true)
+    @IntegrationRule.Enforce
+    public void testRetransformationParallelMatching() throws Exception {
+        // A redefinition reflects on loaded types which are eagerly validated types (Java 7- for redefinition).
+        // This causes type equality for outer/inner classes to fail which is why an external class is used.
+        assertThat(ByteBuddyAgent.install(), instanceOf(Instrumentation.class));
+        assertThat(simpleTypeLoader.loadClass(SimpleType.class.getName()).getName(), is(SimpleType.class.getName())); // ensure that class is loaded
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            ClassFileTransformer classFileTransformer = new AgentBuilder.Default()
+                    .ignore(none())
+                    .disableClassFormatChanges()
+                    .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+                    .with(new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Parallel(executorService, 1))
+                    .with(descriptionStrategy)
+                    .type(ElementMatchers.is(SimpleType.class), ElementMatchers.is(simpleTypeLoader)).transform(new FixedValueTransformer(BAR))
+                    .installOnByteBuddyAgent();
+            try {
+                Class<?> type = simpleTypeLoader.loadClass(SimpleType.class.getName());
+                assertThat(type.getDeclaredMethod(FOO).invoke(type.getDeclaredConstructor().newInstance()), is((Object) BAR));
+            } finally {
+                assertThat(ByteBuddyAgent.getInstrumentation().removeTransformer(classFileTransformer), is(true));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    @AgentAttachmentRule.Enforce(retransformsClasses = true)
+    @IntegrationRule.Enforce
+    public void testRetransformationParallelMatchingLoadsClass() throws Exception {
+        // A redefinition reflects on loaded types which are eagerly validated types (Java 7- for redefinition).
+        // This causes type equality for outer/inner classes to fail which is why an external class is used.
+        assertThat(ByteBuddyAgent.install(), instanceOf(Instrumentation.class));
+        assertThat(simpleTypeLoader.loadClass(SimpleType.class.getName()).getName(), is(SimpleType.class.getName())); // ensure that class is loaded
+        final ClassLoader classLoader = new ByteArrayClassLoader(ClassLoadingStrategy.BOOTSTRAP_LOADER,
+                ClassFileLocator.ForClassLoader.readToNames(SimpleOptionalType.class),
+                ByteArrayClassLoader.PersistenceHandler.MANIFEST);
+        final AtomicInteger discoveries = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            ClassFileTransformer classFileTransformer = new AgentBuilder.Default()
+                    .ignore(none())
+                    .disableClassFormatChanges()
+                    .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+                    .with(new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Parallel(executorService, 1))
+                    .with(descriptionStrategy)
+                    .with(new AgentBuilder.Listener.Adapter() {
+                        @Override
+                        public void onDiscovery(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded) {
+                            if (typeName.equals(SimpleOptionalType.class.getName())) {
+                                discoveries.incrementAndGet();
+                            }
+                        }
+                    })
+                    .type(new AgentBuilder.RawMatcher() {
+                        public boolean matches(TypeDescription typeDescription,
+                                               ClassLoader typeLoader,
+                                               JavaModule module,
+                                               Class<?> classBeingRedefined,
+                                               ProtectionDomain protectionDomain) {
+                            if (!typeDescription.getName().equals(SimpleType.class.getName()) || typeLoader != simpleTypeLoader) {
+                                return false;
+                            }
+                            try {
+                                return Class.forName(SimpleOptionalType.class.getName(), false, classLoader) != null;
+                            } catch (ClassNotFoundException exception) {
+                                throw new AssertionError(exception);
+                            }
+                        }
+                    }).transform(new FixedValueTransformer(BAR))
+                    .installOnByteBuddyAgent();
+            try {
+                Class<?> type = simpleTypeLoader.loadClass(SimpleType.class.getName());
+                assertThat(type.getDeclaredMethod(FOO).invoke(type.getDeclaredConstructor().newInstance()), is((Object) BAR));
+                assertThat(discoveries.get(), is(0));
+            } finally {
+                assertThat(ByteBuddyAgent.getInstrumentation().removeTransformer(classFileTransformer), is(true));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     @Test
     @AgentAttachmentRule.Enforce(retransformsClasses = true)
     @IntegrationRule.Enforce
@@ -94,6 +94,26 @@ public class AgentBuilderDefaultApplicationSuperTypeLoadingTest {
         }
     }
 
+    @Test
+    @AgentAttachmentRule.Enforce
+    @IntegrationRule.Enforce
+    public void testAsynchronousSuperTypeLoadingDefaultExecutor() throws Exception {
+        assertThat(ByteBuddyAgent.install(), instanceOf(Instrumentation.class));
+        ClassFileTransformer classFileTransformer = new AgentBuilder.Default()
+                .with(AgentBuilder.DescriptionStrategy.Default.POOL_ONLY.withAsynchronousSuperTypeLoading())
+                .ignore(none())
+                .with(AgentBuilder.InitializationStrategy.NoOp.INSTANCE)
+                .type(ElementMatchers.isSubTypeOf(Foo.class), ElementMatchers.is(classLoader)).transform(new ConstantTransformer())
+                .installOnByteBuddyAgent();
+        try {
+            Class<?> type = classLoader.loadClass(Bar.class.getName());
+            assertThat(type.getDeclaredMethod(BAR).invoke(type.getDeclaredConstructor().newInstance()), is((Object) BAR));
+            assertThat(type.getSuperclass().getDeclaredMethod(FOO).invoke(type.getDeclaredConstructor().newInstance()), is((Object) FOO));
+        } finally {
+            assertThat(ByteBuddyAgent.getInstrumentation().removeTransformer(classFileTransformer), is(true));
+        }
+    }
+
     public static class Foo {
 
         public String foo() {
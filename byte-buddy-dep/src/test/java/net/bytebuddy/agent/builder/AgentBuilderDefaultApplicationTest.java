@@ -2,6 +2,7 @@ package net.bytebuddy.agent.builder;
 
 import net.bytebuddy.agent.ByteBuddyAgent;
 import net.bytebuddy.asm.Advice;
+import net.bytebuddy.build.EntryPoint;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.dynamic.DynamicType;
@@ -31,6 +32,8 @@ import org.junit.runners.Parameterized;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.instrument.ClassFileTransformer;
@@ -39,6 +42,12 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import static net.bytebuddy.matcher.ElementMatchers.any;
 import static net.bytebuddy.matcher.ElementMatchers.*;
@@ -123,6 +132,233 @@ public class AgentBuilderDefaultApplicationTest {
         }
     }
 
+    @Test
+    @AgentAttachmentRule.Enforce
+    @IntegrationRule.Enforce
+    public void testAgentWithSpeculation() throws Exception {
+        assertThat(ByteBuddyAgent.install(), instanceOf(Instrumentation.class));
+        File file = File.createTempFile(FOO, BAR);
+        try {
+            JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(file));
+            try {
+                outputStream.putNextEntry(new JarEntry(Foo.class.getName().replace('.', '/') + ".class"));
+                outputStream.write(ClassFileLocator.ForClassLoader.read(Foo.class));
+                outputStream.closeEntry();
+            } finally {
+                outputStream.close();
+            }
+            ExecutorService executorService = Executors.newSingleThreadExecutor();
+            final AgentBuilder.SpeculationStrategy delegate = new AgentBuilder.SpeculationStrategy.ForJarFiles(executorService, classLoader, file);
+            final AtomicInteger speculations = new AtomicInteger(), transformations = new AtomicInteger();
+            ClassFileTransformer classFileTransformer;
+            try {
+                classFileTransformer = new AgentBuilder.Default()
+                        .with(poolStrategy)
+                        .ignore(none())
+                        .with(AgentBuilder.InitializationStrategy.NoOp.INSTANCE)
+                        .with(new AgentBuilder.SpeculationStrategy() {
+                            public void apply(final Speculator speculator) {
+                                delegate.apply(new Speculator() {
+                                    public boolean speculate(String name, ClassLoader classLoader, byte[] binaryRepresentation) {
+                                        boolean speculated = speculator.speculate(name, classLoader, binaryRepresentation);
+                                        if (speculated) {
+                                            speculations.incrementAndGet();
+                                        }
+                                        return speculated;
+                                    }
+                                });
+                            }
+
+                            public void onError(String name, ClassLoader classLoader, Throwable throwable) {
+                                delegate.onError(name, classLoader, throwable);
+                            }
+                        })
+                        .type(ElementMatchers.is(Foo.class), ElementMatchers.is(classLoader)).transform(new AgentBuilder.Transformer() {
+                            public DynamicType.Builder<?> transform(DynamicType.Builder<?> builder,
+                                                                    TypeDescription typeDescription,
+                                                                    ClassLoader classLoader,
+                                                                    JavaModule module) {
+                                transformations.incrementAndGet();
+                                return new FooTransformer().transform(builder, typeDescription, classLoader, module);
+                            }
+                        })
+                        .installOnByteBuddyAgent();
+            } finally {
+                executorService.shutdown();
+            }
+            assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS), is(true));
+            assertThat(speculations.get(), is(1));
+            assertThat(transformations.get(), is(1));
+            try {
+                Class<?> type = classLoader.loadClass(Foo.class.getName());
+                assertThat(type.getDeclaredMethod(FOO).invoke(type.getDeclaredConstructor().newInstance()), is((Object) BAR));
+                assertThat(transformations.get(), is(1));
+            } finally {
+                assertThat(ByteBuddyAgent.getInstrumentation().removeTransformer(classFileTransformer), is(true));
+            }
+        } finally {
+            assertThat(file.delete(), is(true));
+        }
+    }
+
+    @Test
+    @AgentAttachmentRule.Enforce
+    @IntegrationRule.Enforce
+    public void testAgentWithFailingSpeculation() throws Exception {
+        assertThat(ByteBuddyAgent.install(), instanceOf(Instrumentation.class));
+        final AtomicInteger errors = new AtomicInteger(), reported = new AtomicInteger();
+        final AgentBuilder.SpeculationStrategy.Speculator[] speculator = new AgentBuilder.SpeculationStrategy.Speculator[1];
+        ClassFileTransformer classFileTransformer = new AgentBuilder.Default()
+                .with(poolStrategy)
+                .ignore(none())
+                .with(AgentBuilder.InitializationStrategy.NoOp.INSTANCE)
+                .with(new AgentBuilder.Listener.Adapter() {
+                    @Override
+                    public void onError(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded, Throwable throwable) {
+                        reported.incrementAndGet();
+                    }
+                })
+                .with(new AgentBuilder.SpeculationStrategy() {
+                    public void apply(Speculator value) {
+                        speculator[0] = value;
+                    }
+
+                    public void onError(String name, ClassLoader classLoader, Throwable throwable) {
+                        if (name.equals(Foo.class.getName()) && throwable instanceof IllegalStateException) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                })
+                .type(ElementMatchers.is(Foo.class), ElementMatchers.is(classLoader)).transform(new AgentBuilder.Transformer() {
+                    public DynamicType.Builder<?> transform(DynamicType.Builder<?> builder,
+                                                            TypeDescription typeDescription,
+                                                            ClassLoader classLoader,
+                                                            JavaModule module) {
+                        throw new IllegalStateException();
+                    }
+                })
+                .installOnByteBuddyAgent();
+        try {
+            assertThat(speculator[0].speculate(Foo.class.getName(), classLoader, ClassFileLocator.ForClassLoader.read(Foo.class)), is(false));
+            assertThat(errors.get(), is(1));
+            assertThat(reported.get(), is(0));
+        } finally {
+            assertThat(ByteBuddyAgent.getInstrumentation().removeTransformer(classFileTransformer), is(true));
+        }
+    }
+
+    @Test
+    @AgentAttachmentRule.Enforce
+    @IntegrationRule.Enforce
+    public void testAgentWithSpeculationAndCustomTypeStrategy() throws Exception {
+        assertThat(ByteBuddyAgent.install(), instanceOf(Instrumentation.class));
+        final AgentBuilder.SpeculationStrategy.Speculator[] speculator = new AgentBuilder.SpeculationStrategy.Speculator[1];
+        ClassFileTransformer classFileTransformer = new AgentBuilder.Default()
+                .with(poolStrategy)
+                .ignore(none())
+                .with(AgentBuilder.InitializationStrategy.NoOp.INSTANCE)
+                .with(new AgentBuilder.TypeStrategy.ForBuildEntryPoint(EntryPoint.Default.REBASE))
+                .with(new AgentBuilder.SpeculationStrategy() {
+                    public void apply(Speculator value) {
+                        speculator[0] = value;
+                    }
+
+                    public void onError(String name, ClassLoader classLoader, Throwable throwable) {
+                        throw new AssertionError();
+                    }
+                })
+                .type(ElementMatchers.is(Foo.class), ElementMatchers.is(classLoader)).transform(new FooTransformer())
+                .installOnByteBuddyAgent();
+        try {
+            assertThat(speculator[0].speculate(Foo.class.getName(), classLoader, ClassFileLocator.ForClassLoader.read(Foo.class)), is(false));
+            Class<?> type = classLoader.loadClass(Foo.class.getName());
+            assertThat(type.getDeclaredMethod(FOO).invoke(type.getDeclaredConstructor().newInstance()), is((Object) BAR));
+        } finally {
+            assertThat(ByteBuddyAgent.getInstrumentation().removeTransformer(classFileTransformer), is(true));
+        }
+    }
+
+    @Test
+    @AgentAttachmentRule.Enforce
+    @IntegrationRule.Enforce
+    public void testAgentWithTransformationCache() throws Exception {
+        assertThat(ByteBuddyAgent.install(), instanceOf(Instrumentation.class));
+        ClassLoader otherClassLoader = new ByteArrayClassLoader.ChildFirst(getClass().getClassLoader(),
+                ClassFileLocator.ForClassLoader.readToNames(Foo.class),
+                ByteArrayClassLoader.PersistenceHandler.MANIFEST);
+        final AgentBuilder.TransformationCache.InMemory delegate = new AgentBuilder.TransformationCache.InMemory();
+        final AtomicInteger hits = new AtomicInteger();
+        AgentBuilder.TransformationCache transformationCache = new AgentBuilder.TransformationCache() {
+            public Entry lookup(String transformer, ClassLoader classLoader, byte[] binaryRepresentation, String transformations) {
+                final Entry entry = delegate.lookup(transformer, classLoader, binaryRepresentation, transformations);
+                return new Entry() {
+                    public byte[] find() {
+                        byte[] transformed = entry.find();
+                        if (transformed != null) {
+                            hits.incrementAndGet();
+                        }
+                        return transformed;
+                    }
+
+                    public void register(byte[] transformed) {
+                        entry.register(transformed);
+                    }
+                };
+            }
+        };
+        ClassFileTransformer classFileTransformer = new AgentBuilder.Default()
+                .with(poolStrategy)
+                .ignore(none())
+                .with(AgentBuilder.InitializationStrategy.NoOp.INSTANCE)
+                .with(transformationCache)
+                .type(ElementMatchers.is(Foo.class), ElementMatchers.is(classLoader).or(ElementMatchers.is(otherClassLoader))).transform(new FooTransformer())
+                .installOnByteBuddyAgent();
+        try {
+            Class<?> type = classLoader.loadClass(Foo.class.getName());
+            assertThat(type.getDeclaredMethod(FOO).invoke(type.getDeclaredConstructor().newInstance()), is((Object) BAR));
+            long size = delegate.getSize();
+            assertThat(size > 0L, is(true));
+            assertThat(hits.get(), is(0));
+            Class<?> otherType = otherClassLoader.loadClass(Foo.class.getName());
+            assertThat(otherType, not((Object) type));
+            assertThat(otherType.getDeclaredMethod(FOO).invoke(otherType.getDeclaredConstructor().newInstance()), is((Object) BAR));
+            assertThat(hits.get(), is(0));
+            assertThat(delegate.getSize(), is(2 * size));
+        } finally {
+            assertThat(ByteBuddyAgent.getInstrumentation().removeTransformer(classFileTransformer), is(true));
+        }
+    }
+
+    @Test
+    @AgentAttachmentRule.Enforce
+    @IntegrationRule.Enforce
+    public void testAgentWithTransformationMonitor() throws Exception {
+        assertThat(ByteBuddyAgent.install(), instanceOf(Instrumentation.class));
+        AgentBuilder.TransformationMonitor.Recording recording = new AgentBuilder.TransformationMonitor.Recording();
+        ClassFileTransformer classFileTransformer = new AgentBuilder.Default()
+                .with(poolStrategy)
+                .ignore(none())
+                .with(AgentBuilder.InitializationStrategy.NoOp.INSTANCE)
+                .with(recording)
+                .type(ElementMatchers.is(Bar.class), ElementMatchers.is(classLoader)).transform(new FooTransformer())
+                .type(ElementMatchers.is(Foo.class), ElementMatchers.is(classLoader)).transform(new FooTransformer())
+                .installOnByteBuddyAgent();
+        try {
+            Class<?> type = classLoader.loadClass(Foo.class.getName());
+            assertThat(type.getDeclaredMethod(FOO).invoke(type.getDeclaredConstructor().newInstance()), is((Object) BAR));
+        } finally {
+            assertThat(ByteBuddyAgent.getInstrumentation().removeTransformer(classFileTransformer), is(true));
+        }
+        for (AgentBuilder.TransformationMonitor.Phase phase : AgentBuilder.TransformationMonitor.Phase.values()) {
+            assertThat(recording.getCount(phase.name()), is(1L));
+        }
+        assertThat(recording.getTransformations(), hasItems(0, 1));
+        assertThat(recording.getHistogram(0, AgentBuilder.TransformationMonitor.Phase.MATCHING).getCount(), is(1L));
+        assertThat(recording.getHistogram(0, AgentBuilder.TransformationMonitor.Phase.BUILDER).getCount(), is(0L));
+        assertThat(recording.getHistogram(1, AgentBuilder.TransformationMonitor.Phase.MATCHING).getCount(), is(1L));
+        assertThat(recording.getHistogram(1, AgentBuilder.TransformationMonitor.Phase.BUILDER).getCount(), is(1L));
+    }
+
     @Test
     @AgentAttachmentRule.Enforce
     @IntegrationRule.Enforce
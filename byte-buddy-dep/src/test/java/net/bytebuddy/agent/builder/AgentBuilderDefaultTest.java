@@ -864,6 +864,39 @@ public class AgentBuilderDefaultTest {
         verifyNoMoreInteractions(redefinitionListener);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRetransformationChunkedFeedback() throws Exception {
+        when(instrumentation.getAllLoadedClasses()).thenReturn(new Class<?>[]{REDEFINED, OTHER});
+        when(typeMatcher.matches(TypeDescription.ForLoadedType.of(REDEFINED), REDEFINED.getClassLoader(), JavaModule.ofType(REDEFINED), REDEFINED, REDEFINED.getProtectionDomain())).thenReturn(true);
+        when(typeMatcher.matches(TypeDescription.ForLoadedType.of(OTHER), OTHER.getClassLoader(), JavaModule.ofType(OTHER), OTHER, OTHER.getProtectionDomain())).thenReturn(true);
+        when(instrumentation.isModifiableClass(REDEFINED)).thenReturn(true);
+        when(instrumentation.isModifiableClass(OTHER)).thenReturn(true);
+        when(instrumentation.isRetransformClassesSupported()).thenReturn(true);
+        Throwable throwable = new UnmodifiableClassException();
+        doThrow(throwable).when(instrumentation).retransformClasses(OTHER);
+        Iterable<List<Class<?>>> batches = mock(Iterable.class, withSettings().extraInterfaces(AgentBuilder.RedefinitionStrategy.BatchAllocator.Feedback.class));
+        when(batches.iterator()).thenReturn(Arrays.<List<Class<?>>>asList(Collections.<Class<?>>singletonList(REDEFINED), Collections.<Class<?>>singletonList(OTHER)).iterator());
+        AgentBuilder.RedefinitionStrategy.BatchAllocator redefinitionBatchAllocator = mock(AgentBuilder.RedefinitionStrategy.BatchAllocator.class);
+        when(redefinitionBatchAllocator.batch(Arrays.asList(REDEFINED, OTHER))).thenReturn((Iterable) batches);
+        new AgentBuilder.Default(byteBuddy)
+                .with(initializationStrategy)
+                .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+                .with(redefinitionBatchAllocator)
+                .with(poolStrategy)
+                .with(typeStrategy)
+                .with(installationListener)
+                .with(listener)
+                .disableNativeMethodPrefix()
+                .ignore(none())
+                .type(typeMatcher).transform(transformer)
+                .installOn(instrumentation);
+        verify(instrumentation).retransformClasses(REDEFINED);
+        verify(instrumentation).retransformClasses(OTHER);
+        verify((AgentBuilder.RedefinitionStrategy.BatchAllocator.Feedback) batches).onApplied(eq(Collections.<Class<?>>singletonList(REDEFINED)), anyLong());
+        verify((AgentBuilder.RedefinitionStrategy.BatchAllocator.Feedback) batches, never()).onApplied(eq(Collections.<Class<?>>singletonList(OTHER)), anyLong());
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testRetransformationChunkedOneFails() throws Exception {
@@ -2356,6 +2389,9 @@ public class AgentBuilderDefaultTest {
                 AgentBuilder.DescriptionStrategy.Default.HYBRID,
                 mock(AgentBuilder.FallbackStrategy.class),
                 mock(AgentBuilder.ClassFileBufferStrategy.class),
+                AgentBuilder.SpeculationStrategy.Disabled.INSTANCE,
+                AgentBuilder.TransformationCache.NoOp.INSTANCE,
+                AgentBuilder.TransformationMonitor.NoOp.INSTANCE,
                 mock(AgentBuilder.InstallationListener.class),
                 mock(AgentBuilder.RawMatcher.class),
                 mock(AgentBuilder.RedefinitionStrategy.ResubmissionEnforcer.class),
@@ -2390,6 +2426,9 @@ public class AgentBuilderDefaultTest {
                 AgentBuilder.DescriptionStrategy.Default.HYBRID,
                 mock(AgentBuilder.FallbackStrategy.class),
                 mock(AgentBuilder.ClassFileBufferStrategy.class),
+                AgentBuilder.SpeculationStrategy.Disabled.INSTANCE,
+                AgentBuilder.TransformationCache.NoOp.INSTANCE,
+                AgentBuilder.TransformationMonitor.NoOp.INSTANCE,
                 mock(AgentBuilder.InstallationListener.class),
                 mock(AgentBuilder.RawMatcher.class),
                 mock(AgentBuilder.RedefinitionStrategy.ResubmissionEnforcer.class),
@@ -2430,6 +2469,9 @@ public class AgentBuilderDefaultTest {
                 AgentBuilder.DescriptionStrategy.Default.HYBRID,
                 mock(AgentBuilder.FallbackStrategy.class),
                 mock(AgentBuilder.ClassFileBufferStrategy.class),
+                AgentBuilder.SpeculationStrategy.Disabled.INSTANCE,
+                AgentBuilder.TransformationCache.NoOp.INSTANCE,
+                AgentBuilder.TransformationMonitor.NoOp.INSTANCE,
                 mock(AgentBuilder.InstallationListener.class),
                 mock(AgentBuilder.RawMatcher.class),
                 mock(AgentBuilder.RedefinitionStrategy.ResubmissionEnforcer.class),
@@ -2560,6 +2602,27 @@ public class AgentBuilderDefaultTest {
                 .withResubmission(mock(AgentBuilder.RedefinitionStrategy.ResubmissionScheduler.class));
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void testRetransformationDisabledNotEnabledMatchingStrategy() throws Exception {
+        new AgentBuilder.Default()
+                .with(AgentBuilder.RedefinitionStrategy.DISABLED)
+                .with(AgentBuilder.RedefinitionStrategy.MatchingStrategy.Serial.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResubmissionIllegalMaximumSize() throws Exception {
+        new AgentBuilder.Default()
+                .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+                .withResubmission(mock(AgentBuilder.RedefinitionStrategy.ResubmissionScheduler.class), 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResubmissionIllegalMaximumBackoff() throws Exception {
+        new AgentBuilder.Default()
+                .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+                .withResubmission(mock(AgentBuilder.RedefinitionStrategy.ResubmissionScheduler.class), 1, -1);
+    }
+
     public static class Foo {
         /* empty */
     }
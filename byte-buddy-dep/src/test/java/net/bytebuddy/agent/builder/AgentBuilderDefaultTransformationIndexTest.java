@@ -0,0 +1,107 @@
+package net.bytebuddy.agent.builder;
+
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mock;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static net.bytebuddy.matcher.ElementMatchers.*;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AgentBuilderDefaultTransformationIndexTest {
+
+    private static final String FOO = "foo", BAR = "bar", QUX = "qux";
+
+    private static final byte[] BYTES = new byte[0];
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private AgentBuilder.Transformer transformer;
+
+    @Mock
+    private AgentBuilder.RawMatcher rawMatcher;
+
+    private AgentBuilder.Default.Transformation named, prefixed, suffixed, unconstrained, excluded;
+
+    @Before
+    public void setUp() throws Exception {
+        named = transformation(new AgentBuilder.RawMatcher.ForElementMatchers(named(FOO)));
+        prefixed = transformation(new AgentBuilder.RawMatcher.ForElementMatchers(nameStartsWith(BAR).and(isInterface())));
+        suffixed = transformation(new AgentBuilder.RawMatcher.Disjunction(new AgentBuilder.RawMatcher.ForElementMatchers(nameEndsWith(QUX)),
+                AgentBuilder.RawMatcher.Trivial.NON_MATCHING));
+        unconstrained = transformation(rawMatcher);
+        excluded = transformation(AgentBuilder.RawMatcher.Trivial.NON_MATCHING);
+    }
+
+    private AgentBuilder.Default.Transformation transformation(AgentBuilder.RawMatcher matcher) {
+        return new AgentBuilder.Default.Transformation(matcher, Collections.singletonList(transformer), false);
+    }
+
+    @Test
+    public void testConstrainedDispatch() throws Exception {
+        AgentBuilder.Default.Transformation.Index index = AgentBuilder.Default.Transformation.Index.of(Arrays.asList(named, prefixed, suffixed, excluded));
+        assertThat(index.resolve(FOO, BYTES), equalTo(Collections.singletonList(named)));
+        assertThat(index.resolve(BAR + FOO, BYTES), equalTo(Collections.singletonList(prefixed)));
+        assertThat(index.resolve(FOO + QUX, BYTES), equalTo(Collections.singletonList(suffixed)));
+        assertThat(index.resolve(BAR + QUX, BYTES), equalTo(Arrays.asList(prefixed, suffixed)));
+        assertThat(index.resolve(QUX + FOO, BYTES).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testUnconstrainedRetainsOrder() throws Exception {
+        AgentBuilder.Default.Transformation.Index index = AgentBuilder.Default.Transformation.Index.of(Arrays.asList(prefixed, unconstrained, named));
+        assertThat(index.resolve(FOO, BYTES), equalTo(Arrays.asList(unconstrained, named)));
+        assertThat(index.resolve(BAR, BYTES), equalTo(Arrays.asList(prefixed, unconstrained)));
+        assertThat(index.resolve(QUX, BYTES), equalTo(Collections.singletonList(unconstrained)));
+    }
+
+    @Test
+    public void testAnnotationConstrainedDispatch() throws Exception {
+        AgentBuilder.Default.Transformation annotated = transformation(new AgentBuilder.RawMatcher.ForElementMatchers(isAnnotatedWith(Sample.class)));
+        AgentBuilder.Default.Transformation.Index index = AgentBuilder.Default.Transformation.Index.of(Arrays.asList(annotated, unconstrained));
+        assertThat(index.resolve(Annotated.class.getName(), ClassFileLocator.ForClassLoader.read(Annotated.class)), equalTo(Arrays.asList(annotated, unconstrained)));
+        assertThat(index.resolve(NonAnnotated.class.getName(), ClassFileLocator.ForClassLoader.read(NonAnnotated.class)), equalTo(Collections.singletonList(unconstrained)));
+        assertThat(index.resolve(NonAnnotated.class.getName(), BYTES), equalTo(Arrays.asList(annotated, unconstrained)));
+    }
+
+    @Test
+    public void testAnnotationConstrainedByName() throws Exception {
+        AgentBuilder.Default.Transformation annotated = transformation(new AgentBuilder.RawMatcher.ForElementMatchers(isAnnotatedWith(named(Sample.class.getName()))));
+        AgentBuilder.Default.Transformation.Index index = AgentBuilder.Default.Transformation.Index.of(Collections.singletonList(annotated));
+        assertThat(index.resolve(Annotated.class.getName(), ClassFileLocator.ForClassLoader.read(Annotated.class)), equalTo(Collections.singletonList(annotated)));
+        assertThat(index.resolve(NonAnnotated.class.getName(), ClassFileLocator.ForClassLoader.read(NonAnnotated.class)).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testAllUnconstrained() throws Exception {
+        List<AgentBuilder.Default.Transformation> transformations = Collections.singletonList(unconstrained);
+        assertThat(AgentBuilder.Default.Transformation.Index.of(transformations).resolve(FOO, BYTES), sameInstance(transformations));
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Sample {
+        /* empty */
+    }
+
+    @Sample
+    private static class Annotated {
+        /* empty */
+    }
+
+    private static class NonAnnotated {
+        /* empty */
+    }
+}
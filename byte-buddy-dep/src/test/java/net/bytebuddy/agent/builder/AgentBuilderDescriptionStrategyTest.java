@@ -10,7 +10,12 @@ import org.junit.Test;
 import org.junit.rules.TestRule;
 import org.mockito.Mock;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static net.bytebuddy.test.utility.FieldByFieldComparison.hasPrototype;
 import static org.hamcrest.CoreMatchers.instanceOf;
@@ -21,6 +26,8 @@ import static org.mockito.Mockito.when;
 
 public class AgentBuilderDescriptionStrategyTest {
 
+    private static final String FOO = "foo";
+
     @Rule
     public TestRule mockitoRule = new MockitoRule(this);
 
@@ -91,4 +98,65 @@ public class AgentBuilderDescriptionStrategyTest {
         assertThat(AgentBuilder.DescriptionStrategy.Default.POOL_ONLY.withSuperTypeLoading(executorService),
                 hasPrototype((AgentBuilder.DescriptionStrategy) new AgentBuilder.DescriptionStrategy.SuperTypeLoading.Asynchronous(AgentBuilder.DescriptionStrategy.Default.POOL_ONLY, executorService)));
     }
+
+    @Test
+    public void testAsynchronousSuperTypeLoadingDefaultExecutor() throws Exception {
+        assertThat(AgentBuilder.DescriptionStrategy.Default.HYBRID.withAsynchronousSuperTypeLoading(),
+                instanceOf(AgentBuilder.DescriptionStrategy.SuperTypeLoading.Asynchronous.class));
+        assertThat(AgentBuilder.DescriptionStrategy.Default.HYBRID.withAsynchronousSuperTypeLoading(),
+                is(AgentBuilder.DescriptionStrategy.Default.HYBRID.withAsynchronousSuperTypeLoading()));
+        ExecutorService executorService = AgentBuilder.DescriptionStrategy.SuperTypeLoading.Asynchronous.executorService();
+        try {
+            assertThat(executorService.submit(new Callable<Object>() {
+                public Object call() {
+                    return FOO;
+                }
+            }).get(), is((Object) FOO));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsynchronousSuperTypeLoadingBatched() throws Exception {
+        ThreadPoolExecutor executorService = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        try {
+            TypeDescription.SuperTypeLoading.ClassLoadingDelegate classLoadingDelegate = new AgentBuilder.DescriptionStrategy.SuperTypeLoading.Asynchronous.ThreadSwitchingClassLoadingDelegate(executorService,
+                    TypeDescription.ForLoadedType.of(Qux.class),
+                    Qux.class.getClassLoader());
+            assertThat(classLoadingDelegate.load(Bar.class.getName(), Qux.class.getClassLoader()), is((Object) Bar.class));
+            assertThat(classLoadingDelegate.load(Runnable.class.getName(), Qux.class.getClassLoader()), is((Object) Runnable.class));
+            assertThat(classLoadingDelegate.load(Foo.class.getName(), Bar.class.getClassLoader()), is((Object) Foo.class));
+            assertThat(classLoadingDelegate.load(Object.class.getName(), Foo.class.getClassLoader()), is((Object) Object.class));
+            assertThat(executorService.getTaskCount(), is(1L));
+            assertThat(classLoadingDelegate.load(String.class.getName(), Qux.class.getClassLoader()), is((Object) String.class));
+            assertThat(executorService.getTaskCount(), is(2L));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAsynchronousSuperTypeLoadingNotFound() throws Exception {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            new AgentBuilder.DescriptionStrategy.SuperTypeLoading.Asynchronous.ThreadSwitchingClassLoadingDelegate(executorService,
+                    TypeDescription.ForLoadedType.of(Qux.class),
+                    Qux.class.getClassLoader()).load(FOO, Qux.class.getClassLoader());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static class Foo {
+        /* empty */
+    }
+
+    private static class Bar extends Foo {
+        /* empty */
+    }
+
+    private abstract static class Qux extends Bar implements Runnable {
+        /* empty */
+    }
 }
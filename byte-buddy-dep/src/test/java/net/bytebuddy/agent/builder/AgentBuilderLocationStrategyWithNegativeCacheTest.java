@@ -0,0 +1,70 @@
+package net.bytebuddy.agent.builder;
+
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.test.utility.MockitoRule;
+import net.bytebuddy.utility.JavaModule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class AgentBuilderLocationStrategyWithNegativeCacheTest {
+
+    private static final String FOO = "foo";
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private AgentBuilder.LocationStrategy locationStrategy;
+
+    @Mock
+    private ClassFileLocator classFileLocator;
+
+    @Mock
+    private ClassLoader classLoader;
+
+    @Mock
+    private JavaModule module;
+
+    private ConcurrentMap<ClassLoader, ClassFileLocator.WithNegativeCache.Cache> caches;
+
+    @Before
+    public void setUp() throws Exception {
+        caches = new ConcurrentHashMap<ClassLoader, ClassFileLocator.WithNegativeCache.Cache>();
+        when(locationStrategy.classFileLocator(classLoader, module)).thenReturn(classFileLocator);
+        when(locationStrategy.classFileLocator(null, module)).thenReturn(classFileLocator);
+        when(classFileLocator.locate(FOO)).thenReturn(new ClassFileLocator.Resolution.Illegal(FOO));
+    }
+
+    @Test
+    public void testMissIsCachedPerClassLoader() throws Exception {
+        AgentBuilder.LocationStrategy locationStrategy = new AgentBuilder.LocationStrategy.WithNegativeCache(this.locationStrategy, caches);
+        assertThat(locationStrategy.classFileLocator(classLoader, module).locate(FOO).isResolved(), is(false));
+        assertThat(locationStrategy.classFileLocator(classLoader, module).locate(FOO).isResolved(), is(false));
+        assertThat(caches.size(), is(1));
+        verify(classFileLocator).locate(FOO);
+        assertThat(locationStrategy.classFileLocator(null, module).locate(FOO).isResolved(), is(false));
+        verify(classFileLocator, times(2)).locate(FOO);
+        assertThat(caches.size(), is(1));
+    }
+
+    @Test
+    public void testDiscoveryInvalidatesCache() throws Exception {
+        AgentBuilder.LocationStrategy.WithNegativeCache locationStrategy = new AgentBuilder.LocationStrategy.WithNegativeCache(this.locationStrategy, caches);
+        assertThat(locationStrategy.classFileLocator(classLoader, module).locate(FOO).isResolved(), is(false));
+        assertThat(locationStrategy.classFileLocator(null, module).locate(FOO).isResolved(), is(false));
+        locationStrategy.onDiscovery(FOO, classLoader, module, false);
+        assertThat(locationStrategy.classFileLocator(classLoader, module).locate(FOO).isResolved(), is(false));
+        assertThat(locationStrategy.classFileLocator(null, module).locate(FOO).isResolved(), is(false));
+        verify(classFileLocator, times(4)).locate(FOO);
+    }
+}
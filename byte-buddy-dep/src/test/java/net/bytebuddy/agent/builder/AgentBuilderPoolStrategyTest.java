@@ -8,6 +8,7 @@ import org.junit.Test;
 import org.junit.rules.TestRule;
 import org.mockito.Mock;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -51,4 +52,12 @@ public class AgentBuilderPoolStrategyTest {
     public void testExtendedLoadingTypePool() throws Exception {
         assertThat(AgentBuilder.PoolStrategy.ClassLoading.EXTENDED.typePool(classFileLocator, classLoader), notNullValue(TypePool.class));
     }
+
+    @Test
+    public void testPersistentCacheTypePool() throws Exception {
+        assertThat(new AgentBuilder.PoolStrategy.WithPersistentCache(TypePool.Default.PersistentCache.NoOp.INSTANCE).typePool(classFileLocator, classLoader),
+                instanceOf(TypePool.Default.WithPersistentCache.class));
+        assertThat(new AgentBuilder.PoolStrategy.WithPersistentCache(TypePool.Default.PersistentCache.NoOp.INSTANCE).typePool(classFileLocator, classLoader, "foo"),
+                instanceOf(TypePool.Default.WithPersistentCache.class));
+    }
 }
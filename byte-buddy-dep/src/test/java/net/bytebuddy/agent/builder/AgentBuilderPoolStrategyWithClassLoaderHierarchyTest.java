@@ -0,0 +1,115 @@
+package net.bytebuddy.agent.builder;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AgentBuilderPoolStrategyWithClassLoaderHierarchyTest {
+
+    private static final String FOO = "foo";
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private ClassFileLocator classFileLocator;
+
+    private ClassLoader first, second;
+
+    @Before
+    public void setUp() throws Exception {
+        first = new URLClassLoader(new URL[0], Sample.class.getClassLoader());
+        second = new URLClassLoader(new URL[0], Sample.class.getClassLoader());
+        when(classFileLocator.locate(anyString())).thenAnswer(new Answer<ClassFileLocator.Resolution>() {
+            public ClassFileLocator.Resolution answer(InvocationOnMock invocation) {
+                return new ClassFileLocator.Resolution.Illegal(invocation.<String>getArgument(0));
+            }
+        });
+    }
+
+    @Test
+    public void testTypeIsSharedByParent() throws Exception {
+        ConcurrentMap<ClassLoader, TypePool.CacheProvider> cacheProviders = new ConcurrentHashMap<ClassLoader, TypePool.CacheProvider>();
+        AgentBuilder.PoolStrategy poolStrategy = new AgentBuilder.PoolStrategy.WithClassLoaderHierarchy(cacheProviders);
+        TypeDescription typeDescription = poolStrategy.typePool(classFileLocator, first).describe(Sample.class.getName()).resolve();
+        assertThat(typeDescription.getDeclaredFields().size(), is(1));
+        assertThat(poolStrategy.typePool(classFileLocator, second).describe(Sample.class.getName()).resolve(), sameInstance(typeDescription));
+        assertThat(cacheProviders.get(Sample.class.getClassLoader()).find(Sample.class.getName()).resolve(), sameInstance(typeDescription));
+        verify(classFileLocator, never()).locate(Sample.class.getName());
+    }
+
+    @Test
+    public void testTypeIsResolvedByChild() throws Exception {
+        when(classFileLocator.locate(FOO)).thenReturn(new ClassFileLocator.Resolution.Explicit(ClassFileLocator.ForClassLoader.read(Sample.class)));
+        ConcurrentMap<ClassLoader, TypePool.CacheProvider> cacheProviders = new ConcurrentHashMap<ClassLoader, TypePool.CacheProvider>();
+        AgentBuilder.PoolStrategy poolStrategy = new AgentBuilder.PoolStrategy.WithClassLoaderHierarchy(TypePool.Default.ReaderMode.FAST, cacheProviders);
+        assertThat(poolStrategy.typePool(classFileLocator, first).describe(FOO).isResolved(), is(true));
+        assertThat(poolStrategy.typePool(classFileLocator, second, FOO).describe(FOO).isResolved(), is(true));
+        assertThat(cacheProviders.get(first).find(FOO), notNullValue(TypePool.Resolution.class));
+        assertThat(cacheProviders.get(second).find(FOO), nullValue(TypePool.Resolution.class));
+        assertThat(cacheProviders.get(Sample.class.getClassLoader()).find(FOO).isResolved(), is(false));
+    }
+
+    @Test
+    public void testInstrumentedTypeIsResolvedByChild() throws Exception {
+        when(classFileLocator.locate(Sample.class.getName())).thenReturn(new ClassFileLocator.Resolution.Explicit(new ByteBuddy()
+                .redefine(Sample.class)
+                .defineField(FOO, Object.class)
+                .make()
+                .getBytes()));
+        ConcurrentMap<ClassLoader, TypePool.CacheProvider> cacheProviders = new ConcurrentHashMap<ClassLoader, TypePool.CacheProvider>();
+        AgentBuilder.PoolStrategy poolStrategy = new AgentBuilder.PoolStrategy.WithClassLoaderHierarchy(cacheProviders);
+        TypePool typePool = poolStrategy.typePool(classFileLocator, first, Sample.class.getName());
+        assertThat(typePool.describe(Sample.class.getName()).resolve().getDeclaredFields().size(), is(2));
+        assertThat(typePool.describe("[L" + Sample.class.getName() + ";").resolve().getComponentType().getDeclaredFields().size(), is(2));
+        assertThat(poolStrategy.typePool(classFileLocator, second).describe(Sample.class.getName()).resolve().getDeclaredFields().size(), is(1));
+    }
+
+    @Test
+    public void testBootstrapType() throws Exception {
+        TypePool.CacheProvider bootstrapCacheProvider = new TypePool.CacheProvider.Simple();
+        AgentBuilder.PoolStrategy poolStrategy = new AgentBuilder.PoolStrategy.WithClassLoaderHierarchy(TypePool.Default.ReaderMode.FAST,
+                new ConcurrentHashMap<ClassLoader, TypePool.CacheProvider>(),
+                bootstrapCacheProvider);
+        assertThat(poolStrategy.typePool(classFileLocator, first).describe(String.class.getName()).resolve().represents(String.class), is(true));
+        assertThat(bootstrapCacheProvider.find(String.class.getName()), notNullValue(TypePool.Resolution.class));
+        verify(classFileLocator, never()).locate(String.class.getName());
+    }
+
+    @Test
+    public void testUnresolvedTypeIsNotRetainedBySharedCache() throws Exception {
+        TypePool.CacheProvider bootstrapCacheProvider = new TypePool.CacheProvider.Simple();
+        ConcurrentMap<ClassLoader, TypePool.CacheProvider> cacheProviders = new ConcurrentHashMap<ClassLoader, TypePool.CacheProvider>();
+        AgentBuilder.PoolStrategy poolStrategy = new AgentBuilder.PoolStrategy.WithClassLoaderHierarchy(TypePool.Default.ReaderMode.FAST,
+                cacheProviders,
+                bootstrapCacheProvider,
+                1L);
+        assertThat(poolStrategy.typePool(classFileLocator, first).describe(FOO).isResolved(), is(false));
+        assertThat(bootstrapCacheProvider.find(FOO), nullValue(TypePool.Resolution.class));
+        assertThat(cacheProviders.get(Sample.class.getClassLoader()).find(FOO).isResolved(), is(false));
+    }
+
+    private static class Sample {
+
+        private Object bar;
+    }
+}
@@ -7,6 +7,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static net.bytebuddy.test.utility.FieldByFieldComparison.hasPrototype;
 import static org.hamcrest.CoreMatchers.is;
@@ -332,4 +333,60 @@ public class AgentBuilderRedefinitionStrategyBatchAllocatorTest {
     public void testPartitioningIllegalArgument() throws Exception {
         AgentBuilder.RedefinitionStrategy.BatchAllocator.Partitioning.of(0);
     }
+
+    @Test
+    public void testForPauseBudgetEmpty() throws Exception {
+        AgentBuilder.RedefinitionStrategy.BatchAllocator batchAllocator = AgentBuilder.RedefinitionStrategy.BatchAllocator.ForPauseBudget.of(10, TimeUnit.MILLISECONDS);
+        assertThat(batchAllocator.batch(Collections.<Class<?>>emptyList()).iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testForPauseBudget() throws Exception {
+        AgentBuilder.RedefinitionStrategy.BatchAllocator batchAllocator = AgentBuilder.RedefinitionStrategy.BatchAllocator.ForPauseBudget.of(10, TimeUnit.MILLISECONDS);
+        List<Class<?>> types = Arrays.<Class<?>>asList(Object.class, String.class, Void.class, Integer.class, Long.class, Short.class, Byte.class, Character.class);
+        Iterable<? extends List<Class<?>>> batches = batchAllocator.batch(types);
+        assertThat(batches instanceof AgentBuilder.RedefinitionStrategy.BatchAllocator.Feedback, is(true));
+        Iterator<? extends List<Class<?>>> iterator = batches.iterator();
+        assertThat(iterator.hasNext(), is(true));
+        assertThat(iterator.next(), is(types.subList(0, 1)));
+        ((AgentBuilder.RedefinitionStrategy.BatchAllocator.Feedback) batches).onApplied(types.subList(0, 1), TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(iterator.hasNext(), is(true));
+        assertThat(iterator.next(), is(types.subList(1, 3)));
+        ((AgentBuilder.RedefinitionStrategy.BatchAllocator.Feedback) batches).onApplied(types.subList(1, 3), TimeUnit.MILLISECONDS.toNanos(2));
+        assertThat(iterator.hasNext(), is(true));
+        assertThat(iterator.next(), is(types.subList(3, 7)));
+        ((AgentBuilder.RedefinitionStrategy.BatchAllocator.Feedback) batches).onApplied(types.subList(3, 7), TimeUnit.MILLISECONDS.toNanos(40));
+        assertThat(iterator.hasNext(), is(true));
+        assertThat(iterator.next(), is(types.subList(7, 8)));
+        assertThat(iterator.hasNext(), is(false));
+    }
+
+    @Test
+    public void testForPauseBudgetBounded() throws Exception {
+        AgentBuilder.RedefinitionStrategy.BatchAllocator batchAllocator = AgentBuilder.RedefinitionStrategy.BatchAllocator.ForPauseBudget.of(10, TimeUnit.MILLISECONDS, 2, 3);
+        List<Class<?>> types = Arrays.<Class<?>>asList(Object.class, String.class, Void.class, Integer.class, Long.class, Short.class, Byte.class);
+        Iterable<? extends List<Class<?>>> batches = batchAllocator.batch(types);
+        Iterator<? extends List<Class<?>>> iterator = batches.iterator();
+        assertThat(iterator.next(), is(types.subList(0, 2)));
+        ((AgentBuilder.RedefinitionStrategy.BatchAllocator.Feedback) batches).onApplied(types.subList(0, 2), 0L);
+        assertThat(iterator.next(), is(types.subList(2, 5)));
+        ((AgentBuilder.RedefinitionStrategy.BatchAllocator.Feedback) batches).onApplied(types.subList(2, 5), TimeUnit.SECONDS.toNanos(1));
+        assertThat(iterator.next(), is(types.subList(5, 7)));
+        assertThat(iterator.hasNext(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForPauseBudgetIllegalPause() throws Exception {
+        AgentBuilder.RedefinitionStrategy.BatchAllocator.ForPauseBudget.of(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForPauseBudgetIllegalMinimum() throws Exception {
+        AgentBuilder.RedefinitionStrategy.BatchAllocator.ForPauseBudget.of(10, TimeUnit.MILLISECONDS, 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForPauseBudgetIllegalRange() throws Exception {
+        AgentBuilder.RedefinitionStrategy.BatchAllocator.ForPauseBudget.of(10, TimeUnit.MILLISECONDS, 2, 1);
+    }
 }
@@ -0,0 +1,148 @@
+package net.bytebuddy.agent.builder;
+
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class AgentBuilderRedefinitionStrategyMatchingStrategyTest {
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private AgentBuilder.RedefinitionStrategy.MatchingStrategy.Consideration consideration;
+
+    @Mock
+    private ExecutorService executorService;
+
+    @Mock
+    private AgentBuilder.CircularityLock circularityLock;
+
+    @Test
+    public void testSerial() throws Exception {
+        AgentBuilder.RedefinitionStrategy.MatchingStrategy.Serial.INSTANCE.apply(Arrays.<Class<?>>asList(Object.class, String.class), consideration);
+        verify(consideration).consider(0, Object.class);
+        verify(consideration).consider(1, String.class);
+        verifyNoMoreInteractions(consideration);
+    }
+
+    @Test
+    public void testParallelBelowGroupSize() throws Exception {
+        new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Parallel(executorService).apply(Arrays.<Class<?>>asList(Object.class, String.class), consideration);
+        verify(consideration).consider(0, Object.class);
+        verify(consideration).consider(1, String.class);
+        verifyNoMoreInteractions(consideration);
+        verifyZeroInteractions(executorService);
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        List<Class<?>> types = new ArrayList<Class<?>>();
+        for (int index = 0; index < 100; index++) {
+            types.add(index % 2 == 0 ? Object.class : String.class);
+        }
+        final AtomicIntegerArray considered = new AtomicIntegerArray(types.size());
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Parallel(executorService, 7).apply(types, new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Consideration() {
+                public void consider(int index, Class<?> type) {
+                    considered.incrementAndGet(index);
+                }
+
+                public AgentBuilder.CircularityLock getCircularityLock() {
+                    return circularityLock;
+                }
+            });
+        } finally {
+            executorService.shutdown();
+        }
+        for (int index = 0; index < types.size(); index++) {
+            assertThat(considered.get(index), is(1));
+        }
+    }
+
+    @Test
+    public void testParallelCircularityLock() throws Exception {
+        when(consideration.getCircularityLock()).thenReturn(circularityLock);
+        when(circularityLock.acquire()).thenReturn(true);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Parallel(executorService, 1).apply(Arrays.<Class<?>>asList(Object.class, String.class), consideration);
+        } finally {
+            executorService.shutdown();
+        }
+        InOrder inOrder = inOrder(circularityLock, consideration);
+        inOrder.verify(circularityLock).acquire();
+        inOrder.verify(consideration).consider(0, Object.class);
+        inOrder.verify(circularityLock).release();
+        inOrder.verify(circularityLock).acquire();
+        inOrder.verify(consideration).consider(1, String.class);
+        inOrder.verify(circularityLock).release();
+    }
+
+    @Test
+    public void testParallelCircularityLockNotAcquired() throws Exception {
+        when(consideration.getCircularityLock()).thenReturn(circularityLock);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Parallel(executorService, 1).apply(Arrays.<Class<?>>asList(Object.class, String.class), consideration);
+        } finally {
+            executorService.shutdown();
+        }
+        verify(consideration).consider(0, Object.class);
+        verify(consideration).consider(1, String.class);
+        verify(circularityLock, times(2)).acquire();
+        verify(circularityLock, never()).release();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testParallelFailure() throws Exception {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Parallel(executorService, 1).apply(Arrays.<Class<?>>asList(Object.class, String.class), new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Consideration() {
+                public void consider(int index, Class<?> type) {
+                    throw new RuntimeException();
+                }
+
+                public AgentBuilder.CircularityLock getCircularityLock() {
+                    return circularityLock;
+                }
+            });
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelEmpty() throws Exception {
+        new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Parallel(executorService, 1).apply(Collections.<Class<?>>emptyList(), consideration);
+        verifyZeroInteractions(consideration);
+        verifyZeroInteractions(executorService);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelIllegalGroupSize() throws Exception {
+        new AgentBuilder.RedefinitionStrategy.MatchingStrategy.Parallel(executorService, 0);
+    }
+}
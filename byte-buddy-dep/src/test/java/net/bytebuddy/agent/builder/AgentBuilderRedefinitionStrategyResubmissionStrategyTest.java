@@ -747,6 +747,80 @@ public class AgentBuilderRedefinitionStrategyResubmissionStrategyTest {
         verifyNoMoreInteractions(resubmissionOnErrorMatcher);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRetransformationBackoff() throws Exception {
+        when(instrumentation.isModifiableClass(Foo.class)).thenReturn(true);
+        doThrow(new RuntimeException()).when(instrumentation).retransformClasses(Foo.class);
+        when(redefinitionBatchAllocator.batch(Mockito.any(List.class))).thenAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocationOnMock) throws Throwable {
+                return Collections.singleton(invocationOnMock.getArgument(0));
+            }
+        });
+        when(redefinitionListener.onError(anyInt(), Mockito.any(List.class), Mockito.any(Throwable.class), Mockito.any(List.class)))
+                .thenReturn((Iterable) Collections.emptyList());
+        when(rawMatcher.matches(TypeDescription.ForLoadedType.of(Foo.class),
+                Foo.class.getClassLoader(),
+                JavaModule.ofType(Foo.class),
+                Foo.class,
+                Foo.class.getProtectionDomain())).thenReturn(true);
+        when(resubmissionOnErrorMatcher.matches(error, Foo.class.getName(), Foo.class.getClassLoader(), JavaModule.ofType(Foo.class))).thenReturn(true);
+        when(resubmissionScheduler.isAlive()).thenReturn(true);
+        AgentBuilder.RedefinitionStrategy.ResubmissionStrategy.Installation installation = new AgentBuilder.RedefinitionStrategy.ResubmissionStrategy.Enabled(
+                resubmissionScheduler,
+                resubmissionOnErrorMatcher,
+                resubmissionImmediateMatcher,
+                Integer.MAX_VALUE,
+                2).apply(instrumentation,
+                poolStrategy,
+                locationStrategy,
+                descriptionStrategy,
+                fallbackStrategy,
+                listener,
+                installationListener,
+                circularityLock,
+                rawMatcher,
+                AgentBuilder.RedefinitionStrategy.RETRANSFORMATION,
+                redefinitionBatchAllocator,
+                redefinitionListener);
+        installation.getInstallationListener().onInstall(instrumentation, classFileTransformer);
+        ArgumentCaptor<Runnable> argumentCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(resubmissionScheduler).schedule(argumentCaptor.capture());
+        for (int index = 0; index < 6; index++) {
+            installation.getListener().onError(Foo.class.getName(), Foo.class.getClassLoader(), JavaModule.ofType(Foo.class), false, error);
+            argumentCaptor.getValue().run();
+        }
+        verify(instrumentation, times(3)).retransformClasses(Foo.class);
+        verify(redefinitionBatchAllocator, times(3)).batch(Collections.<Class<?>>singletonList(Foo.class));
+        verifyNoMoreInteractions(redefinitionBatchAllocator);
+    }
+
+    @Test
+    public void testResubmissionBounded() throws Exception {
+        when(resubmissionImmediateMatcher.matches(Mockito.any(String.class), Mockito.any(ClassLoader.class), Mockito.any(JavaModule.class))).thenReturn(true);
+        when(resubmissionScheduler.isAlive()).thenReturn(true);
+        AgentBuilder.RedefinitionStrategy.ResubmissionStrategy.Installation installation = new AgentBuilder.RedefinitionStrategy.ResubmissionStrategy.Enabled(
+                resubmissionScheduler,
+                resubmissionOnErrorMatcher,
+                resubmissionImmediateMatcher,
+                1,
+                0).apply(instrumentation,
+                poolStrategy,
+                locationStrategy,
+                descriptionStrategy,
+                fallbackStrategy,
+                listener,
+                installationListener,
+                circularityLock,
+                rawMatcher,
+                AgentBuilder.RedefinitionStrategy.RETRANSFORMATION,
+                redefinitionBatchAllocator,
+                redefinitionListener);
+        assertThat(installation.getResubmissionEnforcer().isEnforced(Foo.class.getName(), Foo.class.getClassLoader(), JavaModule.ofType(Foo.class), null), is(true));
+        assertThat(installation.getResubmissionEnforcer().isEnforced(Foo.class.getName(), Foo.class.getClassLoader(), JavaModule.ofType(Foo.class), null), is(true));
+        assertThat(installation.getResubmissionEnforcer().isEnforced(Bar.class.getName(), Bar.class.getClassLoader(), JavaModule.ofType(Bar.class), null), is(false));
+    }
+
     @Test
     public void testDisabledListener() throws Exception {
         assertThat(AgentBuilder.RedefinitionStrategy.ResubmissionStrategy.Disabled.INSTANCE.apply(instrumentation,
@@ -873,4 +947,8 @@ public class AgentBuilderRedefinitionStrategyResubmissionStrategyTest {
     private static class Foo {
         /* empty */
     }
+
+    private static class Bar {
+        /* empty */
+    }
 }
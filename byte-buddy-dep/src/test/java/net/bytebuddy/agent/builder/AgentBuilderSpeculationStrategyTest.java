@@ -0,0 +1,96 @@
+package net.bytebuddy.agent.builder;
+
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mock;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class AgentBuilderSpeculationStrategyTest {
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private AgentBuilder.SpeculationStrategy.Speculator speculator;
+
+    @Mock
+    private ClassLoader classLoader;
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("foo", "bar");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        assertThat(file.delete(), is(true));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        AgentBuilder.SpeculationStrategy.Disabled.INSTANCE.apply(speculator);
+        verifyNoMoreInteractions(speculator);
+    }
+
+    @Test
+    public void testForJarFiles() throws Exception {
+        JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(file));
+        try {
+            outputStream.putNextEntry(new JarEntry("foo/Bar.class"));
+            outputStream.write(new byte[]{1, 2, 3});
+            outputStream.closeEntry();
+            outputStream.putNextEntry(new JarEntry("foo/package-info.class"));
+            outputStream.write(new byte[]{4, 5, 6});
+            outputStream.closeEntry();
+            outputStream.putNextEntry(new JarEntry("META-INF/versions/9/foo/Bar.class"));
+            outputStream.write(new byte[]{7, 8, 9});
+            outputStream.closeEntry();
+            outputStream.putNextEntry(new JarEntry("foo/bar.txt"));
+            outputStream.write(new byte[]{10});
+            outputStream.closeEntry();
+        } finally {
+            outputStream.close();
+        }
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            new AgentBuilder.SpeculationStrategy.ForJarFiles(executorService, classLoader, file).apply(speculator);
+        } finally {
+            executorService.shutdown();
+        }
+        assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS), is(true));
+        verify(speculator).speculate("foo.Bar", classLoader, new byte[]{1, 2, 3});
+        verifyNoMoreInteractions(speculator);
+    }
+
+    @Test
+    public void testForJarFilesNotExistent() throws Exception {
+        assertThat(file.delete(), is(true));
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            new AgentBuilder.SpeculationStrategy.ForJarFiles(executorService, classLoader, file).apply(speculator);
+        } finally {
+            executorService.shutdown();
+        }
+        assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS), is(true));
+        verifyNoMoreInteractions(speculator);
+        assertThat(file.createNewFile(), is(true));
+    }
+}
@@ -0,0 +1,189 @@
+package net.bytebuddy.agent.builder;
+
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mock;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class AgentBuilderTransformationCacheTest {
+
+    private static final String FOO = "foo", BAR = "bar";
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private AgentBuilder.TransformationCache first, second;
+
+    @Mock
+    private AgentBuilder.TransformationCache.Entry firstEntry, secondEntry;
+
+    private ClassLoader classLoader;
+
+    private File folder;
+
+    @Before
+    public void setUp() throws Exception {
+        folder = File.createTempFile(FOO, BAR);
+        assertThat(folder.delete(), is(true));
+        classLoader = new URLClassLoader(new URL[0]);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                assertThat(file.delete(), is(true));
+            }
+        }
+        assertThat(!folder.exists() || folder.delete(), is(true));
+    }
+
+    @Test
+    public void testNoOp() throws Exception {
+        AgentBuilder.TransformationCache.NoOp.INSTANCE.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).register(new byte[]{4, 5, 6});
+        assertThat(AgentBuilder.TransformationCache.NoOp.INSTANCE.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), nullValue(byte[].class));
+    }
+
+    @Test
+    public void testInMemory() throws Exception {
+        AgentBuilder.TransformationCache.InMemory transformationCache = new AgentBuilder.TransformationCache.InMemory();
+        AgentBuilder.TransformationCache.Entry entry = transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO);
+        assertThat(entry.find(), nullValue(byte[].class));
+        entry.register(new byte[]{4, 5, 6});
+        assertThat(entry.find(), is(new byte[]{4, 5, 6}));
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{4, 5, 6}));
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, BAR).find(), nullValue(byte[].class));
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 4}, FOO).find(), nullValue(byte[].class));
+        assertThat(transformationCache.getSize(), is(3L));
+    }
+
+    @Test
+    public void testInMemoryClassLoader() throws Exception {
+        AgentBuilder.TransformationCache.InMemory transformationCache = new AgentBuilder.TransformationCache.InMemory();
+        transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).register(new byte[]{4, 5, 6});
+        assertThat(transformationCache.lookup(FOO, new URLClassLoader(new URL[0]), new byte[]{1, 2, 3}, FOO).find(), nullValue(byte[].class));
+        assertThat(transformationCache.lookup(FOO, null, new byte[]{1, 2, 3}, FOO).find(), nullValue(byte[].class));
+        transformationCache.lookup(FOO, null, new byte[]{1, 2, 3}, FOO).register(new byte[]{7, 8, 9});
+        assertThat(transformationCache.lookup(FOO, null, new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{7, 8, 9}));
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{4, 5, 6}));
+    }
+
+    @Test
+    public void testInMemoryTransformer() throws Exception {
+        AgentBuilder.TransformationCache.InMemory transformationCache = new AgentBuilder.TransformationCache.InMemory();
+        transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).register(new byte[]{4, 5, 6});
+        assertThat(transformationCache.lookup(BAR, classLoader, new byte[]{1, 2, 3}, FOO).find(), nullValue(byte[].class));
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{4, 5, 6}));
+    }
+
+    @Test
+    public void testInMemoryEviction() throws Exception {
+        AgentBuilder.TransformationCache.InMemory transformationCache = new AgentBuilder.TransformationCache.InMemory(5);
+        transformationCache.lookup(FOO, classLoader, new byte[]{1}, FOO).register(new byte[]{1, 1});
+        transformationCache.lookup(FOO, classLoader, new byte[]{2}, FOO).register(new byte[]{2, 2});
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{1}, FOO).find(), is(new byte[]{1, 1}));
+        transformationCache.lookup(FOO, classLoader, new byte[]{3}, FOO).register(new byte[]{3, 3});
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{1}, FOO).find(), is(new byte[]{1, 1}));
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{2}, FOO).find(), nullValue(byte[].class));
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{3}, FOO).find(), is(new byte[]{3, 3}));
+        assertThat(transformationCache.getSize(), is(4L));
+        transformationCache.lookup(FOO, classLoader, new byte[]{4}, FOO).register(new byte[]{4, 4, 4, 4, 4, 4});
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{4}, FOO).find(), nullValue(byte[].class));
+        assertThat(transformationCache.getSize(), is(4L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInMemoryIllegalSize() throws Exception {
+        new AgentBuilder.TransformationCache.InMemory(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalAlgorithm() throws Exception {
+        new AgentBuilder.TransformationCache.InMemory(FOO, 1);
+    }
+
+    @Test
+    public void testForFolder() throws Exception {
+        AgentBuilder.TransformationCache transformationCache = new AgentBuilder.TransformationCache.ForFolder(folder, FOO);
+        AgentBuilder.TransformationCache.Entry entry = transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO);
+        assertThat(entry.find(), nullValue(byte[].class));
+        entry.register(new byte[]{4, 5, 6});
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{4, 5, 6}));
+        assertThat(transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, BAR).find(), nullValue(byte[].class));
+        assertThat(new AgentBuilder.TransformationCache.ForFolder(folder, FOO).lookup(BAR, classLoader, new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{4, 5, 6}));
+        assertThat(folder.listFiles().length, is(1));
+    }
+
+    @Test
+    public void testForFolderClassLoader() throws Exception {
+        AgentBuilder.TransformationCache transformationCache = new AgentBuilder.TransformationCache.ForFolder(folder, FOO);
+        transformationCache.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).register(new byte[]{4, 5, 6});
+        assertThat(transformationCache.lookup(FOO, null, new byte[]{1, 2, 3}, FOO).find(), nullValue(byte[].class));
+        assertThat(transformationCache.lookup(FOO, new URLClassLoader(new URL[0]), new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{4, 5, 6}));
+    }
+
+    @Test
+    public void testForFolderVersion() throws Exception {
+        new AgentBuilder.TransformationCache.ForFolder(folder, FOO).lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).register(new byte[]{4, 5, 6});
+        assertThat(new AgentBuilder.TransformationCache.ForFolder(folder, BAR).lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), nullValue(byte[].class));
+        assertThat(new AgentBuilder.TransformationCache.ForFolder(folder, FOO).lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{4, 5, 6}));
+    }
+
+    @Test
+    public void testForFolderVersionOfTypes() throws Exception {
+        AgentBuilder.TransformationCache.ForFolder.of(folder, Object.class).lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).register(new byte[]{4, 5, 6});
+        assertThat(AgentBuilder.TransformationCache.ForFolder.of(folder, String.class).lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), nullValue(byte[].class));
+        assertThat(AgentBuilder.TransformationCache.ForFolder.of(folder, Object.class).lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{4, 5, 6}));
+    }
+
+    @Test
+    public void testCompoundFind() throws Exception {
+        when(first.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO)).thenReturn(firstEntry);
+        when(second.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO)).thenReturn(secondEntry);
+        when(secondEntry.find()).thenReturn(new byte[]{4, 5, 6});
+        assertThat(new AgentBuilder.TransformationCache.Compound(first, second).lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), is(new byte[]{4, 5, 6}));
+        verify(firstEntry).find();
+        verify(firstEntry).register(new byte[]{4, 5, 6});
+        verifyNoMoreInteractions(firstEntry);
+        verify(secondEntry).find();
+        verifyNoMoreInteractions(secondEntry);
+    }
+
+    @Test
+    public void testCompoundNotFound() throws Exception {
+        when(first.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO)).thenReturn(firstEntry);
+        when(second.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO)).thenReturn(secondEntry);
+        assertThat(new AgentBuilder.TransformationCache.Compound(first, second).lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO).find(), nullValue(byte[].class));
+        verify(firstEntry).find();
+        verifyNoMoreInteractions(firstEntry);
+        verify(secondEntry).find();
+        verifyNoMoreInteractions(secondEntry);
+    }
+
+    @Test
+    public void testCompoundRegister() throws Exception {
+        when(first.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO)).thenReturn(firstEntry);
+        when(second.lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO)).thenReturn(secondEntry);
+        new AgentBuilder.TransformationCache.Compound(first, AgentBuilder.TransformationCache.NoOp.INSTANCE, second)
+                .lookup(FOO, classLoader, new byte[]{1, 2, 3}, FOO)
+                .register(new byte[]{4, 5, 6});
+        verify(firstEntry).register(new byte[]{4, 5, 6});
+        verifyNoMoreInteractions(firstEntry);
+        verify(secondEntry).register(new byte[]{4, 5, 6});
+        verifyNoMoreInteractions(secondEntry);
+    }
+}
@@ -0,0 +1,105 @@
+package net.bytebuddy.agent.builder;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AgentBuilderTransformationMonitorTest {
+
+    private static final String FOO = "foo";
+
+    @Test
+    public void testNoOp() throws Exception {
+        AgentBuilder.TransformationMonitor.Probe probe = AgentBuilder.TransformationMonitor.NoOp.INSTANCE.begin(FOO);
+        assertThat(probe, is((AgentBuilder.TransformationMonitor.Probe) AgentBuilder.TransformationMonitor.NoOp.INSTANCE));
+        probe.onTransformation(0, AgentBuilder.TransformationMonitor.Phase.MATCHING);
+        probe.onPhase(AgentBuilder.TransformationMonitor.Phase.MATCHING);
+    }
+
+    @Test
+    public void testRecording() throws Exception {
+        AgentBuilder.TransformationMonitor.Recording recording = new AgentBuilder.TransformationMonitor.Recording();
+        AgentBuilder.TransformationMonitor.Probe probe = recording.begin(FOO);
+        probe.onPhase(AgentBuilder.TransformationMonitor.Phase.DESCRIPTION);
+        probe.onTransformation(0, AgentBuilder.TransformationMonitor.Phase.MATCHING);
+        probe.onTransformation(1, AgentBuilder.TransformationMonitor.Phase.MATCHING);
+        probe.onPhase(AgentBuilder.TransformationMonitor.Phase.MATCHING);
+        probe.onTransformation(1, AgentBuilder.TransformationMonitor.Phase.BUILDER);
+        probe.onPhase(AgentBuilder.TransformationMonitor.Phase.BUILDER);
+        probe.onPhase(AgentBuilder.TransformationMonitor.Phase.MAKE);
+        probe.onPhase(AgentBuilder.TransformationMonitor.Phase.EMISSION);
+        for (AgentBuilder.TransformationMonitor.Phase phase : AgentBuilder.TransformationMonitor.Phase.values()) {
+            assertThat(recording.getHistogram(phase).getCount(), is(1L));
+            assertThat(recording.getCount(phase.name()), is(1L));
+            assertThat(recording.getTotalNanos(phase.name()) >= 0L, is(true));
+            assertThat(recording.getMaximumNanos(phase.name()), is(recording.getTotalNanos(phase.name())));
+            assertThat(recording.getAllocatedBytes(phase.name()) >= 0L, is(true));
+        }
+        assertThat(recording.getTransformations().size(), is(2));
+        assertThat(recording.getHistogram(0, AgentBuilder.TransformationMonitor.Phase.MATCHING).getCount(), is(1L));
+        assertThat(recording.getHistogram(0, AgentBuilder.TransformationMonitor.Phase.BUILDER).getCount(), is(0L));
+        assertThat(recording.getHistogram(1, AgentBuilder.TransformationMonitor.Phase.MATCHING).getCount(), is(1L));
+        assertThat(recording.getHistogram(1, AgentBuilder.TransformationMonitor.Phase.BUILDER).getCount(), is(1L));
+        assertThat(recording.getHistogram(2, AgentBuilder.TransformationMonitor.Phase.MATCHING), nullValue(AgentBuilder.TransformationMonitor.Recording.Histogram.class));
+        assertThat(recording.getSummary(), containsString("Transformation 1 BUILDER"));
+        recording.reset();
+        assertThat(recording.getCount(AgentBuilder.TransformationMonitor.Phase.MAKE.name()), is(0L));
+        assertThat(recording.getTransformations(), is(Collections.<Integer>emptySet()));
+    }
+
+    @Test
+    public void testRecordingWithoutAllocations() throws Exception {
+        AgentBuilder.TransformationMonitor.Recording recording = new AgentBuilder.TransformationMonitor.Recording(false);
+        assertThat(recording.isRecordingAllocations(), is(false));
+        recording.begin(FOO).onPhase(AgentBuilder.TransformationMonitor.Phase.DESCRIPTION);
+        assertThat(recording.getAllocatedBytes(AgentBuilder.TransformationMonitor.Phase.DESCRIPTION.name()), is(0L));
+    }
+
+    @Test
+    public void testHistogramPercentile() throws Exception {
+        AgentBuilder.TransformationMonitor.Recording.Histogram histogram = new AgentBuilder.TransformationMonitor.Recording.Histogram();
+        assertThat(histogram.getPercentileNanos(50), is(0L));
+        histogram.record(1L, 0L);
+        histogram.record(2L, 0L);
+        histogram.record(100L, 10L);
+        histogram.record(-1L, -1L);
+        assertThat(histogram.getCount(), is(4L));
+        assertThat(histogram.getTotalNanos(), is(103L));
+        assertThat(histogram.getMaximumNanos(), is(100L));
+        assertThat(histogram.getAllocatedBytes(), is(10L));
+        assertThat(histogram.getPercentileNanos(25), is(1L));
+        assertThat(histogram.getPercentileNanos(50), is(2L));
+        assertThat(histogram.getPercentileNanos(100), is(128L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHistogramIllegalPercentile() throws Exception {
+        new AgentBuilder.TransformationMonitor.Recording.Histogram().getPercentileNanos(101);
+    }
+
+    @Test
+    public void testRecordingRegistersAsMBean() throws Exception {
+        AgentBuilder.TransformationMonitor.Recording recording = new AgentBuilder.TransformationMonitor.Recording();
+        recording.begin(FOO).onPhase(AgentBuilder.TransformationMonitor.Phase.MAKE);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("net.bytebuddy:type=" + AgentBuilderTransformationMonitorTest.class.getSimpleName());
+        server.registerMBean(recording, objectName);
+        try {
+            assertThat(server.invoke(objectName,
+                    "getCount",
+                    new Object[]{AgentBuilder.TransformationMonitor.Phase.MAKE.name()},
+                    new String[]{String.class.getName()}), is((Object) 1L));
+            assertThat((String) server.getAttribute(objectName, "Summary"), containsString("MAKE"));
+        } finally {
+            server.unregisterMBean(objectName);
+        }
+    }
+}
@@ -9,10 +9,13 @@ import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
 import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
 import net.bytebuddy.dynamic.scaffold.inline.MethodNameTransformer;
 import net.bytebuddy.implementation.LoadedTypeInitializer;
+import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
+import net.bytebuddy.pool.TypePool;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.mockito.ArgumentMatcher;
 import org.mockito.ArgumentMatchers;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -42,6 +45,7 @@ public class PluginEngineDefaultTest {
         return Arrays.asList(new Object[][]{
                 {Plugin.Engine.Dispatcher.ForSerialTransformation.Factory.INSTANCE, true},
                 {new Plugin.Engine.Dispatcher.ForParallelTransformation.WithThrowawayExecutorService.Factory(1), true},
+                {new Plugin.Engine.Dispatcher.ForParallelTransformation.WithThrowawayExecutorService.Factory(2, 1), true},
                 {Plugin.Engine.Dispatcher.ForSerialTransformation.Factory.INSTANCE, false},
                 {new Plugin.Engine.Dispatcher.ForParallelTransformation.WithThrowawayExecutorService.Factory(1), false}
         });
@@ -374,6 +378,125 @@ public class PluginEngineDefaultTest {
                 .withErrorHandlers(errorHandler)));
     }
 
+    @Test
+    public void testPrefilteredType() throws Exception {
+        Plugin.Engine.Listener listener = mock(Plugin.Engine.Listener.class);
+        Plugin.Engine.PoolStrategy poolStrategy = mock(Plugin.Engine.PoolStrategy.class);
+        TypePool typePool = spy(TypePool.Default.of(SimplePlugin.class.getClassLoader()));
+        when(poolStrategy.typePool(any(ClassFileLocator.class))).thenReturn(typePool);
+        Plugin plugin = eager
+                ? new PrefilteredPlugin()
+                : new PreprocessingPlugin(new PrefilteredPlugin());
+        Plugin.Engine.Source source = Plugin.Engine.Source.InMemory.ofTypes(Sample.class);
+        Plugin.Engine.Target.InMemory target = new Plugin.Engine.Target.InMemory();
+        Plugin.Engine.Summary summary = new Plugin.Engine.Default()
+                .with(listener)
+                .with(poolStrategy)
+                .with(ClassFileLocator.ForClassLoader.of(SimplePlugin.class.getClassLoader()))
+                .with(dispatcherFactory)
+                .apply(source, target, new Plugin.Factory.Simple(plugin));
+        assertThat(summary.getTransformed().size(), is(0));
+        assertThat(summary.getFailed().size(), is(0));
+        assertThat(summary.getUnresolved().size(), is(0));
+        assertThat(target.getStorage().containsKey(Sample.class.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION), is(true));
+        if (eager) {
+            verify(listener).onIgnored(ArgumentMatchers.argThat(new ArgumentMatcher<TypeDescription>() {
+                public boolean matches(TypeDescription typeDescription) {
+                    return typeDescription.getName().equals(Sample.class.getName()) && typeDescription.toString().equals(Sample.class.getName());
+                }
+            }), eq(Collections.singletonList(plugin)));
+            verify(typePool, never()).describe(Sample.class.getName());
+        } else {
+            verify(typePool).describe(Sample.class.getName());
+        }
+    }
+
+    @Test
+    public void testPrefilteredTypeCandidate() throws Exception {
+        Plugin.Engine.Source source = Plugin.Engine.Source.InMemory.ofTypes(Sample.class);
+        Plugin.Engine.Target.InMemory target = new Plugin.Engine.Target.InMemory();
+        Plugin.Engine.Summary summary = new Plugin.Engine.Default()
+                .with(ClassFileLocator.ForClassLoader.of(SimplePlugin.class.getClassLoader()))
+                .with(dispatcherFactory)
+                .apply(source, target, new Plugin.Factory.Simple(new PrefilteredPlugin(ElementMatchers.named(Sample.class.getName()))));
+        ClassLoader classLoader = new ByteArrayClassLoader(ClassLoadingStrategy.BOOTSTRAP_LOADER, target.toTypeMap());
+        Class<?> type = classLoader.loadClass(Sample.class.getName());
+        assertThat(type.getDeclaredField(FOO).getType(), is((Object) Void.class));
+        assertThat(summary.getTransformed(), hasItems(TypeDescription.ForLoadedType.of(Sample.class)));
+    }
+
+    @Test
+    public void testPrefilteredTypeUnresolved() throws Exception {
+        Plugin.Engine.Listener listener = mock(Plugin.Engine.Listener.class);
+        doAnswer(new Answer<Void>() {
+            public Void answer(InvocationOnMock invocation) {
+                ((TypeDescription) invocation.getArguments()[0]).getModifiers();
+                return null;
+            }
+        }).when(listener).onIgnored(any(TypeDescription.class), ArgumentMatchers.<Plugin>anyList());
+        Plugin plugin = eager
+                ? new PrefilteredPlugin()
+                : new PreprocessingPlugin(new PrefilteredPlugin());
+        Plugin.Engine.Source source = new Plugin.Engine.Source.InMemory(Collections.singletonMap(
+                Sample.class.getName().replace('.', '/') + ".class",
+                ClassFileLocator.ForClassLoader.read(Sample.class))) {
+            @Override
+            public ClassFileLocator getClassFileLocator() {
+                return ClassFileLocator.NoOp.INSTANCE;
+            }
+        };
+        Plugin.Engine.Target.InMemory target = new Plugin.Engine.Target.InMemory();
+        Plugin.Engine.Summary summary = new Plugin.Engine.Default()
+                .with(listener)
+                .withoutErrorHandlers()
+                .with(dispatcherFactory)
+                .apply(source, target, new Plugin.Factory.Simple(plugin));
+        assertThat(summary.getTransformed().size(), is(0));
+        assertThat(summary.getFailed().size(), is(0));
+        assertThat(summary.getUnresolved().size(), is(1));
+        assertThat(summary.getUnresolved().contains(Sample.class.getName()), is(true));
+        verify(listener).onUnresolved(Sample.class.getName());
+    }
+
+    @Test
+    public void testPrefilteredTypeCandidateReusesClassFile() throws Exception {
+        Plugin.Engine.Source source = new Plugin.Engine.Source.InMemory(Collections.singletonMap(
+                Sample.class.getName().replace('.', '/') + ".class",
+                ClassFileLocator.ForClassLoader.read(Sample.class))) {
+            @Override
+            public ClassFileLocator getClassFileLocator() {
+                return ClassFileLocator.NoOp.INSTANCE;
+            }
+        };
+        final ClassFileLocator classFileLocator = ClassFileLocator.ForClassLoader.of(SimplePlugin.class.getClassLoader());
+        Plugin plugin = new PrefilteredPlugin(ElementMatchers.named(Sample.class.getName()));
+        Plugin.Engine.Target.InMemory target = new Plugin.Engine.Target.InMemory();
+        Plugin.Engine.Summary summary = new Plugin.Engine.Default()
+                .with(new ClassFileLocator() {
+                    public Resolution locate(String name) throws IOException {
+                        return name.equals(Sample.class.getName())
+                                ? new Resolution.Illegal(name)
+                                : classFileLocator.locate(name);
+                    }
+
+                    public void close() {
+                        /* empty */
+                    }
+                })
+                .withoutErrorHandlers()
+                .with(dispatcherFactory)
+                .apply(source, target, new Plugin.Factory.Simple(eager
+                        ? plugin
+                        : new PreprocessingPlugin(plugin)));
+        if (eager) {
+            assertThat(summary.getTransformed(), hasItems(TypeDescription.ForLoadedType.of(Sample.class)));
+            assertThat(summary.getUnresolved().size(), is(0));
+        } else {
+            assertThat(summary.getTransformed().size(), is(0));
+            assertThat(summary.getUnresolved().contains(Sample.class.getName()), is(true));
+        }
+    }
+
     private static class Sample {
         /* empty */
     }
@@ -393,6 +516,25 @@ public class PluginEngineDefaultTest {
         }
     }
 
+    private static class PrefilteredPlugin extends Plugin.ForElementMatcher {
+
+        private PrefilteredPlugin() {
+            this(ElementMatchers.named(FOO));
+        }
+
+        private PrefilteredPlugin(ElementMatcher<? super TypeDescription> matcher) {
+            super(matcher);
+        }
+
+        public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder, TypeDescription typeDescription, ClassFileLocator classFileLocator) {
+            return builder.defineField(FOO, Void.class);
+        }
+
+        public void close() {
+            /* empty */
+        }
+    }
+
     private static class LiveInitializerPlugin implements Plugin {
 
         public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder, TypeDescription typeDescription, ClassFileLocator classFileLocator) {
@@ -0,0 +1,152 @@
+package net.bytebuddy.build;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.*;
+
+public class PluginEngineDispatcherForParallelTransformationTest {
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private Plugin.Engine.Target.Sink sink;
+
+    @Mock
+    private Plugin.Engine.Dispatcher.Materializable materializable;
+
+    @Mock
+    private Executor executor;
+
+    private List<TypeDescription> transformed;
+
+    private Map<TypeDescription, List<Throwable>> failed;
+
+    private List<String> unresolved;
+
+    private Callable<Callable<Plugin.Engine.Dispatcher.Materializable>> work;
+
+    @Before
+    public void setUp() throws Exception {
+        transformed = new ArrayList<TypeDescription>();
+        failed = new HashMap<TypeDescription, List<Throwable>>();
+        unresolved = new ArrayList<String>();
+        work = new Callable<Callable<Plugin.Engine.Dispatcher.Materializable>>() {
+            public Callable<Plugin.Engine.Dispatcher.Materializable> call() {
+                return new Callable<Plugin.Engine.Dispatcher.Materializable>() {
+                    public Plugin.Engine.Dispatcher.Materializable call() {
+                        return materializable;
+                    }
+                };
+            }
+        };
+        Mockito.doAnswer(new Answer<Void>() {
+
+            public Void answer(InvocationOnMock invocationOnMock) {
+                ((Runnable) invocationOnMock.getArgument(0)).run();
+                return null;
+            }
+        }).when(executor).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void testEagerWorkIsMaterializedUponAccept() throws Exception {
+        Plugin.Engine.Dispatcher dispatcher = new Plugin.Engine.Dispatcher.ForParallelTransformation.Factory(executor).make(sink,
+                transformed,
+                failed,
+                unresolved);
+        try {
+            dispatcher.accept(work, true);
+            verify(materializable).materialize(sink, transformed, failed, unresolved);
+            dispatcher.complete();
+        } finally {
+            dispatcher.close();
+        }
+        verifyNoMoreInteractions(materializable);
+    }
+
+    @Test
+    public void testDeferredWorkIsMaterializedUponCompletion() throws Exception {
+        Plugin.Engine.Dispatcher dispatcher = new Plugin.Engine.Dispatcher.ForParallelTransformation.Factory(executor).make(sink,
+                transformed,
+                failed,
+                unresolved);
+        try {
+            dispatcher.accept(work, false);
+            verifyZeroInteractions(materializable);
+            dispatcher.complete();
+        } finally {
+            dispatcher.close();
+        }
+        verify(materializable).materialize(sink, transformed, failed, unresolved);
+        verifyNoMoreInteractions(materializable);
+    }
+
+    @Test
+    public void testCapacityBoundsPendingWork() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Plugin.Engine.Dispatcher dispatcher = new Plugin.Engine.Dispatcher.ForParallelTransformation.Factory(executorService, 1).make(sink,
+                    transformed,
+                    failed,
+                    unresolved);
+            try {
+                for (int index = 1; index <= 10; index++) {
+                    dispatcher.accept(work, true);
+                    verify(materializable, atLeast(index - 1)).materialize(sink, transformed, failed, unresolved);
+                }
+                dispatcher.complete();
+            } finally {
+                dispatcher.close();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        verify(materializable, times(10)).materialize(sink, transformed, failed, unresolved);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEagerWorkFailure() throws Exception {
+        Plugin.Engine.Dispatcher dispatcher = new Plugin.Engine.Dispatcher.ForParallelTransformation.Factory(executor).make(sink,
+                transformed,
+                failed,
+                unresolved);
+        try {
+            dispatcher.accept(new Callable<Callable<Plugin.Engine.Dispatcher.Materializable>>() {
+                public Callable<Plugin.Engine.Dispatcher.Materializable> call() {
+                    throw new IllegalStateException();
+                }
+            }, true);
+        } finally {
+            dispatcher.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalCapacity() throws Exception {
+        new Plugin.Engine.Dispatcher.ForParallelTransformation.Factory(executor, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowawayIllegalCapacity() throws Exception {
+        new Plugin.Engine.Dispatcher.ForParallelTransformation.WithThrowawayExecutorService.Factory(1, 0);
+    }
+}
@@ -50,6 +50,7 @@ public class PluginEngineSourceForJarFileTest {
             assertThat(element.getName(), is("Foo.class"));
             assertThat(element.resolveAs(Object.class), nullValue(Object.class));
             assertThat(element.resolveAs(JarEntry.class), notNullValue(JarEntry.class));
+            assertThat(element.resolveAs(JarFile.class), notNullValue(JarFile.class));
             InputStream inputStream = element.getInputStream();
             try {
                 assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[]{1, 2, 3}));
@@ -84,6 +85,7 @@ public class PluginEngineSourceForJarFileTest {
             assertThat(element.getName(), is("bar/Foo.class"));
             assertThat(element.resolveAs(Object.class), nullValue(Object.class));
             assertThat(element.resolveAs(JarEntry.class), notNullValue(JarEntry.class));
+            assertThat(element.resolveAs(JarFile.class), notNullValue(JarFile.class));
             InputStream inputStream = element.getInputStream();
             try {
                 assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[]{1, 2, 3}));
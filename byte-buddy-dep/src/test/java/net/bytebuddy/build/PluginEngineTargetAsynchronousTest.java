@@ -0,0 +1,146 @@
+package net.bytebuddy.build;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class PluginEngineTargetAsynchronousTest {
+
+    private static final String FOO = "foo";
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private Plugin.Engine.Target target;
+
+    @Mock
+    private Plugin.Engine.Target.Sink sink;
+
+    @Mock
+    private Plugin.Engine.Source.Element element;
+
+    @Before
+    public void setUp() throws Exception {
+        when(target.write(Plugin.Engine.Source.Origin.NO_MANIFEST)).thenReturn(sink);
+    }
+
+    @Test
+    public void testWritesInOrder() throws Exception {
+        Map<TypeDescription, byte[]> binaryRepresentations = Collections.singletonMap(TypeDescription.OBJECT, new byte[]{1, 2, 3});
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.Asynchronous(target, 1).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+        sink.store(binaryRepresentations);
+        sink.retain(element);
+        sink.store(binaryRepresentations);
+        sink.close();
+        InOrder inOrder = inOrder(this.sink);
+        inOrder.verify(this.sink).store(binaryRepresentations);
+        inOrder.verify(this.sink).retain(element);
+        inOrder.verify(this.sink).store(binaryRepresentations);
+        inOrder.verify(this.sink).close();
+        verifyNoMoreInteractions(this.sink);
+    }
+
+    @Test
+    public void testFailureIsRethrownOnClose() throws Exception {
+        IOException exception = new IOException();
+        doThrow(exception).when(this.sink).retain(element);
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.Asynchronous(target).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+        sink.retain(element);
+        try {
+            sink.close();
+            throw new AssertionError();
+        } catch (IOException caught) {
+            assertThat(caught.getCause(), is((Throwable) exception));
+        }
+        verify(this.sink).retain(element);
+        verify(this.sink).close();
+        verifyNoMoreInteractions(this.sink);
+    }
+
+    @Test
+    public void testFailureIsRethrownOnNextWrite() throws Exception {
+        IOException exception = new IOException();
+        doThrow(exception).when(this.sink).retain(element);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.Asynchronous.AsynchronousSink(this.sink, 1, executorService);
+        sink.retain(element);
+        executorService.submit(new Runnable() {
+            public void run() {
+                /* empty */
+            }
+        }).get();
+        try {
+            sink.retain(element);
+            throw new AssertionError();
+        } catch (IOException caught) {
+            assertThat(caught.getCause(), is((Throwable) exception));
+        }
+        try {
+            sink.close();
+            throw new AssertionError();
+        } catch (IOException caught) {
+            assertThat(caught.getCause(), is((Throwable) exception));
+        }
+        verify(this.sink).retain(element);
+        verify(this.sink).close();
+        verifyNoMoreInteractions(this.sink);
+    }
+
+    @Test
+    public void testEngineApplication() throws Exception {
+        Plugin.Engine.Target.InMemory target = new Plugin.Engine.Target.InMemory();
+        Plugin.Engine.Summary summary = new Plugin.Engine.Default()
+                .with(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()))
+                .withParallelTransformation(2)
+                .apply(Plugin.Engine.Source.InMemory.ofTypes(Sample.class), new Plugin.Engine.Target.Asynchronous(target, 1), new Plugin.Factory.Simple(new SimplePlugin()));
+        assertThat(summary.getTransformed().size(), is(1));
+        assertThat(new ByteArrayClassLoader(ClassLoadingStrategy.BOOTSTRAP_LOADER, target.toTypeMap())
+                .loadClass(Sample.class.getName())
+                .getDeclaredField(FOO)
+                .getType(), is((Object) Void.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalCapacity() throws Exception {
+        new Plugin.Engine.Target.Asynchronous(target, 0);
+    }
+
+    private static class Sample {
+        /* empty */
+    }
+
+    private static class SimplePlugin implements Plugin {
+
+        public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder, TypeDescription typeDescription, ClassFileLocator classFileLocator) {
+            return builder.defineField(FOO, Void.class);
+        }
+
+        public boolean matches(TypeDescription target) {
+            return target.represents(Sample.class);
+        }
+
+        public void close() {
+            /* empty */
+        }
+    }
+}
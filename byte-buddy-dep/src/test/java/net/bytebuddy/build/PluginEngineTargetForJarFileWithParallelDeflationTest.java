@@ -0,0 +1,352 @@
+package net.bytebuddy.build;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.utility.StreamDrainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PluginEngineTargetForJarFileWithParallelDeflationTest {
+
+    private static final String FOO = "foo", BAR = "bar";
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("foo", "bar");
+        assertThat(file.delete(), is(true));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (file.exists()) {
+            assertThat(file.delete(), is(true));
+        }
+    }
+
+    @Test
+    public void testWriteType() throws Exception {
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(2).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+        try {
+            sink.store(Collections.singletonMap(TypeDescription.OBJECT, new byte[]{1, 2, 3}));
+        } finally {
+            sink.close();
+        }
+        JarInputStream inputStream = new JarInputStream(new FileInputStream(file));
+        try {
+            assertThat(inputStream.getManifest(), nullValue(Manifest.class));
+            JarEntry entry = inputStream.getNextJarEntry();
+            assertThat(entry.getName(), is(TypeDescription.OBJECT.getInternalName() + ".class"));
+            assertThat(entry.getMethod(), is(JarEntry.DEFLATED));
+            assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[]{1, 2, 3}));
+            assertThat(inputStream.getNextJarEntry(), nullValue(JarEntry.class));
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    @Test
+    public void testWriteResourcesInOrder() throws Exception {
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(4).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+        try {
+            for (int index = 0; index < 1000; index++) {
+                sink.retain(element(FOO + "/" + index, new byte[index]));
+            }
+        } finally {
+            sink.close();
+        }
+        JarFile jarFile = new JarFile(file);
+        try {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            for (int index = 0; index < 1000; index++) {
+                JarEntry entry = entries.nextElement();
+                assertThat(entry.getName(), is(FOO + "/" + index));
+                assertThat(entry.getSize(), is((long) index));
+                InputStream inputStream = jarFile.getInputStream(entry);
+                try {
+                    assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[index]));
+                } finally {
+                    inputStream.close();
+                }
+            }
+            assertThat(entries.hasMoreElements(), is(false));
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    @Test
+    public void testStoredCompressedResource() throws Exception {
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.ForJarFile(file)
+                .withParallelDeflation(2)
+                .withStoredCompressedResources()
+                .write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+        try {
+            sink.retain(element(FOO + ".PNG", new byte[]{1, 2, 3}));
+            sink.retain(element(BAR, new byte[]{4, 5, 6}));
+        } finally {
+            sink.close();
+        }
+        JarInputStream inputStream = new JarInputStream(new FileInputStream(file));
+        try {
+            JarEntry entry = inputStream.getNextJarEntry();
+            assertThat(entry.getName(), is(FOO + ".PNG"));
+            assertThat(entry.getMethod(), is(JarEntry.STORED));
+            assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[]{1, 2, 3}));
+            entry = inputStream.getNextJarEntry();
+            assertThat(entry.getName(), is(BAR));
+            assertThat(entry.getMethod(), is(JarEntry.DEFLATED));
+            assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[]{4, 5, 6}));
+            assertThat(inputStream.getNextJarEntry(), nullValue(JarEntry.class));
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    @Test
+    public void testStoredOriginalEntry() throws Exception {
+        JarEntry original = new JarEntry(FOO);
+        original.setMethod(JarEntry.STORED);
+        original.setTime(0L);
+        Plugin.Engine.Source.Element element = element(FOO, new byte[]{1, 2, 3});
+        when(element.resolveAs(JarEntry.class)).thenReturn(original);
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(2).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+        try {
+            sink.retain(element);
+        } finally {
+            sink.close();
+        }
+        JarFile jarFile = new JarFile(file);
+        try {
+            JarEntry entry = jarFile.getJarEntry(FOO);
+            assertThat(entry.getMethod(), is(JarEntry.STORED));
+            assertThat(entry.getSize(), is(3L));
+            InputStream inputStream = jarFile.getInputStream(entry);
+            try {
+                assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[]{1, 2, 3}));
+            } finally {
+                inputStream.close();
+            }
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    @Test
+    public void testManifest() throws Exception {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(2).write(manifest).close();
+        JarInputStream inputStream = new JarInputStream(new FileInputStream(file));
+        try {
+            Manifest readManifest = inputStream.getManifest();
+            assertThat(readManifest.getMainAttributes().get(Attributes.Name.MANIFEST_VERSION), is((Object) "1.0"));
+            assertThat(inputStream.getNextJarEntry(), nullValue(JarEntry.class));
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    @Test
+    public void testZip64() throws Exception {
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(2).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+        try {
+            for (int index = 0; index < 0x10001; index++) {
+                sink.retain(element(Integer.toString(index), new byte[]{(byte) index}));
+            }
+        } finally {
+            sink.close();
+        }
+        JarFile jarFile = new JarFile(file);
+        try {
+            assertThat(jarFile.size(), is(0x10001));
+            InputStream inputStream = jarFile.getInputStream(jarFile.getJarEntry(Integer.toString(0x10000)));
+            try {
+                assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[]{0}));
+            } finally {
+                inputStream.close();
+            }
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    @Test
+    public void testCopyFromJarFile() throws Exception {
+        File source = File.createTempFile("foo", "bar");
+        try {
+            StringBuilder stringBuilder = new StringBuilder();
+            for (int index = 0; index < 1000; index++) {
+                stringBuilder.append(index).append(FOO).append(index % 7).append(BAR);
+            }
+            byte[] binaryRepresentation = stringBuilder.toString().getBytes("UTF-8");
+            JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(source));
+            try {
+                outputStream.setLevel(Deflater.BEST_SPEED);
+                outputStream.putNextEntry(new JarEntry(FOO));
+                outputStream.write(binaryRepresentation);
+                outputStream.closeEntry();
+                JarEntry stored = new JarEntry(BAR);
+                stored.setMethod(JarEntry.STORED);
+                stored.setSize(3);
+                stored.setCrc(crc(new byte[]{1, 2, 3}));
+                outputStream.putNextEntry(stored);
+                outputStream.write(new byte[]{1, 2, 3});
+                outputStream.closeEntry();
+            } finally {
+                outputStream.close();
+            }
+            Plugin.Engine.Source.Origin origin = new Plugin.Engine.Source.ForJarFile(source).read();
+            try {
+                Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(2).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+                try {
+                    for (Plugin.Engine.Source.Element element : origin) {
+                        sink.retain(element);
+                    }
+                } finally {
+                    sink.close();
+                }
+            } finally {
+                origin.close();
+            }
+            JarFile original = new JarFile(source), jarFile = new JarFile(file);
+            try {
+                assertThat(jarFile.size(), is(2));
+                JarEntry entry = jarFile.getJarEntry(FOO);
+                assertThat(entry.getMethod(), is(JarEntry.DEFLATED));
+                assertThat(entry.getCompressedSize(), is(original.getJarEntry(FOO).getCompressedSize()));
+                assertThat(entry.getTime(), is(original.getJarEntry(FOO).getTime()));
+                assertThat(read(jarFile, entry), is(binaryRepresentation));
+                entry = jarFile.getJarEntry(BAR);
+                assertThat(entry.getMethod(), is(JarEntry.STORED));
+                assertThat(read(jarFile, entry), is(new byte[]{1, 2, 3}));
+            } finally {
+                original.close();
+                jarFile.close();
+            }
+            JarInputStream inputStream = new JarInputStream(new FileInputStream(file));
+            try {
+                assertThat(inputStream.getNextJarEntry().getName(), is(FOO));
+                assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(binaryRepresentation));
+                assertThat(inputStream.getNextJarEntry().getName(), is(BAR));
+                assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[]{1, 2, 3}));
+                assertThat(inputStream.getNextJarEntry(), nullValue(JarEntry.class));
+            } finally {
+                inputStream.close();
+            }
+        } finally {
+            assertThat(source.delete(), is(true));
+        }
+    }
+
+    @Test
+    public void testCopyFromIllegalJarFileFallsBack() throws Exception {
+        File source = File.createTempFile("foo", "bar");
+        try {
+            OutputStream outputStream = new FileOutputStream(source);
+            try {
+                outputStream.write(new byte[]{1, 2, 3});
+            } finally {
+                outputStream.close();
+            }
+            JarFile jarFile = mock(JarFile.class);
+            when(jarFile.getName()).thenReturn(source.getPath());
+            Plugin.Engine.Source.Element element = element(FOO, new byte[]{4, 5, 6});
+            when(element.resolveAs(JarEntry.class)).thenReturn(new JarEntry(FOO));
+            when(element.resolveAs(JarFile.class)).thenReturn(jarFile);
+            Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(2).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+            try {
+                sink.retain(element);
+            } finally {
+                sink.close();
+            }
+            JarInputStream inputStream = new JarInputStream(new FileInputStream(file));
+            try {
+                assertThat(inputStream.getNextJarEntry().getName(), is(FOO));
+                assertThat(StreamDrainer.DEFAULT.drain(inputStream), is(new byte[]{4, 5, 6}));
+                assertThat(inputStream.getNextJarEntry(), nullValue(JarEntry.class));
+            } finally {
+                inputStream.close();
+            }
+        } finally {
+            assertThat(source.delete(), is(true));
+        }
+    }
+
+    @Test(expected = ZipException.class)
+    public void testDuplicateEntry() throws Exception {
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(2).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+        try {
+            sink.retain(element(FOO, new byte[]{1}));
+            sink.retain(element(FOO, new byte[]{2}));
+        } finally {
+            sink.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testFailedElement() throws Exception {
+        Plugin.Engine.Source.Element element = mock(Plugin.Engine.Source.Element.class);
+        when(element.getName()).thenReturn(FOO);
+        when(element.getInputStream()).thenThrow(new IOException());
+        Plugin.Engine.Target.Sink sink = new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(2).write(Plugin.Engine.Source.Origin.NO_MANIFEST);
+        try {
+            sink.retain(element);
+        } finally {
+            sink.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalThreads() throws Exception {
+        new Plugin.Engine.Target.ForJarFile(file).withParallelDeflation(0);
+    }
+
+    private static long crc(byte[] binaryRepresentation) {
+        CRC32 crc = new CRC32();
+        crc.update(binaryRepresentation);
+        return crc.getValue();
+    }
+
+    private static byte[] read(JarFile jarFile, JarEntry entry) throws IOException {
+        InputStream inputStream = jarFile.getInputStream(entry);
+        try {
+            return StreamDrainer.DEFAULT.drain(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static Plugin.Engine.Source.Element element(String name, byte[] binaryRepresentation) throws IOException {
+        Plugin.Engine.Source.Element element = mock(Plugin.Engine.Source.Element.class);
+        when(element.getName()).thenReturn(name);
+        when(element.getInputStream()).thenReturn(new ByteArrayInputStream(binaryRepresentation));
+        return element;
+    }
+}
@@ -0,0 +1,427 @@
+package net.bytebuddy.build;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.ClassFileVersion;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.LoadedTypeInitializer;
+import net.bytebuddy.utility.ClassFileHeader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class PluginEngineTransformationManifestTest {
+
+    private static final String FOO = "foo", BAR = "bar";
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("foo", "bar");
+        assertThat(file.delete(), is(true));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (file.exists()) {
+            assertThat(file.delete(), is(true));
+        }
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        Plugin.Engine.TransformationManifest.Session session = Plugin.Engine.TransformationManifest.Disabled.INSTANCE.open(Collections.<Plugin>emptyList(),
+                Collections.emptyList(),
+                ClassFileLocator.NoOp.INSTANCE);
+        Plugin.Engine.TransformationManifest.Lookup lookup = session.lookup(FOO, mock(Plugin.Engine.Source.Element.class));
+        assertThat(lookup.isCurrent(), is(false));
+        assertThat(lookup.track(ClassFileLocator.NoOp.INSTANCE), is((ClassFileLocator) ClassFileLocator.NoOp.INSTANCE));
+        lookup.record(Collections.<Plugin>emptyList(), null);
+        session.complete();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDisabledCannotReuse() throws Exception {
+        Plugin.Engine.TransformationManifest.Disabled.INSTANCE.reuse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalAlgorithm() throws Exception {
+        new Plugin.Engine.TransformationManifest.ForFile(file, FOO);
+    }
+
+    @Test
+    public void testBeside() throws Exception {
+        assertThat(Plugin.Engine.TransformationManifest.ForFile.beside(new File(file.getParentFile(), FOO)),
+                is((Plugin.Engine.TransformationManifest) new Plugin.Engine.TransformationManifest.ForFile(new File(file.getAbsoluteFile().getParentFile(), "." + FOO + ".bytebuddy"))));
+    }
+
+    @Test
+    public void testUnchangedTypeIsReused() throws Exception {
+        Plugin.Engine.Target.InMemory target = apply(sources(), new CountingPlugin(), 1);
+        assertThat(file.isFile(), is(true));
+        assertThat(load(target.getStorage()).getDeclaredField(FOO).getType(), is((Object) Void.class));
+        Plugin.Engine.Target.InMemory reused = apply(sources(), new CountingPlugin(), 0);
+        assertThat(reused.getStorage().get(Sample.class.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION),
+                is(target.getStorage().get(Sample.class.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION)));
+        assertThat(load(reused.getStorage()).getDeclaredField(FOO).getType(), is((Object) Void.class));
+    }
+
+    @Test
+    public void testTransformedTypeIsReused() throws Exception {
+        Plugin.Engine.Target.InMemory target = apply(sources(), new CountingPlugin(), 1);
+        Plugin.Engine.Target.InMemory reused = apply(new HashMap<String, byte[]>(target.getStorage()), new CountingPlugin(), 0);
+        assertThat(load(reused.getStorage()).getDeclaredField(FOO).getType(), is((Object) Void.class));
+        apply(new HashMap<String, byte[]>(reused.getStorage()), new CountingPlugin(), 0);
+    }
+
+    @Test
+    public void testChangedSuperTypeInvalidates() throws Exception {
+        apply(sources(), new CountingPlugin(), 1);
+        Map<String, byte[]> sources = sources();
+        sources.put(Base.class.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION, new ByteBuddy()
+                .redefine(Base.class)
+                .defineField(BAR, Void.class)
+                .make()
+                .getBytes());
+        apply(sources, new CountingPlugin(), 1);
+        apply(sources, new CountingPlugin(), 0);
+    }
+
+    @Test
+    public void testChangedTypeInvalidates() throws Exception {
+        apply(sources(), new CountingPlugin(), 1);
+        Map<String, byte[]> sources = sources();
+        sources.put(Sample.class.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION, new ByteBuddy()
+                .redefine(Sample.class)
+                .defineField(BAR, Void.class)
+                .make()
+                .getBytes());
+        apply(sources, new CountingPlugin(), 1);
+    }
+
+    @Test
+    public void testChangedPluginsInvalidate() throws Exception {
+        apply(sources(), new CountingPlugin(), 1);
+        apply(sources(), new OtherCountingPlugin(), 1);
+    }
+
+    @Test
+    public void testChangedPluginConfigurationInvalidates() throws Exception {
+        apply(sources(), new ConfiguredPlugin(FOO), 1);
+        apply(sources(), new ConfiguredPlugin(BAR), 1);
+        apply(sources(), new ConfiguredPlugin(BAR), 0);
+    }
+
+    @Test
+    public void testChangedEngineConfigurationInvalidates() throws Exception {
+        apply(new Plugin.Engine.Default(), sources(), new CountingPlugin(), "", 1);
+        apply(new Plugin.Engine.Default(new ByteBuddy(ClassFileVersion.JAVA_V6)), sources(), new CountingPlugin(), "", 1);
+        apply(new Plugin.Engine.Default(new ByteBuddy(ClassFileVersion.JAVA_V6)), sources(), new CountingPlugin(), "", 0);
+    }
+
+    @Test
+    public void testChangedLocatedTypeInvalidates() throws Exception {
+        Map<String, byte[]> sources = sources();
+        sources.put(Other.class.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION, ClassFileLocator.ForClassLoader.read(Other.class));
+        apply(sources, new LocatingPlugin(), 1);
+        apply(sources, new LocatingPlugin(), 0);
+        sources.put(Other.class.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION, new ByteBuddy()
+                .redefine(Other.class)
+                .defineField(BAR, Void.class)
+                .make()
+                .getBytes());
+        apply(sources, new LocatingPlugin(), 1);
+        apply(sources, new LocatingPlugin(), 0);
+    }
+
+    @Test
+    public void testChangedVersionInvalidates() throws Exception {
+        apply(sources(), new CountingPlugin(), FOO, 1);
+        apply(sources(), new CountingPlugin(), BAR, 1);
+        apply(sources(), new CountingPlugin(), BAR, 0);
+    }
+
+    @Test
+    public void testBesideWithVersion() throws Exception {
+        assertThat(Plugin.Engine.TransformationManifest.ForFile.beside(new File(file.getParentFile(), FOO), BAR),
+                is((Plugin.Engine.TransformationManifest) new Plugin.Engine.TransformationManifest.ForFile(new File(file.getAbsoluteFile().getParentFile(), "." + FOO + ".bytebuddy"),
+                        Plugin.Engine.TransformationManifest.ForFile.DEFAULT_ALGORITHM,
+                        BAR)));
+    }
+
+    @Test
+    public void testPrefilteredTypeIsRecorded() throws Exception {
+        Map<String, byte[]> sources = sources();
+        sources.put(Other.class.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION, ClassFileLocator.ForClassLoader.read(Other.class));
+        prefilter(sources, 1, 1);
+        prefilter(sources, 0, 1);
+        sources.put(Base.class.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION, new ByteBuddy()
+                .redefine(Base.class)
+                .defineField(BAR, Void.class)
+                .make()
+                .getBytes());
+        prefilter(sources, 1, 1);
+        prefilter(sources, 0, 1);
+    }
+
+    @Test
+    public void testReusedTypeIsReported() throws Exception {
+        apply(sources(), new CountingPlugin(), 1);
+        ReportingListener listener = new ReportingListener();
+        Plugin.Engine.Summary summary = new Plugin.Engine.Default()
+                .with(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()))
+                .with(new Plugin.Engine.TransformationManifest.ForFile(file))
+                .with(listener)
+                .apply(new Plugin.Engine.Source.InMemory(sources()), new Plugin.Engine.Target.InMemory(), new Plugin.Factory.Simple(new CountingPlugin()));
+        assertThat(summary.getTransformed().size(), is(1));
+        assertThat(summary.getTransformed().get(0).getName(), is(Sample.class.getName()));
+        assertThat(listener.discovered, is(2));
+        assertThat(listener.transformed, is(1));
+        assertThat(listener.ignored, is(1));
+        assertThat(listener.completed, is(2));
+    }
+
+    @Test
+    public void testReusedLiveInitializerIsReported() throws Exception {
+        CountingPlugin plugin = new LiveInitializerPlugin();
+        new Plugin.Engine.Default()
+                .withoutErrorHandlers()
+                .with(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()))
+                .with(new Plugin.Engine.TransformationManifest.ForFile(file))
+                .apply(new Plugin.Engine.Source.InMemory(sources()), new Plugin.Engine.Target.InMemory(), new Plugin.Factory.Simple(plugin));
+        assertThat(plugin.count, is(1));
+        ReportingListener listener = new ReportingListener();
+        new Plugin.Engine.Default()
+                .withoutErrorHandlers()
+                .with(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()))
+                .with(new Plugin.Engine.TransformationManifest.ForFile(file))
+                .with(listener)
+                .apply(new Plugin.Engine.Source.InMemory(sources()), new Plugin.Engine.Target.InMemory(), new Plugin.Factory.Simple(new LiveInitializerPlugin()));
+        assertThat(listener.liveInitializers, is(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReusedLiveInitializerIsEnforced() throws Exception {
+        CountingPlugin plugin = new LiveInitializerPlugin();
+        new Plugin.Engine.Default()
+                .withoutErrorHandlers()
+                .with(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()))
+                .with(new Plugin.Engine.TransformationManifest.ForFile(file))
+                .apply(new Plugin.Engine.Source.InMemory(sources()), new Plugin.Engine.Target.InMemory(), new Plugin.Factory.Simple(plugin));
+        assertThat(plugin.count, is(1));
+        new Plugin.Engine.Default()
+                .with(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()))
+                .with(new Plugin.Engine.TransformationManifest.ForFile(file))
+                .apply(new Plugin.Engine.Source.InMemory(sources()), new Plugin.Engine.Target.InMemory(), new Plugin.Factory.Simple(new LiveInitializerPlugin()));
+    }
+
+    @Test
+    public void testPreprocessorDisablesManifest() throws Exception {
+        apply(sources(), new PreprocessingPlugin(), 1);
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void testCorruptManifestIsIgnored() throws Exception {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(new byte[]{1, 2, 3});
+        } finally {
+            outputStream.close();
+        }
+        apply(sources(), new CountingPlugin(), 1);
+        apply(sources(), new CountingPlugin(), 0);
+    }
+
+    private Plugin.Engine.Target.InMemory apply(Map<String, byte[]> sources, CountingPlugin plugin, int count) throws IOException {
+        return apply(sources, plugin, "", count);
+    }
+
+    private Plugin.Engine.Target.InMemory apply(Map<String, byte[]> sources, CountingPlugin plugin, String version, int count) throws IOException {
+        return apply(new Plugin.Engine.Default(), sources, plugin, version, count);
+    }
+
+    private Plugin.Engine.Target.InMemory apply(Plugin.Engine engine,
+                                                Map<String, byte[]> sources,
+                                                CountingPlugin plugin,
+                                                String version,
+                                                int count) throws IOException {
+        Plugin.Engine.Target.InMemory target = new Plugin.Engine.Target.InMemory();
+        Plugin.Engine.Summary summary = engine
+                .with(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()))
+                .with(new Plugin.Engine.TransformationManifest.ForFile(file, Plugin.Engine.TransformationManifest.ForFile.DEFAULT_ALGORITHM, version))
+                .apply(new Plugin.Engine.Source.InMemory(sources), target, new Plugin.Factory.Simple(plugin));
+        assertThat(plugin.count, is(count));
+        assertThat(summary.getTransformed().size(), is(1));
+        assertThat(summary.getFailed().size(), is(0));
+        return target;
+    }
+
+    private void prefilter(Map<String, byte[]> sources, int count, int ignored) throws IOException {
+        CountingPlugin plugin = new PrefilteringPlugin();
+        IgnoredListener listener = new IgnoredListener();
+        Plugin.Engine.Summary summary = new Plugin.Engine.Default()
+                .with(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()))
+                .with(new Plugin.Engine.TransformationManifest.ForFile(file))
+                .with(listener)
+                .apply(new Plugin.Engine.Source.InMemory(sources), new Plugin.Engine.Target.InMemory(), new Plugin.Factory.Simple(plugin));
+        assertThat(plugin.count, is(count));
+        assertThat(listener.ignored, is(ignored));
+        assertThat(summary.getFailed().size(), is(0));
+    }
+
+    private static Map<String, byte[]> sources() {
+        Map<String, byte[]> sources = new HashMap<String, byte[]>();
+        for (Class<?> type : new Class<?>[]{Sample.class, Base.class}) {
+            sources.put(type.getName().replace('.', '/') + Plugin.Engine.CLASS_FILE_EXTENSION, ClassFileLocator.ForClassLoader.read(type));
+        }
+        return sources;
+    }
+
+    private static Class<?> load(Map<String, byte[]> storage) throws Exception {
+        return new ByteArrayClassLoader(ClassLoadingStrategy.BOOTSTRAP_LOADER, new Plugin.Engine.Target.InMemory(storage).toTypeMap())
+                .loadClass(Sample.class.getName());
+    }
+
+    private static class Base {
+        /* empty */
+    }
+
+    private static class Sample extends Base {
+        /* empty */
+    }
+
+    private static class Other extends Base {
+        /* empty */
+    }
+
+    private static class CountingPlugin implements Plugin {
+
+        private int count;
+
+        public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder, TypeDescription typeDescription, ClassFileLocator classFileLocator) {
+            count++;
+            return builder.defineField(FOO, Void.class);
+        }
+
+        public boolean matches(TypeDescription target) {
+            return target.represents(Sample.class);
+        }
+
+        public void close() {
+            /* empty */
+        }
+    }
+
+    private static class OtherCountingPlugin extends CountingPlugin {
+        /* empty */
+    }
+
+    private static class ConfiguredPlugin extends CountingPlugin {
+
+        private final String value;
+
+        private ConfiguredPlugin(String value) {
+            this.value = value;
+        }
+    }
+
+    private static class LocatingPlugin extends CountingPlugin {
+
+        @Override
+        public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder, TypeDescription typeDescription, ClassFileLocator classFileLocator) {
+            try {
+                assertThat(classFileLocator.locate(Other.class.getName()).isResolved(), is(true));
+            } catch (IOException exception) {
+                throw new AssertionError(exception);
+            }
+            return super.apply(builder, typeDescription, classFileLocator);
+        }
+    }
+
+    private static class PrefilteringPlugin extends CountingPlugin implements Plugin.WithPrefilter {
+
+        public boolean mightMatch(String typeName) {
+            return typeName.equals(Sample.class.getName());
+        }
+
+        public boolean mightMatch(ClassFileHeader classFileHeader) {
+            return true;
+        }
+    }
+
+    private static class IgnoredListener extends Plugin.Engine.Listener.Adapter {
+
+        private int ignored;
+
+        @Override
+        public void onIgnored(TypeDescription typeDescription, List<Plugin> plugins) {
+            if (typeDescription.getName().equals(Other.class.getName())) {
+                ignored++;
+            }
+        }
+    }
+
+    private static class LiveInitializerPlugin extends CountingPlugin {
+
+        @Override
+        public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder, TypeDescription typeDescription, ClassFileLocator classFileLocator) {
+            return super.apply(builder, typeDescription, classFileLocator).initializer(new LoadedTypeInitializer.ForStaticField(FOO, BAR));
+        }
+    }
+
+    private static class ReportingListener extends Plugin.Engine.Listener.Adapter {
+
+        private int discovered, transformed, ignored, liveInitializers, completed;
+
+        @Override
+        public void onDiscovery(String typeName) {
+            discovered++;
+        }
+
+        @Override
+        public void onTransformation(TypeDescription typeDescription, List<Plugin> plugins) {
+            transformed++;
+        }
+
+        @Override
+        public void onIgnored(TypeDescription typeDescription, List<Plugin> plugins) {
+            ignored++;
+        }
+
+        @Override
+        public void onLiveInitializer(TypeDescription typeDescription, TypeDescription definingType) {
+            liveInitializers++;
+        }
+
+        @Override
+        public void onComplete(TypeDescription typeDescription) {
+            completed++;
+        }
+    }
+
+    private static class PreprocessingPlugin extends CountingPlugin implements Plugin.WithPreprocessor {
+
+        public void onPreprocess(TypeDescription typeDescription, ClassFileLocator classFileLocator) {
+            /* empty */
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.bytebuddy.build;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.utility.ClassFileHeader;
+import org.junit.Test;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static net.bytebuddy.matcher.ElementMatchers.isAnnotatedWith;
+import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PluginForElementMatcherTest {
+
+    @Test
+    public void testMatches() throws Exception {
+        Plugin plugin = new SimplePlugin(nameStartsWith(Sample.class.getPackage().getName()));
+        assertThat(plugin.matches(TypeDescription.ForLoadedType.of(Sample.class)), is(true));
+        assertThat(plugin.matches(TypeDescription.OBJECT), is(false));
+    }
+
+    @Test
+    public void testPrefilterName() throws Exception {
+        Plugin.WithPrefilter plugin = new SimplePlugin(nameStartsWith(Sample.class.getPackage().getName()));
+        assertThat(plugin.mightMatch(Sample.class.getName()), is(true));
+        assertThat(plugin.mightMatch(Object.class.getName()), is(false));
+        assertThat(plugin.mightMatch(ClassFileHeader.of(ClassFileLocator.ForClassLoader.read(Object.class))), is(true));
+    }
+
+    @Test
+    public void testPrefilterAnnotation() throws Exception {
+        Plugin.WithPrefilter plugin = new SimplePlugin(isAnnotatedWith(Marker.class));
+        assertThat(plugin.mightMatch(Object.class.getName()), is(true));
+        assertThat(plugin.mightMatch(ClassFileHeader.of(ClassFileLocator.ForClassLoader.read(Sample.class))), is(true));
+        assertThat(plugin.mightMatch(ClassFileHeader.of(ClassFileLocator.ForClassLoader.read(Object.class))), is(false));
+    }
+
+    @Test
+    public void testPrefilterOverriddenMatches() throws Exception {
+        Plugin.WithPrefilter plugin = new OverridingPlugin(isAnnotatedWith(Marker.class));
+        assertThat(plugin.mightMatch(Object.class.getName()), is(true));
+        assertThat(plugin.mightMatch(ClassFileHeader.of(ClassFileLocator.ForClassLoader.read(Object.class))), is(true));
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface Marker {
+        /* empty */
+    }
+
+    @Marker
+    private static class Sample {
+        /* empty */
+    }
+
+    private static class SimplePlugin extends Plugin.ForElementMatcher {
+
+        private SimplePlugin(ElementMatcher<? super TypeDescription> matcher) {
+            super(matcher);
+        }
+
+        public DynamicType.Builder<?> apply(DynamicType.Builder<?> builder, TypeDescription typeDescription, ClassFileLocator classFileLocator) {
+            return builder;
+        }
+
+        public void close() {
+            /* empty */
+        }
+    }
+
+    private static class OverridingPlugin extends SimplePlugin {
+
+        private OverridingPlugin(ElementMatcher<? super TypeDescription> matcher) {
+            super(matcher);
+        }
+
+        @Override
+        public boolean matches(TypeDescription target) {
+            return true;
+        }
+    }
+}
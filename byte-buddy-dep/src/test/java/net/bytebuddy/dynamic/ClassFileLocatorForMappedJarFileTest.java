@@ -0,0 +1,139 @@
+package net.bytebuddy.dynamic;
+
+import net.bytebuddy.pool.TypePool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ClassFileLocatorForMappedJarFileTest {
+
+    private static final String FOO = "foo", BAR = "bar", QUX = "qux";
+
+    private static final int VALUE = 42;
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile(FOO, BAR);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        assertThat(file.delete(), is(true));
+    }
+
+    @Test
+    public void testStoredAndDeflatedLocation() throws Exception {
+        byte[] binaryRepresentation = ClassFileLocator.ForClassLoader.read(ClassFileLocatorForMappedJarFileTest.class);
+        JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file));
+        try {
+            JarEntry jarEntry = new JarEntry(FOO + "/" + BAR + ".class");
+            jarEntry.setMethod(JarEntry.STORED);
+            jarEntry.setSize(binaryRepresentation.length);
+            CRC32 crc32 = new CRC32();
+            crc32.update(binaryRepresentation);
+            jarEntry.setCrc(crc32.getValue());
+            jarOutputStream.putNextEntry(jarEntry);
+            jarOutputStream.write(binaryRepresentation);
+            jarOutputStream.closeEntry();
+            jarOutputStream.putNextEntry(new JarEntry(FOO + "/" + QUX + ".class"));
+            jarOutputStream.write(binaryRepresentation);
+            jarOutputStream.closeEntry();
+            jarOutputStream.putNextEntry(new JarEntry(FOO + "/" + QUX + ".txt"));
+            jarOutputStream.write(VALUE);
+            jarOutputStream.closeEntry();
+        } finally {
+            jarOutputStream.close();
+        }
+        ClassFileLocator classFileLocator = ClassFileLocator.ForMappedJarFile.of(file);
+        try {
+            ClassFileLocator.Resolution stored = classFileLocator.locate(FOO + "." + BAR);
+            assertThat(stored.isResolved(), is(true));
+            assertThat(stored.resolve(), is(binaryRepresentation));
+            ClassFileLocator.Resolution deflated = classFileLocator.locate(FOO + "." + QUX);
+            assertThat(deflated.isResolved(), is(true));
+            assertThat(deflated.resolve(), is(binaryRepresentation));
+            assertThat(classFileLocator.locate(FOO + "." + QUX + ".txt").isResolved(), is(false));
+        } finally {
+            classFileLocator.close();
+        }
+    }
+
+    @Test
+    public void testNonSuccessfulLocation() throws Exception {
+        JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file));
+        try {
+            JarEntry jarEntry = new JarEntry("noop.class");
+            jarOutputStream.putNextEntry(jarEntry);
+            jarOutputStream.write(VALUE);
+            jarOutputStream.closeEntry();
+        } finally {
+            jarOutputStream.close();
+        }
+        ClassFileLocator classFileLocator = ClassFileLocator.ForMappedJarFile.of(file);
+        try {
+            assertThat(classFileLocator.locate(FOO + "." + BAR).isResolved(), is(false));
+        } finally {
+            classFileLocator.close();
+        }
+    }
+
+    @Test
+    public void testTypePool() throws Exception {
+        byte[] binaryRepresentation = ClassFileLocator.ForClassLoader.read(ClassFileLocatorForMappedJarFileTest.class);
+        JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file));
+        try {
+            jarOutputStream.putNextEntry(new JarEntry(ClassFileLocatorForMappedJarFileTest.class.getName().replace('.', '/') + ".class"));
+            jarOutputStream.write(binaryRepresentation);
+            jarOutputStream.closeEntry();
+        } finally {
+            jarOutputStream.close();
+        }
+        ClassFileLocator classFileLocator = ClassFileLocator.ForMappedJarFile.of(file);
+        try {
+            assertThat(TypePool.Default.of(classFileLocator)
+                    .describe(ClassFileLocatorForMappedJarFileTest.class.getName())
+                    .resolve()
+                    .represents(ClassFileLocatorForMappedJarFileTest.class), is(true));
+        } finally {
+            classFileLocator.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testIllegalFile() throws Exception {
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(new byte[]{VALUE, VALUE, VALUE});
+        } finally {
+            outputStream.close();
+        }
+        ClassFileLocator.ForMappedJarFile.of(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedLocalFileHeader() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        new ClassFileLocator.ForMappedJarFile.Entry(JarEntry.STORED, 4, VALUE, VALUE).read(buffer);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedContent() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, 0x04034B50);
+        new ClassFileLocator.ForMappedJarFile.Entry(JarEntry.DEFLATED, 0, VALUE, VALUE).read(buffer);
+    }
+}
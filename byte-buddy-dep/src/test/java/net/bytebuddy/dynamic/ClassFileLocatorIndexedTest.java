@@ -0,0 +1,145 @@
+package net.bytebuddy.dynamic;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mock;
+import org.objectweb.asm.ClassVisitor;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+public class ClassFileLocatorIndexedTest {
+
+    private static final String FOO = "foo", BAR = "bar", QUX = "qux";
+
+    private static final int VALUE = 42;
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private ClassFileLocator first, second;
+
+    @Mock
+    private ClassFileLocator.Resolution resolution;
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile(FOO, BAR);
+        when(second.locate(FOO + "." + BAR)).thenReturn(resolution);
+        when(resolution.isResolved()).thenReturn(true);
+        when(first.locate(FOO + "." + BAR)).thenReturn(new ClassFileLocator.Resolution.Illegal(FOO + "." + BAR));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        assertThat(file.delete(), is(true));
+    }
+
+    @Test
+    public void testLocationInOrder() throws Exception {
+        Map<String, List<ClassFileLocator>> packages = new HashMap<String, List<ClassFileLocator>>();
+        packages.put(FOO, Arrays.asList(first, second));
+        ClassFileLocator classFileLocator = new ClassFileLocator.Indexed(packages, Arrays.asList(first, second));
+        assertThat(classFileLocator.locate(FOO + "." + BAR), is(resolution));
+        assertThat(classFileLocator.locate(QUX + "." + BAR).isResolved(), is(false));
+        verify(first).locate(FOO + "." + BAR);
+        verifyNoMoreInteractions(first);
+        verify(second).locate(FOO + "." + BAR);
+        verifyNoMoreInteractions(second);
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        new ClassFileLocator.Indexed(Collections.<String, List<ClassFileLocator>>emptyMap(), Arrays.asList(first, second)).close();
+        verify(first).close();
+        verifyNoMoreInteractions(first);
+        verify(second).close();
+        verifyNoMoreInteractions(second);
+    }
+
+    @Test
+    public void testJarFile() throws Exception {
+        JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file));
+        try {
+            jarOutputStream.putNextEntry(new JarEntry(FOO + "/" + BAR + ".class"));
+            jarOutputStream.write(VALUE);
+            jarOutputStream.closeEntry();
+            jarOutputStream.putNextEntry(new JarEntry(QUX + ".class"));
+            jarOutputStream.write(VALUE * 2);
+            jarOutputStream.closeEntry();
+        } finally {
+            jarOutputStream.close();
+        }
+        ClassFileLocator classFileLocator = ClassFileLocator.Indexed.of(Collections.singletonList(file));
+        try {
+            assertThat(classFileLocator.locate(FOO + "." + BAR).resolve(), is(new byte[]{VALUE}));
+            assertThat(classFileLocator.locate(QUX).resolve(), is(new byte[]{VALUE * 2}));
+            assertThat(classFileLocator.locate(BAR + "." + QUX).isResolved(), is(false));
+        } finally {
+            classFileLocator.close();
+        }
+    }
+
+    @Test
+    public void testIllegalJarFile() throws Exception {
+        JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file));
+        try {
+            jarOutputStream.putNextEntry(new JarEntry(FOO + "/" + BAR + ".class"));
+            jarOutputStream.write(VALUE);
+            jarOutputStream.closeEntry();
+        } finally {
+            jarOutputStream.close();
+        }
+        File illegal = File.createTempFile(QUX, BAR);
+        try {
+            OutputStream outputStream = new FileOutputStream(illegal);
+            try {
+                outputStream.write(VALUE);
+            } finally {
+                outputStream.close();
+            }
+            try {
+                ClassFileLocator.Indexed.of(Arrays.asList(file, illegal));
+                fail();
+            } catch (IOException ignored) {
+                /* expected */
+            }
+        } finally {
+            assertThat(illegal.delete(), is(true));
+        }
+    }
+
+    @Test
+    public void testClassPath() throws Exception {
+        ClassFileLocator classFileLocator = ClassFileLocator.Indexed.ofClassPath();
+        try {
+            assertThat(classFileLocator.locate(ByteBuddy.class.getName()).isResolved(), is(true)); // As folder.
+            assertThat(classFileLocator.locate(ClassVisitor.class.getName()).isResolved(), is(true)); // As jar file.
+            assertThat(classFileLocator.locate(FOO + "." + BAR).isResolved(), is(false));
+        } finally {
+            classFileLocator.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package net.bytebuddy.dynamic;
+
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mock;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ClassFileLocatorWithNegativeCacheTest {
+
+    private static final String FOO = "foo", BAR = "bar", QUX = "qux";
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private ClassFileLocator classFileLocator;
+
+    @Mock
+    private ClassFileLocator.Resolution resolution;
+
+    @Before
+    public void setUp() throws Exception {
+        when(resolution.isResolved()).thenReturn(true);
+        when(classFileLocator.locate(FOO)).thenReturn(resolution);
+        when(classFileLocator.locate(BAR)).thenReturn(new ClassFileLocator.Resolution.Illegal(BAR));
+    }
+
+    @Test
+    public void testMissIsCached() throws Exception {
+        ClassFileLocator classFileLocator = new ClassFileLocator.WithNegativeCache(this.classFileLocator, new ClassFileLocator.WithNegativeCache.Cache.WithExpiration());
+        assertThat(classFileLocator.locate(FOO), is(resolution));
+        assertThat(classFileLocator.locate(FOO), is(resolution));
+        assertThat(classFileLocator.locate(BAR).isResolved(), is(false));
+        assertThat(classFileLocator.locate(BAR).isResolved(), is(false));
+        verify(this.classFileLocator, times(2)).locate(FOO);
+        verify(this.classFileLocator).locate(BAR);
+        verifyNoMoreInteractions(this.classFileLocator);
+    }
+
+    @Test
+    public void testNoOp() throws Exception {
+        ClassFileLocator classFileLocator = new ClassFileLocator.WithNegativeCache(this.classFileLocator, ClassFileLocator.WithNegativeCache.Cache.NoOp.INSTANCE);
+        assertThat(classFileLocator.locate(BAR).isResolved(), is(false));
+        assertThat(classFileLocator.locate(BAR).isResolved(), is(false));
+        verify(this.classFileLocator, times(2)).locate(BAR);
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        ClassFileLocator.WithNegativeCache.Cache.WithExpiration cache = new ClassFileLocator.WithNegativeCache.Cache.WithExpiration();
+        cache.onMissing(FOO);
+        cache.onMissing(BAR);
+        assertThat(cache.isMissing(FOO), is(true));
+        assertThat(cache.isMissing(QUX), is(false));
+        cache.invalidate(FOO);
+        assertThat(cache.isMissing(FOO), is(false));
+        assertThat(cache.isMissing(BAR), is(true));
+        cache.clear();
+        assertThat(cache.isMissing(BAR), is(false));
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        ClassFileLocator.WithNegativeCache.Cache cache = new ClassFileLocator.WithNegativeCache.Cache.WithExpiration(1, TimeUnit.NANOSECONDS, 10);
+        cache.onMissing(FOO);
+        Thread.sleep(1);
+        assertThat(cache.isMissing(FOO), is(false));
+    }
+
+    @Test
+    public void testMaximumSize() throws Exception {
+        ClassFileLocator.WithNegativeCache.Cache.WithExpiration cache = new ClassFileLocator.WithNegativeCache.Cache.WithExpiration(1, TimeUnit.MINUTES, 2);
+        cache.onMissing(FOO);
+        cache.onMissing(BAR);
+        assertThat(cache.getSize(), is(2));
+        cache.onMissing(QUX);
+        assertThat(cache.getSize(), is(1));
+        assertThat(cache.isMissing(QUX), is(true));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        new ClassFileLocator.WithNegativeCache(classFileLocator, ClassFileLocator.WithNegativeCache.Cache.NoOp.INSTANCE).close();
+        verify(classFileLocator).close();
+        verifyNoMoreInteractions(classFileLocator);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalTimeToLive() throws Exception {
+        new ClassFileLocator.WithNegativeCache.Cache.WithExpiration(0, TimeUnit.MINUTES, 1);
+    }
+}
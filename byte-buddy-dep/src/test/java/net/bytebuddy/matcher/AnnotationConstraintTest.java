@@ -0,0 +1,61 @@
+package net.bytebuddy.matcher;
+
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.utility.ClassFileHeader;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static net.bytebuddy.matcher.ElementMatchers.*;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AnnotationConstraintTest {
+
+    private static final String DEPRECATED = "Ljava/lang/Deprecated;";
+
+    @Test
+    public void testAnnotatedWithType() throws Exception {
+        AnnotationConstraint annotationConstraint = AnnotationConstraint.of(isAnnotatedWith(Deprecated.class));
+        assertThat(annotationConstraint.isConstrained(), equalTo(true));
+        assertThat(annotationConstraint.getDescriptors(), equalTo(Collections.singleton(DEPRECATED)));
+    }
+
+    @Test
+    public void testAnnotatedWithName() throws Exception {
+        AnnotationConstraint annotationConstraint = AnnotationConstraint.of(isAnnotatedWith(named(Deprecated.class.getName())));
+        assertThat(annotationConstraint.isConstrained(), equalTo(true));
+        assertThat(annotationConstraint.getDescriptors(), equalTo(Collections.singleton(DEPRECATED)));
+    }
+
+    @Test
+    public void testJunctions() throws Exception {
+        assertThat(AnnotationConstraint.of(isAnnotatedWith(Deprecated.class).and(isInterface())).getDescriptors(),
+                equalTo(Collections.singleton(DEPRECATED)));
+        assertThat(AnnotationConstraint.of(isAnnotatedWith(Deprecated.class).or(isAnnotatedWith(Override.class))).getDescriptors().size(),
+                equalTo(2));
+        assertThat(AnnotationConstraint.of(isAnnotatedWith(Deprecated.class).or(isInterface())).isConstrained(), equalTo(false));
+    }
+
+    @Test
+    public void testUnconstrained() throws Exception {
+        assertThat(AnnotationConstraint.of(any()).isConstrained(), equalTo(false));
+        assertThat(AnnotationConstraint.of(isAnnotatedWith(nameStartsWith("java"))).isConstrained(), equalTo(false));
+        assertThat(AnnotationConstraint.of(inheritsAnnotation(Deprecated.class)).isConstrained(), equalTo(false));
+        assertThat(AnnotationConstraint.of(not(isAnnotatedWith(Deprecated.class))).isConstrained(), equalTo(false));
+    }
+
+    @Test
+    public void testSatisfaction() throws Exception {
+        ClassFileHeader classFileHeader = ClassFileHeader.of(ClassFileLocator.ForClassLoader.read(Sample.class));
+        assertThat(AnnotationConstraint.of(isAnnotatedWith(Deprecated.class)).isSatisfiedBy(classFileHeader), equalTo(true));
+        assertThat(AnnotationConstraint.of(isAnnotatedWith(Override.class)).isSatisfiedBy(classFileHeader), equalTo(false));
+        assertThat(AnnotationConstraint.of(none()).isSatisfiedBy(classFileHeader), equalTo(false));
+        assertThat(AnnotationConstraint.unconstrained().isSatisfiedBy(classFileHeader), equalTo(true));
+    }
+
+    @Deprecated
+    private static class Sample {
+        /* empty */
+    }
+}
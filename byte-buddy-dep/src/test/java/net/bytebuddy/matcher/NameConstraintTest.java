@@ -0,0 +1,72 @@
+package net.bytebuddy.matcher;
+
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static net.bytebuddy.matcher.ElementMatchers.*;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class NameConstraintTest {
+
+    private static final String FOO = "foo", BAR = "bar", QUX = "qux";
+
+    @Test
+    public void testNamed() throws Exception {
+        NameConstraint nameConstraint = NameConstraint.of(named(FOO));
+        assertThat(nameConstraint.isConstrained(), equalTo(true));
+        assertThat(nameConstraint.getNames(), equalTo(Collections.singleton(FOO)));
+        assertThat(nameConstraint.isSatisfiedBy(FOO), equalTo(true));
+        assertThat(nameConstraint.isSatisfiedBy(BAR), equalTo(false));
+    }
+
+    @Test
+    public void testNamedOneOf() throws Exception {
+        NameConstraint nameConstraint = NameConstraint.of(namedOneOf(FOO, BAR));
+        assertThat(nameConstraint.isConstrained(), equalTo(true));
+        assertThat(nameConstraint.isSatisfiedBy(FOO), equalTo(true));
+        assertThat(nameConstraint.isSatisfiedBy(BAR), equalTo(true));
+        assertThat(nameConstraint.isSatisfiedBy(QUX), equalTo(false));
+    }
+
+    @Test
+    public void testPrefixAndSuffix() throws Exception {
+        NameConstraint nameConstraint = NameConstraint.of(nameStartsWith(FOO).or(nameEndsWith(BAR)));
+        assertThat(nameConstraint.isConstrained(), equalTo(true));
+        assertThat(nameConstraint.getPrefixes(), equalTo(Collections.singleton(FOO)));
+        assertThat(nameConstraint.getSuffixes(), equalTo(Collections.singleton(BAR)));
+        assertThat(nameConstraint.isSatisfiedBy(FOO + QUX), equalTo(true));
+        assertThat(nameConstraint.isSatisfiedBy(QUX + BAR), equalTo(true));
+        assertThat(nameConstraint.isSatisfiedBy(QUX), equalTo(false));
+    }
+
+    @Test
+    public void testConjunctionSelectsConstrained() throws Exception {
+        NameConstraint nameConstraint = NameConstraint.of(named(FOO).and(isInterface()));
+        assertThat(nameConstraint.isConstrained(), equalTo(true));
+        assertThat(nameConstraint.getNames(), equalTo(Collections.singleton(FOO)));
+    }
+
+    @Test
+    public void testDisjunctionWithUnconstrained() throws Exception {
+        assertThat(NameConstraint.of(named(FOO).<TypeDescription>or(isInterface())).isConstrained(), equalTo(false));
+    }
+
+    @Test
+    public void testNone() throws Exception {
+        NameConstraint nameConstraint = NameConstraint.of(none());
+        assertThat(nameConstraint.isConstrained(), equalTo(true));
+        assertThat(nameConstraint.isSatisfiedBy(FOO), equalTo(false));
+    }
+
+    @Test
+    public void testUnconstrained() throws Exception {
+        assertThat(NameConstraint.of(any()).isConstrained(), equalTo(false));
+        assertThat(NameConstraint.of(isInterface()).isConstrained(), equalTo(false));
+        assertThat(NameConstraint.of(nameContains(FOO)).isConstrained(), equalTo(false));
+        assertThat(NameConstraint.of(not(named(FOO))).isConstrained(), equalTo(false));
+        assertThat(NameConstraint.of(isInterface()).isSatisfiedBy(FOO), equalTo(true));
+    }
+}
@@ -1,5 +1,7 @@
 package net.bytebuddy.pool;
 
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.matcher.ElementMatchers;
 import net.bytebuddy.test.utility.MockitoRule;
 import org.junit.Rule;
@@ -92,4 +94,122 @@ public class TypePoolCacheProviderTest {
         verify(matched).clear();
         verify(unmatched).clear();
     }
+
+    @Test
+    public void testBounded() throws Exception {
+        TypePool.CacheProvider.Bounded bounded = new TypePool.CacheProvider.Bounded(1);
+        assertThat(bounded.find(FOO), nullValue(TypePool.Resolution.class));
+        assertThat(bounded.register(FOO, resolution), sameInstance(resolution));
+        assertThat(bounded.find(FOO), sameInstance(resolution));
+        TypePool.Resolution resolution = mock(TypePool.Resolution.class);
+        assertThat(bounded.register(FOO, resolution), sameInstance(this.resolution));
+        assertThat(bounded.register(BAR, resolution), sameInstance(resolution));
+        assertThat(bounded.find(FOO), nullValue(TypePool.Resolution.class));
+        assertThat(bounded.find(BAR), sameInstance(resolution));
+        assertThat(bounded.getSize(), is(1));
+        assertThat(bounded.getWeight(), is(1L));
+        assertThat(bounded.getHitCount(), is(2L));
+        assertThat(bounded.getMissCount(), is(2L));
+        assertThat(bounded.getEvictionCount(), is(1L));
+        bounded.clear();
+        assertThat(bounded.find(BAR), nullValue(TypePool.Resolution.class));
+        assertThat(bounded.getSize(), is(0));
+    }
+
+    @Test
+    public void testBoundedProtectsRepeatedlyFoundResolutions() throws Exception {
+        TypePool.CacheProvider.Bounded bounded = new TypePool.CacheProvider.Bounded(10, TypePool.CacheProvider.Bounded.Weigher.ForEntries.INSTANCE, 1);
+        bounded.register(FOO, resolution);
+        assertThat(bounded.find(FOO), sameInstance(resolution));
+        for (int index = 0; index < 100; index++) {
+            bounded.register(BAR + index, mock(TypePool.Resolution.class));
+        }
+        assertThat(bounded.find(FOO), sameInstance(resolution));
+        assertThat(bounded.getSize(), is(10));
+        assertThat(bounded.getEvictionCount(), is(91L));
+    }
+
+    @Test
+    public void testBoundedWeigher() throws Exception {
+        TypePool.CacheProvider.Bounded.Weigher weigher = mock(TypePool.CacheProvider.Bounded.Weigher.class);
+        when(weigher.weigh(FOO, resolution)).thenReturn(3);
+        TypePool.CacheProvider.Bounded bounded = new TypePool.CacheProvider.Bounded(5, weigher, 1);
+        bounded.register(FOO, resolution);
+        assertThat(bounded.getWeight(), is(3L));
+        TypePool.Resolution resolution = mock(TypePool.Resolution.class);
+        when(weigher.weigh(BAR, resolution)).thenReturn(3);
+        bounded.register(BAR, resolution);
+        assertThat(bounded.getWeight(), is(3L));
+        assertThat(bounded.find(FOO), nullValue(TypePool.Resolution.class));
+        assertThat(bounded.find(BAR), sameInstance(resolution));
+    }
+
+    @Test
+    public void testBoundedWithObjectType() throws Exception {
+        assertThat(TypePool.CacheProvider.Bounded.withObjectType(1).find(Object.class.getName()).resolve(), is(TypeDescription.OBJECT));
+    }
+
+    @Test
+    public void testBoundedWithObjectTypeIsPinned() throws Exception {
+        TypePool.CacheProvider cacheProvider = TypePool.CacheProvider.Bounded.withObjectType(1);
+        for (int index = 0; index < 100; index++) {
+            cacheProvider.register(FOO + index, mock(TypePool.Resolution.class));
+            cacheProvider.find(FOO + index);
+        }
+        assertThat(cacheProvider.find(Object.class.getName()).resolve(), is(TypeDescription.OBJECT));
+        assertThat(cacheProvider.register(Object.class.getName(), resolution).resolve(), is(TypeDescription.OBJECT));
+        cacheProvider.clear();
+        assertThat(cacheProvider.find(Object.class.getName()).resolve(), is(TypeDescription.OBJECT));
+    }
+
+    @Test
+    public void testBoundedStripesDoNotExceedMaximumWeight() throws Exception {
+        for (int index = 0; index < 100; index++) {
+            TypePool.CacheProvider.Bounded bounded = new TypePool.CacheProvider.Bounded(3, TypePool.CacheProvider.Bounded.Weigher.ForEntries.INSTANCE, 16);
+            assertThat(bounded.register(FOO + index, resolution), sameInstance(resolution));
+            assertThat(bounded.find(FOO + index), sameInstance(resolution));
+            assertThat(bounded.getEvictionCount(), is(0L));
+        }
+    }
+
+    @Test
+    public void testBoundedDeclaredMembersWeigher() throws Exception {
+        assertThat(TypePool.CacheProvider.Bounded.Weigher.ForEntries.INSTANCE.weigh(FOO, resolution), is(1));
+        assertThat(TypePool.CacheProvider.Bounded.Weigher.ForDeclaredMembers.INSTANCE.weigh(FOO, resolution), is(1));
+        assertThat(TypePool.CacheProvider.Bounded.Weigher.ForDeclaredMembers.INSTANCE.weigh(FOO, new TypePool.Resolution.Simple(TypeDescription.OBJECT)),
+                is(1 + TypeDescription.OBJECT.getDeclaredFields().size() + TypeDescription.OBJECT.getDeclaredMethods().size()));
+        verifyNoMoreInteractions(resolution);
+    }
+
+    @Test
+    public void testBoundedDeclaredMembersWeigherDoesNotRehydrate() throws Exception {
+        TypePool.Resolution resolution = TypePool.Default.WithCompactStorage.of(ClassFileLocator.ForClassLoader.ofSystemLoader()).describe(Object.class.getName());
+        assertThat(TypePool.CacheProvider.Bounded.Weigher.ForDeclaredMembers.INSTANCE.weigh(Object.class.getName(), resolution), is(1));
+        TypeDescription typeDescription = resolution.resolve();
+        assertThat(TypePool.CacheProvider.Bounded.Weigher.ForDeclaredMembers.INSTANCE.weigh(Object.class.getName(), resolution),
+                is(1 + typeDescription.getDeclaredFields().size() + typeDescription.getDeclaredMethods().size()));
+    }
+
+    @Test
+    public void testBoundedResolutionIsWeighedAgainWhenFound() throws Exception {
+        TypePool.CacheProvider.Bounded.Weigher weigher = mock(TypePool.CacheProvider.Bounded.Weigher.class);
+        when(weigher.weigh(FOO, resolution)).thenReturn(1, 4);
+        TypePool.CacheProvider.Bounded bounded = new TypePool.CacheProvider.Bounded(5, weigher, 1);
+        bounded.register(FOO, resolution);
+        assertThat(bounded.getWeight(), is(1L));
+        assertThat(bounded.find(FOO), sameInstance(resolution));
+        assertThat(bounded.getWeight(), is(4L));
+        verify(weigher, times(2)).weigh(FOO, resolution);
+        verifyNoMoreInteractions(resolution);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBoundedIllegalWeight() throws Exception {
+        new TypePool.CacheProvider.Bounded(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBoundedIllegalConcurrency() throws Exception {
+        new TypePool.CacheProvider.Bounded(1, TypePool.CacheProvider.Bounded.Weigher.ForEntries.INSTANCE, 0);
+    }
 }
@@ -0,0 +1,39 @@
+package net.bytebuddy.pool;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TypePoolDefaultLazySignatureResolutionTest {
+
+    private static final String MALFORMED = "<T:", FIELD = "Ljava/util/List<Ljava/lang/String;>;";
+
+    @Test
+    public void testNonGenericIsRaw() throws Exception {
+        assertThat(TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.ForType.Lazy.of(null),
+                is((Object) TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.Raw.INSTANCE));
+        assertThat(TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.ForField.Lazy.of(null),
+                is((Object) TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.Raw.INSTANCE));
+        assertThat(TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.ForMethod.Lazy.of(null),
+                is((Object) TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.Raw.INSTANCE));
+        assertThat(TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.ForRecordComponent.Lazy.of(null),
+                is((Object) TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.Raw.INSTANCE));
+    }
+
+    @Test
+    public void testMalformedSignatureIsResolvedLazily() throws Exception {
+        TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.ForMethod.Lazy resolution =
+                new TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.ForMethod.Lazy(MALFORMED);
+        assertThat(resolution.resolve(), is((Object) TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.Malformed.INSTANCE));
+    }
+
+    @Test
+    public void testSignatureIsResolvedLazily() throws Exception {
+        TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.ForField.Lazy resolution =
+                new TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.ForField.Lazy(FIELD);
+        assertThat(resolution.resolve(), instanceOf(TypePool.Default.LazyTypeDescription.GenericTypeToken.Resolution.ForField.Tokenized.class));
+        assertThat(resolution.resolve(), is(resolution.resolve()));
+    }
+}
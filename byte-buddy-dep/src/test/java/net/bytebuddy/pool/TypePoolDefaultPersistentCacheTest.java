@@ -0,0 +1,284 @@
+package net.bytebuddy.pool;
+
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.Arrays;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class TypePoolDefaultPersistentCacheTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("foo", "bar");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        assertThat(file.delete(), is(true));
+    }
+
+    @Test
+    public void testRecordingIsPersisted() throws Exception {
+        byte[] binaryRepresentation = ClassFileLocator.ForClassLoader.read(Sample.class);
+        TypePool.Default.PersistentCache.ForMappedFile persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        try {
+            assertThat(persistentCache.find(Sample.class.getName(), persistentCache.digest(binaryRepresentation), TypePool.Default.ReaderMode.FAST), nullValue());
+            TypePool.Default.WithPersistentCache.of(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()), persistentCache).describe(Sample.class.getName()).resolve();
+            assertThat(persistentCache.size(), is(1));
+        } finally {
+            persistentCache.close();
+        }
+        persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        try {
+            assertThat(persistentCache.size(), is(1));
+            assertThat(persistentCache.find(Sample.class.getName(), persistentCache.digest(binaryRepresentation), TypePool.Default.ReaderMode.FAST), notNullValue());
+            assertThat(persistentCache.find(Sample.class.getName(), persistentCache.digest(binaryRepresentation), TypePool.Default.ReaderMode.EXTENDED), nullValue());
+            assertThat(persistentCache.find(Sample.class.getName(), persistentCache.digest(new byte[]{1, 2, 3}), TypePool.Default.ReaderMode.FAST), nullValue());
+            ClassFileLocator classFileLocator = spy(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()));
+            TypeDescription typeDescription = TypePool.Default.WithPersistentCache.of(classFileLocator, persistentCache).describe(Sample.class.getName()).resolve();
+            assertThat(typeDescription, is(TypeDescription.ForLoadedType.of(Sample.class)));
+            assertThat(typeDescription.getDeclaredFields().filter(named("foo")).getOnly().getType().asErasure().represents(String.class), is(true));
+            MethodDescription methodDescription = typeDescription.getDeclaredMethods().filter(named("bar")).getOnly();
+            assertThat(methodDescription.getDeclaredAnnotations().isAnnotationPresent(Deprecated.class), is(true));
+            verify(classFileLocator).locate(Sample.class.getName());
+        } finally {
+            persistentCache.close();
+        }
+    }
+
+    @Test
+    public void testRegistrationFailureIsIgnored() throws Exception {
+        TypePool.Default.PersistentCache persistentCache = mock(TypePool.Default.PersistentCache.class);
+        when(persistentCache.digest(ArgumentMatchers.any(byte[].class))).thenReturn(new byte[]{1, 2, 3});
+        doThrow(new IOException()).when(persistentCache).register(ArgumentMatchers.eq(Sample.class.getName()),
+                ArgumentMatchers.any(byte[].class),
+                ArgumentMatchers.eq(TypePool.Default.ReaderMode.FAST),
+                ArgumentMatchers.any(TypePool.Default.ClassFileRecording.class));
+        TypeDescription typeDescription = TypePool.Default.WithPersistentCache.of(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()), persistentCache)
+                .describe(Sample.class.getName())
+                .resolve();
+        assertThat(typeDescription.getDeclaredFields().filter(named("foo")).getOnly().getType().asErasure().represents(String.class), is(true));
+        verify(persistentCache).digest(ClassFileLocator.ForClassLoader.read(Sample.class));
+        verify(persistentCache).find(Sample.class.getName(), new byte[]{1, 2, 3}, TypePool.Default.ReaderMode.FAST);
+    }
+
+    @Test
+    public void testIncompleteEntryIsDiscarded() throws Exception {
+        TypePool.Default.PersistentCache.ForMappedFile persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        try {
+            TypePool.Default.WithPersistentCache.of(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()), persistentCache).describe(Sample.class.getName()).resolve();
+            TypePool.Default.WithPersistentCache.of(ClassFileLocator.ForClassLoader.of(Object.class.getClassLoader()), persistentCache).describe(Object.class.getName()).resolve();
+            assertThat(persistentCache.size(), is(2));
+        } finally {
+            persistentCache.close();
+        }
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(randomAccessFile.length() - 1);
+        } finally {
+            randomAccessFile.close();
+        }
+        long length = file.length();
+        persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        try {
+            assertThat(persistentCache.size(), is(1));
+            assertThat(file.length() < length, is(true));
+        } finally {
+            persistentCache.close();
+        }
+    }
+
+    @Test
+    public void testAppendsOfOtherWriterAreRead() throws Exception {
+        TypePool.Default.PersistentCache.ForMappedFile first = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        try {
+            TypePool.Default.PersistentCache.ForMappedFile second = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+            try {
+                TypePool.Default.WithPersistentCache.of(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()), first).describe(Sample.class.getName()).resolve();
+                TypePool.Default.WithPersistentCache.of(ClassFileLocator.ForClassLoader.of(Object.class.getClassLoader()), second).describe(Object.class.getName()).resolve();
+                assertThat(first.size(), is(1));
+                assertThat(second.size(), is(2));
+            } finally {
+                second.close();
+            }
+        } finally {
+            first.close();
+        }
+        TypePool.Default.PersistentCache.ForMappedFile persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        try {
+            assertThat(persistentCache.size(), is(2));
+            byte[] binaryRepresentation = ClassFileLocator.ForClassLoader.read(Sample.class);
+            assertThat(persistentCache.find(Sample.class.getName(), persistentCache.digest(binaryRepresentation), TypePool.Default.ReaderMode.FAST), notNullValue());
+        } finally {
+            persistentCache.close();
+        }
+    }
+
+    @Test
+    public void testIncompatibleFileIsReset() throws Exception {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.writeLong(42L);
+        } finally {
+            randomAccessFile.close();
+        }
+        TypePool.Default.PersistentCache.ForMappedFile persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        try {
+            assertThat(persistentCache.size(), is(0));
+        } finally {
+            persistentCache.close();
+        }
+        persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file, "MD5");
+        try {
+            assertThat(persistentCache.size(), is(0));
+        } finally {
+            persistentCache.close();
+        }
+    }
+
+    @Test
+    public void testFileIsReplacedWhenExceedingLimit() throws Exception {
+        byte[] binaryRepresentation = ClassFileLocator.ForClassLoader.read(Sample.class);
+        TypePool.Default.ClassFileRecording classFileRecording = TypePool.Default.ClassFileRecording.of(binaryRepresentation, TypePool.Default.ReaderMode.FAST);
+        assertThat(file.delete(), is(true));
+        TypePool.Default.PersistentCache.ForMappedFile persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        long header;
+        try {
+            header = file.length();
+            persistentCache.register(Sample.class.getName(), persistentCache.digest(binaryRepresentation), TypePool.Default.ReaderMode.FAST, classFileRecording);
+        } finally {
+            persistentCache.close();
+        }
+        int limit = (int) (2 * file.length() - header - 1);
+        assertThat(file.delete(), is(true));
+        TypePool.Default.PersistentCache.ForMappedFile first = TypePool.Default.PersistentCache.ForMappedFile.of(file,
+                TypePool.Default.PersistentCache.ForMappedFile.DEFAULT_ALGORITHM,
+                limit);
+        try {
+            TypePool.Default.PersistentCache.ForMappedFile second = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+            try {
+                first.register(Sample.class.getName(), first.digest(binaryRepresentation), TypePool.Default.ReaderMode.FAST, classFileRecording);
+                first.register(Sample.class.getName() + "$Other", first.digest(binaryRepresentation), TypePool.Default.ReaderMode.FAST, classFileRecording);
+                assertThat(file.length() < limit, is(true));
+                TypePool.Default.WithPersistentCache.of(ClassFileLocator.ForClassLoader.of(Object.class.getClassLoader()), second).describe(Object.class.getName()).resolve();
+                assertThat(second.size(), is(3));
+            } finally {
+                second.close();
+            }
+        } finally {
+            first.close();
+        }
+        persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        try {
+            assertThat(persistentCache.size(), is(2));
+            assertThat(persistentCache.find(Sample.class.getName(), persistentCache.digest(binaryRepresentation), TypePool.Default.ReaderMode.FAST), nullValue());
+            assertThat(persistentCache.find(Sample.class.getName() + "$Other", persistentCache.digest(binaryRepresentation), TypePool.Default.ReaderMode.FAST), notNullValue());
+        } finally {
+            persistentCache.close();
+        }
+    }
+
+    @Test
+    public void testOverlappingLockIsIgnored() throws Exception {
+        TypePool.Default.PersistentCache.ForMappedFile persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                FileLock lock = randomAccessFile.getChannel().lock();
+                try {
+                    TypeDescription typeDescription = TypePool.Default.WithPersistentCache.of(ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader()), persistentCache)
+                            .describe(Sample.class.getName())
+                            .resolve();
+                    assertThat(typeDescription.getDeclaredFields().filter(named("foo")).getOnly().getType().asErasure().represents(String.class), is(true));
+                    assertThat(persistentCache.size(), is(0));
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                randomAccessFile.close();
+            }
+        } finally {
+            persistentCache.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalLimit() throws Exception {
+        TypePool.Default.PersistentCache.ForMappedFile.of(file, TypePool.Default.PersistentCache.ForMappedFile.DEFAULT_ALGORITHM, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownAlgorithm() throws Exception {
+        TypePool.Default.PersistentCache.ForMappedFile.of(file, "foo");
+    }
+
+    @Test
+    public void testRecordingIsReplayed() throws Exception {
+        TypePool.Default.ClassFileRecording classFileRecording = TypePool.Default.ClassFileRecording.of(ClassFileLocator.ForClassLoader.read(Sample.class),
+                TypePool.Default.ReaderMode.FAST);
+        TypePool.Default.ClassFileRecording copy = TypePool.Default.ClassFileRecording.wrap(classFileRecording.getBinaryRepresentation());
+        assertThat(copy.getSize(), is(classFileRecording.getSize()));
+        assertThat(copy.getBinaryRepresentation(), is(classFileRecording.getBinaryRepresentation()));
+    }
+
+    @Test
+    public void testNoOp() throws Exception {
+        assertThat(TypePool.Default.PersistentCache.NoOp.INSTANCE.find(Sample.class.getName(), new byte[0], TypePool.Default.ReaderMode.FAST), nullValue());
+        TypePool.Default.PersistentCache.NoOp.INSTANCE.register(Sample.class.getName(),
+                new byte[0],
+                TypePool.Default.ReaderMode.FAST,
+                TypePool.Default.ClassFileRecording.of(ClassFileLocator.ForClassLoader.read(Sample.class), TypePool.Default.ReaderMode.FAST));
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        ClassFileLocator classFileLocator = ClassFileLocator.ForClassLoader.of(Sample.class.getClassLoader());
+        assertThat(TypePool.Default.PersistentCache.ForSnapshot.create(file,
+                classFileLocator,
+                Arrays.asList(Sample.class.getName(), Sample.class.getName() + "$Missing"),
+                TypePool.Default.ReaderMode.FAST), is(1));
+        long length = file.length();
+        TypePool.Default.PersistentCache.ForSnapshot snapshot = TypePool.Default.PersistentCache.ForSnapshot.of(file);
+        assertThat(snapshot.size(), is(1));
+        byte[] binaryRepresentation = ClassFileLocator.ForClassLoader.read(Sample.class);
+        assertThat(snapshot.find(Sample.class.getName(), snapshot.digest(binaryRepresentation), TypePool.Default.ReaderMode.FAST), notNullValue());
+        assertThat(snapshot.find(Sample.class.getName(), snapshot.digest(binaryRepresentation), TypePool.Default.ReaderMode.EXTENDED), nullValue());
+        assertThat(snapshot.find(Sample.class.getName(), snapshot.digest(new byte[]{1, 2, 3}), TypePool.Default.ReaderMode.FAST), nullValue());
+        TypeDescription typeDescription = TypePool.Default.WithPersistentCache.of(classFileLocator, snapshot).describe(Sample.class.getName()).resolve();
+        assertThat(typeDescription.getDeclaredFields().filter(named("foo")).getOnly().getType().asErasure().represents(String.class), is(true));
+        TypePool.Default.WithPersistentCache.of(classFileLocator, snapshot).describe(Object.class.getName()).resolve();
+        assertThat(snapshot.size(), is(1));
+        assertThat(file.length(), is(length));
+    }
+
+    @Test(expected = IOException.class)
+    public void testIllegalSnapshot() throws Exception {
+        TypePool.Default.PersistentCache.ForSnapshot.of(file);
+    }
+
+    private static class Sample {
+
+        private String foo;
+
+        @Deprecated
+        private int bar(long value) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package net.bytebuddy.pool;
+
+import net.bytebuddy.description.type.AbstractTypeDescriptionTest;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static net.bytebuddy.matcher.ElementMatchers.is;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TypePoolDefaultWithCompactStorageTypeDescriptionTest extends AbstractTypeDescriptionTest {
+
+    protected TypeDescription describe(Class<?> type) {
+        return new TypePool.Default.WithCompactStorage(TypePool.CacheProvider.NoOp.INSTANCE,
+                ClassFileLocator.ForClassLoader.of(type.getClassLoader()),
+                TypePool.Default.ReaderMode.EXTENDED).describe(type.getName()).resolve();
+    }
+
+    protected TypeDescription.Generic describeType(Field field) {
+        return describe(field.getDeclaringClass()).getDeclaredFields().filter(is(field)).getOnly().getType();
+    }
+
+    protected TypeDescription.Generic describeReturnType(Method method) {
+        return describe(method.getDeclaringClass()).getDeclaredMethods().filter(is(method)).getOnly().getReturnType();
+    }
+
+    protected TypeDescription.Generic describeParameterType(Method method, int index) {
+        return describe(method.getDeclaringClass()).getDeclaredMethods().filter(is(method)).getOnly().getParameters().get(index).getType();
+    }
+
+    protected TypeDescription.Generic describeExceptionType(Method method, int index) {
+        return describe(method.getDeclaringClass()).getDeclaredMethods().filter(is(method)).getOnly().getExceptionTypes().get(index);
+    }
+
+    protected TypeDescription.Generic describeSuperClass(Class<?> type) {
+        return describe(type).getSuperClass();
+    }
+
+    protected TypeDescription.Generic describeInterfaceType(Class<?> type, int index) {
+        return describe(type).getInterfaces().get(index);
+    }
+
+    @Test
+    public void testCompactResolution() throws Exception {
+        TypePool typePool = TypePool.Default.WithCompactStorage.of(ClassFileLocator.ForClassLoader.of(getClass().getClassLoader()));
+        TypePool.Resolution resolution = typePool.describe(getClass().getName());
+        assertThat(resolution, instanceOf(TypePool.Default.WithCompactStorage.CompactResolution.class));
+        assertThat(typePool.describe(getClass().getName()), sameInstance(resolution));
+        TypeDescription typeDescription = resolution.resolve();
+        assertThat(typeDescription.represents(getClass()), equalTo(true));
+        assertThat(resolution.resolve(), sameInstance(typeDescription));
+        assertThat(typePool.describe(getClass().getName() + "$Missing").isResolved(), equalTo(false));
+    }
+}
@@ -0,0 +1,70 @@
+package net.bytebuddy.pool;
+
+import net.bytebuddy.description.type.AbstractTypeDescriptionTest;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static net.bytebuddy.matcher.ElementMatchers.is;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TypePoolDefaultWithPersistentCacheTypeDescriptionTest extends AbstractTypeDescriptionTest {
+
+    private File file;
+
+    private TypePool.Default.PersistentCache.ForMappedFile persistentCache;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("foo", "bar");
+        persistentCache = TypePool.Default.PersistentCache.ForMappedFile.of(file);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        persistentCache.close();
+        assertThat(file.delete(), equalTo(true));
+    }
+
+    protected TypeDescription describe(Class<?> type) {
+        ClassFileLocator classFileLocator = ClassFileLocator.ForClassLoader.of(type.getClassLoader());
+        new TypePool.Default.WithPersistentCache(TypePool.CacheProvider.NoOp.INSTANCE,
+                classFileLocator,
+                TypePool.Default.ReaderMode.EXTENDED,
+                persistentCache).describe(type.getName()).resolve();
+        return new TypePool.Default.WithPersistentCache(TypePool.CacheProvider.NoOp.INSTANCE,
+                classFileLocator,
+                TypePool.Default.ReaderMode.EXTENDED,
+                persistentCache).describe(type.getName()).resolve();
+    }
+
+    protected TypeDescription.Generic describeType(Field field) {
+        return describe(field.getDeclaringClass()).getDeclaredFields().filter(is(field)).getOnly().getType();
+    }
+
+    protected TypeDescription.Generic describeReturnType(Method method) {
+        return describe(method.getDeclaringClass()).getDeclaredMethods().filter(is(method)).getOnly().getReturnType();
+    }
+
+    protected TypeDescription.Generic describeParameterType(Method method, int index) {
+        return describe(method.getDeclaringClass()).getDeclaredMethods().filter(is(method)).getOnly().getParameters().get(index).getType();
+    }
+
+    protected TypeDescription.Generic describeExceptionType(Method method, int index) {
+        return describe(method.getDeclaringClass()).getDeclaredMethods().filter(is(method)).getOnly().getExceptionTypes().get(index);
+    }
+
+    protected TypeDescription.Generic describeSuperClass(Class<?> type) {
+        return describe(type).getSuperClass();
+    }
+
+    protected TypeDescription.Generic describeInterfaceType(Class<?> type, int index) {
+        return describe(type).getInterfaces().get(index);
+    }
+}
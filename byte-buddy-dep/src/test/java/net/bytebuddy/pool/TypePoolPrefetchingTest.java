@@ -0,0 +1,97 @@
+package net.bytebuddy.pool;
+
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.test.utility.MockitoRule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class TypePoolPrefetchingTest {
+
+    private static final String FOO = "foo";
+
+    @Rule
+    public TestRule mockitoRule = new MockitoRule(this);
+
+    @Mock
+    private TypePool typePool;
+
+    @Mock
+    private TypePool.Resolution resolution;
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() throws Exception {
+        executorService = Executors.newFixedThreadPool(2);
+        when(typePool.describe(FOO)).thenReturn(resolution);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testDescribeWithoutPrefetch() throws Exception {
+        assertThat(new TypePool.Prefetching(typePool, executorService).describe(FOO), is(resolution));
+        verify(typePool).describe(FOO);
+        verifyNoMoreInteractions(typePool);
+        verifyNoMoreInteractions(resolution);
+    }
+
+    @Test
+    public void testDescribeAll() throws Exception {
+        TypePool typePool = TypePool.Default.of(spy(ClassFileLocator.ForClassLoader.ofSystemLoader()));
+        Map<String, TypePool.Resolution> resolutions = new TypePool.Prefetching(typePool, executorService).describeAll(Arrays.asList(Object.class.getName(),
+                String.class.getName(),
+                TypePoolPrefetchingTest.class.getName()));
+        assertThat(resolutions.size(), is(3));
+        Iterator<Map.Entry<String, TypePool.Resolution>> iterator = resolutions.entrySet().iterator();
+        assertThat(iterator.next().getValue().resolve().represents(Object.class), is(true));
+        assertThat(iterator.next().getValue().resolve().represents(String.class), is(true));
+        assertThat(iterator.next().getValue().resolve().represents(TypePoolPrefetchingTest.class), is(true));
+    }
+
+    @Test
+    public void testPrefetchIsResolvedOnce() throws Exception {
+        ClassFileLocator classFileLocator = spy(ClassFileLocator.ForClassLoader.ofSystemLoader());
+        TypePool.Prefetching typePool = new TypePool.Prefetching(TypePool.Default.of(classFileLocator), executorService);
+        typePool.prefetch(Collections.singleton(Object.class.getName()));
+        assertThat(typePool.describe(Object.class.getName()).resolve().represents(Object.class), is(true));
+        assertThat(typePool.describe(Object.class.getName()).resolve().represents(Object.class), is(true));
+        verify(classFileLocator).locate(Object.class.getName());
+    }
+
+    @Test(timeout = 10000L)
+    public void testQueuedPrefetchIsResolvedOnDescribingThread() throws Exception {
+        ExecutorService executorService = mock(ExecutorService.class);
+        TypePool.Prefetching typePool = new TypePool.Prefetching(this.typePool, executorService);
+        typePool.prefetch(Collections.singleton(FOO));
+        assertThat(typePool.describe(FOO), is(resolution));
+        verify(executorService).execute(any(Runnable.class));
+        verify(this.typePool).describe(FOO);
+        verifyNoMoreInteractions(this.typePool);
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        new TypePool.Prefetching(typePool, executorService).clear();
+        verify(typePool).clear();
+        verifyNoMoreInteractions(typePool);
+    }
+}
@@ -0,0 +1,73 @@
+package net.bytebuddy.utility;
+
+import net.bytebuddy.dynamic.ClassFileLocator;
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ClassFileHeaderTest {
+
+    @Test
+    public void testHeader() throws Exception {
+        ClassFileHeader classFileHeader = ClassFileHeader.of(ClassFileLocator.ForClassLoader.read(Sample.class));
+        assertThat(classFileHeader.getModifiers() & Opcodes.ACC_SUPER, is(Opcodes.ACC_SUPER));
+        assertThat(classFileHeader.getInternalName(), is(Sample.class.getName().replace('.', '/')));
+        assertThat(classFileHeader.getSuperClassInternalName(), is(Number.class.getName().replace('.', '/')));
+        assertThat(classFileHeader.getInterfaceInternalNames(), is(Arrays.asList(Serializable.class.getName().replace('.', '/'),
+                Comparable.class.getName().replace('.', '/'))));
+    }
+
+    @Test
+    public void testObject() throws Exception {
+        ClassFileHeader classFileHeader = ClassFileHeader.of(ClassFileLocator.ForClassLoader.read(Object.class));
+        assertThat(classFileHeader.getSuperClassInternalName(), nullValue(String.class));
+        assertThat(classFileHeader.getInterfaceInternalNames(), is(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void testConstantPool() throws Exception {
+        ClassFileHeader classFileHeader = ClassFileHeader.of(ClassFileLocator.ForClassLoader.read(Sample.class));
+        assertThat(classFileHeader.containsUtf8("L" + Deprecated.class.getName().replace('.', '/') + ";"), is(true));
+        assertThat(classFileHeader.containsUtf8("\u00e4\u4e2d"), is(true));
+        assertThat(classFileHeader.containsUtf8("L" + Override.class.getName().replace('.', '/') + ";"), is(false));
+    }
+
+    @Test
+    public void testClassReferences() throws Exception {
+        ClassFileHeader classFileHeader = ClassFileHeader.of(ClassFileLocator.ForClassLoader.read(Sample.class));
+        assertThat(classFileHeader.getClassReferenceInternalNames().contains(Sample.class.getName().replace('.', '/')), is(true));
+        assertThat(classFileHeader.getClassReferenceInternalNames().contains(Number.class.getName().replace('.', '/')), is(true));
+        assertThat(classFileHeader.getClassReferenceInternalNames().contains(Collections.class.getName().replace('.', '/')), is(true));
+        assertThat(classFileHeader.getClassReferenceInternalNames().contains(Override.class.getName().replace('.', '/')), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMagic() throws Exception {
+        ClassFileHeader.of(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncated() throws Exception {
+        byte[] binaryRepresentation = ClassFileLocator.ForClassLoader.read(Sample.class);
+        ClassFileHeader.of(Arrays.copyOf(binaryRepresentation, 32));
+    }
+
+    @Deprecated
+    @SuppressWarnings("serial")
+    private abstract static class Sample extends Number implements Serializable, Comparable<Sample> {
+
+        private static final long LONG = 42L;
+
+        private static final double DOUBLE = 42d;
+
+        private final List<String> values = Collections.singletonList("\u00e4\u4e2d");
+    }
+}
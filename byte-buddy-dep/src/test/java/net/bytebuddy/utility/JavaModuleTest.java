@@ -1,15 +1,25 @@
 package net.bytebuddy.utility;
 
+import net.bytebuddy.test.utility.JavaVersionRule;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.MethodRule;
 
 import java.lang.reflect.AnnotatedElement;
+import java.net.URL;
+import java.net.URLClassLoader;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
 
 public class JavaModuleTest {
 
+    @Rule
+    public MethodRule javaVersionRule = new JavaVersionRule();
+
     @Test(expected = IllegalArgumentException.class)
     public void testExtractModule() throws Exception {
         JavaModule.of(mock(Object.class));
@@ -21,4 +31,19 @@ public class JavaModuleTest {
         JavaModule module = new JavaModule(object);
         assertThat(module.unwrap(), sameInstance((Object) object));
     }
-}
\ No newline at end of file
+
+    @Test
+    @JavaVersionRule.Enforce(9)
+    public void testUnnamedModule() throws Exception {
+        ClassLoader classLoader = new URLClassLoader(new URL[0]);
+        JavaModule module = JavaModule.ofUnnamed(classLoader);
+        assertThat(module.isNamed(), is(false));
+        assertThat(module.getClassLoader(), sameInstance(classLoader));
+    }
+
+    @Test
+    @JavaVersionRule.Enforce(atMost = 8)
+    public void testUnnamedModuleUnsupported() throws Exception {
+        assertThat(JavaModule.ofUnnamed(new URLClassLoader(new URL[0])), nullValue(JavaModule.class));
+    }
+}